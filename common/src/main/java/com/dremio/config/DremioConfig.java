@@ -57,6 +57,11 @@ public class DremioConfig extends NestedConfig {
   public static final String ENABLE_COORDINATOR_BOOL = "services.coordinator.enabled";
   public static final String ENABLE_MASTER_BOOL = "services.coordinator.master.enabled";
   public static final String ENABLE_EXECUTOR_BOOL = "services.executor.enabled";
+  public static final String EXECUTOR_CACHE_ENABLED_BOOL = "services.executor.cache.enabled";
+  public static final String EXECUTOR_CACHE_DB_PATH_STRING = "services.executor.cache.path.db";
+  public static final String EXECUTOR_CACHE_FS_PATH_LIST = "services.executor.cache.path.fs";
+  public static final String EXECUTOR_CACHE_FS_QUOTA_PCT_LIST = "services.executor.cache.pctquota.fs";
+  public static final String EXECUTOR_CACHE_FS_ENSURE_FREE_PCT_LIST = "services.executor.cache.ensurefreespace.fs";
   public static final String EMBEDDED_MASTER_ZK_ENABLED_BOOL = "services.coordinator.master.embedded-zookeeper.enabled";
   public static final String EMBEDDED_MASTER_ZK_ENABLED_PORT_INT = "services.coordinator.master.embedded-zookeeper.port";
   public static final String EMBEDDED_MASTER_ZK_ENABLED_PATH_STRING = "services.coordinator.master.embedded-zookeeper.path";
@@ -48,6 +48,19 @@ public interface FileSystem extends Closeable {
    */
   FSInputStream open(Path f) throws FileNotFoundException, IOException;
 
+  /**
+   * Gets an input stream for the version of the file designated by {@code fileKey}
+   *
+   * File systems may use the version and the length known to the caller instead of looking the file up.
+   * @param fileKey the file to read, and its version
+   * @param fileLength the length of the file
+   * @throws FileNotFoundException if file doesn't exist
+   * @throws IOException if an error occurs when accessing file information
+   */
+  default FSInputStream open(FileKey fileKey, long fileLength) throws FileNotFoundException, IOException {
+    return open(fileKey.getPath());
+  }
+
   /**
    * Gets the protocol scheme for the filesystem
    * @return the protocol schema
@@ -155,11 +155,52 @@ public class FileSystemUtils {
     return new RecursiveDirectoryStream(fs, stream, pathFilter);
   }
 
+  /**
+   * Lists recursively all files present under the given path {@code path}, listing up to {@code parallelism}
+   * directories concurrently. Unless {@code parallelism} is 1, the order of the entries is not defined.
+   *
+   * @param fs the filesystem
+   * @param path
+   *          the path to use as the root of the search
+   * @param pathFilter
+   *          the filter to apply on entries. If a directory entry is filtered
+   *          out, all the children of the directory will not be present in the
+   *          returned stream.
+   * @param parallelism
+   *          the maximum number of directories listed at the same time
+   * @return a stream of file attributes
+   * @throws IOException
+   *           if an error occurs while listing directory content
+   */
+  public static DirectoryStream<FileAttributes> listRecursive(FileSystem fs, Path path,
+      Predicate<Path> pathFilter, int parallelism) throws IOException {
+    final DirectoryStream<FileAttributes> stream = fs.list(path, pathFilter);
+    return recursiveStream(fs, stream, pathFilter, parallelism);
+  }
+
   public static DirectoryStream<FileAttributes> globRecursive(FileSystem wrapper, Path pattern, Predicate<Path> filter) throws IOException {
     final DirectoryStream<FileAttributes> globStream = wrapper.glob(pattern, filter);
     return new RecursiveDirectoryStream(wrapper, globStream, filter);
   }
 
+  /**
+   * Same as {@link #globRecursive(FileSystem, Path, Predicate)}, listing up to {@code parallelism} directories
+   * concurrently. Unless {@code parallelism} is 1, the order of the entries is not defined.
+   */
+  public static DirectoryStream<FileAttributes> globRecursive(FileSystem wrapper, Path pattern, Predicate<Path> filter,
+      int parallelism) throws IOException {
+    final DirectoryStream<FileAttributes> globStream = wrapper.glob(pattern, filter);
+    return recursiveStream(wrapper, globStream, filter, parallelism);
+  }
+
+  private static DirectoryStream<FileAttributes> recursiveStream(FileSystem fs, DirectoryStream<FileAttributes> stream,
+      Predicate<Path> filter, int parallelism) throws IOException {
+    if (parallelism == 1) {
+      return new RecursiveDirectoryStream(fs, stream, filter);
+    }
+    return new ParallelRecursiveDirectoryStream(fs, stream, filter, parallelism);
+  }
+
   /** Copy files between FileSystems. */
   public static boolean copy(FileSystem srcFS, Path src,
                              FileSystem dstFS, Path dst,
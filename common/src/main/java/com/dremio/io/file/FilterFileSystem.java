@@ -56,6 +56,11 @@ public class FilterFileSystem implements FileSystem {
     return fs.open(f);
   }
 
+  @Override
+  public FSInputStream open(FileKey fileKey, long fileLength) throws FileNotFoundException, IOException {
+    return fs.open(fileKey, fileLength);
+  }
+
   @Override
   public String getScheme() {
     return fs.getScheme();
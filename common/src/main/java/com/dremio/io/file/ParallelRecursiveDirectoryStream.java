@@ -0,0 +1,282 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.io.file;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.DirectoryStream;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Queue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+import javax.annotation.Nonnull;
+
+import com.dremio.common.concurrent.NamedThreadFactory;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
+
+/**
+ * File iterator that lists sibling directories concurrently, and could exclude hidden files and folders. If a folder
+ * is treated as hidden, all its content is ignored.
+ *
+ * Directories are listed by the iterating thread, helped by up to {@code parallelism - 1} threads of a pool shared by
+ * all the listings of the process. Helper threads are only used when several directories are waiting to be listed,
+ * so listing a single file or a flat directory does not involve the pool.
+ *
+ * Entries are returned as soon as they are listed, so unlike {@link RecursiveDirectoryStream}, the order of the
+ * entries is not defined, except that a directory is always returned before its content.
+ */
+class ParallelRecursiveDirectoryStream implements DirectoryStream<FileAttributes> {
+  // maximum number of threads listing directories for all the listings of the process
+  private static final int MAX_POOL_THREADS = 64;
+  private static final Executor SHARED_POOL = newSharedPool();
+
+  // marks the end of the listing in the results queue
+  private static final Object END = new Object();
+
+  private final FileSystem fileSystem;
+  private final DirectoryStream<FileAttributes> rootStream;
+  private final Predicate<Path> pathFilter;
+  private final Executor executor;
+  private final int maxHelpers;
+
+  // listed entries, failures, and END once all the directories are listed
+  private final BlockingQueue<Object> results = new LinkedBlockingQueue<>();
+  // directories waiting to be listed
+  private final Queue<Path> directories = new ConcurrentLinkedQueue<>();
+  // directories found and not listed yet, including the root
+  private final AtomicInteger pendingDirectories = new AtomicInteger();
+  // pool threads currently listing directories for this stream
+  private final AtomicInteger helpers = new AtomicInteger();
+
+  private final AtomicBoolean init = new AtomicBoolean(false);
+  private final AtomicBoolean closed = new AtomicBoolean(false);
+  private final AtomicBoolean rootClosed = new AtomicBoolean(false);
+
+  public ParallelRecursiveDirectoryStream(@Nonnull FileSystem fileSystem, @Nonnull DirectoryStream<FileAttributes> stream,
+      Predicate<Path> pathFilter, int parallelism) {
+    this(fileSystem, stream, pathFilter, parallelism, SHARED_POOL);
+  }
+
+  @VisibleForTesting
+  ParallelRecursiveDirectoryStream(@Nonnull FileSystem fileSystem, @Nonnull DirectoryStream<FileAttributes> stream,
+      Predicate<Path> pathFilter, int parallelism, @Nonnull Executor executor) {
+    Preconditions.checkArgument(parallelism > 0, "parallelism must be positive");
+    this.fileSystem = fileSystem;
+    this.rootStream = stream;
+    this.pathFilter = pathFilter;
+    this.maxHelpers = parallelism - 1;
+    this.executor = executor;
+  }
+
+  private static Executor newSharedPool() {
+    final ThreadPoolExecutor pool = new ThreadPoolExecutor(MAX_POOL_THREADS, MAX_POOL_THREADS, 60, TimeUnit.SECONDS,
+        new LinkedBlockingQueue<>(), new NamedThreadFactory("recursive-listing-"));
+    // don't keep threads around between listings
+    pool.allowCoreThreadTimeOut(true);
+    return pool;
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (!closed.compareAndSet(false, true)) {
+      return;
+    }
+
+    closeRoot();
+  }
+
+  @Override
+  public Iterator<FileAttributes> iterator() {
+    if (!init.compareAndSet(false, true)) {
+      throw new IllegalStateException("Iterator already accessed.");
+    }
+
+    if (closed.get()) {
+      throw new IllegalStateException("Directory stream already closed.");
+    }
+
+    pendingDirectories.incrementAndGet();
+
+    return new Iterator<FileAttributes>() {
+      private FileAttributes nextElement = null;
+      private boolean rootVisited = false;
+      private boolean done = false;
+
+      @Override
+      public boolean hasNext() {
+        if (nextElement != null) {
+          return true;
+        }
+        if (done) {
+          return false;
+        }
+
+        if (!rootVisited) {
+          rootVisited = true;
+          try {
+            visit(rootStream);
+            closeRoot();
+          } catch (Throwable t) {
+            results.add(t);
+          } finally {
+            directoryListed();
+          }
+        }
+
+        Object element;
+        while ((element = results.poll()) == null) {
+          // nothing to return yet, list a waiting directory rather than waiting for the helpers
+          final Path directory = directories.poll();
+          if (directory != null) {
+            list(directory);
+            continue;
+          }
+
+          try {
+            element = results.take();
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DirectoryIteratorException(new InterruptedIOException("Interrupted while listing directories"));
+          }
+          break;
+        }
+
+        if (element == END) {
+          done = true;
+          return false;
+        }
+
+        if (element instanceof Throwable) {
+          done = true;
+          throw asUnchecked((Throwable) element);
+        }
+
+        nextElement = (FileAttributes) element;
+        return true;
+      }
+
+      @Override
+      public FileAttributes next() {
+        if (this.hasNext()) {
+          final FileAttributes fileAttributes = nextElement;
+          nextElement = null;
+
+          return fileAttributes;
+        }
+
+        throw new NoSuchElementException();
+      }
+    };
+  }
+
+  /**
+   * Queue the entries of the stream that satisfy the path filter, and the directories to list.
+   */
+  private void visit(DirectoryStream<FileAttributes> stream) {
+    for (FileAttributes fileAttributes : stream) {
+      if (closed.get()) {
+        return;
+      }
+
+      final Path path = fileAttributes.getPath();
+      if (!pathFilter.test(path)) {
+        continue;
+      }
+
+      results.add(fileAttributes);
+      if (fileAttributes.isDirectory()) {
+        pendingDirectories.incrementAndGet();
+        directories.add(path);
+        startHelper();
+      }
+    }
+  }
+
+  private void list(Path directory) {
+    try (DirectoryStream<FileAttributes> stream = fileSystem.list(directory, pathFilter)) {
+      visit(stream);
+    } catch (Throwable t) {
+      results.add(t);
+    } finally {
+      directoryListed();
+    }
+  }
+
+  /**
+   * Submits a pool task listing waiting directories, unless this stream already uses all its helpers.
+   */
+  private void startHelper() {
+    while (!closed.get() && !directories.isEmpty()) {
+      final int current = helpers.get();
+      if (current >= maxHelpers) {
+        return;
+      }
+      if (helpers.compareAndSet(current, current + 1)) {
+        executor.execute(this::help);
+        return;
+      }
+    }
+  }
+
+  private void help() {
+    try {
+      Path directory;
+      while (!closed.get() && (directory = directories.poll()) != null) {
+        list(directory);
+      }
+    } finally {
+      helpers.decrementAndGet();
+    }
+    // a directory may have been queued by another thread which saw this helper still running
+    startHelper();
+  }
+
+  private void directoryListed() {
+    if (pendingDirectories.decrementAndGet() == 0) {
+      results.add(END);
+    }
+  }
+
+  private void closeRoot() throws IOException {
+    if (rootClosed.compareAndSet(false, true)) {
+      rootStream.close();
+    }
+  }
+
+  private static RuntimeException asUnchecked(Throwable t) {
+    if (t instanceof IOException) {
+      return new DirectoryIteratorException((IOException) t);
+    }
+    if (t instanceof RuntimeException) {
+      return (RuntimeException) t;
+    }
+    if (t instanceof Error) {
+      throw (Error) t;
+    }
+    return new RuntimeException(t);
+  }
+}
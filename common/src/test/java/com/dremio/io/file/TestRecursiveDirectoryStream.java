@@ -17,12 +17,15 @@ package com.dremio.io.file;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import java.io.FileNotFoundException;
 import java.io.IOError;
 import java.io.IOException;
 import java.net.URI;
 import java.nio.file.AccessMode;
+import java.nio.file.DirectoryIteratorException;
 import java.nio.file.DirectoryStream;
 import java.nio.file.FileAlreadyExistsException;
 import java.nio.file.Files;
@@ -34,6 +37,7 @@ import java.nio.file.attribute.PosixFilePermission;
 import java.nio.file.attribute.UserPrincipal;
 import java.security.AccessControlException;
 import java.util.Arrays;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
@@ -57,7 +61,7 @@ import com.google.common.collect.Iterators;
  */
 public class TestRecursiveDirectoryStream extends DremioTest {
 
-  private static final class MockLocalFileSystem implements FileSystem {
+  private static class MockLocalFileSystem implements FileSystem {
     @Override
     public void close() throws IOException {
     }
@@ -361,4 +365,79 @@ public class TestRecursiveDirectoryStream extends DremioTest {
       assertEquals(0, directoryStream.getStackSize());
     }
   }
-}
\ No newline at end of file
+
+  @Test
+  public void testParallelListing() throws Exception {
+    for (String dir0: Arrays.asList("A", "B", ".hidden")) {
+      temporaryFolder.newFolder(dir0);
+      for (String dir1: Arrays.asList("1", "2", "3")) {
+        temporaryFolder.newFolder(dir0, dir1);
+        for (String file: Arrays.asList("file1", "_file2")) {
+          temporaryFolder.newFile(dir0 + "/" + dir1 + "/" + file);
+        }
+      }
+    }
+
+    final Path rootPath = Path.of(temporaryFolder.getRoot().toURI());
+    final FileSystem fs = new MockLocalFileSystem();
+
+    final Set<Path> expected;
+    try (final DirectoryStream<FileAttributes> directoryStream =
+           new RecursiveDirectoryStream(fs, fs.list(rootPath, PathFilters.NO_HIDDEN_FILES), PathFilters.NO_HIDDEN_FILES)) {
+      expected = StreamSupport.stream(directoryStream.spliterator(), false)
+          .map(FileAttributes::getPath)
+          .collect(Collectors.toSet());
+    }
+    // A, B, their 3 sub folders and a visible file in each of them
+    assertEquals(14, expected.size());
+
+    try (final DirectoryStream<FileAttributes> directoryStream = new ParallelRecursiveDirectoryStream(fs,
+           fs.list(rootPath, PathFilters.NO_HIDDEN_FILES), PathFilters.NO_HIDDEN_FILES, 3)) {
+      final List<Path> actual = StreamSupport.stream(directoryStream.spliterator(), false)
+          .map(FileAttributes::getPath)
+          .collect(Collectors.toList());
+      assertEquals(expected.size(), actual.size());
+      assertEquals(expected, new HashSet<>(actual));
+    }
+  }
+
+  @Test
+  public void testParallelListingFailure() throws Exception {
+    temporaryFolder.newFolder("A");
+    temporaryFolder.newFile("A/file1");
+
+    final Path rootPath = Path.of(temporaryFolder.getRoot().toURI());
+    final FileSystem fs = new MockLocalFileSystem() {
+      @Override
+      public DirectoryStream<FileAttributes> list(Path f, Predicate<Path> filter) throws IOException {
+        if (f.getName().equals("A")) {
+          throw new FileNotFoundException(f.toString());
+        }
+        return super.list(f, filter);
+      }
+    };
+
+    try (final DirectoryStream<FileAttributes> directoryStream =
+           new ParallelRecursiveDirectoryStream(fs, fs.list(rootPath), PathFilters.ALL_FILES, 2)) {
+      StreamSupport.stream(directoryStream.spliterator(), false).count();
+      fail("listing should have failed");
+    } catch (DirectoryIteratorException e) {
+      assertTrue(e.getCause() instanceof FileNotFoundException);
+    }
+  }
+
+  @Test
+  public void testParallelListingWithoutDirectories() throws Exception {
+    temporaryFolder.newFile("file1");
+    temporaryFolder.newFile("file2");
+
+    final Path rootPath = Path.of(temporaryFolder.getRoot().toURI());
+    final FileSystem fs = new MockLocalFileSystem();
+
+    // a flat listing is done by the iterating thread
+    try (final DirectoryStream<FileAttributes> directoryStream = new ParallelRecursiveDirectoryStream(fs,
+           fs.list(rootPath), PathFilters.ALL_FILES, 4, command -> fail("no directory to list concurrently"))) {
+      assertEquals(2, StreamSupport.stream(directoryStream.spliterator(), false).count());
+    }
+  }
+}
@@ -28,6 +28,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.ConcurrentModificationException;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -54,6 +55,7 @@ import org.slf4j.LoggerFactory;
 
 import com.dremio.dac.annotations.RestResource;
 import com.dremio.dac.annotations.Secured;
+import com.dremio.dac.explore.HistogramGenerator.CleanDataHistogram;
 import com.dremio.dac.explore.HistogramGenerator.CleanDataHistogramValue;
 import com.dremio.dac.explore.HistogramGenerator.Histogram;
 import com.dremio.dac.explore.Transformer.DatasetAndData;
@@ -62,6 +64,7 @@ import com.dremio.dac.explore.model.CleanDataCard;
 import com.dremio.dac.explore.model.CleanDataCard.ConvertToSingleType;
 import com.dremio.dac.explore.model.CleanDataCard.SplitByDataType;
 import com.dremio.dac.explore.model.ColumnForCleaning;
+import com.dremio.dac.explore.model.ColumnProfiles;
 import com.dremio.dac.explore.model.Dataset;
 import com.dremio.dac.explore.model.DatasetName;
 import com.dremio.dac.explore.model.DatasetPath;
@@ -678,7 +681,10 @@ public class DatasetVersionResource extends BaseResourceWithAllocator {
     DataType colType = getColType(selection.getColName());
     Histogram<HistogramValue> histo = histograms.getHistogram(datasetPath, version, selection, colType, query, getOrCreateAllocator("genReplaceValuesCard"));
 
-    long selectedCount = histograms.getSelectionCount(datasetPath, version, query, colType, selection.getColName(), selectedSet, getOrCreateAllocator("genReplaceValuesCard"));
+    // the histogram of a text column holds the count of every value
+    long selectedCount = colType == TEXT
+      ? HistogramGenerator.getSelectionCount(histo, selectedSet)
+      : histograms.getSelectionCount(datasetPath, version, query, colType, selection.getColName(), selectedSet, getOrCreateAllocator("genReplaceValuesCard"));
     return new ReplaceValuesCard(histo.getValues(), selectedCount, histo.getAvailableValues() - selectedCount, histo.getAvailableValues());
   }
 
@@ -789,8 +795,8 @@ public class DatasetVersionResource extends BaseResourceWithAllocator {
     String sql = virtualDatasetUI.getSql();
     String colName = col.getColName();
     SqlQuery query = new SqlQuery(sql, virtualDatasetUI.getState().getContextList(), securityContext);
-    Histogram<CleanDataHistogramValue> histogram = histograms.getCleanDataHistogram(datasetPath, version, colName, query, getOrCreateAllocator("getCleanDataCard"));
-    Map<DataType, Long> typeHistogram = histograms.getTypeHistogram(datasetPath, version, colName, query, getOrCreateAllocator("getCleanDataCard"));
+    CleanDataHistogram histogram = histograms.getCleanDataHistogram(datasetPath, version, colName, query, getOrCreateAllocator("getCleanDataCard"));
+    Map<DataType, Long> typeHistogram = histogram.getTypeHistogram();
     Set<DataType> foundTypes = new TreeSet<>(typeHistogram.keySet());
     List<SplitByDataType> split = new ArrayList<>();
     List<ConvertToSingleType> convertToSingles = new ArrayList<>();
@@ -833,6 +839,20 @@ public class DatasetVersionResource extends BaseResourceWithAllocator {
         );
   }
 
+  /**
+   * Profile all the columns of the dataset version at once, over its preview results.
+   */
+  @GET @Path("column_profiles") @Produces(APPLICATION_JSON)
+  public ColumnProfiles getColumnProfiles() throws DatasetVersionNotFoundException {
+    final VirtualDatasetUI virtualDatasetUI = getDatasetConfig();
+    final Map<String, DataType> columns = new LinkedHashMap<>();
+    for (ViewFieldType type : virtualDatasetUI.getSqlFieldsList()) {
+      columns.put(type.getName(), DataTypeUtil.getDataType(SqlTypeName.get(type.getType())));
+    }
+    SqlQuery query = new SqlQuery(virtualDatasetUI.getSql(), virtualDatasetUI.getState().getContextList(), securityContext);
+    return histograms.getColumnProfiles(datasetPath, version, columns, query, getOrCreateAllocator("getColumnProfiles"));
+  }
+
   @GET
   @Path("join_recs")
   @Produces(APPLICATION_JSON)
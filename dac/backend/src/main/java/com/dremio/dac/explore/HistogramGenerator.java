@@ -18,12 +18,19 @@ package com.dremio.dac.explore;
 import static com.dremio.common.util.DateTimes.toMillis;
 import static com.dremio.common.utils.SqlUtils.quoteIdentifier;
 import static com.dremio.common.utils.SqlUtils.stringLiteral;
+import static com.dremio.dac.proto.model.dataset.DataType.BOOLEAN;
+import static com.dremio.dac.proto.model.dataset.DataType.DATE;
+import static com.dremio.dac.proto.model.dataset.DataType.DATETIME;
+import static com.dremio.dac.proto.model.dataset.DataType.DECIMAL;
 import static com.dremio.dac.proto.model.dataset.DataType.FLOAT;
 import static com.dremio.dac.proto.model.dataset.DataType.INTEGER;
+import static com.dremio.dac.proto.model.dataset.DataType.MIXED;
 import static com.dremio.dac.proto.model.dataset.DataType.TEXT;
+import static com.dremio.dac.proto.model.dataset.DataType.TIME;
 import static java.lang.String.format;
 
 import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -40,6 +47,8 @@ import org.slf4j.LoggerFactory;
 
 import com.dremio.common.types.TypeProtos.MinorType;
 import com.dremio.dac.explore.model.Column;
+import com.dremio.dac.explore.model.ColumnProfiles;
+import com.dremio.dac.explore.model.ColumnProfiles.ColumnProfile;
 import com.dremio.dac.explore.model.DatasetPath;
 import com.dremio.dac.explore.model.HistogramValue;
 import com.dremio.dac.explore.model.extract.Selection;
@@ -65,6 +74,14 @@ class HistogramGenerator {
 
   private static final int BATCH_SIZE = 500; // size of batch examined in each iteration
   static final int BUCKETS = 200;
+  static final int TOP_VALUES = 10; // most frequent values kept in each column profile
+
+  // types whose values can be counted distinctly and grouped as text
+  private static final Set<DataType> SCALAR_TYPES = EnumSet.of(TEXT, INTEGER, FLOAT, DECIMAL, BOOLEAN, DATE, TIME, DATETIME);
+  // types whose min and max values are profiled
+  private static final Set<DataType> ORDERED_TYPES = EnumSet.of(TEXT, INTEGER, FLOAT, DECIMAL, DATE, TIME, DATETIME);
+  // types of the columns whose values may be cleaned to a single type
+  private static final Set<DataType> CLEANABLE_TYPES = EnumSet.of(TEXT, MIXED);
 
   private final QueryExecutor executor;
 
@@ -92,6 +109,21 @@ class HistogramGenerator {
     }
   }
 
+  /**
+   * Clean data histogram, along with the type histogram computed by the same query
+   */
+  public static class CleanDataHistogram extends Histogram<CleanDataHistogramValue> {
+
+    private final Map<DataType, Long> typeHistogram;
+    public CleanDataHistogram(List<CleanDataHistogramValue> values, long availableValues, Map<DataType, Long> typeHistogram) {
+      super(values, availableValues);
+      this.typeHistogram = typeHistogram;
+    }
+    public Map<DataType, Long> getTypeHistogram() {
+      return typeHistogram;
+    }
+  }
+
   public Histogram<HistogramValue> getHistogram(final DatasetPath datasetPath, DatasetVersion version, Selection selection,
                                                 DataType colType, SqlQuery datasetQuery, BufferAllocator allocator) {
     final String datasetPreviewJobResultsTable = DatasetsUtil
@@ -541,7 +573,11 @@ class HistogramGenerator {
     return "dremio_is_clean_" + (cast ? "cast_" : "") + type.name();
   }
 
-  public Histogram<CleanDataHistogramValue> getCleanDataHistogram(final DatasetPath datasetPath, DatasetVersion version, String colName, SqlQuery datasetQuery, BufferAllocator allocator) {
+  /**
+   * Generate the clean data histogram of a column. The query groups by value and type of value, so
+   * the type histogram of the column is computed from its result as well, without another job.
+   */
+  public CleanDataHistogram getCleanDataHistogram(final DatasetPath datasetPath, DatasetVersion version, String colName, SqlQuery datasetQuery, BufferAllocator allocator) {
 
     final String datasetPreviewJobResultsTable = DatasetsUtil
       .getDatasetPreviewJob(executor, datasetQuery, datasetPath, version)
@@ -592,6 +628,7 @@ class HistogramGenerator {
     long total = 0;
     int offset = 0;
     List<CleanDataHistogramValue> values = new ArrayList<>();
+    final Map<DataType, Long> typeHistogram = new LinkedHashMap<>();
 
     while (true) {
       try (final JobDataFragment data = completeJobData.range(allocator, offset, BATCH_SIZE)) {
@@ -618,6 +655,7 @@ class HistogramGenerator {
           long countValue = (long) data.extractValue(colCount, i);
 
           total += countValue;
+          addTypeCount(typeHistogram, data.extractString("dremio_value_type", i), countValue);
 
           // Set the percent later once all the rows are examined.
           values.add(new CleanDataHistogramValue(type, data.extractString(selected.getName(), i), /*percent=*/0.0d, countValue, isCleanMap));
@@ -633,45 +671,184 @@ class HistogramGenerator {
       hgValue.setPercent((hgValue.getCount()*100d)/total);
     }
 
-    return new Histogram<>(values, total);
+    return new CleanDataHistogram(values, total, typeHistogram);
   }
 
-  public Map<DataType, Long> getTypeHistogram(final DatasetPath datasetPath, DatasetVersion version, String colName, SqlQuery datasetQuery, BufferAllocator allocator) {
-    final String datasetPreviewJobTableResults = DatasetsUtil
+  private static void addTypeCount(Map<DataType, Long> typeHistogram, String typeName, long count) {
+    DataType dataType = DataTypeUtil.getDataType(MinorType.valueOf(typeName));
+    // there are fewer DataTypes than MinorTypes
+    typeHistogram.merge(dataType, count, Long::sum);
+  }
+
+  /**
+   * Profile all the given columns of the dataset preview results. The stats of all the columns are computed by
+   * a single aggregation over the preview results, and their most frequent values by a second job, instead of
+   * running histogram jobs for each column.
+   *
+   * Ex queries, for a text column a and a list column b:
+   *   SELECT
+   *     COUNT(*) AS dremio_row_count,
+   *     SUM(CASE WHEN a IS NULL THEN 1 ELSE 0 END) AS dremio_null_count_0,
+   *     NDV(a) AS dremio_distinct_count_0,
+   *     MIN(a) AS dremio_min_0,
+   *     MAX(a) AS dremio_max_0,
+   *     SUM(CASE WHEN is_clean_data(a, 0, 'INTEGER') THEN 1 ELSE 0 END) AS dremio_is_clean_INTEGER_0,
+   *     SUM(CASE WHEN is_clean_data(a, 1, 'INTEGER') THEN 1 ELSE 0 END) AS dremio_is_clean_cast_INTEGER_0,
+   *     ...
+   *     SUM(CASE WHEN b IS NULL THEN 1 ELSE 0 END) AS dremio_null_count_1
+   *   FROM "__jobResultsStore"."jobsId"
+   *
+   *   SELECT * FROM (
+   *     SELECT 0 AS dremio_column_index, CAST(a AS VARCHAR) AS dremio_value, COUNT(*) AS dremio_value_count
+   *     FROM "__jobResultsStore"."jobsId"
+   *     GROUP BY a
+   *     ORDER BY dremio_value_count DESC
+   *     LIMIT 10) AS dremio_top_values_0
+   *
+   * @param columns names and types of the columns to profile, in order
+   */
+  public ColumnProfiles getColumnProfiles(final DatasetPath datasetPath, DatasetVersion version, Map<String, DataType> columns,
+                                          SqlQuery datasetQuery, BufferAllocator allocator) {
+    final String datasetPreviewJobResultsTable = DatasetsUtil
       .getDatasetPreviewJob(executor, datasetQuery, datasetPath, version)
       .getJobResultsTable();
 
-    String quotedColName = quoteIdentifier(colName);
-    String newSql = format("SELECT typeOf(dremio_values_table.%s) AS dremio_value_type, COUNT(*) as dremio_type_count FROM %s AS dremio_values_table GROUP BY typeOf(dremio_values_table.%s)",
-        quotedColName, datasetPreviewJobTableResults, quotedColName);
+    final List<String> colNames = new ArrayList<>(columns.keySet());
+
+    StringBuilder sb = new StringBuilder();
+    sb.append("SELECT\n  COUNT(*) AS dremio_row_count");
+    for (int i = 0; i < colNames.size(); i++) {
+      final String col = "dremio_values_table." + quoteIdentifier(colNames.get(i));
+      final DataType colType = columns.get(colNames.get(i));
+      sb.append(",\n  SUM(CASE WHEN ").append(col).append(" IS NULL THEN 1 ELSE 0 END) AS dremio_null_count_").append(i);
+      if (SCALAR_TYPES.contains(colType)) {
+        sb.append(",\n  NDV(").append(col).append(") AS dremio_distinct_count_").append(i);
+      }
+      if (ORDERED_TYPES.contains(colType)) {
+        sb.append(",\n  MIN(").append(col).append(") AS dremio_min_").append(i);
+        sb.append(",\n  MAX(").append(col).append(") AS dremio_max_").append(i);
+      }
+      if (CLEANABLE_TYPES.contains(colType)) {
+        for (DataType dataType : new DataType[] { TEXT, INTEGER, FLOAT }) {
+          for (boolean c : new boolean[] { false, true }) {
+            sb.append(",\n  SUM(CASE WHEN is_clean_data(").append(col).append(", ").append(c ? 1 : 0).append(", '")
+              .append(dataType.name()).append("') THEN 1 ELSE 0 END) AS ").append(isCleanFieldName(c, dataType)).append('_').append(i);
+          }
+        }
+      }
+    }
+    sb.append("\n FROM ").append(datasetPreviewJobResultsTable).append(" AS dremio_values_table");
+
+    final long rowCount;
+    final List<ColumnProfile> profiles = new ArrayList<>();
+    final Map<Integer, List<HistogramValue>> topValues = getTopValues(datasetPath, version, columns, datasetQuery,
+      datasetPreviewJobResultsTable, allocator);
+
+    try (final JobDataFragment data = executor
+      .runQueryAndWaitForCompletion(datasetQuery.cloneWithNewSql(sb.toString()), QueryType.UI_INTERNAL_RUN, datasetPath, version)
+      .truncate(allocator, 1)) {
+      rowCount = extractCount(data, "dremio_row_count");
+
+      for (int i = 0; i < colNames.size(); i++) {
+        final DataType colType = columns.get(colNames.get(i));
+        Long distinctCount = null;
+        if (SCALAR_TYPES.contains(colType)) {
+          distinctCount = extractCount(data, "dremio_distinct_count_" + i);
+        }
+        String min = null;
+        String max = null;
+        if (ORDERED_TYPES.contains(colType)) {
+          min = data.extractString("dremio_min_" + i, 0);
+          max = data.extractString("dremio_max_" + i, 0);
+        }
+        Map<DataType, Long> cleanCounts = null;
+        Map<DataType, Long> castCleanCounts = null;
+        if (CLEANABLE_TYPES.contains(colType)) {
+          cleanCounts = new LinkedHashMap<>();
+          castCleanCounts = new LinkedHashMap<>();
+          for (DataType dataType : new DataType[] { TEXT, INTEGER, FLOAT }) {
+            cleanCounts.put(dataType, extractCount(data, isCleanFieldName(false, dataType) + "_" + i));
+            castCleanCounts.put(dataType, extractCount(data, isCleanFieldName(true, dataType) + "_" + i));
+          }
+        }
+        final List<HistogramValue> values = topValues.get(i);
+        if (values != null) {
+          for (HistogramValue value : values) {
+            value.setPercent((value.getCount() * 100d) / rowCount);
+          }
+        }
+        profiles.add(new ColumnProfile(colNames.get(i), colType, extractCount(data, "dremio_null_count_" + i), distinctCount,
+          min, max, cleanCounts, castCleanCounts, values));
+      }
+    }
+
+    return new ColumnProfiles(rowCount, profiles);
+  }
 
-    JobData completeJobData = executor.runQueryAndWaitForCompletion(datasetQuery.cloneWithNewSql(newSql), QueryType.UI_INTERNAL_RUN, datasetPath, version);
+  /**
+   * Get the most frequent values of the scalar columns, by a single job
+   *
+   * @return most frequent values by column index
+   */
+  private Map<Integer, List<HistogramValue>> getTopValues(final DatasetPath datasetPath, DatasetVersion version,
+      Map<String, DataType> columns, SqlQuery datasetQuery, String datasetPreviewJobResultsTable, BufferAllocator allocator) {
+    final List<String> colNames = new ArrayList<>(columns.keySet());
+    final List<String> subQueries = new ArrayList<>();
+    for (int i = 0; i < colNames.size(); i++) {
+      if (!SCALAR_TYPES.contains(columns.get(colNames.get(i)))) {
+        continue;
+      }
+      final String col = "dremio_values_table." + quoteIdentifier(colNames.get(i));
+      subQueries.add(format("SELECT * FROM (\n" +
+          "  SELECT %d AS dremio_column_index, CAST(%s AS VARCHAR) AS dremio_value, COUNT(*) AS dremio_value_count\n" +
+          "  FROM %s AS dremio_values_table\n" +
+          "  GROUP BY %s\n" +
+          "  ORDER BY dremio_value_count DESC\n" +
+          "  LIMIT %d) AS dremio_top_values_%d",
+        i, col, datasetPreviewJobResultsTable, col, TOP_VALUES, i));
+    }
 
-    final Map<DataType, Long> values = new LinkedHashMap<>();
+    final Map<Integer, List<HistogramValue>> topValues = new HashMap<>();
+    if (subQueries.isEmpty()) {
+      return topValues;
+    }
 
+    final JobData completeJobData = executor.runQueryAndWaitForCompletion(
+      datasetQuery.cloneWithNewSql(Joiner.on("\nUNION ALL\n").join(subQueries)), QueryType.UI_INTERNAL_RUN, datasetPath, version);
     int offset = 0;
-    while(true) {
+    while (true) {
       try (final JobDataFragment data = completeJobData.range(allocator, offset, BATCH_SIZE)) {
         if (data.getReturnedRowCount() <= 0) {
           break;
         }
         for (int i = 0; i < data.getReturnedRowCount(); i++) {
-          String typeName = data.extractString("dremio_value_type", i);
-          DataType dataType = DataTypeUtil.getDataType(MinorType.valueOf(typeName));
-          Long existing = values.get(dataType);
-          if (existing == null) {
-            existing = Long.valueOf(0);
-          }
-          Long newValue = (Long) data.extractValue("dremio_type_count", i);
-          // there are fewer DataTypes than MinorTypes
-          values.put(dataType, existing + newValue);
+          final int index = ((Number) data.extractValue("dremio_column_index", i)).intValue();
+          final long countValue = extractCount(data, "dremio_value_count", i);
+          // Set the percent later once the row count is known.
+          topValues.computeIfAbsent(index, k -> new ArrayList<>())
+            .add(new HistogramValue(columns.get(colNames.get(index)), data.extractString("dremio_value", i), /*percent=*/0.0d, countValue, null));
         }
 
         // Move onto next set of records
         offset += data.getReturnedRowCount();
       }
     }
-    return values;
+
+    // the rows of each column are not ordered once unioned
+    for (List<HistogramValue> values : topValues.values()) {
+      values.sort((v1, v2) -> Long.compare(v2.getCount(), v1.getCount()));
+    }
+    return topValues;
+  }
+
+  private static long extractCount(JobDataFragment data, String column) {
+    return extractCount(data, column, 0);
+  }
+
+  private static long extractCount(JobDataFragment data, String column, int index) {
+    // sums over no rows are null
+    final Object value = data.extractValue(column, index);
+    return value == null ? 0 : ((Number) value).longValue();
   }
 
   @VisibleForTesting
@@ -718,6 +895,24 @@ class HistogramGenerator {
     }
   }
 
+  /**
+   * Count the selected values of a text column from its value histogram, which already holds the
+   * count of every distinct value, instead of running a count query.
+   *
+   * @param histogram histogram of a text column, as returned by {@link #getHistogram}
+   * @param selectedValues selected values (null for the null value)
+   * @return number of rows matching one of the selected values
+   */
+  public static long getSelectionCount(Histogram<HistogramValue> histogram, Set<String> selectedValues) {
+    long count = 0;
+    for (HistogramValue value : histogram.getValues()) {
+      if (selectedValues.contains(value.getValue())) {
+        count += value.getCount();
+      }
+    }
+    return count;
+  }
+
   public long getSelectionCount(final DatasetPath datasetPath, final DatasetVersion version,
       final SqlQuery datasetQuery, final DataType dataType, final String colName, Set<String> selectedValues, BufferAllocator allocator) {
 
@@ -0,0 +1,136 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.dac.explore.model;
+
+import java.util.List;
+import java.util.Map;
+
+import com.dremio.dac.proto.model.dataset.DataType;
+import com.dremio.dac.util.JSONUtil;
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Profiles of all the columns of a dataset version, computed over its preview results
+ */
+public class ColumnProfiles {
+
+  private final long rowCount;
+  private final List<ColumnProfile> columns;
+
+  @JsonCreator
+  public ColumnProfiles(
+      @JsonProperty("rowCount") long rowCount,
+      @JsonProperty("columns") List<ColumnProfile> columns) {
+    super();
+    this.rowCount = rowCount;
+    this.columns = columns;
+  }
+
+  public long getRowCount() {
+    return rowCount;
+  }
+
+  public List<ColumnProfile> getColumns() {
+    return columns;
+  }
+
+  @Override
+  public String toString() {
+    return JSONUtil.toString(this);
+  }
+
+  /**
+   * stats of one column. The stats that do not apply to the type of the column are null
+   */
+  public static class ColumnProfile {
+    private final String name;
+    private final DataType type;
+    private final long nullCount;
+    private final Long distinctCount;
+    private final String min;
+    private final String max;
+    private final Map<DataType, Long> cleanCounts;
+    private final Map<DataType, Long> castCleanCounts;
+    private final List<HistogramValue> topValues;
+
+    @JsonCreator
+    public ColumnProfile(
+        @JsonProperty("name") String name,
+        @JsonProperty("type") DataType type,
+        @JsonProperty("nullCount") long nullCount,
+        @JsonProperty("distinctCount") Long distinctCount,
+        @JsonProperty("min") String min,
+        @JsonProperty("max") String max,
+        @JsonProperty("cleanCounts") Map<DataType, Long> cleanCounts,
+        @JsonProperty("castCleanCounts") Map<DataType, Long> castCleanCounts,
+        @JsonProperty("topValues") List<HistogramValue> topValues) {
+      super();
+      this.name = name;
+      this.type = type;
+      this.nullCount = nullCount;
+      this.distinctCount = distinctCount;
+      this.min = min;
+      this.max = max;
+      this.cleanCounts = cleanCounts;
+      this.castCleanCounts = castCleanCounts;
+      this.topValues = topValues;
+    }
+    public String getName() {
+      return name;
+    }
+    public DataType getType() {
+      return type;
+    }
+    public long getNullCount() {
+      return nullCount;
+    }
+    /**
+     * @return approximate number of distinct values
+     */
+    public Long getDistinctCount() {
+      return distinctCount;
+    }
+    public String getMin() {
+      return min;
+    }
+    public String getMax() {
+      return max;
+    }
+    /**
+     * @return number of values of each type available for cleaning, nulls included as in the clean data card
+     */
+    public Map<DataType, Long> getCleanCounts() {
+      return cleanCounts;
+    }
+    /**
+     * @return number of values of, or that can be cast to, each type available for cleaning
+     */
+    public Map<DataType, Long> getCastCleanCounts() {
+      return castCleanCounts;
+    }
+    /**
+     * @return most frequent values, most frequent first
+     */
+    public List<HistogramValue> getTopValues() {
+      return topValues;
+    }
+    @Override
+    public String toString() {
+      return JSONUtil.toString(this);
+    }
+  }
+}
@@ -17,17 +17,23 @@ package com.dremio.dac.explore;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.arrow.memory.BufferAllocator;
 import org.joda.time.LocalDateTime;
@@ -40,7 +46,10 @@ import org.mockito.stubbing.Answer;
 
 import com.dremio.common.memory.DremioRootAllocator;
 import com.dremio.dac.explore.HistogramGenerator.TruncEvalEnum;
+import com.dremio.dac.explore.model.ColumnProfiles;
+import com.dremio.dac.explore.model.ColumnProfiles.ColumnProfile;
 import com.dremio.dac.explore.model.DatasetPath;
+import com.dremio.dac.explore.model.HistogramValue;
 import com.dremio.dac.model.job.JobData;
 import com.dremio.dac.model.job.JobDataFragment;
 import com.dremio.dac.model.job.JobDataWrapper;
@@ -160,6 +169,122 @@ public class TestHistogramGenerator {
     testSelectionCountHelper(null, 0L, DataType.INTEGER, ImmutableSet.<String>of());
   }
 
+  @Test
+  public void testSelectionCountFromHistogram() {
+    final List<HistogramValue> values = Arrays.asList(
+      new HistogramValue(DataType.TEXT, "val1", 0.0, 10, null),
+      new HistogramValue(DataType.TEXT, "val2", 0.0, 5, null),
+      new HistogramValue(DataType.TEXT, "", 0.0, 3, null),
+      new HistogramValue(DataType.TEXT, null, 0.0, 2, null));
+    final HistogramGenerator.Histogram<HistogramValue> histogram = new HistogramGenerator.Histogram<>(values, 20);
+
+    assertEquals(10L, HistogramGenerator.getSelectionCount(histogram, ImmutableSet.of("val1")));
+    assertEquals(15L, HistogramGenerator.getSelectionCount(histogram, ImmutableSet.of("val1", "val2")));
+    assertEquals(12L, HistogramGenerator.getSelectionCount(histogram, new LinkedHashSet<>(Arrays.asList("val1", null))));
+    assertEquals(3L, HistogramGenerator.getSelectionCount(histogram, ImmutableSet.of("")));
+    assertEquals(0L, HistogramGenerator.getSelectionCount(histogram, ImmutableSet.of("val3")));
+  }
+
+  @Test
+  public void testColumnProfiles() {
+    final DatasetPath datasetPath = new DatasetPath(Arrays.asList("dfs", "parquet", "lineitem.parquet"));
+    final DatasetVersion datasetVersion = DatasetVersion.newVersion();
+    final Map<String, DataType> columns = new LinkedHashMap<>();
+    columns.put("name", DataType.TEXT);
+    columns.put("size", DataType.INTEGER);
+    columns.put("tags", DataType.LIST);
+
+    final QueryExecutor queryExecutor = mockPreviewJob();
+    final AtomicInteger numJobs = new AtomicInteger();
+    when(queryExecutor.runQueryAndWaitForCompletion(any(SqlQuery.class), any(QueryType.class), any(DatasetPath.class), any(DatasetVersion.class)))
+      .thenAnswer(
+        (Answer<JobData>) invocation -> {
+          numJobs.incrementAndGet();
+          final String query = invocation.getArgumentAt(0, SqlQuery.class).getSql();
+          JobData jobData = mock(JobDataWrapper.class);
+          JobDataFragment fragment = mock(JobDataFragment.class);
+
+          if (query.contains("UNION ALL")) {
+            // the top values of the scalar columns only
+            assertFalse(query, query.contains("tags"));
+            when(jobData.range(allocator, 0, 500)).thenReturn(fragment);
+            when(jobData.range(eq(allocator), eq(3), anyInt())).thenReturn(mock(JobDataFragment.class));
+            when(fragment.getReturnedRowCount()).thenReturn(3);
+            when(fragment.extractValue("dremio_column_index", 0)).thenReturn(1);
+            when(fragment.extractString("dremio_value", 0)).thenReturn("12");
+            when(fragment.extractValue("dremio_value_count", 0)).thenReturn(1L);
+            when(fragment.extractValue("dremio_column_index", 1)).thenReturn(0);
+            when(fragment.extractString("dremio_value", 1)).thenReturn("b");
+            when(fragment.extractValue("dremio_value_count", 1)).thenReturn(1L);
+            when(fragment.extractValue("dremio_column_index", 2)).thenReturn(0);
+            when(fragment.extractString("dremio_value", 2)).thenReturn("a");
+            when(fragment.extractValue("dremio_value_count", 2)).thenReturn(3L);
+          } else {
+            assertTrue(query, query.contains("NDV(dremio_values_table.name) AS dremio_distinct_count_0"));
+            assertTrue(query, query.contains("is_clean_data(dremio_values_table.name, 1, 'INTEGER')"));
+            assertFalse(query, query.contains("is_clean_data(dremio_values_table.size"));
+            assertFalse(query, query.contains("MIN(dremio_values_table.tags)"));
+            when(jobData.truncate(allocator, 1)).thenReturn(fragment);
+            when(fragment.extractValue("dremio_row_count", 0)).thenReturn(4L);
+            when(fragment.extractValue("dremio_null_count_0", 0)).thenReturn(0L);
+            when(fragment.extractValue("dremio_distinct_count_0", 0)).thenReturn(2L);
+            when(fragment.extractString("dremio_min_0", 0)).thenReturn("a");
+            when(fragment.extractString("dremio_max_0", 0)).thenReturn("b");
+            when(fragment.extractValue("dremio_is_clean_TEXT_0", 0)).thenReturn(4L);
+            when(fragment.extractValue("dremio_is_clean_cast_INTEGER_0", 0)).thenReturn(0L);
+            when(fragment.extractValue("dremio_null_count_1", 0)).thenReturn(3L);
+            when(fragment.extractValue("dremio_distinct_count_1", 0)).thenReturn(1L);
+            when(fragment.extractValue("dremio_null_count_2", 0)).thenReturn(4L);
+          }
+          return jobData;
+        }
+      );
+
+    final ColumnProfiles profiles = new HistogramGenerator(queryExecutor).getColumnProfiles(datasetPath, datasetVersion, columns,
+      new SqlQuery("SELECT * FROM dataset", "user"), allocator);
+
+    // all the columns are profiled by one aggregation and one top values job
+    assertEquals(2, numJobs.get());
+    assertEquals(4L, profiles.getRowCount());
+    assertEquals(3, profiles.getColumns().size());
+
+    final ColumnProfile name = profiles.getColumns().get(0);
+    assertEquals(Long.valueOf(2), name.getDistinctCount());
+    assertEquals("a", name.getMin());
+    assertEquals(Long.valueOf(4), name.getCleanCounts().get(DataType.TEXT));
+    assertEquals(Long.valueOf(0), name.getCastCleanCounts().get(DataType.INTEGER));
+    assertEquals("a", name.getTopValues().get(0).getValue());
+    assertEquals(75d, name.getTopValues().get(0).getPercent(), 0d);
+    assertEquals(2, name.getTopValues().size());
+
+    final ColumnProfile size = profiles.getColumns().get(1);
+    assertEquals(3L, size.getNullCount());
+    assertNull(size.getCleanCounts());
+    assertEquals(1, size.getTopValues().size());
+
+    final ColumnProfile tags = profiles.getColumns().get(2);
+    assertEquals(4L, tags.getNullCount());
+    assertNull(tags.getDistinctCount());
+    assertNull(tags.getTopValues());
+  }
+
+  private QueryExecutor mockPreviewJob() {
+    final QueryExecutor queryExecutor = mock(QueryExecutor.class);
+    when(queryExecutor.runQueryWithListener(any(SqlQuery.class), any(QueryType.class), any(DatasetPath.class), any(DatasetVersion.class), any(JobStatusListener.class)))
+        .thenAnswer(
+          (Answer<JobData>) invocation -> {
+            final JobStatusListener listener = invocation.getArgumentAt(4, JobStatusListener.class);
+            JobData jobData = mock(JobDataWrapper.class);
+
+            when(jobData.getJobResultsTable()).thenReturn("jobResults.previewJob");
+
+            listener.jobCompleted();
+            return jobData;
+          }
+        );
+    return queryExecutor;
+  }
+
   private void testSelectionCountHelper(final String expFilter, final long expCount, DataType type, Set<String> selectedValues) {
     final DatasetPath datasetPath = new DatasetPath(Arrays.asList("dfs", "parquet", "lineitem.parquet"));
     final DatasetVersion datasetVersion = DatasetVersion.newVersion();
@@ -241,6 +241,16 @@ public class Clean {
     public void go(AttemptId attemptId) {
       LocalProfileStore.deleteOldProfile(provider, attemptId);
     }
+
+    @Override
+    public void go(List<AttemptId> attemptIds) {
+      LocalProfileStore.deleteOldProfiles(provider, attemptIds);
+    }
+
+    @Override
+    public void go(AttemptId startAttemptId, AttemptId endAttemptId) {
+      LocalProfileStore.deleteOldProfileRange(provider, startAttemptId, endAttemptId);
+    }
   }
 
   /**
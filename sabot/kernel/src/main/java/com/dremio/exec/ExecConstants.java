@@ -67,6 +67,11 @@ public interface ExecConstants {
   DoubleValidator SPILL_DISK_SPACE_LIMIT_PERCENTAGE = new RangeDoubleValidator("dremio.exec.spill.limit.percentage", 0.0, 100.0, DefaultSpillServiceOptions.MIN_DISK_SPACE_PCT);
   PositiveLongValidator SPILL_SWEEP_INTERVAL = new PositiveLongValidator("dremio.exec.spill.sweep.interval", Long.MAX_VALUE, DefaultSpillServiceOptions.SPILL_SWEEP_INTERVAL);
   PositiveLongValidator SPILL_SWEEP_THRESHOLD = new PositiveLongValidator("dremio.exec.spill.sweep.threshold", Long.MAX_VALUE, DefaultSpillServiceOptions.SPILL_SWEEP_THRESHOLD);
+  RangeLongValidator SPILL_IO_THREADS = new RangeLongValidator("dremio.exec.spill.io.threads", 0, 64, DefaultSpillServiceOptions.IO_THREADS);
+  RangeLongValidator SPILL_IO_BUFFER_MEMORY = new RangeLongValidator("dremio.exec.spill.io.buffer_memory", 0, Long.MAX_VALUE, DefaultSpillServiceOptions.IO_BUFFER_MEMORY);
+  // size of each of the two buffers of a spill file written, or read, in the background by the spill I/O threads
+  RangeLongValidator SPILL_WRITE_BEHIND_BUFFER_SIZE = new RangeLongValidator("dremio.exec.spill.write_behind.buffer_size", 4096, 16 * 1024 * 1024, 128 * 1024);
+  RangeLongValidator SPILL_READ_AHEAD_BUFFER_SIZE = new RangeLongValidator("dremio.exec.spill.read_ahead.buffer_size", 4096, 16 * 1024 * 1024, 64 * 1024);
 
   // Set this value to set the execution preference
   // Default value to use in the operators (for now, only projector and filter use this default)
@@ -137,6 +142,12 @@ public interface ExecConstants {
   BooleanValidator ENABLE_VECTORIZED_HASHJOIN_SPECIFIC = new BooleanValidator("exec.operator.join.vectorize.specific", false);
   BooleanValidator ENABLE_VECTORIZED_COPIER = new BooleanValidator("exec.operator.copier.vectorize", true);
   BooleanValidator ENABLE_VECTORIZED_PARTITIONER = new BooleanValidator("exec.operator.partitioner.vectorize", true);
+  // hand batches sent to fragments on the same node directly to the receivers, instead of going through the fabric
+  BooleanValidator ENABLE_LOCAL_EXCHANGE = new BooleanValidator("exec.operator.exchange.local", true);
+  // compress batches sent to other nodes, off by default as older executors can't read compressed batches
+  BooleanValidator EXCHANGE_COMPRESSION = new BooleanValidator("exec.operator.exchange.compression", false);
+  // batches compressing to more than this fraction of their size are sent as is
+  DoubleValidator EXCHANGE_COMPRESSION_MAX_RATIO = new RangeDoubleValidator("exec.operator.exchange.compression.max_ratio", 0.0, 1.0, 0.8);
   BooleanValidator DEBUG_HASHJOIN_INSERTION = new BooleanValidator("exec.operator.join.debug-insertion", false);
 
   String OUTPUT_FORMAT_OPTION = "store.format";
@@ -160,6 +171,10 @@ public interface ExecConstants {
 
   String PARQUET_MAX_FOOTER_LEN = "store.parquet.max_footer_length";
   LongValidator PARQUET_MAX_FOOTER_LEN_VALIDATOR = new LongValidator(PARQUET_MAX_FOOTER_LEN, 16*1024*1024);
+  // Number of directories listed concurrently when expanding a file selection
+  RangeLongValidator FS_LISTING_PARALLELISM = new RangeLongValidator("store.dfs.listing_parallelism", 1, 64, 8);
+  // Max estimated heap size of the Parquet footers cached on each executor, 0 disables the cache
+  RangeLongValidator PARQUET_FOOTER_CACHE_MAX_SIZE = new RangeLongValidator("store.parquet.footer_cache.max_size", 0, Long.MAX_VALUE, 256*1024*1024);
 
   String PARQUET_MEMORY_THRESHOLD = "store.parquet.memory_threshold";
   LongValidator PARQUET_MEMORY_THRESHOLD_VALIDATOR = new LongValidator(PARQUET_MEMORY_THRESHOLD, 512*1024*1024);
@@ -416,6 +431,10 @@ public interface ExecConstants {
 
   PositiveLongValidator EXTERNAL_SORT_BATCHSIZE_MULTIPLIER = new PositiveLongValidator("exec.operator.sort.external.batchsize_multiplier", Character.MAX_VALUE, 2);
 
+  // window operator spills the batches of large partitions once the batches it holds exceed this size, or half its memory limit
+  BooleanValidator WINDOW_SPILL_ENABLED = new BooleanValidator("exec.operator.window.spill.enabled", true);
+  PositiveLongValidator WINDOW_SPILL_THRESHOLD_BYTES = new PositiveLongValidator("exec.operator.window.spill.threshold_bytes", Long.MAX_VALUE, 256 * 1024 * 1024);
+
   LongValidator VOTING_SCHEDULE = new PositiveLongValidator("vote.schedule.millis", Long.MAX_VALUE, 0);
   PositiveLongValidator LAST_SEARCH_REINDEX  = new PositiveLongValidator("dac.search.last_reindex",  Long.MAX_VALUE, 0);
   PositiveLongValidator SEARCH_MANAGER_REFRESH_MILLIS  = new PositiveLongValidator("dac.search.refresh",  Long.MAX_VALUE, TimeUnit.MINUTES.toMillis(1));
@@ -447,6 +466,12 @@ public interface ExecConstants {
 
   public static final BooleanValidator ENABLE_VECTORIZED_NOSPILL_VARCHAR_NDV_ACCUMULATOR = new BooleanValidator("exec.operator.vectorized_nospill.varchar_ndv", true);
 
+  // allow the spilling vectorized hash aggregate to run hll/hll_merge (NDV) accumulators
+  BooleanValidator ENABLE_VECTORIZED_SPILL_NDV_ACCUMULATOR = new BooleanValidator("exec.operator.vectorized_spill.ndv", true);
+
+  // allow the spilling vectorized hash aggregate to run min/max on variable width (varchar, varbinary) columns
+  BooleanValidator ENABLE_VECTORIZED_SPILL_VARCHAR_MIN_MAX_ACCUMULATOR = new BooleanValidator("exec.operator.vectorized_spill.varchar_min_max", true);
+
   BooleanValidator TRIM_ROWGROUPS_FROM_FOOTER = new BooleanValidator("exec.parquet.memory.trim_rowgroups", true);
   BooleanValidator TRIM_COLUMNS_FROM_ROW_GROUP = new BooleanValidator("exec.parquet.memory.trim_columns", true);
 
@@ -461,6 +486,12 @@ public interface ExecConstants {
   // warning threshold for running time of a task
   PositiveLongValidator SLICING_WARN_MAX_RUNTIME_MS = new PositiveLongValidator("dremio.sliced.warn_max_runtime", Long.MAX_VALUE, 120000);
 
+  // number of slicing threads used by the work-stealing task pool, 0 means one thread per available core
+  RangeLongValidator SLICING_NUM_THREADS = new RangeLongValidator("dremio.sliced.num_threads", 0, 1024, 0);
+
+  // maximum time a runnable task keeps its slicing thread before the scheduler considers switching to another task
+  PositiveLongValidator SLICING_THREAD_QUANTUM_MS = new PositiveLongValidator("dremio.sliced.quantum_ms", 10000, 25);
+
   // warning threshold for spilling
   PositiveLongValidator SPILL_IO_WARN_MAX_RUNTIME_MS = new PositiveLongValidator("dremio.spill.warn_max_runtime", Long.MAX_VALUE, 3000);
 
@@ -52,6 +52,13 @@ public final class CatalogOptions {
   // Maximum number of single split partitions allowed to be saved together
   public static final LongValidator SINGLE_SPLIT_PARTITION_MAX = new PositiveLongValidator("store.plugin.max_single_split_partitions", Long.MAX_VALUE, 500);
 
+  // Reuse the splits of the files unchanged since the previous refresh of a dataset
+  public static final BooleanValidator REUSE_PREVIOUS_SPLITS = new BooleanValidator("store.plugin.reuse_previous_splits", true);
+
+  // Maximum number of datasets of a source synchronized concurrently during a metadata refresh. Only raise it when
+  // the connectors of the sources can be called from several threads at once
+  public static final LongValidator METADATA_SYNC_PARALLELISM = new PositiveLongValidator("store.plugin.metadata_sync_parallelism", 64, 1);
+
   // How should (multi-)splits be compressed in the K/V store
   public static final TypeValidators.EnumValidator<NamespaceService.SplitCompression> SPLIT_COMPRESSION_TYPE = new TypeValidators.EnumValidator<>(
     "store.plugin.split_compression", NamespaceService.SplitCompression.class, NamespaceService.SplitCompression.SNAPPY);
@@ -16,13 +16,17 @@
 package com.dremio.exec.catalog;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.ConcurrentModificationException;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.Set;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 
 import com.dremio.common.collections.Tuple;
@@ -37,6 +41,7 @@ import com.dremio.connector.metadata.SourceMetadata;
 import com.dremio.connector.metadata.extensions.SupportsListingDatasets;
 import com.dremio.connector.metadata.extensions.SupportsReadSignature;
 import com.dremio.connector.metadata.extensions.SupportsReadSignature.MetadataValidity;
+import com.dremio.exec.rpc.CloseableThreadPool;
 import com.dremio.exec.store.DatasetRetrievalOptions;
 import com.dremio.service.namespace.NamespaceException;
 import com.dremio.service.namespace.NamespaceKey;
@@ -54,11 +59,15 @@ import io.protostuff.ByteString;
 
 /**
  * Synchronizes metadata from the connector to the namespace.
+ *
+ * Datasets are listed by the calling thread, and, if the parallelism is more than one, synchronized by a pool of
+ * workers: up to parallelism datasets of the source are synchronized at the same time, while the listing goes on.
  */
 public class MetadataSynchronizer {
   private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(MetadataSynchronizer.class);
 
   private static final int NUM_RETRIES = 1;
+  private static final int PROGRESS_LOG_INTERVAL = 1000;
   private final SyncStatus syncStatus = new SyncStatus(true);
 
   private final NamespaceService systemNamespace;
@@ -68,8 +77,10 @@ public class MetadataSynchronizer {
   private final DatasetRetrievalOptions options;
 
   private final UpdateMode updateMode;
+  private final int parallelism;
   private final Set<NamespaceKey> ancestorsToKeep;
   private final List<Tuple<String, String>> failedDatasets;
+  private final AtomicLong syncedDatasets = new AtomicLong();
 
   private Set<NamespaceKey> existingDatasets;
 
@@ -80,16 +91,31 @@ public class MetadataSynchronizer {
       MetadataPolicy metadataPolicy,
       DatasetSaver saver,
       DatasetRetrievalOptions options
+  ) {
+    this(systemNamespace, sourceKey, sourceMetadata, metadataPolicy, saver, options, 1);
+  }
+
+  MetadataSynchronizer(
+      NamespaceService systemNamespace,
+      NamespaceKey sourceKey,
+      SourceMetadata sourceMetadata,
+      MetadataPolicy metadataPolicy,
+      DatasetSaver saver,
+      DatasetRetrievalOptions options,
+      int parallelism
   ) {
     this.systemNamespace = Preconditions.checkNotNull(systemNamespace);
     this.sourceKey = Preconditions.checkNotNull(sourceKey);
     this.sourceMetadata = Preconditions.checkNotNull(sourceMetadata);
     this.saver = saver;
     this.options = options;
+    Preconditions.checkArgument(parallelism > 0, "parallelism must be positive");
+    this.parallelism = parallelism;
 
     this.updateMode = metadataPolicy.getDatasetUpdateMode();
     this.ancestorsToKeep = new HashSet<>();
-    this.failedDatasets = new ArrayList<>();
+    // datasets may fail on any of the workers
+    this.failedDatasets = Collections.synchronizedList(new ArrayList<>());
   }
 
   /**
@@ -146,8 +172,9 @@ public class MetadataSynchronizer {
         );
       }
       if (logger.isDebugEnabled()) {
-        logger.debug("Source '{}' sync ended. Took {} milliseconds",
-            sourceKey, stopwatch.elapsed(TimeUnit.MILLISECONDS));
+        final long elapsedMillis = stopwatch.elapsed(TimeUnit.MILLISECONDS);
+        logger.debug("Source '{}' sync ended. Took {} milliseconds to sync {} datasets ({} datasets/s)",
+            sourceKey, elapsedMillis, syncedDatasets.get(), datasetsPerSecond(syncedDatasets.get(), elapsedMillis));
       }
     }
 
@@ -169,25 +196,89 @@ public class MetadataSynchronizer {
    */
   private void synchronizeDatasets() throws NamespaceException, ConnectorException {
     logger.trace("Source '{}' syncing datasets", sourceKey);
-    try (DatasetHandleListing datasetListing = getDatasetHandleListing(options.asGetDatasetOptions(null))) {
-      final Iterator<? extends DatasetHandle> iterator = datasetListing.iterator();
-      while (iterator.hasNext()) {
-
-        final DatasetHandle handle = iterator.next();
-        final NamespaceKey datasetKey = MetadataObjectsUtils.toNamespaceKey(handle.getDatasetPath());
-        final boolean existing = existingDatasets.remove(datasetKey);
-        if (logger.isTraceEnabled()) {
-          logger.trace("Dataset '{}' sync started ({})", datasetKey, existing ? "existing" : "new");
+    if (parallelism == 1) {
+      try (DatasetHandleListing datasetListing = getDatasetHandleListing(options.asGetDatasetOptions(null))) {
+        final Iterator<? extends DatasetHandle> iterator = datasetListing.iterator();
+        while (iterator.hasNext()) {
+          handleDataset(iterator.next());
         }
+      }
+      return;
+    }
 
-        if (existing) {
-          addAncestors(datasetKey, ancestorsToKeep);
-          handleExistingDataset(datasetKey, handle);
-        } else {
-          handleNewDataset(datasetKey, handle);
+    // bounds the number of datasets being synchronized, so that listing does not run too far ahead of the workers
+    final Semaphore inProgress = new Semaphore(parallelism);
+    final AtomicReference<Exception> workerFailure = new AtomicReference<>();
+    try (CloseableThreadPool workers = new CloseableThreadPool("metadata-sync-" + sourceKey.getRoot());
+         DatasetHandleListing datasetListing = getDatasetHandleListing(options.asGetDatasetOptions(null))) {
+      try {
+        final Iterator<? extends DatasetHandle> iterator = datasetListing.iterator();
+        while (iterator.hasNext() && workerFailure.get() == null) {
+          final DatasetHandle handle = iterator.next();
+          inProgress.acquireUninterruptibly();
+          try {
+            workers.execute(() -> {
+              try {
+                handleDataset(handle);
+              } catch (NamespaceException | RuntimeException e) {
+                // e.g. the plugin is changing, stop the sync as the serial sync would
+                workerFailure.compareAndSet(null, e);
+              } finally {
+                inProgress.release();
+              }
+            });
+          } catch (RuntimeException e) {
+            inProgress.release();
+            throw e;
+          }
         }
+      } finally {
+        // wait for the datasets being synchronized
+        inProgress.acquireUninterruptibly(parallelism);
       }
     }
+
+    final Exception failure = workerFailure.get();
+    if (failure instanceof NamespaceException) {
+      throw (NamespaceException) failure;
+    } else if (failure != null) {
+      throw (RuntimeException) failure;
+    }
+  }
+
+  /**
+   * Synchronize the given dataset. This may run concurrently with the listing and with other datasets of the source,
+   * so the sets of existing datasets and ancestors to keep are updated under the existing datasets lock.
+   *
+   * @param handle dataset handle
+   */
+  private void handleDataset(DatasetHandle handle) throws NamespaceException {
+    final NamespaceKey datasetKey = MetadataObjectsUtils.toNamespaceKey(handle.getDatasetPath());
+    final boolean existing;
+    synchronized (existingDatasets) {
+      existing = existingDatasets.remove(datasetKey);
+      if (existing) {
+        addAncestors(datasetKey, ancestorsToKeep);
+      }
+    }
+    if (logger.isTraceEnabled()) {
+      logger.trace("Dataset '{}' sync started ({})", datasetKey, existing ? "existing" : "new");
+    }
+
+    if (existing) {
+      handleExistingDataset(datasetKey, handle);
+    } else {
+      handleNewDataset(datasetKey, handle);
+    }
+
+    final long synced = syncedDatasets.incrementAndGet();
+    if (synced % PROGRESS_LOG_INTERVAL == 0 && logger.isDebugEnabled()) {
+      logger.debug("Source '{}' synced {} datasets so far", sourceKey, synced);
+    }
+  }
+
+  private static long datasetsPerSecond(long datasets, long elapsedMillis) {
+    return elapsedMillis == 0 ? datasets : datasets * 1000 / elapsedMillis;
   }
 
   /**
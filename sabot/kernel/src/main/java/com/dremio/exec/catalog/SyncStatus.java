@@ -15,8 +15,10 @@
  */
 package com.dremio.exec.catalog;
 
+import com.google.common.annotations.VisibleForTesting;
+
 /**
- * Metadata sync status.
+ * Metadata sync status. Datasets may be synchronized concurrently, so updates are synchronized.
  */
 class SyncStatus {
 
@@ -38,52 +40,62 @@ class SyncStatus {
     this.fullRefresh = fullRefresh;
   }
 
-  void incrementShallowAdded() {
+  synchronized void incrementShallowAdded() {
     shallowAdded++;
   }
 
-  void incrementShallowDeleted() {
+  synchronized void incrementShallowDeleted() {
     shallowDeleted++;
   }
 
-  void incrementShallowUnchanged() {
+  synchronized void incrementShallowUnchanged() {
     shallowUnchanged++;
   }
 
-  void incrementExtendedChanged() {
+  synchronized void incrementExtendedChanged() {
     extendedChanged++;
   }
 
-  void incrementExtendedUnchanged() {
+  synchronized void incrementExtendedUnchanged() {
     extendedUnchanged++;
   }
 
-  void incrementExtendedUnreadable() {
+  synchronized void incrementExtendedUnreadable() {
     extendedUnreadable++;
   }
 
-  void incrementExtendedDeleted() {
+  synchronized void incrementExtendedDeleted() {
     extendedDeleted++;
   }
 
-  void setRefreshed() {
+  synchronized void setRefreshed() {
     this.refreshed = true;
   }
 
-  void setInterrupted(boolean interrupted) {
+  synchronized void setInterrupted(boolean interrupted) {
     this.interrupted = interrupted;
   }
 
-  boolean isRefreshed() {
+  @VisibleForTesting
+  synchronized long getShallowAdded() {
+    return shallowAdded;
+  }
+
+  @VisibleForTesting
+  synchronized long getExtendedChanged() {
+    return extendedChanged;
+  }
+
+  synchronized boolean isRefreshed() {
     return refreshed;
   }
 
-  boolean isInterrupted() {
+  synchronized boolean isInterrupted() {
     return interrupted;
   }
 
   @Override
-  public String toString() {
+  public synchronized String toString() {
     final StringBuilder builder = new StringBuilder();
     builder.append(String.format("Shallow probed %d datasets: %d added, %d unchanged, %d deleted\n",
         shallowAdded + shallowUnchanged + shallowDeleted, shallowAdded, shallowUnchanged, shallowDeleted));
@@ -15,6 +15,8 @@
  */
 package com.dremio.exec.maestro;
 
+import java.util.concurrent.CompletableFuture;
+
 import com.dremio.common.exceptions.ExecutionSetupException;
 import com.dremio.exec.ops.QueryContext;
 import com.dremio.exec.physical.PhysicalPlan;
@@ -50,11 +52,15 @@ public interface MaestroService extends Service, SafeExit {
    * @param runInSameThread if true, the parallelization will run in the same thread.
    * @param observer observer to notify on state changes, and progress.
    * @param listener listener to notify on completion or failures.
+   * @return a future completed once the fragments are started. The calling thread doesn't wait for the resources
+   *         of the query, the next steps run once they are allocated. The future fails with the failure of the
+   *         allocation, planning or start of the query, or with a CancellationException if cancelled before the
+   *         fragments were started.
    *
    * @throws ExecutionSetupException
    * @throws ResourceAllocationException
    */
-  void executeQuery(
+  CompletableFuture<Void> executeQuery(
     QueryId queryId,
     QueryContext context,
     PhysicalPlan physicalPlan,
@@ -16,8 +16,10 @@
 package com.dremio.exec.maestro;
 
 import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentMap;
-import java.util.concurrent.ExecutionException;
 import java.util.stream.Collectors;
 
 import javax.inject.Provider;
@@ -125,7 +127,7 @@ public class MaestroServiceImpl implements MaestroService {
   }
 
   @Override
-  public void executeQuery(
+  public CompletableFuture<Void> executeQuery(
     QueryId queryId,
     QueryContext context,
     PhysicalPlan physicalPlan,
@@ -145,14 +147,22 @@ public class MaestroServiceImpl implements MaestroService {
     Preconditions.checkState(activeQueryMap.putIfAbsent(queryId, queryTracker) == null,
     "query already queued for execution " + QueryIdHelper.getQueryId(queryId));
 
-    // allocate execution resources on the calling thread, as this will most likely block
-    queryTracker.allocateResources();
-
+    // request execution resources, the query may wait in a queue: the next steps are chained on the allocation
+    final CompletableFuture<Void> allocation;
     try {
+      allocation = queryTracker.allocateResources();
+    } catch (ExecutionSetupException | ResourceAllocationException | RuntimeException e) {
+      closeQuery(queryId);
+      throw e;
+    }
+
+    // a query that waited for its resources isn't planned on the thread that granted them
+    final boolean planInSameThread = runInSameThread && allocation.isDone();
+    final CompletableFuture<Void> planning = allocation.thenCompose(ignored -> {
       observer.beginState(AttemptObserver.toEvent(AttemptEvent.State.EXECUTION_PLANNING));
 
       // do execution planning in the bound pool
-      commandPool.get().submit(CommandPool.Priority.MEDIUM,
+      return commandPool.get().<Void>submit(CommandPool.Priority.MEDIUM,
         QueryIdHelper.getQueryId(queryId) + ":execution-planning",
         (waitInMillis) -> {
           injector.injectChecked(context.getExecutionControls(),
@@ -161,17 +171,43 @@ public class MaestroServiceImpl implements MaestroService {
           observer.commandPoolWait(waitInMillis);
           queryTracker.planExecution();
           return null;
-        }, runInSameThread).get();
-    } catch (ExecutionException|InterruptedException e) {
-      throw new ExecutionSetupException("failure during execution planning", e);
-    }
-
-    observer.beginState(AttemptObserver.toEvent(AttemptEvent.State.STARTING));
-    // propagate the fragments.
-    queryTracker.startFragments();
+        }, planInSameThread)
+        .exceptionally(t -> {
+          final Throwable cause = unwrap(t);
+          if (cause instanceof CancellationException) {
+            throw (CancellationException) cause;
+          }
+          throw new CompletionException(new ExecutionSetupException("failure during execution planning", cause));
+        });
+    });
+
+    return planning
+      .whenComplete((ignored, t) -> {
+        if (t != null) {
+          // nothing was sent to the executors yet
+          closeQuery(queryId);
+        }
+      })
+      .thenRun(() -> {
+        try {
+          observer.beginState(AttemptObserver.toEvent(AttemptEvent.State.STARTING));
+          // propagate the fragments.
+          queryTracker.startFragments();
+
+          injector.injectChecked(context.getExecutionControls(), INJECTOR_EXECUTE_QUERY_END_ERROR,
+            ExecutionSetupException.class);
+        } catch (CancellationException e) {
+          // cancelled before the fragments were sent
+          closeQuery(queryId);
+          throw e;
+        } catch (ExecutionSetupException e) {
+          throw new CompletionException(e);
+        }
+      });
+  }
 
-    injector.injectChecked(context.getExecutionControls(), INJECTOR_EXECUTE_QUERY_END_ERROR,
-      ExecutionSetupException.class);
+  private static Throwable unwrap(Throwable t) {
+    return t instanceof CompletionException && t.getCause() != null ? t.getCause() : t;
   }
 
   @Override
@@ -15,6 +15,8 @@
  */
 package com.dremio.exec.maestro;
 
+import java.util.concurrent.CompletableFuture;
+
 import com.dremio.common.exceptions.ExecutionSetupException;
 import com.dremio.exec.proto.CoordExecRPC.NodeQueryCompletion;
 import com.dremio.exec.proto.CoordExecRPC.NodeQueryFirstError;
@@ -29,10 +31,11 @@ interface QueryTracker extends AutoCloseable {
 
   /**
    * Allocate resources required for the query (eg. slot in distributed queue).
+   * @return a future completed once the resources are allocated, without waiting for them.
    * @throws ExecutionSetupException
    * @throws ResourceAllocationException
    */
-  void allocateResources() throws ExecutionSetupException, ResourceAllocationException;
+  CompletableFuture<Void> allocateResources() throws ExecutionSetupException, ResourceAllocationException;
 
   /**
    * Execution planning include parallelization of the query fragments.
@@ -65,7 +68,8 @@ interface QueryTracker extends AutoCloseable {
   void nodeMarkFirstError(NodeQueryFirstError firstError);
 
   /**
-   * Cancel the fragments of a query.
+   * Cancel the fragments of a query. Before the fragments are started, cancels the allocation of the resources
+   * instead, and fails the next execution step.
    */
   void cancel();
 }
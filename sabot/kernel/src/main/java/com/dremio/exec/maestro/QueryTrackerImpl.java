@@ -15,6 +15,9 @@
  */
 package com.dremio.exec.maestro;
 
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+
 import com.dremio.common.AutoCloseables;
 import com.dremio.common.exceptions.ExecutionSetupException;
 import com.dremio.exec.maestro.planner.ExecutionPlanCreator;
@@ -73,6 +76,9 @@ public class QueryTrackerImpl implements QueryTracker {
   private volatile ExecutionPlan executionPlan;
   private volatile ResourceTracker resourceTracker;
   private volatile ExecutionPlanningResources executionPlanningResources;
+  // guarded by this
+  private boolean cancelled;
+  private boolean fragmentsStarted;
 
   QueryTrackerImpl(
     QueryId queryId,
@@ -103,12 +109,14 @@ public class QueryTrackerImpl implements QueryTracker {
   }
 
   @Override
-  public void allocateResources() throws ExecutionSetupException, ResourceAllocationException  {
+  public CompletableFuture<Void> allocateResources() throws ExecutionSetupException, ResourceAllocationException  {
     resourceTracker = new ResourceTracker(physicalPlan, context, queryResourceManager, observer);
+    return resourceTracker.getAllocationFuture();
   }
 
   @Override
   public void planExecution() throws ExecutionSetupException {
+    checkNotCancelled();
     executionPlanningResources = ExecutionPlanCreator.getParallelizationInfo(context, observer,
       physicalPlan, executorSelectionService, resourceTracker.getResourceSchedulingDecisionInfo());
 
@@ -128,7 +136,23 @@ public class QueryTrackerImpl implements QueryTracker {
   @Override
   public void startFragments() throws ExecutionSetupException {
     Preconditions.checkNotNull(executionPlan, "execution plan required");
+    checkNotCancelled();
+    try {
+      startFragmentsInternal();
+    } finally {
+      final boolean cancelFragments;
+      synchronized (this) {
+        fragmentsStarted = true;
+        cancelFragments = cancelled;
+      }
+      // cancellations received while starting are only sent once the fragments are started.
+      if (cancelFragments) {
+        fragmentTracker.cancelExecutingFragments();
+      }
+    }
+  }
 
+  private void startFragmentsInternal() throws ExecutionSetupException {
     // Populate fragments before sending the query fragments.
     fragmentTracker.populate(executionPlan.getFragments(), resourceTracker.getResourceSchedulingDecisionInfo());
 
@@ -175,7 +199,23 @@ public class QueryTrackerImpl implements QueryTracker {
 
   @Override
   public void cancel() {
-    fragmentTracker.cancelExecutingFragments();
+    final boolean cancelFragments;
+    synchronized (this) {
+      cancelled = true;
+      cancelFragments = fragmentsStarted;
+    }
+    if (cancelFragments) {
+      fragmentTracker.cancelExecutingFragments();
+    } else if (resourceTracker != null) {
+      // no-op if the resources are already allocated, the next execution step fails instead.
+      resourceTracker.cancelAllocation();
+    }
+  }
+
+  private synchronized void checkNotCancelled() {
+    if (cancelled) {
+      throw new CancellationException("Query was cancelled before its fragments were started.");
+    }
   }
 
   @VisibleForTesting
@@ -15,8 +15,11 @@
  */
 package com.dremio.exec.maestro;
 
-import java.util.concurrent.ExecutionException;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
+import com.dremio.common.AutoCloseables;
 import com.dremio.common.exceptions.ExecutionSetupException;
 import com.dremio.exec.ops.QueryContext;
 import com.dremio.exec.physical.PhysicalPlan;
@@ -34,10 +37,12 @@ import com.dremio.resource.ResourceSet;
 import com.dremio.resource.exception.ResourceAllocationException;
 import com.dremio.resource.exception.ResourceUnavailableException;
 import com.google.common.annotations.VisibleForTesting;
-import com.google.common.base.Throwables;
 
 /**
  * Tracks cluster/queue resources held by the query during execution.
+ *
+ * The resources are requested when the tracker is created, but are not waited for: the query may wait in a queue,
+ * and the continuation of the query is chained on {@link #getAllocationFuture()} instead of holding the calling thread.
  */
 public class ResourceTracker implements AutoCloseable {
   private static final org.slf4j.Logger logger =
@@ -45,8 +50,11 @@ public class ResourceTracker implements AutoCloseable {
   private static final ControlsInjector injector =
     ControlsInjectorFactory.getInjector(ResourceTracker.class);
 
-  private ResourceSet resourceSet;
+  private volatile ResourceSet resourceSet;
   private ResourceSchedulingDecisionInfo resourceSchedulingDecisionInfo;
+  private CompletableFuture<ResourceSet> resourceSetFuture;
+  private CompletableFuture<Void> allocationFuture;
+  private boolean closed;
 
   @VisibleForTesting
   public static final String INJECTOR_RESOURCE_ALLOCATE_ERROR = "resourceAllocateError";
@@ -69,10 +77,10 @@ public class ResourceTracker implements AutoCloseable {
     ResourceAllocator resourceAllocator,
     MaestroObserver observer) throws ExecutionSetupException, ResourceAllocationException {
 
-    allocate(physicalPlan, context, resourceAllocator, observer);
+    allocationFuture = allocate(physicalPlan, context, resourceAllocator, observer);
   }
 
-  private void allocate(
+  private CompletableFuture<Void> allocate(
     PhysicalPlan physicalPlan,
     QueryContext context,
     ResourceAllocator resourceAllocator,
@@ -115,17 +123,58 @@ public class ResourceTracker implements AutoCloseable {
       observer.resourcesScheduled(resourceSchedulingDecisionInfo);
     });
     // should not put timeout, as we may be waiting for leases if query has to wait because queries concurrency limit
-    try {
-      resourceSet = resourceSchedulingResult.getResourceSetFuture().get();
+    resourceSetFuture = resourceSchedulingResult.getResourceSetFuture();
+    return resourceSetFuture.handle((resources, throwable) -> {
+      if (throwable != null) {
+        throw toAllocationFailure(throwable);
+      }
+      if (!setResources(resources)) {
+        throw new CancellationException("Query was closed while waiting for resources.");
+      }
       resourceSchedulingDecisionInfo.setSchedulingEndTimeMs(System.currentTimeMillis());
       observer.resourcesScheduled(resourceSchedulingDecisionInfo);
+      return null;
+    });
+  }
+
+  private static CompletionException toAllocationFailure(Throwable throwable) {
+    final Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null ?
+      throwable.getCause() : throwable;
+    // if the failure was caused by a ResourceAllocationException, or the allocation was cancelled, keep the cause
+    if (cause instanceof ResourceAllocationException || cause instanceof CancellationException) {
+      return new CompletionException(cause);
+    }
+    // otherwise, wrap into an ExecutionSetupException
+    return new CompletionException(new ExecutionSetupException("Unable to acquire slot for query.", cause));
+  }
 
-    } catch (ExecutionException|InterruptedException e) {
-      // if the execution exception was caused by a ResourceAllocationException, throw the cause instead
-      Throwables.propagateIfPossible(e.getCause(), ResourceAllocationException.class);
-      // otherwise, wrap into an ExecutionSetupException
-      throw new ExecutionSetupException("Unable to acquire slot for query.", e.getCause());
+  private synchronized boolean setResources(ResourceSet resources) {
+    if (closed) {
+      AutoCloseables.closeNoChecked(resources);
+      return false;
     }
+    resourceSet = resources;
+    return true;
+  }
+
+  /**
+   * Get the future completed once the resources of the query are allocated.
+   *
+   * The future is completed by the thread granting the resources, and fails with the
+   * {@link ResourceAllocationException} or {@link ExecutionSetupException} of the allocation, or with a
+   * {@link CancellationException} if the allocation was cancelled.
+   *
+   * @return allocation future
+   */
+  CompletableFuture<Void> getAllocationFuture() {
+    return allocationFuture;
+  }
+
+  /**
+   * Cancel the allocation if the query is still waiting for its resources.
+   */
+  void cancelAllocation() {
+    resourceSetFuture.cancel(false);
   }
 
   ResourceSchedulingDecisionInfo getResourceSchedulingDecisionInfo() {
@@ -138,6 +187,16 @@ public class ResourceTracker implements AutoCloseable {
 
   @Override
   public void close() throws Exception {
-    resourceSet.close();
+    final ResourceSet resources;
+    synchronized (this) {
+      closed = true;
+      resources = resourceSet;
+    }
+    if (resources == null) {
+      // still waiting, the resources are released if allocated later on
+      cancelAllocation();
+      return;
+    }
+    resources.close();
   }
 }
@@ -40,6 +40,7 @@ import com.dremio.sabot.op.sender.partition.PartitionSenderOperator;
 import com.dremio.sabot.op.sender.roundrobin.RoundRobinOperator;
 import com.dremio.sabot.op.sender.single.SingleSenderOperator;
 import com.dremio.sabot.op.sort.external.ExternalSortOperator;
+import com.dremio.sabot.op.windowframe.WindowFrameOperator;
 import com.dremio.sabot.op.writer.WriterOperator;
 
 /**
@@ -71,6 +72,7 @@ public class OperatorMetricRegistry {
     register(builder, CoreOperatorType.PROJECT_VALUE, ProjectorStats.Metric.class);
     register(builder, CoreOperatorType.FILTER_VALUE, FilterStats.Metric.class);
     register(builder, CoreOperatorType.NESTED_LOOP_JOIN_VALUE, NLJEOperator.Metric.class);
+    register(builder, CoreOperatorType.WINDOW_VALUE, WindowFrameOperator.Metric.class);
     CORE_OPERATOR_TYPE_METRICS_MAP = builder.build();
   }
 
@@ -102,6 +102,19 @@ public class WindowPOP extends AbstractSingle {
     return frameUnitsRows;
   }
 
+  /**
+   * @return true if this is a ROWS frame whose bounds move with the current row, e.g.
+   * {@code ROWS BETWEEN 2 PRECEDING AND CURRENT ROW}
+   */
+  @JsonIgnore
+  public boolean isSlidingRowsFrame() {
+    return frameUnitsRows && (!start.isUnbounded() || (!end.isUnbounded() && !end.isCurrent()));
+  }
+
+  /**
+   * Frame bound. The offset is relative to the current row: negative for {@code n PRECEDING}, positive for
+   * {@code n FOLLOWING} and 0 for {@code CURRENT ROW}.
+   */
   public static class Bound {
     private final boolean unbounded;
     private final long offset;
@@ -129,6 +142,7 @@ public class WindowPOP extends AbstractSingle {
   }
 
   public static Bound newBound(RexWindowBound windowBound) {
-    return new Bound(windowBound.isUnbounded(), windowBound.isCurrentRow() ? 0 : Long.MIN_VALUE); //TODO: Get offset to work
+    // offsets of n PRECEDING/FOLLOWING bounds are resolved by WindowPrel, as they are stored in the window constants
+    return new Bound(windowBound.isUnbounded(), windowBound.isCurrentRow() ? 0 : Long.MIN_VALUE);
   }
 }
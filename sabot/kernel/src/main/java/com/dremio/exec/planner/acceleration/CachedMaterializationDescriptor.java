@@ -17,6 +17,7 @@ package com.dremio.exec.planner.acceleration;
 
 import org.apache.calcite.plan.CopyWithCluster;
 
+import com.dremio.exec.planner.acceleration.substitution.SubstitutionUtils.PlanDependencies;
 import com.dremio.exec.planner.sql.SqlConverter;
 import com.google.common.base.Preconditions;
 
@@ -26,6 +27,7 @@ import com.google.common.base.Preconditions;
 public class CachedMaterializationDescriptor extends MaterializationDescriptor {
 
   private final DremioMaterialization materialization;
+  private final PlanDependencies dependencies;
 
   public CachedMaterializationDescriptor(MaterializationDescriptor descriptor, DremioMaterialization materialization) {
     super(descriptor.getLayoutInfo(),
@@ -41,6 +43,12 @@ public class CachedMaterializationDescriptor extends MaterializationDescriptor {
           descriptor.getJoinDependencyProperties(),
           descriptor.getStrippedPlanHash());
     this.materialization = Preconditions.checkNotNull(materialization, "materialization is required");
+    this.dependencies = PlanDependencies.of(materialization.getQueryRel());
+  }
+
+  @Override
+  public boolean mayBeUsedBy(PlanDependencies queryDependencies) {
+    return dependencies.mayBeUsedBy(queryDependencies);
   }
 
   @Override
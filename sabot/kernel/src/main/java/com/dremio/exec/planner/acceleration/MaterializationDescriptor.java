@@ -21,6 +21,7 @@ import java.util.Objects;
 
 import javax.annotation.Nullable;
 
+import com.dremio.exec.planner.acceleration.substitution.SubstitutionUtils.PlanDependencies;
 import com.dremio.exec.planner.sql.SqlConverter;
 import com.dremio.exec.proto.UserBitShared.MeasureColumn;
 import com.dremio.exec.proto.UserBitShared.ReflectionType;
@@ -143,6 +144,14 @@ public class MaterializationDescriptor {
     return Objects.hash(reflection, Arrays.hashCode(planBytes), path, originalCost);
   }
 
+  /**
+   * Returns whether the materialization may be used to accelerate a query with the given dependencies. Unless the
+   * materialization dependencies are known without expanding it, it may.
+   */
+  public boolean mayBeUsedBy(PlanDependencies queryDependencies) {
+    return true;
+  }
+
   public DremioMaterialization getMaterializationFor(SqlConverter converter) {
     final MaterializationExpander expander = MaterializationExpander.of(converter);
     return expander.expand(this);
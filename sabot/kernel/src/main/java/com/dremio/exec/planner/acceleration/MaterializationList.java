@@ -21,8 +21,11 @@ import java.util.Objects;
 import java.util.Set;
 
 import org.apache.calcite.plan.RelOptMaterialization;
+import org.apache.calcite.rel.RelNode;
 
 import com.dremio.exec.planner.acceleration.substitution.MaterializationProvider;
+import com.dremio.exec.planner.acceleration.substitution.SubstitutionUtils;
+import com.dremio.exec.planner.acceleration.substitution.SubstitutionUtils.PlanDependencies;
 import com.dremio.exec.planner.sql.SqlConverter;
 import com.dremio.exec.server.MaterializationDescriptorProvider;
 import com.dremio.sabot.rpc.user.UserSession;
@@ -51,6 +54,14 @@ public class MaterializationList implements MaterializationProvider {
       return build(provider);
     }
   });
+  private final Supplier<List<MaterializationDescriptor>> descriptors = Suppliers.memoize(new Supplier<List<MaterializationDescriptor>>() {
+    @Override
+    public List<MaterializationDescriptor> get() {
+      return getAllowedDescriptors(provider);
+    }
+  });
+  // materializations expanded so far, by descriptor; empty if the expansion failed
+  private final Map<MaterializationDescriptor, java.util.Optional<DremioMaterialization>> expanded = Maps.newLinkedHashMap();
 
   private final MaterializationDescriptorProvider provider;
   private final SqlConverter converter;
@@ -74,6 +85,28 @@ public class MaterializationList implements MaterializationProvider {
     return factory.get();
   }
 
+  /**
+   * Returns list of materializations applicable to the given query.
+   *
+   * Only the descriptors whose dependencies may be used by the query are converted to
+   * {@link RelOptMaterialization materializations}, so that unrelated reflections are not expanded.
+   */
+  @Override
+  public List<DremioMaterialization> getApplicableMaterializations(RelNode query) {
+    return SubstitutionUtils.findApplicableMaterializations(query, getCandidateMaterializations(PlanDependencies.of(query)));
+  }
+
+  /**
+   * Returns materializations expanded so far, which are the only ones that may be used by the plan.
+   */
+  public List<DremioMaterialization> getExpandedMaterializations() {
+    final List<DremioMaterialization> materializations = Lists.newArrayList();
+    for (java.util.Optional<DremioMaterialization> materialization : expanded.values()) {
+      materialization.ifPresent(materializations::add);
+    }
+    return materializations;
+  }
+
   @Override
   public java.util.Optional<DremioMaterialization> getDefaultRawMaterialization(NamespaceKey path, List<String> vdsFields) {
     return getDefaultRawMaterialization(provider, path, vdsFields);
@@ -96,10 +129,36 @@ public class MaterializationList implements MaterializationProvider {
    */
   @VisibleForTesting
   protected List<DremioMaterialization> build(final MaterializationDescriptorProvider provider) {
+    final List<DremioMaterialization> materializations = Lists.newArrayList();
+    for (final MaterializationDescriptor descriptor : getAllowedDescriptors(provider)) {
+      expand(descriptor).ifPresent(materializations::add);
+    }
+    return materializations;
+  }
+
+  /**
+   * Returns materializations which may be used by a query with the given dependencies.
+   *
+   * @param queryDependencies tables, views and external queries used by the query
+   * @return materializations to consider for the query
+   */
+  @VisibleForTesting
+  protected List<DremioMaterialization> getCandidateMaterializations(final PlanDependencies queryDependencies) {
+    final List<DremioMaterialization> materializations = Lists.newArrayList();
+    for (final MaterializationDescriptor descriptor : descriptors.get()) {
+      if (!descriptor.mayBeUsedBy(queryDependencies)) {
+        continue;
+      }
+      expand(descriptor).ifPresent(materializations::add);
+    }
+    return materializations;
+  }
+
+  private List<MaterializationDescriptor> getAllowedDescriptors(final MaterializationDescriptorProvider provider) {
     final Set<String> exclusions = Sets.newHashSet(session.getSubstitutionSettings().getExclusions());
     final Set<String> inclusions = Sets.newHashSet(session.getSubstitutionSettings().getInclusions());
     final boolean hasInclusions = !inclusions.isEmpty();
-    final List<DremioMaterialization> materializations = Lists.newArrayList();
+    final List<MaterializationDescriptor> allowed = Lists.newArrayList();
     for (final MaterializationDescriptor descriptor : provider.get()) {
 
       if(
@@ -110,19 +169,29 @@ public class MaterializationList implements MaterializationProvider {
           continue;
       }
 
+      allowed.add(descriptor);
+    }
+    return allowed;
+  }
+
+  /**
+   * Converts the descriptor to a materialization, once per descriptor.
+   */
+  private java.util.Optional<DremioMaterialization> expand(final MaterializationDescriptor descriptor) {
+    return expanded.computeIfAbsent(descriptor, d -> {
       try {
         final DremioMaterialization materialization = descriptor.getMaterializationFor(converter);
         if (materialization == null) {
-          continue;
+          return java.util.Optional.empty();
         }
 
         mapping.put(TablePath.of(descriptor.getPath()), descriptor);
-        materializations.add(materialization);
+        return java.util.Optional.of(materialization);
       } catch (Throwable e) {
         logger.warn("failed to expand materialization {}", descriptor.getMaterializationId(), e);
+        return java.util.Optional.empty();
       }
-    }
-    return materializations;
+    });
   }
 
   /**
@@ -149,11 +218,7 @@ public class MaterializationList implements MaterializationProvider {
             exclusions.contains(descriptor.getLayoutId())
         )
       ) {
-        try {
-          return java.util.Optional.of(descriptor.getMaterializationFor(converter));
-        } catch (Throwable e) {
-          logger.warn("Failed to expand materialization {}", descriptor.getMaterializationId(), e);
-        }
+        return expand(descriptor);
       }
     }
     return java.util.Optional.empty();
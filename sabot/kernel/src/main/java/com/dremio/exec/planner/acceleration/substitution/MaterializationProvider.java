@@ -18,6 +18,8 @@ package com.dremio.exec.planner.acceleration.substitution;
 import java.util.List;
 import java.util.Optional;
 
+import org.apache.calcite.rel.RelNode;
+
 import com.dremio.exec.planner.acceleration.DremioMaterialization;
 import com.dremio.service.namespace.NamespaceKey;
 
@@ -32,6 +34,14 @@ public interface MaterializationProvider {
    */
   List<DremioMaterialization> getMaterializations();
 
+  /**
+   * Returns list of materializations that provider considers for substitution of the given query: the ones that
+   * depend on a table, view or external query of the query.
+   */
+  default List<DremioMaterialization> getApplicableMaterializations(RelNode query) {
+    return SubstitutionUtils.findApplicableMaterializations(query, getMaterializations());
+  }
+
   /**
    * Returns the default raw materialization that provider considers for substitution
    * for the VDS with the given path
@@ -19,6 +19,7 @@ import java.io.IOException;
 import java.io.PrintWriter;
 import java.io.Writer;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
@@ -40,7 +41,9 @@ import com.dremio.exec.planner.acceleration.ExpansionNode;
 import com.dremio.exec.tablefunctions.ExternalQueryScanCrel;
 import com.dremio.reflection.rules.ReplacementPointer;
 import com.dremio.service.Pointer;
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Sets;
 
 /**
@@ -203,6 +206,42 @@ public final class SubstitutionUtils {
     return externalQueries;
   }
 
+  /**
+   * Tables, views and external queries a plan depends on. Computed once for a materialization, they tell whether the
+   * materialization may be used to accelerate a query without expanding it.
+   */
+  public static final class PlanDependencies {
+    private final Set<List<String>> tables;
+    private final Set<List<String>> vdsPaths;
+    private final Set<ExternalQueryDescriptor> externalQueries;
+
+    private PlanDependencies(Set<List<String>> tables, Set<List<String>> vdsPaths,
+                             Set<ExternalQueryDescriptor> externalQueries) {
+      this.tables = ImmutableSet.copyOf(tables);
+      this.vdsPaths = ImmutableSet.copyOf(vdsPaths);
+      this.externalQueries = ImmutableSet.copyOf(externalQueries);
+    }
+
+    public static PlanDependencies of(final RelNode rel) {
+      return new PlanDependencies(findTables(rel), findExpansionNodes(rel), findExternalQueries(rel));
+    }
+
+    @VisibleForTesting
+    public static PlanDependencies of(Set<List<String>> tables, Set<List<String>> vdsPaths) {
+      return new PlanDependencies(tables, vdsPaths, Collections.emptySet());
+    }
+
+    /**
+     * Returns false if a materialization with these dependencies cannot be applicable to a query with the given
+     * dependencies, as defined by {@link #findApplicableMaterializations(RelNode, Collection)}.
+     */
+    public boolean mayBeUsedBy(PlanDependencies query) {
+      return !Collections.disjoint(tables, query.tables)
+        || !Collections.disjoint(vdsPaths, query.vdsPaths)
+        || !Collections.disjoint(externalQueries, query.externalQueries);
+    }
+  }
+
   public static List<DremioMaterialization> findApplicableMaterializations(
     final RelNode query, final Collection<DremioMaterialization> materializations) {
     final Set<List<String>> queryTablesUsed = SubstitutionUtils.findTables(query);
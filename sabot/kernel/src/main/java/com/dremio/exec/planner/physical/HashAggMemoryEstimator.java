@@ -22,6 +22,7 @@ import java.util.stream.Collectors;
 import org.apache.arrow.memory.BufferAllocator;
 import org.apache.arrow.memory.RootAllocator;
 import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.types.pojo.ArrowType;
 import org.apache.arrow.vector.types.pojo.Field;
 
 import com.dremio.common.expression.CompleteType;
@@ -129,8 +130,6 @@ public class HashAggMemoryEstimator {
          final VectorContainer incoming = new VectorContainer(allocator)) {
       incoming.addSchema(childSchema);
 
-      final int hashTableBatchSize = computeHashTableSize(options, schema);
-
       // construct pivot info using the group-by exprs.
       final List<LogicalExpression> materializedGroupByExprs = materializeExprs(groupByExpressions,
         childSchema,
@@ -145,6 +144,8 @@ public class HashAggMemoryEstimator {
         AccumulatorBuilder.getAccumulatorTypesFromMaterializedExpressions(
           aggregateExpressions, materializedAggExprs, incoming);
 
+      final int hashTableBatchSize = computeHashTableSize(options, schema, accumulatorTypes);
+
       return create(pivotInfo, accumulatorTypes, hashTableBatchSize, options);
     }
   }
@@ -258,9 +259,11 @@ public class HashAggMemoryEstimator {
 
   // compute direct memory required for by the accumulators for one batch.
   private int computeAccumulatorSizeForSinglePartition() {
+    final int estimatedVariableWidthSize =
+      (int) optionManager.getOption(VectorizedHashAggOperator.VARIABLE_FIELD_SIZE_ESTIMATE);
     int validitySize = 0;
     int dataSize = 0;
-    for (Field field : materializedAggExpressions.getOutputVectorFields()) {
+    for (Field field : materializedAggExpressions.getAccumulatorVectorFields()) {
       TypeProtos.MinorType minorType = CompleteType.fromField(field).toMinorType();
       switch (minorType) {
         case BIT:
@@ -292,6 +295,22 @@ public class HashAggMemoryEstimator {
           validitySize += getValidityBufferSizeFromCount(hashTableBatchSize);
           dataSize += (16 * hashTableBatchSize);
           break;
+
+        /* HLL sketch accumulator */
+        case FIXEDSIZEBINARY:
+          validitySize += getValidityBufferSizeFromCount(hashTableBatchSize);
+          dataSize += (((ArrowType.FixedSizeBinary) field.getType()).getByteWidth() * hashTableBatchSize);
+          break;
+
+        /* variable width min/max accumulator: validity, offsets, index to the values (in the
+         * mutable accumulator vectors) and data pre-allocated using the estimated width
+         */
+        case VARCHAR:
+        case VARBINARY:
+          validitySize += getValidityBufferSizeFromCount(hashTableBatchSize);
+          dataSize += ((hashTableBatchSize + 1) * 4) + (2 * hashTableBatchSize) +
+            (estimatedVariableWidthSize * hashTableBatchSize);
+          break;
       }
     }
 
@@ -314,15 +333,21 @@ public class HashAggMemoryEstimator {
   }
 
   private static int computeHashTableSize(final OptionManager options,
-    final BatchSchema schema) {
+    final BatchSchema schema, final MaterializedAggExpressionsResult materializedAggExpressions) {
 
     /*
      * Estimate the outgoing record size. This is proportional to the sum of the accumulator and
-     * pivot sizes.
+     * pivot sizes. The sketches of HLL accumulators are much larger than their output, so they
+     * are accounted for separately.
      */
     final int listSizeEstimate = (int)options.getOption(ExecConstants.BATCH_LIST_SIZE_ESTIMATE);
     final int estimatedVariableWidthKeySize = (int)options.getOption(VectorizedHashAggOperator.VARIABLE_FIELD_SIZE_ESTIMATE);
-    final int estimatedRecordSize = schema.estimateRecordSize(listSizeEstimate, estimatedVariableWidthKeySize);
+    int estimatedRecordSize = schema.estimateRecordSize(listSizeEstimate, estimatedVariableWidthKeySize);
+    for (Field field : materializedAggExpressions.getAccumulatorVectorFields()) {
+      if (field.getType() instanceof ArrowType.FixedSizeBinary) {
+        estimatedRecordSize += ((ArrowType.FixedSizeBinary) field.getType()).getByteWidth();
+      }
+    }
 
     /*
      * Compute the max hash table batch size, based on the estimated record size.
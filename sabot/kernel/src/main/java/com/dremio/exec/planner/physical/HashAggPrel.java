@@ -155,6 +155,9 @@ public class HashAggPrel extends AggPrelBase implements Prel{
       return false;
     }
     boolean useSpill = true;
+    final boolean enabledSpillNdv = creator.getContext().getOptions().getOption(ExecConstants.ENABLE_VECTORIZED_SPILL_NDV_ACCUMULATOR);
+    final boolean enabledSpillVarcharMinMax =
+      creator.getContext().getOptions().getOption(ExecConstants.ENABLE_VECTORIZED_SPILL_VARCHAR_MIN_MAX_ACCUMULATOR);
     final BatchSchema childSchema = child.getProps().getSchema();
     for(NamedExpression ne : aggExprs) {
       final LogicalExpression expr = ExpressionTreeMaterializer.materializeAndCheckErrors(ne.getExpr(), childSchema, creator.getContext().getFunctionRegistry());
@@ -162,7 +165,8 @@ public class HashAggPrel extends AggPrelBase implements Prel{
         final String functionName = ((FunctionHolderExpr) expr).getName();
         final boolean isMinMaxFn = (functionName.equals("min") || functionName.equals("max"));
         final boolean isNDVFn = (functionName.equals("hll") || functionName.equals("hll_merge"));
-        if (isNDVFn || (isMinMaxFn && expr.getCompleteType().isVariableWidthScalar())) {
+        if ((isNDVFn && !enabledSpillNdv) ||
+          (isMinMaxFn && expr.getCompleteType().isVariableWidthScalar() && !enabledSpillVarcharMinMax)) {
           useSpill = false;
           break;
         }
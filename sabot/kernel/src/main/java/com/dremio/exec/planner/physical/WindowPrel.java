@@ -19,6 +19,7 @@ package com.dremio.exec.planner.physical;
 import static com.google.common.base.Preconditions.checkState;
 
 import java.io.IOException;
+import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Iterator;
@@ -32,7 +33,10 @@ import org.apache.calcite.rel.RelNode;
 import org.apache.calcite.rel.core.AggregateCall;
 import org.apache.calcite.rel.type.RelDataType;
 import org.apache.calcite.rel.type.RelDataTypeField;
+import org.apache.calcite.rex.RexInputRef;
 import org.apache.calcite.rex.RexLiteral;
+import org.apache.calcite.rex.RexNode;
+import org.apache.calcite.rex.RexWindowBound;
 import org.apache.calcite.util.BitSets;
 
 import com.dremio.common.expression.ErrorCollector;
@@ -144,11 +148,33 @@ public class WindowPrel extends WindowRelBase implements Prel {
         aggs,
         orderings,
         window.isRows,
-        WindowPOP.newBound(window.lowerBound),
-        WindowPOP.newBound(window.upperBound)
+        toBound(window.lowerBound),
+        toBound(window.upperBound)
         );
   }
 
+  /**
+   * Converts a frame bound, resolving the offset of {@code n PRECEDING/FOLLOWING} bounds from the window constants.
+   */
+  private WindowPOP.Bound toBound(RexWindowBound bound) {
+    if (bound.isUnbounded() || bound.isCurrentRow()) {
+      return WindowPOP.newBound(bound);
+    }
+
+    final RexNode offset = bound.getOffset();
+    final RexLiteral literal;
+    if (offset instanceof RexLiteral) {
+      literal = (RexLiteral) offset;
+    } else if (offset instanceof RexInputRef) {
+      literal = constants.get(((RexInputRef) offset).getIndex() - getInput().getRowType().getFieldCount());
+    } else {
+      throw new UnsupportedOperationException("Unsupported window frame offset: " + offset);
+    }
+
+    final long value = ((BigDecimal) literal.getValue()).longValueExact();
+    return new WindowPOP.Bound(false, bound.isPreceding() ? -value : value);
+  }
+
   protected LogicalExpression toExpr(AggregateCall call, List<String> fn) {
     ParseContext context = new ParseContext(PrelUtil.getSettings(getCluster()));
 
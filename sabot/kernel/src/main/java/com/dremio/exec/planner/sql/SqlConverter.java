@@ -246,6 +246,13 @@ public class SqlConverter {
     return validator.getValidatedNodeType(validatedNode);
   }
 
+  /**
+   * @return the type of a validated expression, or null if the validator didn't derive it
+   */
+  public RelDataType getValidatedNodeTypeIfKnown(SqlNode validatedNode) {
+    return validator.getValidatedNodeTypeIfKnown(validatedNode);
+  }
+
   public JavaTypeFactory getTypeFactory() {
     return typeFactory;
   }
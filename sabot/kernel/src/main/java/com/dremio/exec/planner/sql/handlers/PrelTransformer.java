@@ -200,7 +200,7 @@ public class PrelTransformer {
     final Pair<SqlNode, RelDataType> typedSqlNode = new Pair<>(sqlNodeValidated, config.getConverter().getOutputType(sqlNodeValidated));
 
     // Check if the unsupported functionality is used
-    UnsupportedOperatorsVisitor visitor = UnsupportedOperatorsVisitor.createVisitor(config.getContext());
+    UnsupportedOperatorsVisitor visitor = UnsupportedOperatorsVisitor.createVisitor(config.getContext(), config.getConverter());
     try {
       sqlNodeValidated.accept(visitor);
     } catch (UnsupportedOperationException ex) {
@@ -540,7 +540,7 @@ public class PrelTransformer {
 
   private static RelNode processBoostedMaterializations(SqlHandlerConfig config, RelNode relNode) {
     final Set<List<String>> qualifiedNames = config.getMaterializations().isPresent() ?
-      config.getMaterializations().get().getMaterializations()
+      config.getMaterializations().get().getExpandedMaterializations()
         .stream()
         .filter(m -> m.getLayoutInfo().isArrowCachingEnabled())
         .map(DremioMaterialization::getTableRel)
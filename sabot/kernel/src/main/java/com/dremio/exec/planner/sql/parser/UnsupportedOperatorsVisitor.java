@@ -15,8 +15,11 @@
  */
 package com.dremio.exec.planner.sql.parser;
 
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
 
+import org.apache.calcite.rel.type.RelDataType;
 import org.apache.calcite.sql.JoinType;
 import org.apache.calcite.sql.SqlCall;
 import org.apache.calcite.sql.SqlDataTypeSpec;
@@ -39,15 +42,22 @@ import com.dremio.exec.ExecConstants;
 import com.dremio.exec.exception.UnsupportedOperatorCollector;
 import com.dremio.exec.ops.QueryContext;
 import com.dremio.exec.planner.physical.PlannerSettings;
+import com.dremio.exec.planner.sql.SqlConverter;
 import com.dremio.exec.work.foreman.SqlUnsupportedException;
 import com.google.common.collect.Lists;
 
 public class UnsupportedOperatorsVisitor extends SqlShuttle {
   private QueryContext context;
+  private SqlConverter converter;
   private static List<String> disabledType = Lists.newArrayList();
   private static List<String> disabledOperators = Lists.newArrayList();
   private static List<String> dirExplorers = Lists.newArrayList();
   private static List<String> flattenNames = Lists.newArrayList();
+  private static List<String> slidingFrameFunctions = Lists.newArrayList();
+  // argument types of the aggregates, other than COUNT, evaluated over ROWS frames with offsets
+  private static final Set<SqlTypeName> slidingFrameTypes = EnumSet.of(
+    SqlTypeName.INTEGER, SqlTypeName.BIGINT, SqlTypeName.FLOAT, SqlTypeName.DOUBLE, SqlTypeName.DECIMAL,
+    SqlTypeName.DATE, SqlTypeName.TIME, SqlTypeName.TIMESTAMP);
 
   static {
     disabledType.add(SqlTypeName.TINYINT.name());
@@ -59,17 +69,27 @@ public class UnsupportedOperatorsVisitor extends SqlShuttle {
     dirExplorers.add("MINDIR");
     dirExplorers.add("IMINDIR");
     flattenNames.add("FLATTEN");
+    slidingFrameFunctions.add("SUM");
+    slidingFrameFunctions.add("$SUM0");
+    slidingFrameFunctions.add("COUNT");
+    slidingFrameFunctions.add("AVG");
+    slidingFrameFunctions.add("MIN");
+    slidingFrameFunctions.add("MAX");
   }
 
   private UnsupportedOperatorCollector unsupportedOperatorCollector;
 
-  private UnsupportedOperatorsVisitor(QueryContext context) {
+  private UnsupportedOperatorsVisitor(QueryContext context, SqlConverter converter) {
     this.context = context;
+    this.converter = converter;
     this.unsupportedOperatorCollector = new UnsupportedOperatorCollector();
   }
 
-  public static UnsupportedOperatorsVisitor createVisitor(QueryContext context) {
-    return new UnsupportedOperatorsVisitor(context);
+  /**
+   * @param converter converter that validated the visited node, used to get the type of expressions
+   */
+  public static UnsupportedOperatorsVisitor createVisitor(QueryContext context, SqlConverter converter) {
+    return new UnsupportedOperatorsVisitor(context, converter);
   }
 
   public void convertException() throws SqlUnsupportedException {
@@ -163,6 +183,33 @@ public class UnsupportedOperatorsVisitor extends SqlShuttle {
                 throw new UnsupportedOperationException();
               }
             }
+
+            // ROWS frames with offsets are evaluated incrementally, which only some aggregates support.
+            // Ranking and offset functions ignore the frame.
+            final SqlNode window = resolveWindow(sqlSelect, over.operand(1));
+            if (window instanceof SqlWindow
+                && isSlidingRowsFrame((SqlWindow) window)
+                && !function.getOperator().requiresOrder()
+                && !slidingFrameFunctions.contains(functionName)) {
+              unsupportedOperatorCollector.setException(SqlUnsupportedException.ExceptionType.FUNCTION,
+                "Function " + functionName + " is not currently supported with ROWS frames that have an offset");
+              throw new UnsupportedOperationException();
+            }
+
+            // The frame is evaluated on numeric and temporal values only
+            if (window instanceof SqlWindow
+                && isSlidingRowsFrame((SqlWindow) window)
+                && slidingFrameFunctions.contains(functionName)
+                && !"COUNT".equals(functionName)
+                && function.operandCount() == 1) {
+              final RelDataType type = converter.getValidatedNodeTypeIfKnown(function.operand(0));
+              if (type != null && !slidingFrameTypes.contains(type.getSqlTypeName())) {
+                unsupportedOperatorCollector.setException(SqlUnsupportedException.ExceptionType.FUNCTION,
+                  "Function " + functionName + " is not currently supported on " + type.getSqlTypeName()
+                    + " with ROWS frames that have an offset");
+                throw new UnsupportedOperationException();
+              }
+            }
           }
         }
       }
@@ -200,6 +247,13 @@ public class UnsupportedOperatorsVisitor extends SqlShuttle {
         isSupported = true;
       }
 
+      // ROWS frames with n PRECEDING/FOLLOWING bounds, or starting at the CURRENT ROW,
+      // e.g. ROWS BETWEEN 2 PRECEDING AND 1 FOLLOWING
+      // are supported with and without an ORDER BY clause
+      if (isSlidingRowsFrame(window)) {
+        isSupported = true;
+      }
+
       // RANGE BETWEEN CURRENT ROW AND CURRENT ROW
       // is supported with and without an ORDER BY clause
       if (!window.isRows() &&
@@ -501,6 +555,44 @@ public class UnsupportedOperatorsVisitor extends SqlShuttle {
     return dirExplorersFinder.find();
   }
 
+  /**
+   * Checks if a window has a ROWS frame which moves with the current row, and whose bounds are either
+   * UNBOUNDED, CURRENT ROW or n PRECEDING/FOLLOWING with a numeric literal n.
+   */
+  private static boolean isSlidingRowsFrame(SqlWindow window) {
+    final SqlNode lowerBound = window.getLowerBound();
+    final SqlNode upperBound = window.getUpperBound();
+    if (!window.isRows() || lowerBound == null) {
+      return false;
+    }
+
+    final boolean lowerOffset = isOffsetBound(lowerBound);
+    final boolean upperOffset = upperBound != null && isOffsetBound(upperBound);
+    final boolean lowerValid = lowerOffset || SqlWindow.isUnboundedPreceding(lowerBound) || SqlWindow.isCurrentRow(lowerBound);
+    final boolean upperValid = upperBound == null || upperOffset
+      || SqlWindow.isCurrentRow(upperBound) || SqlWindow.isUnboundedFollowing(upperBound);
+    return lowerValid && upperValid && (lowerOffset || upperOffset || SqlWindow.isCurrentRow(lowerBound));
+  }
+
+  private static boolean isOffsetBound(SqlNode bound) {
+    return (bound.getKind() == SqlKind.PRECEDING || bound.getKind() == SqlKind.FOLLOWING)
+      && ((SqlCall) bound).operand(0) instanceof SqlNumericLiteral;
+  }
+
+  /**
+   * Expands a window referenced by name as the window defined in the window list
+   */
+  private static SqlNode resolveWindow(SqlSelect sqlSelect, SqlNode window) {
+    if (window instanceof SqlIdentifier && sqlSelect.getWindowList() != null) {
+      for (SqlNode sqlNode : sqlSelect.getWindowList()) {
+        if (((SqlWindow) sqlNode).getDeclName().equalsDeep(window, false)) {
+          return sqlNode;
+        }
+      }
+    }
+    return window;
+  }
+
   /**
    * Disable multiple partitions in a SELECT-CLAUSE
    * If multiple partitions are defined in the query,
@@ -27,6 +27,7 @@ import org.apache.arrow.vector.VectorUnloader;
 import org.apache.arrow.vector.ipc.message.ArrowRecordBatch;
 import org.apache.arrow.vector.types.pojo.Field;
 
+import com.dremio.exec.proto.ExecRPC.BatchCompression;
 import com.dremio.exec.proto.ExecRPC.FragmentRecordBatch;
 import com.dremio.exec.proto.UserBitShared.QueryId;
 import com.google.common.base.Function;
@@ -121,6 +122,39 @@ public class FragmentWritableBatch{
     this.header = builder.build();
   }
 
+  public FragmentWritableBatch(FragmentRecordBatch header, ByteBuf[] buffers, int recordCount) {
+    this.header = header;
+    this.buffers = buffers;
+    this.recordCount = recordCount;
+  }
+
+  /**
+   * Creates a batch for other receiving minor fragments, sharing the memory of this batch.
+   * The buffers are retained, as sending the returned batch releases them, and duplicated, as sending moves their
+   * reader index.
+   */
+  public FragmentWritableBatch withReceivers(int... receiveMinorFragmentId) {
+    final FragmentRecordBatch.Builder builder = header.toBuilder()
+        .clearReceivingMinorFragmentId();
+    for(final int i : receiveMinorFragmentId){
+      builder.addReceivingMinorFragmentId(i);
+    }
+    final ByteBuf[] shared = new ByteBuf[buffers.length];
+    for (int i = 0; i < buffers.length; i++) {
+      shared[i] = buffers[i].retainedDuplicate();
+    }
+    return new FragmentWritableBatch(builder.build(), shared, recordCount);
+  }
+
+  /**
+   * Releases the buffers of a batch that is not sent.
+   */
+  public void release() {
+    for (final ByteBuf buf : buffers) {
+      buf.release();
+    }
+  }
+
   public ByteBuf[] getBuffers(){
     return buffers;
   }
@@ -133,6 +167,20 @@ public class FragmentWritableBatch{
     return n;
   }
 
+  /**
+   * @return the size of the batch buffers once decompressed by the receiver
+   */
+  public long getUncompressedByteCount() {
+    if (header.getCompression() == BatchCompression.NO_COMPRESSION) {
+      return getByteCount();
+    }
+    long n = 0;
+    for (final long length : header.getBufferLengthList()) {
+      n += length;
+    }
+    return n;
+  }
+
   public FragmentRecordBatch getHeader() {
     return header;
 
@@ -46,6 +46,7 @@ import com.dremio.exec.proto.CoordinationProtos.NodeEndpoint;
 import com.dremio.exec.server.options.SystemOptionManager;
 import com.dremio.exec.store.CatalogService;
 import com.dremio.exec.store.dfs.FileSystemWrapper;
+import com.dremio.exec.store.dfs.cache.LocalCacheFileSystemWrapper;
 import com.dremio.exec.store.sys.accel.AccelerationListManager;
 import com.dremio.exec.store.sys.accel.AccelerationManager;
 import com.dremio.exec.work.WorkStats;
@@ -172,10 +173,16 @@ public class SabotContext implements AutoCloseable {
     this.viewCreatorFactory = viewCreatorFactory;
     this.queryPlanningAllocator = queryPlanningAllocator;
     this.spillService = spillService;
+    final FileSystemWrapper defaultFileSystemWrapper;
+    if (roles.contains(Role.EXECUTOR) && LocalCacheFileSystemWrapper.isEnabled(dremioConfig)) {
+      defaultFileSystemWrapper = new LocalCacheFileSystemWrapper(dremioConfig, this.optionManager, endpoint);
+    } else {
+      defaultFileSystemWrapper = (fs, storageId, conf, operatorContext, enableAsync, isMetadataEnabled) -> fs;
+    }
     this.fileSystemWrapper = config.getInstance(
       FileSystemWrapper.FILE_SYSTEM_WRAPPER_CLASS,
       FileSystemWrapper.class,
-      (fs, storageId, conf, operatorContext, enableAsync, isMetadataEnabled) -> fs,
+      defaultFileSystemWrapper,
       dremioConfig,
       this.optionManager,
       allocator,
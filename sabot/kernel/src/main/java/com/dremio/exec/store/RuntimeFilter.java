@@ -16,6 +16,7 @@
 package com.dremio.exec.store;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
@@ -55,12 +56,12 @@ public class RuntimeFilter implements AutoCloseable {
   public static RuntimeFilter getInstance(final ExecProtos.RuntimeFilter protoFilter,
                                           final BloomFilter bloomFilter,
                                           final String senderInfo) {
-    final CompositeColumnFilter partitionColumnFilter = Optional.ofNullable(protoFilter.getPartitionColumnFilter())
-            .map(proto -> new CompositeColumnFilter.Builder()
+    final CompositeColumnFilter partitionColumnFilter = protoFilter.hasPartitionColumnFilter()
+            ? new CompositeColumnFilter.Builder()
                     .setProtoFields(protoFilter.getPartitionColumnFilter())
                     .setBloomFilter(bloomFilter)
-                    .build())
-            .orElse(null);
+                    .build()
+            : null;
     final List<CompositeColumnFilter> nonPartitionColumnFilter = Optional.ofNullable(protoFilter.getNonPartitionColumnFilterList()).orElse(new ArrayList<>(0))
             .stream()
             .map(proto -> new CompositeColumnFilter.Builder().setProtoFields(proto).build())
@@ -76,14 +77,23 @@ public class RuntimeFilter implements AutoCloseable {
    * @return
    */
   public boolean isOnSameColumns(final RuntimeFilter that) {
-    if (this.getPartitionColumnFilter() == null && that.getPartitionColumnFilter() == null) {
-      return true;
-    }
     if ((this.getPartitionColumnFilter() == null) != (that.getPartitionColumnFilter() == null)) {
       return false;
     }
-    return Objects.equals(this.getPartitionColumnFilter().getColumnsList(), that.getPartitionColumnFilter().getColumnsList());
-    // TODO: Extend for non partition columns
+    if (this.getPartitionColumnFilter() != null
+      && !Objects.equals(this.getPartitionColumnFilter().getColumnsList(), that.getPartitionColumnFilter().getColumnsList())) {
+      return false;
+    }
+    return Objects.equals(getNonPartitionColumns(this), getNonPartitionColumns(that));
+  }
+
+  private static List<List<String>> getNonPartitionColumns(RuntimeFilter filter) {
+    if (filter.getNonPartitionColumnFilter() == null) {
+      return Collections.emptyList();
+    }
+    return filter.getNonPartitionColumnFilter().stream()
+            .map(CompositeColumnFilter::getColumnsList)
+            .collect(Collectors.toList());
   }
 
 
@@ -99,5 +109,6 @@ public class RuntimeFilter implements AutoCloseable {
   @Override
   public void close() throws Exception {
     AutoCloseables.close(partitionColumnFilter);
+    AutoCloseables.close(nonPartitionColumnFilter);
   }
 }
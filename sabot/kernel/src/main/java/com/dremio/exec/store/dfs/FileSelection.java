@@ -23,6 +23,7 @@ import java.net.URI;
 import java.net.URISyntaxException;
 import java.nio.file.DirectoryIteratorException;
 import java.nio.file.DirectoryStream;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Objects;
 import java.util.concurrent.TimeUnit;
@@ -30,6 +31,7 @@ import java.util.concurrent.TimeUnit;
 import org.apache.commons.io.FilenameUtils;
 
 import com.dremio.common.utils.PathUtils;
+import com.dremio.exec.ExecConstants;
 import com.dremio.exec.util.Utilities;
 import com.dremio.io.file.FileAttributes;
 import com.dremio.io.file.FileSystem;
@@ -53,6 +55,8 @@ public class FileSelection {
   public static final String PATH_SEPARATOR = System.getProperty("file.separator");
   private static final String WILD_CARD = "*";
 
+  private static final int DEFAULT_LISTING_PARALLELISM = (int) ExecConstants.FS_LISTING_PARALLELISM.getDefault().getNumVal();
+
   private final ImmutableList<FileAttributes> fileAttributesList;
   private final String selectionRoot;
 
@@ -165,16 +169,33 @@ public class FileSelection {
   }
 
   public static FileSelection create(final FileSystem fs, final List<String> fullPath) throws IOException {
-    return create(fs, getPathBasedOnFullPath(fullPath));
+    return create(fs, fullPath, DEFAULT_LISTING_PARALLELISM);
+  }
+
+  public static FileSelection create(final FileSystem fs, final List<String> fullPath, int listingParallelism) throws IOException {
+    return create(fs, getPathBasedOnFullPath(fullPath), listingParallelism);
   }
 
   // Check if path is actually a full schema path
   public static FileSelection createWithFullSchema(final FileSystem fs, final String parent, final String fullSchemaPath) throws IOException {
+    return createWithFullSchema(fs, parent, fullSchemaPath, DEFAULT_LISTING_PARALLELISM);
+  }
+
+  public static FileSelection createWithFullSchema(final FileSystem fs, final String parent, final String fullSchemaPath,
+      int listingParallelism) throws IOException {
     final Path combined = Path.mergePaths(Path.of(parent), PathUtils.toFSPath(fullSchemaPath));
-    return create(fs, combined);
+    return create(fs, combined, listingParallelism);
   }
 
   public static FileSelection create(final FileSystem fs, Path combined) throws IOException {
+    return create(fs, combined, DEFAULT_LISTING_PARALLELISM);
+  }
+
+  /**
+   * Creates a selection of the files matching the given path, listing up to {@code listingParallelism}
+   * directories concurrently.
+   */
+  public static FileSelection create(final FileSystem fs, Path combined, int listingParallelism) throws IOException {
     Stopwatch timer = Stopwatch.createStarted();
 
     // NFS filesystems has delay before files written by executor shows up in the coordinator.
@@ -183,8 +204,10 @@ public class FileSelection {
     fs.exists(combined);
 
     final ImmutableList<FileAttributes> fileAttributes;
-    try(DirectoryStream<FileAttributes> stream = FileSystemUtils.globRecursive(fs, combined, NO_HIDDEN_FILES)) {
-      fileAttributes = ImmutableList.copyOf(stream);
+    try(DirectoryStream<FileAttributes> stream =
+          FileSystemUtils.globRecursive(fs, combined, NO_HIDDEN_FILES, listingParallelism)) {
+      // directories are listed concurrently, sort the entries so that the selection does not depend on the listing order
+      fileAttributes = ImmutableList.sortedCopyOf(Comparator.comparing(FileAttributes::getPath), stream);
     } catch (DirectoryIteratorException e) {
       throw e.getCause();
     }
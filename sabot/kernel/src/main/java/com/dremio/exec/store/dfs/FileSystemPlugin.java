@@ -477,11 +477,13 @@ public class FileSystemPlugin<C extends FileSystemConf<C, ?>> implements Storage
     try {
       List<String> parentSchemaPath = new ArrayList<>(fullPath.subList(0, fullPath.size() - 1));
       FileSystem fs = createFS(user);
-      FileSelection fileSelection = FileSelection.create(fs, fullPath);
+      final int listingParallelism = getListingParallelism();
+      FileSelection fileSelection = FileSelection.create(fs, fullPath, listingParallelism);
       String tableName = datasetPath.getName();
 
       if (fileSelection == null) {
-        fileSelection = FileSelection.createWithFullSchema(fs, PathUtils.toFSPathString(parentSchemaPath), tableName);
+        fileSelection = FileSelection.createWithFullSchema(fs, PathUtils.toFSPathString(parentSchemaPath), tableName,
+            listingParallelism);
         if (fileSelection == null) {
           return null; // no table found
         } else {
@@ -918,6 +920,10 @@ public class FileSystemPlugin<C extends FileSystemConf<C, ?>> implements Storage
     return context;
   }
 
+  private int getListingParallelism() {
+    return (int) context.getOptionManager().getOption(ExecConstants.FS_LISTING_PARALLELISM);
+  }
+
   @Override
   public void close() {
     // Empty cache
@@ -1043,7 +1049,7 @@ public class FileSystemPlugin<C extends FileSystemConf<C, ?>> implements Storage
     List<String> fullPath = resolveTableNameToValidPath(tableSchemaPath);
     FileSelection fileSelection;
     try {
-      fileSelection = FileSelection.create(fs, fullPath);
+      fileSelection = FileSelection.create(fs, fullPath, getListingParallelism());
     } catch (IOException e) {
       throw new RuntimeException(e);
     }
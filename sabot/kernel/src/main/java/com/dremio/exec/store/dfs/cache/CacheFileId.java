@@ -0,0 +1,86 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.dfs.cache;
+
+import java.util.Objects;
+
+import com.dremio.io.AsyncByteReader.FileKey;
+import com.google.common.base.Joiner;
+import com.google.common.base.Preconditions;
+
+/**
+ * Identifies a version of a remote file, within the storage plugin it was read from.
+ */
+final class CacheFileId {
+  private final String plugin;
+  private final String path;
+  private final String version;
+  private final String dataset;
+
+  CacheFileId(String plugin, String path, String version, String dataset) {
+    this.plugin = Preconditions.checkNotNull(plugin);
+    this.path = Preconditions.checkNotNull(path);
+    this.version = Preconditions.checkNotNull(version);
+    this.dataset = dataset == null ? "" : dataset;
+  }
+
+  static CacheFileId of(String plugin, FileKey fileKey) {
+    final String dataset = fileKey.getDatasetKey() == null ? null : Joiner.on('.').join(fileKey.getDatasetKey());
+    return new CacheFileId(plugin, fileKey.getPath().toString(), fileKey.getVersion(), dataset);
+  }
+
+  String getPlugin() {
+    return plugin;
+  }
+
+  String getPath() {
+    return path;
+  }
+
+  String getVersion() {
+    return version;
+  }
+
+  /**
+   * @return the dataset the file belongs to, or an empty string if unknown
+   */
+  String getDataset() {
+    return dataset;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    final CacheFileId that = (CacheFileId) o;
+    // the dataset is informational only
+    return plugin.equals(that.plugin) && path.equals(that.path) && version.equals(that.version);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(plugin, path, version);
+  }
+
+  @Override
+  public String toString() {
+    return plugin + ":" + path + "@" + version;
+  }
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.dfs.cache;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.dremio.io.AsyncByteReader;
+import com.dremio.sabot.exec.context.OperatorContext;
+import com.dremio.sabot.op.scan.ScanOperator;
+import com.google.common.collect.ImmutableList;
+
+import io.netty.buffer.ByteBuf;
+
+/**
+ * Serves reads from the local cache when the exact range was read before, and populates the cache on misses.
+ * Cached ranges are read on the reader threads of the cache manager.
+ */
+class CachingAsyncByteReader implements AsyncByteReader {
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(CachingAsyncByteReader.class);
+
+  private final AsyncByteReader delegate;
+  private final LocalCacheManager cacheManager;
+  private final CacheFileId fileId;
+  private final int maxSpacePct;
+  private final OperatorContext context;
+
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+
+  /**
+   * @param context context of the operator reading the file, or null if none
+   */
+  CachingAsyncByteReader(AsyncByteReader delegate, LocalCacheManager cacheManager, CacheFileId fileId,
+                         int maxSpacePct, OperatorContext context) {
+    this.delegate = delegate;
+    this.cacheManager = cacheManager;
+    this.fileId = fileId;
+    this.maxSpacePct = maxSpacePct;
+    this.context = context;
+  }
+
+  @Override
+  public CompletableFuture<Void> readFully(long offset, ByteBuf dst, int dstOffset, int len) {
+    final LocalCacheManager.CacheEntry entry = cacheManager.lookup(fileId, offset, len);
+    if (entry == null) {
+      return readFromSource(offset, dst, dstOffset, len);
+    }
+    return cacheManager.readAsync(entry, dst, dstOffset)
+      .thenCompose(read -> {
+        if (read) {
+          hits.incrementAndGet();
+          return CompletableFuture.completedFuture(null);
+        }
+        return readFromSource(offset, dst, dstOffset, len);
+      });
+  }
+
+  private CompletableFuture<Void> readFromSource(long offset, ByteBuf dst, int dstOffset, int len) {
+    misses.incrementAndGet();
+    final CompletableFuture<Void> future = delegate.readFully(offset, dst, dstOffset, len);
+    if (!cacheManager.canAccept(len)) {
+      return future;
+    }
+    return future.thenRun(() -> {
+      try {
+        final byte[] data = new byte[len];
+        dst.getBytes(dstOffset, data);
+        cacheManager.put(fileId, offset, data, maxSpacePct);
+      } catch (Exception e) {
+        // caching is best effort, the read itself succeeded
+        logger.warn("Unable to cache range {}:{} of {}", offset, len, fileId, e);
+      }
+    });
+  }
+
+  @Override
+  public List<ReaderStat> getStats() {
+    return ImmutableList.<ReaderStat>builder()
+      .addAll(delegate.getStats())
+      .add(new ReaderStat("localCacheHits", hits.get()))
+      .add(new ReaderStat("localCacheMisses", misses.get()))
+      .build();
+  }
+
+  @Override
+  public void close() throws Exception {
+    try {
+      delegate.close();
+    } finally {
+      if (context != null && context.getStats() != null) {
+        context.getStats().addLongStat(ScanOperator.Metric.NUM_CACHE_HITS, hits.get());
+        context.getStats().addLongStat(ScanOperator.Metric.NUM_CACHE_MISSES, misses.get());
+      }
+    }
+  }
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.dfs.cache;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+
+import com.dremio.io.AsyncByteReader;
+import com.dremio.io.AsyncByteReader.FileKey;
+import com.dremio.io.FSInputStream;
+import com.dremio.io.file.FileSystem;
+import com.dremio.io.file.FilterFileSystem;
+import com.dremio.io.file.Path;
+import com.dremio.sabot.exec.context.OperatorContext;
+
+/**
+ * A file system whose reads go through the local cache, whether through input streams opened for a known version of a
+ * file, or through asynchronous readers. Streams opened by path only aren't cached.
+ */
+class CachingFileSystem extends FilterFileSystem {
+  private final LocalCacheManager cacheManager;
+  private final String storageId;
+  private final int maxSpacePct;
+  private final OperatorContext context;
+
+  CachingFileSystem(FileSystem fs, LocalCacheManager cacheManager, String storageId, int maxSpacePct,
+                    OperatorContext context) {
+    super(fs);
+    this.cacheManager = cacheManager;
+    this.storageId = storageId;
+    this.maxSpacePct = maxSpacePct;
+    this.context = context;
+  }
+
+  @Override
+  public FSInputStream open(FileKey fileKey, long fileLength) throws FileNotFoundException, IOException {
+    // cached blocks are only valid for the version of the file they were read from, as given by the caller
+    final Path path = fileKey.getPath();
+    final FSInputStream stream = super.open(path);
+    final LocalCacheManager.RangeLoader blockLoader = (offset, dst) -> {
+      try (FSInputStream source = super.open(path)) {
+        CachingInputStream.readFully(source, offset, dst, 0, dst.length);
+      }
+    };
+    return new CachingInputStream(stream, blockLoader, cacheManager, CacheFileId.of(storageId, fileKey), fileLength,
+      maxSpacePct, context);
+  }
+
+  @Override
+  public AsyncByteReader getAsyncByteReader(FileKey fileKey) throws IOException {
+    final AsyncByteReader reader = super.getAsyncByteReader(fileKey);
+    return new CachingAsyncByteReader(reader, cacheManager, CacheFileId.of(storageId, fileKey), maxSpacePct, context);
+  }
+}
@@ -0,0 +1,251 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.dfs.cache;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+import com.dremio.io.FSInputStream;
+import com.dremio.sabot.exec.context.OperatorContext;
+import com.dremio.sabot.op.scan.ScanOperator;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.primitives.Ints;
+
+import io.netty.buffer.Unpooled;
+
+/**
+ * Serves the reads of an input stream from the local cache, by blocks of {@link #BLOCK_SIZE} bytes aligned on the
+ * start of the file. When a block is missing from the cache, only the requested range is read from the source
+ * stream, while the whole block is read and cached in the background.
+ *
+ * This is how the Parquet scan, which reads footers and column chunks through input streams, goes through the cache.
+ */
+@NotThreadSafe
+class CachingInputStream extends FSInputStream {
+  @VisibleForTesting
+  static final int BLOCK_SIZE = 1024 * 1024;
+
+  private final FSInputStream delegate;
+  private final LocalCacheManager.RangeLoader blockLoader;
+  private final LocalCacheManager cacheManager;
+  private final CacheFileId fileId;
+  private final long fileLength;
+  private final int maxSpacePct;
+  private final OperatorContext context;
+
+  private byte[] block;
+  private long blockOffset = -1;
+  // block last found missing, read from the source until it is next looked up
+  private long missedBlockOffset = -1;
+  private long position;
+
+  private long hits;
+  private long misses;
+
+  /**
+   * @param blockLoader reads missing blocks from the source, in the background
+   * @param context context of the operator reading the file, or null if none
+   */
+  CachingInputStream(FSInputStream delegate, LocalCacheManager.RangeLoader blockLoader, LocalCacheManager cacheManager,
+                     CacheFileId fileId, long fileLength, int maxSpacePct, OperatorContext context) {
+    this.delegate = delegate;
+    this.blockLoader = blockLoader;
+    this.cacheManager = cacheManager;
+    this.fileId = fileId;
+    this.fileLength = fileLength;
+    this.maxSpacePct = maxSpacePct;
+    this.context = context;
+  }
+
+  @Override
+  public int read() throws IOException {
+    if (position >= fileLength) {
+      return -1;
+    }
+    if (!loadBlock()) {
+      delegate.setPosition(position);
+      final int b = delegate.read();
+      if (b < 0) {
+        throw newEOFException(position, 1);
+      }
+      position++;
+      return b;
+    }
+    return block[(int) (position++ - blockOffset)] & 0xFF;
+  }
+
+  @Override
+  public int read(byte[] b, int off, int len) throws IOException {
+    if (len == 0) {
+      return 0;
+    }
+    if (position >= fileLength) {
+      return -1;
+    }
+    final int toRead = (int) Math.min(len, getRemainingInBlock());
+    if (loadBlock()) {
+      System.arraycopy(block, (int) (position - blockOffset), b, off, toRead);
+    } else {
+      readFully(delegate, position, b, off, toRead);
+    }
+    position += toRead;
+    return toRead;
+  }
+
+  @Override
+  public int read(ByteBuffer dst) throws IOException {
+    if (!dst.hasRemaining()) {
+      return 0;
+    }
+    if (position >= fileLength) {
+      return -1;
+    }
+    final int toRead = (int) Math.min(dst.remaining(), getRemainingInBlock());
+    if (loadBlock()) {
+      dst.put(block, (int) (position - blockOffset), toRead);
+    } else {
+      final ByteBuffer range = dst.duplicate();
+      range.limit(range.position() + toRead);
+      delegate.setPosition(position);
+      while (range.hasRemaining()) {
+        if (delegate.read(range) < 0) {
+          throw newEOFException(position, toRead);
+        }
+      }
+      dst.position(range.position());
+    }
+    position += toRead;
+    return toRead;
+  }
+
+  @Override
+  public int read(long position, ByteBuffer dst) throws IOException {
+    setPosition(position);
+    return read(dst);
+  }
+
+  @Override
+  public long getPosition() throws IOException {
+    return position;
+  }
+
+  @Override
+  public void setPosition(long position) throws IOException {
+    if (position < 0 || position > fileLength) {
+      throw new EOFException(String.format("Cannot seek to %d in %s of length %d", position, fileId, fileLength));
+    }
+    this.position = position;
+  }
+
+  @Override
+  public long skip(long n) throws IOException {
+    final long toSkip = Math.max(0, Math.min(n, fileLength - position));
+    position += toSkip;
+    return toSkip;
+  }
+
+  @Override
+  public int available() throws IOException {
+    return Ints.saturatedCast(fileLength - position);
+  }
+
+  private long getRemainingInBlock() {
+    return Math.min(position - position % BLOCK_SIZE + BLOCK_SIZE, fileLength) - position;
+  }
+
+  /**
+   * Makes the block holding the current position the current block, if it is cached. Otherwise, queues the block
+   * for caching.
+   *
+   * @return false if the block isn't cached, and the current position must be read from the source
+   */
+  private boolean loadBlock() {
+    final long offset = position - position % BLOCK_SIZE;
+    if (offset == blockOffset) {
+      return true;
+    }
+    if (offset == missedBlockOffset) {
+      return false;
+    }
+    final int length = (int) Math.min(BLOCK_SIZE, fileLength - offset);
+
+    final LocalCacheManager.CacheEntry entry = cacheManager.lookup(fileId, offset, length);
+    if (entry != null) {
+      if (block == null || block.length < length) {
+        block = new byte[length];
+      }
+      // invalid until fully read
+      blockOffset = -1;
+      if (cacheManager.read(entry, Unpooled.wrappedBuffer(block), 0)) {
+        hits++;
+        blockOffset = offset;
+        missedBlockOffset = -1;
+        return true;
+      }
+    }
+
+    misses++;
+    missedBlockOffset = offset;
+    cacheManager.fill(fileId, offset, length, maxSpacePct, blockLoader);
+    return false;
+  }
+
+  private EOFException newEOFException(long offset, int length) {
+    return new EOFException(String.format("Reached the end of %s at %d, expected %d more bytes of length %d", fileId,
+      offset, length, fileLength));
+  }
+
+  /**
+   * Reads {@code length} bytes of a stream, starting at {@code offset}, into {@code dst}.
+   */
+  static void readFully(FSInputStream is, long offset, byte[] dst, int dstOffset, int length) throws IOException {
+    is.setPosition(offset);
+    int read = 0;
+    while (read < length) {
+      final int n = is.read(dst, dstOffset + read, length - read);
+      if (n < 0) {
+        throw new EOFException(String.format("Reached the end of the stream at %d, expected %d more bytes",
+          offset + read, length - read));
+      }
+      read += n;
+    }
+  }
+
+  @VisibleForTesting
+  long getHits() {
+    return hits;
+  }
+
+  @VisibleForTesting
+  long getMisses() {
+    return misses;
+  }
+
+  @Override
+  public void close() throws IOException {
+    try {
+      delegate.close();
+    } finally {
+      if (context != null && context.getStats() != null) {
+        context.getStats().addLongStat(ScanOperator.Metric.NUM_CACHE_HITS, hits);
+        context.getStats().addLongStat(ScanOperator.Metric.NUM_CACHE_MISSES, misses);
+      }
+    }
+  }
+}
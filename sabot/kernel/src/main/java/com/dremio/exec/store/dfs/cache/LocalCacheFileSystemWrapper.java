@@ -0,0 +1,208 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.dfs.cache;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.rocksdb.RocksIterator;
+
+import com.dremio.config.DremioConfig;
+import com.dremio.exec.proto.CoordinationProtos.NodeEndpoint;
+import com.dremio.exec.store.dfs.AsyncStreamConf;
+import com.dremio.exec.store.dfs.CacheProperties;
+import com.dremio.exec.store.dfs.FileSystemWrapper;
+import com.dremio.exec.store.sys.CacheManagerStatsProvider;
+import com.dremio.exec.work.CacheManagerDatasetInfo;
+import com.dremio.exec.work.CacheManagerFilesInfo;
+import com.dremio.exec.work.CacheManagerMountPointInfo;
+import com.dremio.exec.work.CacheManagerStoragePluginInfo;
+import com.dremio.io.file.FileSystem;
+import com.dremio.options.OptionManager;
+import com.dremio.options.Options;
+import com.dremio.options.TypeValidators.BooleanValidator;
+import com.dremio.options.TypeValidators.EnumValidator;
+import com.dremio.sabot.exec.context.OperatorContext;
+import com.google.common.annotations.VisibleForTesting;
+
+/**
+ * Wraps the file systems of sources requesting caching (see {@link CacheProperties}), so that their reads are
+ * cached on the local disks of the executor.
+ *
+ * Both input streams, through which the Parquet scan reads footers and column chunks, and readers obtained with
+ * {@link FileSystem#getAsyncByteReader} go through the cache. The cache is configured under
+ * {@code services.executor.cache} in dremio.conf, can be turned off with {@code store.local_cache.enabled}, and is
+ * opened on first use.
+ */
+@Options
+public class LocalCacheFileSystemWrapper implements FileSystemWrapper, CacheManagerStatsProvider {
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(LocalCacheFileSystemWrapper.class);
+
+  public static final BooleanValidator ENABLED = new BooleanValidator("store.local_cache.enabled", true);
+  public static final EnumValidator<LocalCacheManager.EvictionPolicy> EVICTION_POLICY = new EnumValidator<>(
+    "store.local_cache.eviction_policy", LocalCacheManager.EvictionPolicy.class, LocalCacheManager.EvictionPolicy.LRU);
+  public static final BooleanValidator VERIFY_CHECKSUM = new BooleanValidator("store.local_cache.verify_checksum", true);
+
+  private static final int DEFAULT_ENSURE_FREE_PCT = 10;
+
+  private final DremioConfig config;
+  private final OptionManager optionManager;
+  private final String hostname;
+
+  private volatile LocalCacheManager cacheManager;
+  private volatile boolean failed;
+
+  public LocalCacheFileSystemWrapper(DremioConfig config, OptionManager optionManager, NodeEndpoint endpoint) {
+    this.config = config;
+    this.optionManager = optionManager;
+    this.hostname = endpoint.getAddress();
+  }
+
+  /**
+   * @return true if the local cache is enabled in the given configuration
+   */
+  public static boolean isEnabled(DremioConfig config) {
+    return config != null
+      && config.hasPath(DremioConfig.EXECUTOR_CACHE_ENABLED_BOOL)
+      && config.getBoolean(DremioConfig.EXECUTOR_CACHE_ENABLED_BOOL);
+  }
+
+  @Override
+  public FileSystem wrap(FileSystem fs, String storageId, AsyncStreamConf conf, OperatorContext context,
+                         boolean enableAsync, boolean isMetadataRefresh) throws IOException {
+    if (isMetadataRefresh || !enableAsync || conf == null || !conf.isAsyncEnabled()
+      || !optionManager.getOption(ENABLED)) {
+      return fs;
+    }
+    final CacheProperties cacheProperties = conf.getCacheProperties();
+    if (cacheProperties == null || !cacheProperties.isCachingEnabled(optionManager)) {
+      return fs;
+    }
+    final LocalCacheManager manager = getCacheManager();
+    if (manager == null) {
+      return fs;
+    }
+    return new CachingFileSystem(fs, manager, storageId, cacheProperties.cacheMaxSpaceLimitPct(), context);
+  }
+
+  /**
+   * @return the cache manager, or null if it couldn't be opened
+   */
+  private LocalCacheManager getCacheManager() {
+    if (cacheManager != null || failed) {
+      return cacheManager;
+    }
+    synchronized (this) {
+      if (cacheManager == null && !failed) {
+        LocalCacheManager manager = null;
+        try {
+          manager = new LocalCacheManager(hostname, new File(config.getString(DremioConfig.EXECUTOR_CACHE_DB_PATH_STRING)),
+            getMountPoints(config), optionManager);
+          manager.open();
+          cacheManager = manager;
+        } catch (Exception e) {
+          logger.error("Unable to open the local cache, remote reads won't be cached", e);
+          failed = true;
+          if (manager != null) {
+            try {
+              manager.close();
+            } catch (Exception suppressed) {
+              e.addSuppressed(suppressed);
+            }
+          }
+        }
+      }
+      return cacheManager;
+    }
+  }
+
+  @VisibleForTesting
+  static List<LocalCacheManager.MountPoint> getMountPoints(DremioConfig config) {
+    final List<String> paths = config.getStringList(DremioConfig.EXECUTOR_CACHE_FS_PATH_LIST);
+    final List<Integer> quotas = config.getIntList(DremioConfig.EXECUTOR_CACHE_FS_QUOTA_PCT_LIST);
+    final List<Integer> ensureFree = config.hasPath(DremioConfig.EXECUTOR_CACHE_FS_ENSURE_FREE_PCT_LIST)
+      ? config.getIntList(DremioConfig.EXECUTOR_CACHE_FS_ENSURE_FREE_PCT_LIST)
+      : Collections.emptyList();
+    if (quotas.size() != paths.size()) {
+      throw new IllegalArgumentException(String.format("%s has %d entries, but %s has %d",
+        DremioConfig.EXECUTOR_CACHE_FS_QUOTA_PCT_LIST, quotas.size(), DremioConfig.EXECUTOR_CACHE_FS_PATH_LIST, paths.size()));
+    }
+
+    final List<LocalCacheManager.MountPoint> mountPoints = new ArrayList<>();
+    for (int i = 0; i < paths.size(); i++) {
+      // the free space to leave may be configured once for all mount points
+      final int freePct = ensureFree.isEmpty() ? DEFAULT_ENSURE_FREE_PCT : ensureFree.get(Math.min(i, ensureFree.size() - 1));
+      mountPoints.add(new LocalCacheManager.MountPoint(i, new File(paths.get(i)), quotas.get(i), freePct));
+    }
+    return mountPoints;
+  }
+
+  @Override
+  public List<CacheManagerMountPointInfo> getMountPointStats() {
+    final LocalCacheManager manager = cacheManager;
+    return manager == null ? Collections.emptyList() : manager.getMountPointStats();
+  }
+
+  @Override
+  public List<CacheManagerStoragePluginInfo> getStoragePluginStats() {
+    final LocalCacheManager manager = cacheManager;
+    return manager == null ? Collections.emptyList() : manager.getStoragePluginStats();
+  }
+
+  @Override
+  public RocksIterator getDatasetIterator() {
+    final LocalCacheManager manager = cacheManager;
+    return manager == null ? null : manager.newIterator();
+  }
+
+  @Override
+  public List<CacheManagerDatasetInfo> getDatasetStats(RocksIterator dsIterator) {
+    final LocalCacheManager manager = cacheManager;
+    return manager == null ? Collections.emptyList() : manager.getDatasetStats(dsIterator);
+  }
+
+  @Override
+  public RocksIterator getCachedFilesIterator() {
+    final LocalCacheManager manager = cacheManager;
+    return manager == null ? null : manager.newIterator();
+  }
+
+  @Override
+  public List<CacheManagerFilesInfo> getCachedFilesStats(RocksIterator fileIterator) {
+    final LocalCacheManager manager = cacheManager;
+    return manager == null ? Collections.emptyList() : manager.getCachedFilesStats(fileIterator);
+  }
+
+  @Override
+  public synchronized void close() throws IOException {
+    if (cacheManager == null) {
+      return;
+    }
+    try {
+      cacheManager.close();
+    } catch (IOException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new IOException(e);
+    } finally {
+      cacheManager = null;
+      failed = true;
+    }
+  }
+}
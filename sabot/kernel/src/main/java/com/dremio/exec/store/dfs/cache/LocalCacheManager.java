@@ -0,0 +1,924 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.dfs.cache;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.WeakHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+import java.util.zip.CRC32;
+
+import org.rocksdb.Options;
+import org.rocksdb.RocksDB;
+import org.rocksdb.RocksDBException;
+import org.rocksdb.RocksIterator;
+import org.rocksdb.WriteBatch;
+import org.rocksdb.WriteOptions;
+
+import com.dremio.common.AutoCloseables;
+import com.dremio.common.concurrent.NamedThreadFactory;
+import com.dremio.exec.work.CacheManagerDatasetInfo;
+import com.dremio.exec.work.CacheManagerFilesInfo;
+import com.dremio.exec.work.CacheManagerMountPointInfo;
+import com.dremio.exec.work.CacheManagerStoragePluginInfo;
+import com.dremio.options.OptionManager;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
+
+import io.netty.buffer.ByteBuf;
+
+/**
+ * Keeps byte ranges of remote files on local disks.
+ *
+ * Each cached range is stored in its own file, on one of the configured mount points. The index of cached ranges
+ * is kept in memory and persisted to a RocksDB instance, so that the cache survives restarts. Ranges are written
+ * asynchronously, and evicted, least recently or least frequently used first, when a mount point or the share of
+ * a storage plugin runs out of space.
+ */
+class LocalCacheManager implements AutoCloseable {
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(LocalCacheManager.class);
+
+  /**
+   * Order in which cached ranges are evicted.
+   */
+  enum EvictionPolicy {
+    LRU,
+    LFU
+  }
+
+  // the index and the data are kept apart, as the data may be stored under the same path as the index
+  private static final String DB_DIR = "localcache_db";
+  private static final String DATA_DIR = "localcache_data";
+  private static final int NUM_READER_THREADS = 4;
+  private static final int NUM_FILLER_THREADS = 4;
+  private static final int NUM_SUB_DIRS = 64;
+  private static final byte ENTRY_FORMAT_VERSION = 1;
+  // entries are evicted until usage is below this ratio of the limit, so that eviction doesn't run on every write
+  private static final double EVICTION_TARGET_RATIO = 0.9;
+  // reads going to the cache aren't copied once this many bytes are waiting to be written
+  private static final long MAX_PENDING_WRITE_BYTES = 64L * 1024 * 1024;
+  private static final int FILES_STATS_BATCH_SIZE = 1000;
+
+  private final String hostname;
+  private final File dbPath;
+  private final List<MountPoint> mountPoints;
+  private final OptionManager options;
+
+  // guarded by this
+  private final Map<EntryKey, CacheEntry> entries = new HashMap<>();
+  private final Map<String, SourceUsage> sources = new HashMap<>();
+  // entries in the order they are evicted, kept up to date on access so that eviction doesn't sort the cache
+  private TreeSet<CacheEntry> evictionOrder;
+  private EvictionPolicy evictionPolicy;
+  private long nextSequence;
+  private final Set<EntryKey> pendingFills = new HashSet<>();
+  private final Set<RocksIterator> exhaustedIterators = Collections.newSetFromMap(new WeakHashMap<>());
+
+  private final AtomicLong pendingWriteBytes = new AtomicLong();
+  private ExecutorService writer;
+  private ExecutorService readers;
+  private ExecutorService fillers;
+  private Options dbOptions;
+  private RocksDB db;
+
+  LocalCacheManager(String hostname, File dbPath, List<MountPoint> mountPoints, OptionManager options) {
+    Preconditions.checkArgument(!mountPoints.isEmpty(), "At least one mount point is required for the local cache");
+    this.hostname = hostname;
+    this.dbPath = new File(dbPath, DB_DIR);
+    this.mountPoints = mountPoints;
+    this.options = options;
+  }
+
+  /**
+   * Opens the index, and loads the ranges cached before the last shutdown.
+   */
+  synchronized void open() throws IOException {
+    if (db != null) {
+      return;
+    }
+    Files.createDirectories(dbPath.toPath());
+    for (MountPoint mountPoint : mountPoints) {
+      for (int i = 0; i < NUM_SUB_DIRS; i++) {
+        Files.createDirectories(mountPoint.getSubDir(i).toPath());
+      }
+    }
+
+    evictionPolicy = getEvictionPolicy();
+    evictionOrder = new TreeSet<>(getEvictionOrder(evictionPolicy));
+
+    RocksDB.loadLibrary();
+    dbOptions = new Options().setCreateIfMissing(true);
+    try {
+      db = RocksDB.open(dbOptions, dbPath.getAbsolutePath());
+    } catch (RocksDBException e) {
+      dbOptions.close();
+      dbOptions = null;
+      throw new IOException("Unable to open local cache index at " + dbPath, e);
+    }
+    load();
+    writer = Executors.newSingleThreadExecutor(new NamedThreadFactory("local-cache-writer-"));
+    readers = Executors.newFixedThreadPool(NUM_READER_THREADS, new NamedThreadFactory("local-cache-reader-"));
+    fillers = Executors.newFixedThreadPool(NUM_FILLER_THREADS, new NamedThreadFactory("local-cache-filler-"));
+  }
+
+  private void load() throws IOException {
+    final Set<String> knownFiles = new HashSet<>();
+    final List<byte[]> invalidKeys = new ArrayList<>();
+    try (RocksIterator iterator = db.newIterator()) {
+      for (iterator.seekToFirst(); iterator.isValid(); iterator.next()) {
+        final CacheEntry entry;
+        try {
+          entry = decode(iterator.key(), iterator.value());
+        } catch (IOException e) {
+          invalidKeys.add(iterator.key());
+          continue;
+        }
+        final File file = entry.mount < mountPoints.size() ? getFile(entry) : null;
+        if (file == null || file.length() != entry.length) {
+          // the data is gone, or was only partially written
+          invalidKeys.add(iterator.key());
+          continue;
+        }
+        add(entry);
+        knownFiles.add(file.getAbsolutePath());
+      }
+    }
+
+    try (WriteBatch batch = new WriteBatch(); WriteOptions writeOptions = new WriteOptions()) {
+      for (byte[] key : invalidKeys) {
+        batch.delete(key);
+      }
+      db.write(writeOptions, batch);
+    } catch (RocksDBException e) {
+      throw new IOException("Unable to clean up local cache index", e);
+    }
+
+    // files written without being indexed
+    for (MountPoint mountPoint : mountPoints) {
+      for (int i = 0; i < NUM_SUB_DIRS; i++) {
+        final File[] files = mountPoint.getSubDir(i).listFiles();
+        if (files == null) {
+          continue;
+        }
+        for (File file : files) {
+          if (!knownFiles.contains(file.getAbsolutePath()) && !file.delete()) {
+            logger.warn("Unable to delete orphan local cache file {}", file);
+          }
+        }
+      }
+    }
+    logger.info("Local cache loaded {} cached ranges, {} invalid ranges dropped", entries.size(), invalidKeys.size());
+  }
+
+  /**
+   * Looks up a cached range.
+   *
+   * @return the range, or null if the exact range isn't cached
+   */
+  CacheEntry lookup(CacheFileId fileId, long offset, int length) {
+    synchronized (this) {
+      final CacheEntry entry = entries.get(new EntryKey(fileId, offset, length));
+      if (entry != null) {
+        // the position of the entry in the eviction order depends on the fields updated below
+        evictionOrder.remove(entry);
+        entry.lastAccess = System.currentTimeMillis();
+        entry.hits++;
+        entry.sequence = nextSequence++;
+        entry.dirty = true;
+        evictionOrder.add(entry);
+      }
+      return entry;
+    }
+  }
+
+  /**
+   * Reads a cached range into the given buffer.
+   *
+   * @return false if the range couldn't be read, or didn't match its checksum. The range is then dropped from the
+   * cache, and the content of the buffer is undefined.
+   */
+  boolean read(CacheEntry entry, ByteBuf dst, int dstOffset) {
+    final MountPoint mountPoint = mountPoints.get(entry.mount);
+    final long start = System.nanoTime();
+    try (FileChannel channel = FileChannel.open(getFile(entry).toPath(), StandardOpenOption.READ)) {
+      int read = 0;
+      while (read < entry.length) {
+        final int n = dst.setBytes(dstOffset + read, channel, read, entry.length - read);
+        if (n < 0) {
+          throw new EOFException();
+        }
+        read += n;
+      }
+    } catch (IOException e) {
+      logger.warn("Unable to read cached range {}, dropping it", entry, e);
+      invalidate(entry);
+      return false;
+    }
+
+    if (options.getOption(LocalCacheFileSystemWrapper.VERIFY_CHECKSUM)
+      && checksum(dst.nioBuffer(dstOffset, entry.length)) != entry.checksum) {
+      logger.warn("Checksum mismatch for cached range {}, dropping it", entry);
+      invalidate(entry);
+      return false;
+    }
+    mountPoint.readNanos.addAndGet(System.nanoTime() - start);
+    mountPoint.reads.incrementAndGet();
+    return true;
+  }
+
+  /**
+   * Reads a cached range into the given buffer on one of the reader threads, so that the
+   * caller isn't blocked on local disk I/O. See {@link #read(CacheEntry, ByteBuf, int)}.
+   *
+   * @return a future completed with false if the range couldn't be read
+   */
+  CompletableFuture<Boolean> readAsync(CacheEntry entry, ByteBuf dst, int dstOffset) {
+    try {
+      return CompletableFuture.supplyAsync(() -> read(entry, dst, dstOffset), readers);
+    } catch (RejectedExecutionException e) {
+      // shutting down
+      return CompletableFuture.completedFuture(false);
+    }
+  }
+
+  /**
+   * @return true if a range of the given size may be queued for writing
+   */
+  boolean canAccept(int length) {
+    return db != null && pendingWriteBytes.get() + length <= MAX_PENDING_WRITE_BYTES;
+  }
+
+  /**
+   * Queues a range for writing to the cache. The data must not be modified afterwards.
+   *
+   * @param maxSpacePct share, in percent, of the cache space that ranges of the file's storage plugin may use
+   */
+  void put(CacheFileId fileId, long offset, byte[] data, int maxSpacePct) {
+    if (!canAccept(data.length)) {
+      return;
+    }
+    pendingWriteBytes.addAndGet(data.length);
+    try {
+      writer.execute(() -> {
+        try {
+          write(fileId, offset, data, maxSpacePct);
+        } catch (Exception e) {
+          logger.warn("Unable to cache range {}:{} of {}", offset, data.length, fileId, e);
+        } finally {
+          pendingWriteBytes.addAndGet(-data.length);
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      // shutting down
+      pendingWriteBytes.addAndGet(-data.length);
+    }
+  }
+
+  /**
+   * Reads a range from its source on one of the filler threads, then queues it for writing to the cache. Does nothing
+   * if the range is cached or being filled already, or if the cache can't accept it.
+   *
+   * @param maxSpacePct share, in percent, of the cache space that ranges of the file's storage plugin may use
+   */
+  void fill(CacheFileId fileId, long offset, int length, int maxSpacePct, RangeLoader loader) {
+    final EntryKey key = new EntryKey(fileId, offset, length);
+    synchronized (this) {
+      if (!canAccept(length) || entries.containsKey(key) || !pendingFills.add(key)) {
+        return;
+      }
+    }
+    pendingWriteBytes.addAndGet(length);
+    try {
+      fillers.execute(() -> {
+        boolean queued = false;
+        try {
+          final byte[] data = new byte[length];
+          loader.load(offset, data);
+          writer.execute(() -> {
+            try {
+              write(fileId, offset, data, maxSpacePct);
+            } catch (Exception e) {
+              logger.warn("Unable to cache range {}:{} of {}", offset, length, fileId, e);
+            } finally {
+              completeFill(key);
+            }
+          });
+          queued = true;
+        } catch (Exception e) {
+          logger.warn("Unable to read range {}:{} of {} for the local cache", offset, length, fileId, e);
+        } finally {
+          if (!queued) {
+            completeFill(key);
+          }
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      // shutting down
+      completeFill(key);
+    }
+  }
+
+  private void completeFill(EntryKey key) {
+    synchronized (this) {
+      pendingFills.remove(key);
+    }
+    pendingWriteBytes.addAndGet(-key.length);
+  }
+
+  @VisibleForTesting
+  void write(CacheFileId fileId, long offset, byte[] data, int maxSpacePct) throws IOException, RocksDBException {
+    final EntryKey key = new EntryKey(fileId, offset, data.length);
+    final MountPoint mountPoint = mountPoints.get(Math.floorMod(key.hashCode(), mountPoints.size()));
+    final List<CacheEntry> evicted;
+    synchronized (this) {
+      if (entries.containsKey(key)) {
+        return;
+      }
+      evicted = makeRoom(fileId.getPlugin(), maxSpacePct, mountPoint, data.length);
+    }
+    delete(evicted);
+    if (evicted == null) {
+      return;
+    }
+
+    final long start = System.nanoTime();
+    final String fileName = UUID.randomUUID().toString();
+    final CacheEntry entry = new CacheEntry(fileId, offset, data.length, mountPoint.id,
+      Math.floorMod(fileName.hashCode(), NUM_SUB_DIRS) + File.separator + fileName, checksum(ByteBuffer.wrap(data)),
+      System.currentTimeMillis());
+    Files.write(getFile(entry).toPath(), data, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+    db.put(entry.getKey().toBytes(), encode(entry));
+    mountPoint.writeNanos.addAndGet(System.nanoTime() - start);
+    mountPoint.writes.incrementAndGet();
+
+    synchronized (this) {
+      add(entry);
+    }
+  }
+
+  /**
+   * Evicts entries until the new range fits within the limits of its storage plugin and of its mount point.
+   *
+   * @return evicted entries, or null if the range can't be cached
+   */
+  private List<CacheEntry> makeRoom(String plugin, int maxSpacePct, MountPoint mountPoint, int length) {
+    final SourceUsage source = sources.computeIfAbsent(plugin, p -> new SourceUsage());
+    source.maxSpacePct = maxSpacePct;
+    final long sourceLimit = getMaxSpace(maxSpacePct);
+    final long mountLimit = mountPoint.getMaxSpace(length);
+    if (!mountPoint.enabled || length > sourceLimit || length > mountLimit) {
+      return null;
+    }
+
+    final List<CacheEntry> evicted = new ArrayList<>();
+    if (source.used + length > sourceLimit) {
+      evict(e -> e.fileId.getPlugin().equals(plugin), () -> source.used + length,
+        (long) (sourceLimit * EVICTION_TARGET_RATIO), evicted);
+    }
+    if (mountPoint.used + length > mountLimit) {
+      evict(e -> e.mount == mountPoint.id, () -> mountPoint.used + length,
+        (long) (mountLimit * EVICTION_TARGET_RATIO), evicted);
+    }
+    if (!evicted.isEmpty()) {
+      long evictedBytes = 0;
+      for (CacheEntry e : evicted) {
+        evictedBytes += e.length;
+      }
+      mountPoint.lastEvictionTime = System.currentTimeMillis();
+      mountPoint.lastEvictedBytes = evictedBytes;
+    }
+    return evicted;
+  }
+
+  private void evict(Predicate<CacheEntry> candidate, LongSupplier usage, long target, List<CacheEntry> evicted) {
+    final EvictionPolicy policy = getEvictionPolicy();
+    if (policy != evictionPolicy) {
+      // only reordered when the policy changes
+      final TreeSet<CacheEntry> reordered = new TreeSet<>(getEvictionOrder(policy));
+      reordered.addAll(evictionOrder);
+      evictionOrder = reordered;
+      evictionPolicy = policy;
+    }
+
+    final Iterator<CacheEntry> iterator = evictionOrder.iterator();
+    while (iterator.hasNext() && usage.getAsLong() > target) {
+      final CacheEntry e = iterator.next();
+      if (candidate.test(e)) {
+        iterator.remove();
+        release(e);
+        evicted.add(e);
+      }
+    }
+  }
+
+  private EvictionPolicy getEvictionPolicy() {
+    final String policy = options.getOption(LocalCacheFileSystemWrapper.EVICTION_POLICY);
+    return EvictionPolicy.valueOf(policy.toUpperCase(Locale.ROOT));
+  }
+
+  private static Comparator<CacheEntry> getEvictionOrder(EvictionPolicy policy) {
+    // the sequence number, unique to each entry, breaks ties
+    final Comparator<CacheEntry> lru = Comparator.<CacheEntry>comparingLong(e -> e.lastAccess)
+      .thenComparingLong(e -> e.sequence);
+    if (policy == EvictionPolicy.LFU) {
+      return Comparator.<CacheEntry>comparingLong(e -> e.hits).thenComparing(lru);
+    }
+    return lru;
+  }
+
+  private void invalidate(CacheEntry entry) {
+    synchronized (this) {
+      if (entries.get(entry.getKey()) != entry) {
+        return;
+      }
+      remove(entry);
+    }
+    delete(Collections.singletonList(entry));
+  }
+
+  /**
+   * Deletes the data and the index entries of ranges already removed from memory.
+   */
+  private void delete(List<CacheEntry> removed) {
+    if (removed == null || removed.isEmpty()) {
+      return;
+    }
+    try (WriteBatch batch = new WriteBatch(); WriteOptions writeOptions = new WriteOptions()) {
+      for (CacheEntry entry : removed) {
+        batch.delete(entry.getKey().toBytes());
+      }
+      db.write(writeOptions, batch);
+    } catch (RocksDBException | IOException e) {
+      // entries without data are dropped on the next restart
+      logger.warn("Unable to remove evicted ranges from local cache index", e);
+    }
+    for (CacheEntry entry : removed) {
+      final File file = getFile(entry);
+      if (!file.delete() && file.exists()) {
+        logger.warn("Unable to delete local cache file {}", file);
+      }
+    }
+  }
+
+  private void add(CacheEntry entry) {
+    entry.sequence = nextSequence++;
+    entries.put(entry.getKey(), entry);
+    evictionOrder.add(entry);
+    final SourceUsage source = sources.computeIfAbsent(entry.fileId.getPlugin(), p -> new SourceUsage());
+    source.used += entry.length;
+    source.files++;
+    final MountPoint mountPoint = mountPoints.get(entry.mount);
+    mountPoint.used += entry.length;
+    mountPoint.files++;
+  }
+
+  private void remove(CacheEntry entry) {
+    evictionOrder.remove(entry);
+    release(entry);
+  }
+
+  /**
+   * Removes an entry already out of the eviction order from the index, and releases the space it uses.
+   */
+  private void release(CacheEntry entry) {
+    entries.remove(entry.getKey());
+    final SourceUsage source = sources.get(entry.fileId.getPlugin());
+    source.used -= entry.length;
+    source.files--;
+    final MountPoint mountPoint = mountPoints.get(entry.mount);
+    mountPoint.used -= entry.length;
+    mountPoint.files--;
+  }
+
+  /**
+   * @return space the ranges of a storage plugin may use, across all mount points
+   */
+  private long getMaxSpace(int maxSpacePct) {
+    long total = 0;
+    for (MountPoint mountPoint : mountPoints) {
+      total += mountPoint.getMaxSpace(0);
+    }
+    return total / 100 * maxSpacePct;
+  }
+
+  private File getFile(CacheEntry entry) {
+    return new File(mountPoints.get(entry.mount).getDataDir(), entry.fileName);
+  }
+
+  private static long checksum(ByteBuffer buffer) {
+    final CRC32 crc = new CRC32();
+    crc.update(buffer);
+    return crc.getValue();
+  }
+
+  List<CacheManagerMountPointInfo> getMountPointStats() {
+    final List<CacheManagerMountPointInfo> stats = new ArrayList<>();
+    synchronized (this) {
+      for (MountPoint m : mountPoints) {
+        final long maxSpace = m.getMaxSpace(0);
+        stats.add(new CacheManagerMountPointInfo(hostname, m.path.getAbsolutePath(), m.id, NUM_SUB_DIRS, m.files,
+          maxSpace, m.used, average(m.readNanos.get(), m.reads.get()), average(m.writeNanos.get(), m.writes.get()),
+          m.enabled ? "ACTIVE" : "DISABLED", m.used + MAX_PENDING_WRITE_BYTES < maxSpace ? "NORMAL" : "FULL",
+          m.path.getTotalSpace(), m.path.getUsableSpace(), m.lastEvictionTime, m.lastEvictedBytes));
+      }
+    }
+    return stats;
+  }
+
+  private static long average(long total, long count) {
+    return count == 0 ? 0 : total / count;
+  }
+
+  List<CacheManagerStoragePluginInfo> getStoragePluginStats() {
+    final List<CacheManagerStoragePluginInfo> stats = new ArrayList<>();
+    synchronized (this) {
+      for (Map.Entry<String, SourceUsage> e : sources.entrySet()) {
+        final SourceUsage source = e.getValue();
+        stats.add(new CacheManagerStoragePluginInfo(hostname, e.getKey(), source.files, source.used,
+          getMaxSpace(source.maxSpacePct)));
+      }
+    }
+    return stats;
+  }
+
+  RocksIterator newIterator() {
+    if (db == null) {
+      return null;
+    }
+    final RocksIterator iterator = db.newIterator();
+    iterator.seekToFirst();
+    return iterator;
+  }
+
+  /**
+   * Datasets are aggregated from the in-memory index on the first call for an iterator. Subsequent calls return an
+   * empty list.
+   */
+  List<CacheManagerDatasetInfo> getDatasetStats(RocksIterator iterator) {
+    if (iterator == null || !markExhausted(iterator)) {
+      return Collections.emptyList();
+    }
+
+    final Map<List<String>, List<CacheEntry>> byDataset = new HashMap<>();
+    synchronized (this) {
+      for (CacheEntry e : entries.values()) {
+        byDataset.computeIfAbsent(Arrays.asList(e.fileId.getPlugin(), e.fileId.getDataset()), k -> new ArrayList<>()).add(e);
+      }
+    }
+
+    final List<CacheManagerDatasetInfo> stats = new ArrayList<>();
+    for (Map.Entry<List<String>, List<CacheEntry>> e : byDataset.entrySet()) {
+      // most recently accessed first: the n-th percentile is the access time after which n% of the data was used
+      final List<CacheEntry> datasetEntries = e.getValue();
+      datasetEntries.sort(Comparator.<CacheEntry>comparingLong(c -> c.lastAccess).reversed());
+      long total = 0;
+      for (CacheEntry c : datasetEntries) {
+        total += c.length;
+      }
+      final Timestamp[] percentiles = new Timestamp[4];
+      long cumulative = 0;
+      int next = 0;
+      for (CacheEntry c : datasetEntries) {
+        cumulative += c.length;
+        while (next < percentiles.length && cumulative * 4 >= total * (next + 1)) {
+          percentiles[next++] = new Timestamp(c.lastAccess);
+        }
+      }
+      stats.add(new CacheManagerDatasetInfo(hostname, e.getKey().get(1), e.getKey().get(0), datasetEntries.size(),
+        percentiles[0], percentiles[1], percentiles[2], percentiles[3]));
+    }
+    return stats;
+  }
+
+  List<CacheManagerFilesInfo> getCachedFilesStats(RocksIterator iterator) {
+    if (iterator == null) {
+      return Collections.emptyList();
+    }
+    synchronized (exhaustedIterators) {
+      if (exhaustedIterators.contains(iterator)) {
+        return Collections.emptyList();
+      }
+    }
+
+    final List<CacheManagerFilesInfo> stats = new ArrayList<>();
+    while (iterator.isValid() && stats.size() < FILES_STATS_BATCH_SIZE) {
+      try {
+        final CacheEntry stored = decode(iterator.key(), iterator.value());
+        final CacheEntry current;
+        synchronized (this) {
+          current = entries.get(stored.getKey());
+        }
+        final CacheEntry entry = current != null ? current : stored;
+        stats.add(new CacheManagerFilesInfo(hostname, entry.fileId.getPlugin(), entry.fileId.getDataset(),
+          entry.fileId.getPath(), entry.fileId.getVersion(), entry.offset, new Timestamp(entry.lastAccess)));
+      } catch (IOException e) {
+        logger.debug("Skipping invalid local cache index entry", e);
+      }
+      iterator.next();
+    }
+    if (!iterator.isValid()) {
+      markExhausted(iterator);
+    }
+    return stats;
+  }
+
+  /**
+   * Closes an iterator handed out for system tables, once it has been fully read.
+   *
+   * @return false if the iterator was already exhausted
+   */
+  private boolean markExhausted(RocksIterator iterator) {
+    synchronized (exhaustedIterators) {
+      if (!exhaustedIterators.add(iterator)) {
+        return false;
+      }
+    }
+    iterator.close();
+    return true;
+  }
+
+  @VisibleForTesting
+  synchronized int getNumEntries() {
+    return entries.size();
+  }
+
+  @Override
+  public void close() throws Exception {
+    if (fillers != null) {
+      fillers.shutdown();
+      if (!fillers.awaitTermination(10, TimeUnit.SECONDS)) {
+        fillers.shutdownNow();
+      }
+    }
+    if (readers != null) {
+      readers.shutdown();
+      if (!readers.awaitTermination(10, TimeUnit.SECONDS)) {
+        readers.shutdownNow();
+      }
+    }
+    if (writer != null) {
+      writer.shutdown();
+      if (!writer.awaitTermination(10, TimeUnit.SECONDS)) {
+        writer.shutdownNow();
+      }
+    }
+    if (db != null) {
+      // persist access statistics, so that eviction order survives restarts
+      try (WriteBatch batch = new WriteBatch(); WriteOptions writeOptions = new WriteOptions()) {
+        synchronized (this) {
+          for (CacheEntry entry : entries.values()) {
+            if (entry.dirty) {
+              batch.put(entry.getKey().toBytes(), encode(entry));
+            }
+          }
+        }
+        db.write(writeOptions, batch);
+      } catch (RocksDBException | IOException e) {
+        logger.warn("Unable to persist local cache access statistics", e);
+      }
+    }
+    AutoCloseables.close(db, dbOptions);
+    db = null;
+    dbOptions = null;
+  }
+
+  private static byte[] encode(CacheEntry entry) throws IOException {
+    final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (DataOutputStream out = new DataOutputStream(bytes)) {
+      out.writeByte(ENTRY_FORMAT_VERSION);
+      out.writeUTF(entry.fileId.getDataset());
+      out.writeInt(entry.mount);
+      out.writeUTF(entry.fileName);
+      out.writeLong(entry.checksum);
+      out.writeLong(entry.lastAccess);
+      out.writeLong(entry.hits);
+    }
+    return bytes.toByteArray();
+  }
+
+  private static CacheEntry decode(byte[] key, byte[] value) throws IOException {
+    try (DataInputStream keyIn = new DataInputStream(new ByteArrayInputStream(key));
+         DataInputStream in = new DataInputStream(new ByteArrayInputStream(value))) {
+      final String plugin = keyIn.readUTF();
+      final String path = keyIn.readUTF();
+      final String version = keyIn.readUTF();
+      final long offset = keyIn.readLong();
+      final int length = keyIn.readInt();
+
+      if (in.readByte() != ENTRY_FORMAT_VERSION) {
+        throw new IOException("Unknown local cache entry format");
+      }
+      final String dataset = in.readUTF();
+      final CacheEntry entry = new CacheEntry(new CacheFileId(plugin, path, version, dataset), offset, length,
+        in.readInt(), in.readUTF(), in.readLong(), 0);
+      entry.lastAccess = in.readLong();
+      entry.hits = in.readLong();
+      return entry;
+    }
+  }
+
+  /**
+   * Reads a range of a remote file.
+   */
+  @FunctionalInterface
+  interface RangeLoader {
+    /**
+     * Reads {@code dst.length} bytes of the file, starting at {@code offset}, into {@code dst}.
+     */
+    void load(long offset, byte[] dst) throws IOException;
+  }
+
+  /**
+   * Usage of the cache by a storage plugin.
+   */
+  private static final class SourceUsage {
+    private long used;
+    private long files;
+    private int maxSpacePct = 100;
+  }
+
+  /**
+   * A directory holding cached ranges.
+   */
+  static final class MountPoint {
+    private final int id;
+    private final File path;
+    private final int quotaPct;
+    private final int ensureFreePct;
+
+    // guarded by the cache manager
+    private long used;
+    private long files;
+    private long lastEvictionTime;
+    private long lastEvictedBytes;
+    private boolean enabled = true;
+
+    private final AtomicLong readNanos = new AtomicLong();
+    private final AtomicLong reads = new AtomicLong();
+    private final AtomicLong writeNanos = new AtomicLong();
+    private final AtomicLong writes = new AtomicLong();
+
+    /**
+     * @param quotaPct maximum share, in percent, of the disk space the cache may use
+     * @param ensureFreePct share, in percent, of the disk space the cache leaves free for other uses
+     */
+    MountPoint(int id, File path, int quotaPct, int ensureFreePct) {
+      Preconditions.checkArgument(quotaPct > 0 && quotaPct <= 100, "Invalid cache quota %s for %s", quotaPct, path);
+      Preconditions.checkArgument(ensureFreePct >= 0 && ensureFreePct < 100, "Invalid free space %s for %s", ensureFreePct, path);
+      this.id = id;
+      this.path = path;
+      this.quotaPct = quotaPct;
+      this.ensureFreePct = ensureFreePct;
+    }
+
+    private File getDataDir() {
+      return new File(path, DATA_DIR);
+    }
+
+    private File getSubDir(int index) {
+      return new File(getDataDir(), Integer.toString(index));
+    }
+
+    /**
+     * @param length size of a range about to be written
+     * @return space the cache may use on this mount point, accounting for the free space to leave
+     */
+    private long getMaxSpace(int length) {
+      final long total = path.getTotalSpace();
+      final long quota = total / 100 * quotaPct;
+      final long freeSpaceLimit = used + path.getUsableSpace() - length - total / 100 * ensureFreePct;
+      return Math.max(0, Math.min(quota, freeSpaceLimit));
+    }
+
+    @Override
+    public String toString() {
+      return path.getAbsolutePath();
+    }
+  }
+
+  /**
+   * Identifies a cached range.
+   */
+  private static final class EntryKey {
+    private final CacheFileId fileId;
+    private final long offset;
+    private final int length;
+
+    private EntryKey(CacheFileId fileId, long offset, int length) {
+      this.fileId = fileId;
+      this.offset = offset;
+      this.length = length;
+    }
+
+    private byte[] toBytes() throws IOException {
+      final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      try (DataOutputStream out = new DataOutputStream(bytes)) {
+        out.writeUTF(fileId.getPlugin());
+        out.writeUTF(fileId.getPath());
+        out.writeUTF(fileId.getVersion());
+        out.writeLong(offset);
+        out.writeInt(length);
+      }
+      return bytes.toByteArray();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      final EntryKey that = (EntryKey) o;
+      return offset == that.offset && length == that.length && fileId.equals(that.fileId);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(fileId, offset, length);
+    }
+  }
+
+  /**
+   * A cached range.
+   */
+  static final class CacheEntry {
+    private final CacheFileId fileId;
+    private final long offset;
+    private final int length;
+    private final int mount;
+    private final String fileName;
+    private final long checksum;
+
+    // guarded by the cache manager
+    private long lastAccess;
+    private long hits;
+    private long sequence;
+    private boolean dirty;
+
+    private CacheEntry(CacheFileId fileId, long offset, int length, int mount, String fileName, long checksum,
+                       long lastAccess) {
+      this.fileId = fileId;
+      this.offset = offset;
+      this.length = length;
+      this.mount = mount;
+      this.fileName = fileName;
+      this.checksum = checksum;
+      this.lastAccess = lastAccess;
+    }
+
+    private EntryKey getKey() {
+      return new EntryKey(fileId, offset, length);
+    }
+
+    @Override
+    public String toString() {
+      return fileId + "[" + offset + ", " + (offset + length) + ")";
+    }
+  }
+}
@@ -118,6 +118,15 @@ public class AdditionalColumnsRecordReader implements RecordReader {
     if (skipPartition) {
       return;
     }
+    applyPartitionColumnFilter(runtimeFilter);
+    if (!skipPartition && runtimeFilter.getNonPartitionColumnFilter() != null
+      && !runtimeFilter.getNonPartitionColumnFilter().isEmpty()) {
+      // filters on non-partition columns are enforced by the reader of the data
+      inner.addRuntimeFilter(runtimeFilter);
+    }
+  }
+
+  private void applyPartitionColumnFilter(RuntimeFilter runtimeFilter) {
     CompositeColumnFilter partitionColumnFilter = runtimeFilter.getPartitionColumnFilter();
     if (partitionColumnFilter != null && partitionColumnFilter.getFilterType() == CompositeColumnFilter.RuntimeFilterType.BLOOM_FILTER) {
       List<String> partionColumnsInFilter = partitionColumnFilter.getColumnsList().stream().map(String::toLowerCase).collect(Collectors.toList());
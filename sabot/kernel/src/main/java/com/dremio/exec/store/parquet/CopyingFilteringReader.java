@@ -43,6 +43,7 @@ import com.dremio.exec.record.VectorWrapper;
 import com.dremio.exec.record.selection.SelectionVector2;
 import com.dremio.exec.record.selection.SelectionVector4;
 import com.dremio.exec.store.RecordReader;
+import com.dremio.exec.store.RuntimeFilter;
 import com.dremio.sabot.exec.context.OperatorContext;
 import com.dremio.sabot.op.copier.Copier;
 import com.dremio.sabot.op.copier.CopierOperator;
@@ -189,6 +190,11 @@ public class CopyingFilteringReader implements RecordReader {
     return recordCount;
   }
 
+  @Override
+  public void addRuntimeFilter(RuntimeFilter runtimeFilter) {
+    delegate.addRuntimeFilter(runtimeFilter);
+  }
+
   @Override
   public void close() throws Exception {
     AutoCloseables.close(copier, copyOutput, readerOutput, delegate);
@@ -59,9 +59,10 @@ public interface InputStreamProviderFactory {
               readFullFile;
 
       final long maxFooterLen = context.getOptions().getOption(ExecConstants.PARQUET_MAX_FOOTER_LEN_VALIDATOR);
+      final ParquetFooterCache footerCache = footerIfKnown == null ? ParquetFooterCache.getInstance(options) : null;
       return useSingleStream
-        ? new SingleStreamProvider(fs, path, fileLength, maxFooterLen, readFullFile, footerIfKnown, context)
-        : new StreamPerColumnProvider(fs, path, fileLength, maxFooterLen, footerIfKnown, context.getStats());
+        ? new SingleStreamProvider(fs, path, fileLength, mTime, maxFooterLen, readFullFile, footerIfKnown, footerCache, context)
+        : new StreamPerColumnProvider(fs, path, fileLength, mTime, maxFooterLen, footerIfKnown, footerCache, context.getStats());
     }
   };
 
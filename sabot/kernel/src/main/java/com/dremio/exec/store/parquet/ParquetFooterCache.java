@@ -0,0 +1,155 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.parquet;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+
+import org.apache.parquet.format.converter.ParquetMetadataConverter;
+import org.apache.parquet.hadoop.metadata.ParquetMetadata;
+
+import com.dremio.exec.ExecConstants;
+import com.dremio.io.file.FileSystem;
+import com.dremio.options.OptionManager;
+import com.dremio.sabot.exec.context.OperatorStats;
+import com.dremio.sabot.op.scan.ScanOperator;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+/**
+ * Node wide cache of parsed Parquet footers, shared by all the scans running on an executor.
+ *
+ * Footers are keyed by path, modification time and length, so a rewritten file is never served a stale footer. The
+ * cache is bounded by the estimated heap size of the footers it holds.
+ */
+public final class ParquetFooterCache {
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(ParquetFooterCache.class);
+
+  // parsed footers take several times the size of their serialized (thrift compact) form on heap
+  private static final int HEAP_SIZE_FACTOR = 4;
+
+  private static ParquetFooterCache instance;
+
+  private final long maxSize;
+  private final Cache<FooterKey, ParquetMetadata> footers;
+
+  @VisibleForTesting
+  ParquetFooterCache(long maxSize) {
+    this.maxSize = maxSize;
+    this.footers = CacheBuilder.newBuilder()
+      .maximumWeight(maxSize)
+      .<FooterKey, ParquetMetadata>weigher((key, footer) -> key.weight)
+      .build();
+  }
+
+  /**
+   * @return the cache of this node, or null if footer caching is disabled
+   */
+  public static synchronized ParquetFooterCache getInstance(OptionManager options) {
+    final long maxSize = options.getOption(ExecConstants.PARQUET_FOOTER_CACHE_MAX_SIZE);
+    if (maxSize == 0) {
+      instance = null;
+    } else if (instance == null || instance.maxSize != maxSize) {
+      logger.debug("Creating Parquet footer cache of {} bytes", maxSize);
+      instance = new ParquetFooterCache(maxSize);
+    }
+    return instance;
+  }
+
+  /**
+   * Gets the footer of a file, reading it from the given stream if not cached.
+   *
+   * @param mTime modification time of the file, footers of files with unknown (non-positive) modification time or
+   *              length aren't cached
+   * @param stats stats to report cache hits and misses to, or null
+   * @return a copy of the cached footer, whose row groups may be removed without affecting other readers
+   */
+  public ParquetMetadata getFooter(BulkInputStream is, String path, long fileLength, long mTime, FileSystem fs,
+                                   long maxFooterLen, OperatorStats stats) throws IOException {
+    if (mTime <= 0 || fileLength < 0) {
+      return readFooter(is, path, fileLength, fs, maxFooterLen, null);
+    }
+
+    final FooterKey key = new FooterKey(path, mTime, fileLength);
+    final boolean[] loaded = {false};
+    final ParquetMetadata footer;
+    try {
+      footer = footers.get(key, () -> {
+        loaded[0] = true;
+        return readFooter(is, path, fileLength, fs, maxFooterLen, key);
+      });
+    } catch (ExecutionException e) {
+      Throwables.throwIfInstanceOf(e.getCause(), IOException.class);
+      Throwables.throwIfUnchecked(e.getCause());
+      throw new IOException(e.getCause());
+    }
+
+    if (stats != null) {
+      stats.addLongStat(loaded[0] ? ScanOperator.Metric.NUM_FOOTER_CACHE_MISSES : ScanOperator.Metric.NUM_FOOTER_CACHE_HITS, 1);
+    }
+    // readers drop row groups from the list they are given
+    return new ParquetMetadata(footer.getFileMetaData(), new ArrayList<>(footer.getBlocks()));
+  }
+
+  private static ParquetMetadata readFooter(BulkInputStream is, String path, long fileLength, FileSystem fs,
+                                            long maxFooterLen, FooterKey key) throws IOException {
+    final byte[] footerBytes = SingletonParquetFooterCache.readFooterBytes(is, path, fileLength, fs, maxFooterLen);
+    if (key != null) {
+      key.weight = (int) Math.min(Integer.MAX_VALUE, (long) footerBytes.length * HEAP_SIZE_FACTOR);
+    }
+    return SingletonParquetFooterCache.parseFooter(footerBytes, ParquetMetadataConverter.NO_FILTER);
+  }
+
+  @VisibleForTesting
+  long size() {
+    return footers.size();
+  }
+
+  private static final class FooterKey {
+    private final String path;
+    private final long mTime;
+    private final long length;
+    // set when the footer is read, before the entry is weighed
+    private int weight;
+
+    private FooterKey(String path, long mTime, long length) {
+      this.path = path;
+      this.mTime = mTime;
+      this.length = length;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      final FooterKey that = (FooterKey) o;
+      return mTime == that.mTime && length == that.length && path.equals(that.path);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(path, mTime, length);
+    }
+  }
+}
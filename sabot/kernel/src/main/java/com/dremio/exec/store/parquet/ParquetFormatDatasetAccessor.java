@@ -58,8 +58,10 @@ import com.dremio.connector.metadata.PartitionChunkListing;
 import com.dremio.connector.metadata.PartitionValue;
 import com.dremio.exec.ExecConstants;
 import com.dremio.exec.catalog.ColumnCountTooLargeException;
+import com.dremio.exec.catalog.DatasetMetadataTooLargeException;
 import com.dremio.exec.catalog.FileConfigMetadata;
 import com.dremio.exec.catalog.MetadataObjectsUtils;
+import com.dremio.exec.catalog.PreviousPartitionChunksOption;
 import com.dremio.exec.physical.base.GroupScan;
 import com.dremio.exec.planner.cost.ScanCostFactor;
 import com.dremio.exec.record.BatchSchema;
@@ -67,6 +69,7 @@ import com.dremio.exec.server.SabotContext;
 import com.dremio.exec.store.PartitionChunkListingImpl;
 import com.dremio.exec.store.RecordReader;
 import com.dremio.exec.store.SampleMutator;
+import com.dremio.exec.store.dfs.CompleteFileWork.FileWorkImpl;
 import com.dremio.exec.store.dfs.FileDatasetHandle;
 import com.dremio.exec.store.dfs.FileSelection;
 import com.dremio.exec.store.dfs.FileSystemPlugin;
@@ -74,6 +77,7 @@ import com.dremio.exec.store.dfs.FormatPlugin;
 import com.dremio.exec.store.dfs.MetadataUtils;
 import com.dremio.exec.store.dfs.PhysicalDatasetUtils;
 import com.dremio.exec.store.dfs.PreviousDatasetInfo;
+import com.dremio.exec.store.dfs.easy.FileWork;
 import com.dremio.exec.store.dfs.implicit.AdditionalColumnsRecordReader;
 import com.dremio.exec.store.dfs.implicit.ConstantColumnPopulators;
 import com.dremio.exec.store.dfs.implicit.ImplicitFilesystemColumnFinder;
@@ -92,15 +96,20 @@ import com.dremio.sabot.exec.store.parquet.proto.ParquetProtobuf.ColumnValueCoun
 import com.dremio.sabot.exec.store.parquet.proto.ParquetProtobuf.DictionaryEncodedColumns;
 import com.dremio.sabot.exec.store.parquet.proto.ParquetProtobuf.ParquetDatasetSplitXAttr;
 import com.dremio.sabot.exec.store.parquet.proto.ParquetProtobuf.ParquetDatasetXAttr;
+import com.dremio.service.namespace.MetadataProtoUtils;
 import com.dremio.service.namespace.NamespaceKey;
+import com.dremio.service.namespace.PartitionChunkMetadata;
 import com.dremio.service.namespace.dataset.proto.DatasetType;
+import com.dremio.service.namespace.dataset.proto.PartitionProtobuf;
 import com.dremio.service.namespace.file.proto.FileConfig;
+import com.dremio.service.namespace.file.proto.FileType;
 import com.google.common.base.Optional;
 import com.google.common.base.Throwables;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
 import com.google.common.net.HostAndPort;
+import com.google.protobuf.InvalidProtocolBufferException;
 
 /**
  * Parquet dataset accessor.
@@ -270,7 +279,7 @@ public class ParquetFormatDatasetAccessor implements FileDatasetHandle {
         final ImplicitFilesystemColumnFinder finder = new ImplicitFilesystemColumnFinder(context.getOptionManager(), fs, GroupScan.ALL_COLUMNS, isAccelerator);
 
         final long maxFooterLen = context.getOptionManager().getOption(ExecConstants.PARQUET_MAX_FOOTER_LEN_VALIDATOR);
-        try (InputStreamProvider streamProvider = new SingleStreamProvider(fs, firstFile.getPath(), firstFile.size(), maxFooterLen, false, null, null);
+        try (InputStreamProvider streamProvider = new SingleStreamProvider(fs, firstFile.getPath(), firstFile.size(), -1, maxFooterLen, false, null, null, null);
             RecordReader reader = new AdditionalColumnsRecordReader(operatorContext, new ParquetRowiseReader(operatorContext, mutableParquetMetadata, 0,
                  firstFile.getPath().toString(), ParquetScanProjectedColumns.fromSchemaPaths(GroupScan.ALL_COLUMNS),
                  fs, schemaHelper, streamProvider, codec, true), finder.getImplicitFieldsForSample(selection), sampleAllocator)) {
@@ -292,28 +301,81 @@ public class ParquetFormatDatasetAccessor implements FileDatasetHandle {
     throw UserException.dataReadError().message("Only empty parquet files found.").build(logger);
   }
 
-  private void buildIfNecessary() throws Exception {
+  private void buildIfNecessary(ListPartitionChunkOption... options) throws Exception {
     if (partitionChunkListing.computed()) {
       return;
     }
     schema = getBatchSchema(oldConfig.getSchema(), fileSelection, fs);
 
-    final ParquetGroupScanUtils parquetGroupScanUtils = ((ParquetFormatPlugin) formatPlugin).getGroupScan(SYSTEM_USERNAME, fsPlugin, fileSelection, tableSchemaPath.getPathComponents(), GroupScan.ALL_COLUMNS, schema, null);
+    // only read the footers of the files new or changed since the previous refresh, and reuse the splits of the others
+    final Map<String, List<PreviousSplit>> previousSplits = getPreviousSplits(options);
+    final List<PreviousSplit> reusedSplits = new ArrayList<>();
+    final List<FileWork> reusedWork = new ArrayList<>();
+    final List<FileAttributes> changedFiles = new ArrayList<>();
+    for (FileAttributes file : fileSelection.getFileAttributesList()) {
+      final List<PreviousSplit> splits = previousSplits.get(file.getPath().toString());
+      if (splits != null && splits.stream().allMatch(split -> split.isUnchanged(file))) {
+        for (PreviousSplit split : splits) {
+          reusedSplits.add(split);
+          reusedWork.add(new FileWorkImpl(split.getExtended().getStart(), split.getExtended().getLength(), file));
+        }
+      } else {
+        changedFiles.add(file);
+      }
+    }
+
+    ParquetGroupScanUtils parquetGroupScanUtils = null;
+    if (reusedSplits.isEmpty()) {
+      parquetGroupScanUtils = ((ParquetFormatPlugin) formatPlugin).getGroupScan(SYSTEM_USERNAME, fsPlugin, fileSelection, tableSchemaPath.getPathComponents(), GroupScan.ALL_COLUMNS, schema, null);
+    } else if (!changedFiles.isEmpty()) {
+      final FileSelection changedSelection = FileSelection.createFromExpanded(ImmutableList.copyOf(changedFiles), fileSelection.getSelectionRoot());
+      parquetGroupScanUtils = ((ParquetFormatPlugin) formatPlugin).getGroupScan(SYSTEM_USERNAME, fsPlugin, changedSelection, tableSchemaPath.getPathComponents(), GroupScan.ALL_COLUMNS, schema, null);
+    }
+    logger.debug("Table {}: reusing {} splits, reading the footers of {} files", tableSchemaPath, reusedSplits.size(), changedFiles.size());
+
+    final List<RowGroupInfo> rowGroups = parquetGroupScanUtils == null ? Collections.emptyList() : parquetGroupScanUtils.getRowGroupInfos();
+    final long maxSplits = fsPlugin.getContext().getOptionManager().getOption(Metadata.DFS_MAX_SPLITS);
+    if (rowGroups.size() + reusedSplits.size() > maxSplits) {
+      throw new DatasetMetadataTooLargeException(String.format("Too many splits encountered when processing parquet metadata of %s, maximum is %d but encountered %d splits.",
+          tableSchemaPath, maxSplits, rowGroups.size() + reusedSplits.size()));
+    }
 
     // TODO: copy sort columns
 
-    this.recordCount = parquetGroupScanUtils.getScanStats().getRecordCount();
+    this.recordCount = parquetGroupScanUtils == null ? 0 : parquetGroupScanUtils.getScanStats().getRecordCount();
 
     final ParquetDatasetXAttr.Builder datasetXAttr = ParquetDatasetXAttr.newBuilder().setSelectionRoot(fileSelection.getSelectionRoot());
 
-    final ImplicitFilesystemColumnFinder finder = new ImplicitFilesystemColumnFinder(fsPlugin.getContext().getOptionManager(), fs, GroupScan.ALL_COLUMNS);
-    List<RowGroupInfo> rowGroups = parquetGroupScanUtils.getRowGroupInfos();
+    // Partition values of the columns that are single valued in each new or changed file.
+    final List<Map<String, PartitionValue>> rowGroupPartitionValues = new ArrayList<>();
+    for (RowGroupInfo rowGroupInfo : rowGroups) {
+      final Map<String, PartitionValue> partitionValues = new LinkedHashMap<>();
+      final Map<SchemaPath, MajorType> typeMap = checkNotNull(parquetGroupScanUtils.getColumnTypeMap());
+      final Map<SchemaPath, Object> pValues = parquetGroupScanUtils.getPartitionValueMap().get(rowGroupInfo.getFileAttributes());
+      for (SchemaPath pCol : parquetGroupScanUtils.getPartitionColumns()) {
+        final MajorType pColType = typeMap.get(pCol);
+        final MinorType minorType = MinorType.valueOf(pColType.getMinorType().getNumber());
+        final Object pVal;
+        if (pValues != null && pValues.containsKey(pCol)) {
+          pVal = pValues.get(pCol);
+        } else {
+          pVal = null;
+        }
+        partitionValues.put(pCol.getAsUnescapedPath(), MetadataUtils.toPartitionValue(pCol, pVal, minorType, PartitionValue.PartitionValueType.VISIBLE));
+      }
+      rowGroupPartitionValues.add(partitionValues);
+    }
 
-    final List<List<NameValuePair<?>>> pairs = finder.getImplicitFields(parquetGroupScanUtils.getSelectionRoot(), rowGroups);
+    final List<String> filePartitionColumns = getFilePartitionColumns(parquetGroupScanUtils, rowGroupPartitionValues, reusedSplits);
+
+    final ImplicitFilesystemColumnFinder finder = new ImplicitFilesystemColumnFinder(fsPlugin.getContext().getOptionManager(), fs, GroupScan.ALL_COLUMNS);
+    final List<FileWork> allWork = new ArrayList<>(rowGroups);
+    allWork.addAll(reusedWork);
+    final List<List<NameValuePair<?>>> pairs = finder.getImplicitFields(fileSelection.getSelectionRoot(), allWork);
     final Set<String> allImplicitColumns = Sets.newLinkedHashSet();
 
-    for (int i = 0; i < parquetGroupScanUtils.getRowGroupInfos().size(); i++) {
-      final ParquetGroupScanUtils.RowGroupInfo rowGroupInfo = parquetGroupScanUtils.getRowGroupInfos().get(i);
+    for (int i = 0; i < rowGroups.size(); i++) {
+      final ParquetGroupScanUtils.RowGroupInfo rowGroupInfo = rowGroups.get(i);
 
       final String pathString = rowGroupInfo.getFileAttributes().getPath().toString();
       final long splitRecordCount = rowGroupInfo.getRowCount();
@@ -327,40 +389,10 @@ public class ParquetFormatDatasetAccessor implements FileDatasetHandle {
       // Create a list of (partition name, partition value) pairs. Order of these pairs should be same a table
       // partition column list. Also if a partition value doesn't exist for a file, use null as the partition value
       final LinkedHashMap<String, PartitionValue> partitionValues = new LinkedHashMap<>();
-      final Map<SchemaPath, MajorType> typeMap = checkNotNull(parquetGroupScanUtils.getColumnTypeMap());
-      final Map<SchemaPath, Object> pValues = parquetGroupScanUtils.getPartitionValueMap().get(rowGroupInfo.getFileAttributes());
-      for (SchemaPath pCol : parquetGroupScanUtils.getPartitionColumns()) {
-        final MajorType pColType = typeMap.get(pCol);
-        final MinorType minorType = MinorType.valueOf(pColType.getMinorType().getNumber());
-        final Object pVal;
-        if (pValues != null && pValues.containsKey(pCol)) {
-          pVal = pValues.get(pCol);
-        } else {
-          pVal = null;
-        }
-        partitionValues.put(pCol.getAsUnescapedPath(), MetadataUtils.toPartitionValue(pCol, pVal, minorType, PartitionValue.PartitionValueType.VISIBLE));
-      }
-
-      if (!ACCELERATOR_STORAGEPLUGIN_NAME.equals(fsPlugin.getName())) {
-        // add implicit fields
-        for (NameValuePair<?> p : pairs.get(i)) {
-          if (!partitionValues.containsKey(p.getName())) {
-            final Object obj = p.getValue();
-            PartitionValue v;
-            if (obj == null) {
-              v = PartitionValue.of(p.getName(), PartitionValue.PartitionValueType.IMPLICIT);
-            } else if (obj instanceof String) {
-              v = PartitionValue.of(p.getName(), (String) p.getValue(), PartitionValue.PartitionValueType.IMPLICIT);
-            } else if (obj instanceof Long) {
-              v = PartitionValue.of(p.getName(), (Long) p.getValue(), PartitionValue.PartitionValueType.IMPLICIT);
-            } else {
-              throw new UnsupportedOperationException(String.format("Unable to handle value %s of type %s.", obj, obj.getClass().getName()));
-            }
-            partitionValues.put(p.getName(), v);
-            allImplicitColumns.add(p.getName());
-          }
-        }
+      for (String pCol : filePartitionColumns) {
+        partitionValues.put(pCol, rowGroupPartitionValues.get(i).get(pCol));
       }
+      addImplicitPartitionValues(partitionValues, pairs.get(i), allImplicitColumns);
 
       List<ColumnValueCount> columnValueCounts = Lists.newArrayList();
       for (Map.Entry<SchemaPath, Long> entry : rowGroupInfo.getColumnValueCounts().entrySet()) {
@@ -385,6 +417,7 @@ public class ParquetFormatDatasetAccessor implements FileDatasetHandle {
               .setLength(length))
           .addAllColumnValueCounts(columnValueCounts)
           .setLength(rowGroupInfo.getLength())
+          .setRowCount(splitRecordCount)
           .build();
 
 
@@ -393,11 +426,45 @@ public class ParquetFormatDatasetAccessor implements FileDatasetHandle {
       partitionChunkListing.put(partitionValueList, split);
     }
 
-    final List<String> filePartitionColumns = MetadataUtils.getStringColumnNames(parquetGroupScanUtils.getPartitionColumns());
-    if (filePartitionColumns != null) {
-      allImplicitColumns.addAll(filePartitionColumns);
+    final Map<String, Long> columnValueCounts = new LinkedHashMap<>();
+    if (parquetGroupScanUtils != null) {
+      for (Map.Entry<SchemaPath, Long> entry : parquetGroupScanUtils.getColumnValueCounts().entrySet()) {
+        columnValueCounts.put(entry.getKey().getAsUnescapedPath(), entry.getValue());
+      }
+    }
+
+    for (int i = 0; i < reusedSplits.size(); i++) {
+      final PreviousSplit previousSplit = reusedSplits.get(i);
+
+      final LinkedHashMap<String, PartitionValue> partitionValues = new LinkedHashMap<>();
+      for (String pCol : filePartitionColumns) {
+        partitionValues.put(pCol, previousSplit.getPartitionValues().get(pCol));
+      }
+      addImplicitPartitionValues(partitionValues, pairs.get(rowGroups.size() + i), allImplicitColumns);
+
+      final List<DatasetSplitAffinity> affinities = new ArrayList<>();
+      for (PartitionProtobuf.Affinity affinity : previousSplit.getSplit().getAffinitiesList()) {
+        affinities.add(DatasetSplitAffinity.of(affinity.getHost(), affinity.getFactor()));
+      }
+
+      final long splitRecordCount = previousSplit.getExtended().getRowCount();
+      this.recordCount += splitRecordCount;
+      for (ColumnValueCount count : previousSplit.getExtended().getColumnValueCountsList()) {
+        final Long previousCount = columnValueCounts.get(count.getColumn());
+        if (previousCount == null) {
+          columnValueCounts.put(count.getColumn(), count.getCount());
+        } else if (previousCount != GroupScan.NO_COLUMN_STATS) {
+          columnValueCounts.put(count.getColumn(), previousCount + count.getCount());
+        }
+      }
+
+      List<PartitionValue> partitionValueList = ImmutableList.copyOf(partitionValues.values());
+      DatasetSplit split = DatasetSplit.of(affinities, previousSplit.getSplit().getSize(), splitRecordCount,
+          previousSplit.getSplit().getSplitExtendedProperty()::writeTo);
+      partitionChunkListing.put(partitionValueList, split);
     }
 
+    allImplicitColumns.addAll(filePartitionColumns);
 
     // scan for global dictionaries
     final DictionaryEncodedColumns dictionaryEncodedColumns = ParquetFormatPlugin.scanForDictionaryEncodedColumns(fs, fileSelection.getSelectionRoot(), schema);
@@ -406,9 +473,9 @@ public class ParquetFormatDatasetAccessor implements FileDatasetHandle {
       datasetXAttr.setDictionaryEncodedColumns(dictionaryEncodedColumns);
     }
 
-    for (Map.Entry<SchemaPath, Long> entry : parquetGroupScanUtils.getColumnValueCounts().entrySet()) {
+    for (Map.Entry<String, Long> entry : columnValueCounts.entrySet()) {
       datasetXAttr.addColumnValueCountsBuilder()
-          .setColumn(entry.getKey().getAsUnescapedPath())
+          .setColumn(entry.getKey())
           .setCount(entry.getValue())
           .build();
     }
@@ -418,6 +485,141 @@ public class ParquetFormatDatasetAccessor implements FileDatasetHandle {
     partitionChunkListing.computePartitionChunks();
   }
 
+  private void addImplicitPartitionValues(Map<String, PartitionValue> partitionValues, List<NameValuePair<?>> pairs,
+                                          Set<String> allImplicitColumns) {
+    if (ACCELERATOR_STORAGEPLUGIN_NAME.equals(fsPlugin.getName())) {
+      return;
+    }
+
+    // add implicit fields
+    for (NameValuePair<?> p : pairs) {
+      if (!partitionValues.containsKey(p.getName())) {
+        final Object obj = p.getValue();
+        PartitionValue v;
+        if (obj == null) {
+          v = PartitionValue.of(p.getName(), PartitionValue.PartitionValueType.IMPLICIT);
+        } else if (obj instanceof String) {
+          v = PartitionValue.of(p.getName(), (String) p.getValue(), PartitionValue.PartitionValueType.IMPLICIT);
+        } else if (obj instanceof Long) {
+          v = PartitionValue.of(p.getName(), (Long) p.getValue(), PartitionValue.PartitionValueType.IMPLICIT);
+        } else {
+          throw new UnsupportedOperationException(String.format("Unable to handle value %s of type %s.", obj, obj.getClass().getName()));
+        }
+        partitionValues.put(p.getName(), v);
+        allImplicitColumns.add(p.getName());
+      }
+    }
+  }
+
+  /**
+   * Columns that are single valued in every file. When splits are reused, these are the columns found in both the
+   * new or changed files and the previous refresh, with values of the same kind: a column that was not a partition
+   * column for the unchanged files is not one anymore, even if the files that made it so were removed since.
+   */
+  private static List<String> getFilePartitionColumns(ParquetGroupScanUtils parquetGroupScanUtils,
+                                                      List<Map<String, PartitionValue>> rowGroupPartitionValues,
+                                                      List<PreviousSplit> reusedSplits) {
+    if (reusedSplits.isEmpty()) {
+      return MetadataUtils.getStringColumnNames(parquetGroupScanUtils.getPartitionColumns());
+    }
+
+    final boolean hasNewSplits = !rowGroupPartitionValues.isEmpty();
+    final Set<String> columns = Sets.newLinkedHashSet();
+    if (hasNewSplits) {
+      columns.addAll(MetadataUtils.getStringColumnNames(parquetGroupScanUtils.getPartitionColumns()));
+    } else {
+      columns.addAll(reusedSplits.get(0).getPartitionValues().keySet());
+    }
+
+    for (PreviousSplit split : reusedSplits) {
+      columns.retainAll(split.getPartitionValues().keySet());
+    }
+
+    if (hasNewSplits) {
+      columns.removeIf(column -> {
+        final Set<Class<?>> kinds = Sets.newHashSet();
+        rowGroupPartitionValues.stream().map(values -> values.get(column)).filter(PartitionValue::hasValue).forEach(value -> kinds.add(value.getClass()));
+        reusedSplits.stream().map(split -> split.getPartitionValues().get(column)).filter(PartitionValue::hasValue).forEach(value -> kinds.add(value.getClass()));
+        return kinds.size() > 1;
+      });
+    }
+    return ImmutableList.copyOf(columns);
+  }
+
+  /**
+   * Splits of the previous refresh of the dataset, by file path.
+   */
+  private Map<String, List<PreviousSplit>> getPreviousSplits(ListPartitionChunkOption... options) {
+    final Iterable<PartitionChunkMetadata> partitionChunks = PreviousPartitionChunksOption.getPartitionChunks(options);
+    if (partitionChunks == null || oldConfig.getFileConfig() == null || oldConfig.getFileConfig().getType() != FileType.PARQUET) {
+      return Collections.emptyMap();
+    }
+
+    final Map<String, List<PreviousSplit>> previousSplits = new HashMap<>();
+    for (PartitionChunkMetadata partitionChunk : partitionChunks) {
+      final Map<String, PartitionValue> partitionValues = new LinkedHashMap<>();
+      for (PartitionProtobuf.PartitionValue value : partitionChunk.getPartitionValues()) {
+        final PartitionValue partitionValue = MetadataProtoUtils.fromProtobuf(value);
+        if (partitionValue.getPartitionValueType() == PartitionValue.PartitionValueType.VISIBLE) {
+          partitionValues.put(partitionValue.getColumn(), partitionValue);
+        }
+      }
+
+      for (PartitionProtobuf.DatasetSplit split : partitionChunk.getDatasetSplits()) {
+        final ParquetDatasetSplitXAttr extended;
+        try {
+          extended = ParquetDatasetSplitXAttr.parseFrom(split.getSplitExtendedProperty());
+        } catch (InvalidProtocolBufferException e) {
+          logger.debug("Unable to read the previous splits of table {}, reading all the footers", tableSchemaPath, e);
+          return Collections.emptyMap();
+        }
+        previousSplits.computeIfAbsent(extended.getPath(), path -> new ArrayList<>())
+            .add(new PreviousSplit(partitionValues, split, extended));
+      }
+    }
+    return previousSplits;
+  }
+
+  /**
+   * Split saved by the previous refresh of the dataset, with its visible partition values.
+   */
+  private static final class PreviousSplit {
+    private final Map<String, PartitionValue> partitionValues;
+    private final PartitionProtobuf.DatasetSplit split;
+    private final ParquetDatasetSplitXAttr extended;
+
+    private PreviousSplit(Map<String, PartitionValue> partitionValues, PartitionProtobuf.DatasetSplit split,
+                          ParquetDatasetSplitXAttr extended) {
+      this.partitionValues = partitionValues;
+      this.split = split;
+      this.extended = extended;
+    }
+
+    public Map<String, PartitionValue> getPartitionValues() {
+      return partitionValues;
+    }
+
+    public PartitionProtobuf.DatasetSplit getSplit() {
+      return split;
+    }
+
+    public ParquetDatasetSplitXAttr getExtended() {
+      return extended;
+    }
+
+    /**
+     * Whether the file of the split is the same as when the split was saved. Splits saved without a row count
+     * cannot be reused.
+     */
+    public boolean isUnchanged(FileAttributes file) {
+      final FileSystemCachedEntity updateKey = extended.getUpdateKey();
+      return extended.hasRowCount()
+          && extended.hasUpdateKey()
+          && updateKey.getLastModificationTime() == file.lastModifiedTime().toMillis()
+          && (!updateKey.hasLength() || updateKey.getLength() == file.size());
+    }
+  }
+
 
   @Override
   public DatasetType getDatasetType() {
@@ -481,7 +683,7 @@ public class ParquetFormatDatasetAccessor implements FileDatasetHandle {
   @Override
   public PartitionChunkListing listPartitionChunks(ListPartitionChunkOption... options) throws ConnectorException {
     try {
-      buildIfNecessary();
+      buildIfNecessary(options);
     } catch (Exception e) {
       Throwables.propagateIfPossible(e, ConnectorException.class);
       throw new ConnectorException(e);
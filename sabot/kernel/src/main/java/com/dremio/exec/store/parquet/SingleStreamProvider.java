@@ -26,6 +26,8 @@ import org.apache.parquet.hadoop.metadata.ColumnChunkMetaData;
 import org.apache.parquet.io.SeekableInputStream;
 
 import com.dremio.io.ArrowBufFSInputStream;
+import com.dremio.io.AsyncByteReader;
+import com.dremio.io.FSInputStream;
 import com.dremio.io.file.FileSystem;
 import com.dremio.io.file.Path;
 import com.dremio.sabot.exec.context.OperatorContext;
@@ -39,18 +41,29 @@ public class SingleStreamProvider implements InputStreamProvider {
   private final Path path;
   private final BufferAllocator allocator;
   private final long fileLength;
+  private final long mTime;
   private final long maxFooterLen;
   private final boolean readFullFile;
+  private final ParquetFooterCache footerCache;
+  private final OperatorContext context;
   private BulkInputStream stream;
   private MutableParquetMetadata footer;
 
-  public SingleStreamProvider(FileSystem fs, Path path, long fileLength, long maxFooterLen, boolean readFullFile, MutableParquetMetadata footer, OperatorContext context) {
+  /**
+   * @param mTime modification time of the file, or -1 if unknown
+   * @param footerCache cache to look the footer up in, or null
+   */
+  public SingleStreamProvider(FileSystem fs, Path path, long fileLength, long mTime, long maxFooterLen, boolean readFullFile,
+                              MutableParquetMetadata footer, ParquetFooterCache footerCache, OperatorContext context) {
     this.fs = fs;
     this.path = path;
     this.fileLength = fileLength;
+    this.mTime = mTime;
     this.maxFooterLen = maxFooterLen;
     this.readFullFile = readFullFile;
     this.footer = footer;
+    this.footerCache = footerCache;
+    this.context = context;
     if (context != null) {
       this.allocator = context.getAllocator();
     } else {
@@ -68,10 +81,10 @@ public class SingleStreamProvider implements InputStreamProvider {
 
   private BulkInputStream initStream() throws IOException {
     if (!readFullFile) {
-      return BulkInputStream.wrap(Streams.wrap(fs.open(path)));
+      return BulkInputStream.wrap(Streams.wrap(open()));
     }
 
-    try (SeekableInputStream is = Streams.wrap(fs.open(path))) {
+    try (SeekableInputStream is = Streams.wrap(open())) {
       int len = (int) fileLength;
       ArrowBuf buf = allocator.buffer(len);
       if (buf == null) {
@@ -89,11 +102,27 @@ public class SingleStreamProvider implements InputStreamProvider {
     }
   }
 
+  /**
+   * Opens the file for the version known to the caller, if any, so that the file system doesn't have to look it up.
+   */
+  private FSInputStream open() throws IOException {
+    if (mTime < 0) {
+      return fs.open(path);
+    }
+    return fs.open(AsyncByteReader.FileKey.of(path, Long.toString(mTime), AsyncByteReader.FileKey.FileType.PARQUET),
+      fileLength);
+  }
+
   @Override
   public MutableParquetMetadata getFooter() throws IOException {
     if(footer == null) {
-      SingletonParquetFooterCache footerCache = new SingletonParquetFooterCache();
-      footer = new MutableParquetMetadata(footerCache.getFooter(getStream(null), path.toString(), fileLength, fs, maxFooterLen));
+      if (footerCache != null) {
+        footer = new MutableParquetMetadata(footerCache.getFooter(getStream(null), path.toString(), fileLength, mTime, fs,
+          maxFooterLen, context == null ? null : context.getStats()));
+      } else {
+        SingletonParquetFooterCache singletonFooterCache = new SingletonParquetFooterCache();
+        footer = new MutableParquetMetadata(singletonFooterCache.getFooter(getStream(null), path.toString(), fileLength, fs, maxFooterLen));
+      }
     }
     return footer;
   }
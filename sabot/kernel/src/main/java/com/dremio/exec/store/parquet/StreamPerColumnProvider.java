@@ -22,6 +22,7 @@ import java.util.List;
 import org.apache.parquet.hadoop.metadata.ColumnChunkMetaData;
 
 import com.dremio.common.AutoCloseables;
+import com.dremio.io.AsyncByteReader;
 import com.dremio.io.FSInputStream;
 import com.dremio.io.file.FileSystem;
 import com.dremio.io.file.Path;
@@ -34,22 +35,33 @@ public class StreamPerColumnProvider implements InputStreamProvider {
   private final FileSystem fs;
   private final Path path;
   private final long length;
+  private final long mTime;
   private MutableParquetMetadata footer;
   private final long maxFooterLen;
+  private final ParquetFooterCache footerCache;
+  private final OperatorStats stats;
 
   private final List<BulkInputStream> streams = new ArrayList<>();
 
-  public StreamPerColumnProvider(FileSystem fs, Path path, long length, long maxFooterLen, MutableParquetMetadata footer, OperatorStats stats) {
+  /**
+   * @param mTime modification time of the file, or -1 if unknown
+   * @param footerCache cache to look the footer up in, or null
+   */
+  public StreamPerColumnProvider(FileSystem fs, Path path, long length, long mTime, long maxFooterLen, MutableParquetMetadata footer,
+                                 ParquetFooterCache footerCache, OperatorStats stats) {
     this.fs = fs;
     this.path = path;
     this.length = length;
+    this.mTime = mTime;
     this.maxFooterLen = maxFooterLen;
     this.footer = footer;
+    this.footerCache = footerCache;
+    this.stats = stats;
   }
 
   @Override
   public BulkInputStream getStream(ColumnChunkMetaData column) throws IOException {
-    FSInputStream is = fs.open(path);
+    FSInputStream is = open();
     BulkInputStream stream = BulkInputStream.wrap(Streams.wrap(is));
     streams.add(stream);
     return stream;
@@ -60,11 +72,27 @@ public class StreamPerColumnProvider implements InputStreamProvider {
     return false;
   }
 
+  /**
+   * Opens the file for the version known to the caller, if any, so that the file system doesn't have to look it up.
+   */
+  private FSInputStream open() throws IOException {
+    if (mTime < 0) {
+      return fs.open(path);
+    }
+    return fs.open(AsyncByteReader.FileKey.of(path, Long.toString(mTime), AsyncByteReader.FileKey.FileType.PARQUET),
+      length);
+  }
+
   @Override
   public MutableParquetMetadata getFooter() throws IOException {
     if(footer == null) {
-      SingletonParquetFooterCache footerCache = new SingletonParquetFooterCache();
-      footer = new MutableParquetMetadata(footerCache.getFooter(getStream(null), path.toString(), length, fs, maxFooterLen));
+      if (footerCache != null) {
+        footer = new MutableParquetMetadata(footerCache.getFooter(getStream(null), path.toString(), length, mTime, fs,
+          maxFooterLen, stats));
+      } else {
+        SingletonParquetFooterCache singletonFooterCache = new SingletonParquetFooterCache();
+        footer = new MutableParquetMetadata(singletonFooterCache.getFooter(getStream(null), path.toString(), length, fs, maxFooterLen));
+      }
     }
     return footer;
   }
@@ -31,6 +31,7 @@ import org.apache.arrow.vector.FixedWidthVector;
 import org.apache.arrow.vector.SimpleIntVector;
 import org.apache.arrow.vector.ValueVector;
 import org.apache.hadoop.conf.Configuration;
+import org.apache.parquet.column.statistics.Statistics;
 import org.apache.parquet.compression.CompressionCodecFactory;
 import org.apache.parquet.hadoop.CodecFactory;
 import org.apache.parquet.hadoop.metadata.BlockMetaData;
@@ -49,10 +50,13 @@ import com.dremio.exec.planner.physical.PlannerSettings;
 import com.dremio.exec.planner.physical.visitor.GlobalDictionaryFieldInfo;
 import com.dremio.exec.record.BatchSchema;
 import com.dremio.exec.store.AbstractRecordReader;
+import com.dremio.exec.store.CompositeColumnFilter;
 import com.dremio.exec.store.RecordReader;
+import com.dremio.exec.store.RuntimeFilter;
 import com.dremio.exec.store.parquet.columnreaders.DeprecatedParquetVectorizedReader;
 import com.dremio.exec.store.parquet2.ParquetRowiseReader;
 import com.dremio.exec.util.ColumnUtils;
+import com.dremio.exec.util.ValueListFilter;
 import com.dremio.io.file.FileBlockLocation;
 import com.dremio.io.file.FileSystem;
 import com.dremio.io.file.Path;
@@ -68,7 +72,7 @@ import com.google.common.collect.Sets;
 
 public class UnifiedParquetReader implements RecordReader {
 
-//  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(UnifiedParquetReader.class);
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(UnifiedParquetReader.class);
   private final OperatorContext context;
   private final MutableParquetMetadata footer;
   private final ParquetDatasetSplitScanXAttr readEntry;
@@ -93,6 +97,7 @@ public class UnifiedParquetReader implements RecordReader {
   private final List<SchemaPath> vectorizableReaderColumns = new ArrayList<>();
   private InputStreamProvider inputStreamProvider;
   private boolean ignoreSchemaLearning;
+  private boolean skipRowGroup;
 
   public UnifiedParquetReader(
       OperatorContext context,
@@ -237,6 +242,9 @@ public class UnifiedParquetReader implements RecordReader {
 
   @Override
   public int next() {
+    if (skipRowGroup) {
+      return 0;
+    }
     // need to make sure number of rows in batch is the same for all the readers
     int count = -1;
     for (RecordReader recordReader : delegates) {
@@ -253,6 +261,85 @@ public class UnifiedParquetReader implements RecordReader {
     return count;
   }
 
+  /**
+   * Skips the rest of the row group if the statistics of a column show that none of the values in a value list
+   * filter on the column can be present.
+   */
+  @Override
+  public void addRuntimeFilter(RuntimeFilter runtimeFilter) {
+    if (skipRowGroup || columnResolver == null || runtimeFilter.getNonPartitionColumnFilter() == null) {
+      return;
+    }
+    final BlockMetaData block = footer.getBlocks().get(readEntry.getRowGroupIndex());
+    if (block == null) {
+      return;
+    }
+    for (CompositeColumnFilter filter : runtimeFilter.getNonPartitionColumnFilter()) {
+      if (filter.getFilterType() != CompositeColumnFilter.RuntimeFilterType.VALUE_LIST || filter.getColumnsList().size() != 1) {
+        continue;
+      }
+      final ColumnChunkMetaData column = findColumnChunk(block, filter.getColumnsList().get(0));
+      if (column != null && !mightContainAny(column, filter.getValueList())) {
+        skipRowGroup = true;
+        context.getStats().addLongStat(Metric.NUM_ROW_GROUPS_PRUNED_BY_RUNTIME_FILTER, 1);
+        logger.debug("Skipping row group {} of {}, no match for runtime filter on {}. RuntimeFilter sender info: {}",
+          readEntry.getRowGroupIndex(), readEntry.getPath(), filter.getColumnsList(), runtimeFilter.getSenderInfo());
+        return;
+      }
+    }
+  }
+
+  private ColumnChunkMetaData findColumnChunk(BlockMetaData block, String column) {
+    final String parquetColumnName = columnResolver.getParquetColumnName(column);
+    if (parquetColumnName == null) {
+      return null;
+    }
+    ColumnChunkMetaData match = null;
+    for (ColumnChunkMetaData c : block.getColumns()) {
+      if (c.getPath().size() != 1) {
+        continue;
+      }
+      final String name = c.getPath().iterator().next();
+      if (name.equals(parquetColumnName)) {
+        return c;
+      } else if (match == null && name.equalsIgnoreCase(parquetColumnName)) {
+        match = c;
+      }
+    }
+    return match;
+  }
+
+  /**
+   * @return false only if the column holds integers, and its min/max statistics exclude all the values of the filter
+   */
+  private boolean mightContainAny(ColumnChunkMetaData column, ValueListFilter values) {
+    final PrimitiveType.PrimitiveTypeName type = column.getType();
+    if (type != PrimitiveType.PrimitiveTypeName.INT32 && type != PrimitiveType.PrimitiveTypeName.INT64) {
+      return true;
+    }
+    final MessageType schema = footer.getFileMetaData().getSchema();
+    final String[] path = column.getPath().toArray();
+    if (!schema.containsPath(path)) {
+      return true;
+    }
+    final OriginalType originalType = schema.getType(path).getOriginalType();
+    if (originalType != null && originalType != OriginalType.INT_32 && originalType != OriginalType.INT_64) {
+      // dates, decimals and unsigned integers don't compare like the join keys
+      return true;
+    }
+    final Statistics<?> stats = column.getStatistics();
+    if (stats == null || stats.isEmpty()) {
+      return true;
+    }
+    if (!stats.hasNonNullValue()) {
+      // all nulls, which never match an equi-join key
+      return stats.getNumNulls() != column.getValueCount();
+    }
+    final long min = ((Number) stats.genericGetMin()).longValue();
+    final long max = ((Number) stats.genericGetMax()).longValue();
+    return values.mightContainAnyInRange(min, max);
+  }
+
   @Override
   public List<SchemaPath> getColumnsToBoost() {
     List<SchemaPath> columnsToBoost = Lists.newArrayList();
@@ -0,0 +1,81 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.sys;
+
+import java.util.Iterator;
+
+import com.dremio.exec.proto.CoordinationProtos.NodeEndpoint;
+import com.dremio.exec.server.SabotContext;
+import com.dremio.sabot.exec.context.OperatorContext;
+import com.dremio.service.spill.SpillDirectoryUsage;
+
+/**
+ * Iterator that returns a {@link SpillDirectoryInfo} for every spill directory of this node
+ */
+public class SpillDirectoryIterator implements Iterator<Object> {
+
+  private final NodeEndpoint endpoint;
+  private final Iterator<SpillDirectoryUsage> usages;
+
+  public SpillDirectoryIterator(final SabotContext dbContext, final OperatorContext context) {
+    this.endpoint = dbContext.getEndpoint();
+    this.usages = dbContext.getSpillService().getSpillDirectoryUsage().iterator();
+  }
+
+  @Override
+  public boolean hasNext() {
+    return usages.hasNext();
+  }
+
+  @Override
+  public Object next() {
+    final SpillDirectoryUsage usage = usages.next();
+    final SpillDirectoryInfo info = new SpillDirectoryInfo();
+    info.hostname = endpoint.getAddress();
+    info.fabric_port = endpoint.getFabricPort();
+    info.path = usage.getPath();
+    info.healthy = usage.isHealthy();
+    info.active_writes = usage.getActiveWrites();
+    info.active_reads = usage.getActiveReads();
+    info.spill_files = usage.getSpillFiles();
+    info.bytes_in_flight = usage.getBytesInFlight();
+    info.bytes_written = usage.getBytesWritten();
+    info.write_millis = usage.getWriteMillis();
+    info.bytes_read = usage.getBytesRead();
+    info.read_millis = usage.getReadMillis();
+    return info;
+  }
+
+  @Override
+  public void remove() {
+    throw new UnsupportedOperationException();
+  }
+
+  public static class SpillDirectoryInfo {
+    public String hostname;
+    public long fabric_port;
+    public String path;
+    public boolean healthy;
+    public int active_writes;
+    public int active_reads;
+    public long spill_files;
+    public long bytes_in_flight;
+    public long bytes_written;
+    public long write_millis;
+    public long bytes_read;
+    public long read_millis;
+  }
+}
@@ -54,7 +54,8 @@ import com.google.common.collect.ImmutableList;
  * <p>
  *   OPTION, NODES and VERSION are local tables available on every SabotNode.
  *   MEMORY and THREADS are distributed tables with one record on every
- *   SabotNode.
+ *   SabotNode. SPILL_DIRECTORIES is a distributed table with one record per
+ *   spill directory of every SabotNode.
  * </p>
  */
 public enum SystemTable implements DatasetHandle, DatasetMetadata, PartitionChunkListing {
@@ -145,6 +146,13 @@ public enum SystemTable implements DatasetHandle, DatasetMetadata, PartitionChun
     }
   },
 
+  SPILL_DIRECTORIES(true, SpillDirectoryIterator.SpillDirectoryInfo.class, "spill_directories") {
+    @Override
+    public Iterator<?> getIterator(final SabotContext sContext, final OperatorContext context) {
+      return new SpillDirectoryIterator(sContext, context);
+    }
+  },
+
   DEPENDENCIES(false, AccelerationListManager.DependencyInfo.class, "dependencies") {
     @Override
     public Iterator<?> getIterator(final SabotContext sContext, final OperatorContext context) {
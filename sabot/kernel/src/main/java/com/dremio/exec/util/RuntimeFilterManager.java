@@ -17,7 +17,6 @@
 package com.dremio.exec.util;
 
 import static org.apache.arrow.util.Preconditions.checkArgument;
-import static org.apache.arrow.util.Preconditions.checkNotNull;
 
 import java.util.ArrayList;
 import java.util.HashSet;
@@ -32,7 +31,9 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.dremio.common.AutoCloseables;
+import com.dremio.exec.proto.ExecProtos.CompositeColumnFilter;
 import com.dremio.exec.proto.ExecProtos.RuntimeFilter;
+import com.dremio.exec.proto.ExecProtos.RuntimeFilterType;
 
 
 /**
@@ -41,21 +42,30 @@ import com.dremio.exec.proto.ExecProtos.RuntimeFilter;
  */
 @NotThreadSafe
 public class RuntimeFilterManager implements AutoCloseable {
-    // TODO: Extend for non-partitoned column cases and value filters.
 
     private static Logger logger = LoggerFactory.getLogger(RuntimeFilterManager.class);
     private List<RuntimeFilterManagerEntry> filterEntries = new ArrayList<>();
     private final Set<Integer> allMinorFragments;
+    private final int maxValueListSize;
     private long filterDropCount = 0L;
     public RuntimeFilterManager(Set<Integer> allMinorFragments) {
+        this(allMinorFragments, Integer.MAX_VALUE);
+    }
+
+    /**
+     * @param allMinorFragments minor fragments expected to send a filter piece
+     * @param maxValueListSize value list filters on non-partition columns growing beyond this size while merging are dropped
+     */
+    public RuntimeFilterManager(Set<Integer> allMinorFragments, int maxValueListSize) {
         this.allMinorFragments = allMinorFragments;
+        this.maxValueListSize = maxValueListSize;
     }
 
     /**
      * Adds the filter to the manager entries if not present; merges the filter if already exists.
      *
      * @param filter
-     * @param partitionColFilter
+     * @param partitionColFilter bloom filter on the partition columns, null if the filter has none
      * @throws Exception
      */
     public RuntimeFilterManagerEntry coalesce(RuntimeFilter filter, BloomFilter partitionColFilter, int minorFragmentId) {
@@ -65,7 +75,7 @@ public class RuntimeFilterManager implements AutoCloseable {
         } else {
             RuntimeFilterManagerEntry newEntry = new RuntimeFilterManagerEntry(filter, allMinorFragments, partitionColFilter);
             newEntry.remainingMinorFragments.remove(minorFragmentId);
-            logger.debug("New filter entry created {}, remaining fragments {}", partitionColFilter.getName(), newEntry.remainingMinorFragments);
+            logger.debug("New filter entry created {}, remaining fragments {}", nameOf(partitionColFilter), newEntry.remainingMinorFragments);
             filterEntries.add(newEntry);
             return newEntry;
         }
@@ -80,17 +90,17 @@ public class RuntimeFilterManager implements AutoCloseable {
      * @param minorFragmentId
      */
     private RuntimeFilterManagerEntry merge(RuntimeFilter filterPiece, BloomFilter partitionColFilterPiece, RuntimeFilterManagerEntry baseEntry, int minorFragmentId) {
-        final String incomingName = partitionColFilterPiece.getName();
-        final String existingName = baseEntry.getPartitionColFilter().getName();
+        final String incomingName = nameOf(partitionColFilterPiece);
+        final String existingName = nameOf(baseEntry.getPartitionColFilter());
         try {
-            checkNotNull(partitionColFilterPiece);
             checkArgument(baseEntry.getRemainingMinorFragments().contains(minorFragmentId), "Not expecting filter piece from "
                     + minorFragmentId + ", remaining minor fragments: " + baseEntry.getRemainingMinorFragments());
             baseEntry.remainingMinorFragments.remove(minorFragmentId);
 
-            if (baseEntry.isNotDropped() && partitionColFilterPiece!=null && baseEntry.getPartitionColFilter()!=null) {
+            if (baseEntry.isNotDropped()) {
                 logger.debug("Merging incoming filter {} into existing filter {}. Remaining fragments {}", incomingName, existingName, baseEntry.getRemainingMinorFragments());
-                baseEntry.getPartitionColFilter().merge(partitionColFilterPiece);
+                baseEntry.mergePartitionColFilter(partitionColFilterPiece);
+                baseEntry.mergeNonPartitionColFilters(filterPiece);
                 baseEntry.evaluateFppTolerance();
                 filterDropCount = baseEntry.isNotDropped() ? filterDropCount: filterDropCount + 1;
             } else {
@@ -103,11 +113,17 @@ public class RuntimeFilterManager implements AutoCloseable {
             baseEntry.drop();
             filterDropCount = filterDropCount + 1;
         } finally {
-            partitionColFilterPiece.close();
+            if (partitionColFilterPiece != null) {
+                partitionColFilterPiece.close();
+            }
         }
         return baseEntry;
     }
 
+    private static String nameOf(BloomFilter bloomFilter) {
+        return bloomFilter == null ? "<none>" : bloomFilter.getName();
+    }
+
     /**
      * Removes the entry from the list. The resources are not closed here before removal.
      * It is the responsibility of the caller to gracefully close the resources.
@@ -175,14 +191,74 @@ public class RuntimeFilterManager implements AutoCloseable {
             return !isDroppedFromProcessing;
         }
 
-        public void evaluateFppTolerance() {
-            if (partitionColFilter.isCrossingMaxFPP()) {
+        /**
+         * Merges the partition column bloom filter of a piece. If the piece has none, the composite filter can't
+         * have one either.
+         */
+        private void mergePartitionColFilter(BloomFilter partitionColFilterPiece) throws Exception {
+            if (partitionColFilter == null) {
+                return;
+            }
+            if (partitionColFilterPiece == null) {
+                dropPartitionColFilter();
+                return;
+            }
+            partitionColFilter.merge(partitionColFilterPiece);
+        }
+
+        /**
+         * Merges the value list filters on non-partition columns of a piece. A column filter is kept only if all the
+         * pieces have it, and if the union of values stays within the allowed size.
+         */
+        private void mergeNonPartitionColFilters(RuntimeFilter filterPiece) {
+            if (compositeFilter.getNonPartitionColumnFilterCount() == 0) {
+                return;
+            }
+            final List<CompositeColumnFilter> merged = new ArrayList<>();
+            for (CompositeColumnFilter existing : compositeFilter.getNonPartitionColumnFilterList()) {
+                final Optional<CompositeColumnFilter> incoming = filterPiece.getNonPartitionColumnFilterList().stream()
+                        .filter(f -> f.getFilterType() == RuntimeFilterType.VALUE_LIST)
+                        .filter(f -> f.getColumnsList().equals(existing.getColumnsList()))
+                        .findFirst();
+                if (existing.getFilterType() != RuntimeFilterType.VALUE_LIST || !incoming.isPresent()) {
+                    logger.debug("Dropping filter on non-partition columns {} of {}", existing.getColumnsList(), getProbeScanCoordinates());
+                    continue;
+                }
+                final ValueListFilter values = ValueListFilter.fromProto(existing).union(ValueListFilter.fromProto(incoming.get()));
+                if (values.size() > maxValueListSize) {
+                    logger.debug("Dropping filter on non-partition columns {} of {}, {} values exceed the limit of {}",
+                            existing.getColumnsList(), getProbeScanCoordinates(), values.size(), maxValueListSize);
+                    continue;
+                }
+                merged.add(existing.toBuilder()
+                        .clearValues()
+                        .addAllValues(values.getValues())
+                        .setSizeBytes(values.size() * 8L)
+                        .build());
+            }
+            compositeFilter = compositeFilter.toBuilder()
+                    .clearNonPartitionColumnFilter()
+                    .addAllNonPartitionColumnFilter(merged)
+                    .build();
+        }
+
+        public void evaluateFppTolerance() throws Exception {
+            if (partitionColFilter != null && partitionColFilter.isCrossingMaxFPP()) {
                 logger.info("The error rate of combined filter {} is dropped below 5% at {}. " +
                         "Hence, dropping the filter.", partitionColFilter.getName(), partitionColFilter.getExpectedFPP());
+                dropPartitionColFilter();
+            }
+            if (!compositeFilter.hasPartitionColumnFilter() && compositeFilter.getNonPartitionColumnFilterCount() == 0) {
                 drop();
             }
         }
 
+        private void dropPartitionColFilter() throws Exception {
+            AutoCloseables.close(partitionColFilter);
+            partitionColFilter = null;
+            compositeFilter = compositeFilter.toBuilder().clearPartitionColumnFilter().build();
+        }
+
         public void drop() {
             isDroppedFromProcessing = true;
         }
@@ -0,0 +1,126 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.util;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import com.dremio.exec.proto.ExecProtos;
+import com.google.common.base.Preconditions;
+import com.google.common.primitives.Longs;
+
+/**
+ * An exact set of the non-null values of a single integer join key on the build side. Used as a runtime filter
+ * on non-partition columns, where it is small enough to be shipped inline with the filter message, and can be
+ * checked against column statistics as well as against individual values.
+ */
+public final class ValueListFilter {
+
+  // sorted, without duplicates
+  private final long[] values;
+
+  private ValueListFilter(long[] values) {
+    this.values = values;
+  }
+
+  /**
+   * Creates a filter from the given values, in any order and possibly with duplicates.
+   */
+  public static ValueListFilter of(Collection<Long> values) {
+    final long[] sorted = Longs.toArray(values);
+    Arrays.sort(sorted);
+    return new ValueListFilter(dedup(sorted));
+  }
+
+  public static ValueListFilter fromProto(ExecProtos.CompositeColumnFilter proto) {
+    Preconditions.checkArgument(proto.getFilterType() == ExecProtos.RuntimeFilterType.VALUE_LIST,
+      "Not a value list filter: %s", proto.getFilterType());
+    return of(proto.getValuesList());
+  }
+
+  public int size() {
+    return values.length;
+  }
+
+  public boolean isEmpty() {
+    return values.length == 0;
+  }
+
+  public long getMin() {
+    Preconditions.checkState(!isEmpty());
+    return values[0];
+  }
+
+  public long getMax() {
+    Preconditions.checkState(!isEmpty());
+    return values[values.length - 1];
+  }
+
+  public List<Long> getValues() {
+    return Longs.asList(values);
+  }
+
+  public boolean mightContain(long value) {
+    return Arrays.binarySearch(values, value) >= 0;
+  }
+
+  /**
+   * @return true if at least one value of the filter is within [min, max]
+   */
+  public boolean mightContainAnyInRange(long min, long max) {
+    if (isEmpty() || min > max) {
+      return false;
+    }
+    int pos = Arrays.binarySearch(values, min);
+    if (pos >= 0) {
+      return true;
+    }
+    // first value greater than min
+    pos = -pos - 1;
+    return pos < values.length && values[pos] <= max;
+  }
+
+  /**
+   * @return a filter holding the values of both filters
+   */
+  public ValueListFilter union(ValueListFilter other) {
+    final long[] merged = new long[values.length + other.values.length];
+    System.arraycopy(values, 0, merged, 0, values.length);
+    System.arraycopy(other.values, 0, merged, values.length, other.values.length);
+    Arrays.sort(merged);
+    return new ValueListFilter(dedup(merged));
+  }
+
+  private static long[] dedup(long[] sorted) {
+    if (sorted.length == 0) {
+      return sorted;
+    }
+    int last = 0;
+    for (int i = 1; i < sorted.length; i++) {
+      if (sorted[i] != sorted[last]) {
+        sorted[++last] = sorted[i];
+      }
+    }
+    return last + 1 == sorted.length ? sorted : Arrays.copyOf(sorted, last + 1);
+  }
+
+  @Override
+  public String toString() {
+    return isEmpty() ? "ValueListFilter{size=0}"
+      : String.format("ValueListFilter{size=%d, min=%d, max=%d}", values.length, getMin(), getMax());
+  }
+}
@@ -17,6 +17,8 @@ package com.dremio.exec.work.foreman;
 
 import java.time.Duration;
 import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionException;
 
 import com.dremio.common.EventProcessor;
 import com.dremio.common.ProcessExit;
@@ -347,14 +349,23 @@ public class AttemptManager implements Runnable {
         committer = asyncCommand.getPhysicalPlan().getCommitter();
 
         moveToState(QueryState.STARTING, null);
+        // the query may wait for resources, the thread is not held until the fragments are started
         maestroService.executeQuery(queryId, queryContext, asyncCommand.getPhysicalPlan(), runInSameThread,
-          new MaestroObserverWrapper(observer), new CompletionListenerImpl());
-        asyncCommand.executionStarted();
+          new MaestroObserverWrapper(observer), new CompletionListenerImpl())
+          .whenComplete((ignored, t) -> {
+            if (t != null) {
+              executionFailed(t);
+              return;
+            }
+            asyncCommand.executionStarted();
+            observer.beginState(AttemptObserver.toEvent(AttemptEvent.State.RUNNING));
+            addToEventQueue(QueryState.RUNNING, null);
+          });
+      } else {
+        observer.beginState(AttemptObserver.toEvent(AttemptEvent.State.RUNNING));
+        moveToState(QueryState.RUNNING, null);
       }
 
-      observer.beginState(AttemptObserver.toEvent(AttemptEvent.State.RUNNING));
-      moveToState(QueryState.RUNNING, null);
-
       injector.injectChecked(queryContext.getExecutionControls(), INJECTOR_TRY_END_ERROR,
         ForemanException.class);
     } catch (ResourceUnavailableException e) {
@@ -412,6 +423,32 @@ public class AttemptManager implements Runnable {
      */
   }
 
+  /**
+   * Handles a failure to start the execution of the query, with the same outcome as failures in {@link #run()}.
+   */
+  private void executionFailed(Throwable t) {
+    final Throwable cause = t instanceof CompletionException && t.getCause() != null ? t.getCause() : t;
+    if (cause instanceof CancellationException) {
+      // the query is already cancelled or failed
+      logger.debug("Execution of query {} cancelled before the fragments were started.", queryIdString);
+    } else if (cause instanceof ResourceUnavailableException) {
+      // resource allocation failure is treated as a cancellation and not a failure
+      profileTracker.setCancelReason(cause.getMessage());
+      addToEventQueue(QueryState.CANCELED, null);
+    } else if (cause instanceof UserException || cause instanceof ForemanException) {
+      addToEventQueue(QueryState.FAILED, (Exception) cause);
+    } else if (cause instanceof OutOfMemoryError) {
+      if (cause instanceof OutOfDirectMemoryError || "Direct buffer memory".equals(cause.getMessage())) {
+        addToEventQueue(QueryState.FAILED, UserException.memoryError(cause).build(logger));
+      } else {
+        ProcessExit.exitHeap(cause);
+      }
+    } else {
+      addToEventQueue(QueryState.FAILED,
+        new ForemanException("Unexpected exception during fragment initialization: " + cause.getMessage(), cause));
+    }
+  }
+
   private void plan() throws Exception {
     // query parsing and dataset retrieval (both from source and kvstore).
     observer.beginState(AttemptObserver.toEvent(AttemptEvent.State.METADATA_RETRIEVAL));
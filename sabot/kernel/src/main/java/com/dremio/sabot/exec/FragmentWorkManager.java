@@ -49,6 +49,7 @@ import com.dremio.sabot.exec.fragment.FragmentExecutor;
 import com.dremio.sabot.exec.fragment.FragmentExecutorBuilder;
 import com.dremio.sabot.exec.rpc.ExecProtocol;
 import com.dremio.sabot.exec.rpc.ExecTunnel;
+import com.dremio.sabot.exec.rpc.LocalExecTunnel;
 import com.dremio.sabot.task.TaskPool;
 import com.dremio.service.Service;
 import com.dremio.service.coordinator.ClusterCoordinator;
@@ -291,7 +292,9 @@ public class FragmentWorkManager implements Service, SafeExit {
       bitContext.getEndpoint(), bitContext.getOptionManager());
     fragmentExecutors = new FragmentExecutors(maestroProxy, callback, pool.get(), bitContext.getOptionManager());
 
-    final ExecConnectionCreator connectionCreator = new ExecConnectionCreator(fabricServiceProvider.get().registerProtocol(new ExecProtocol(bitContext.getConfig(), allocator, fragmentExecutors)));
+    final ExecProtocol execProtocol = new ExecProtocol(bitContext.getConfig(), allocator, fragmentExecutors);
+    final ExecConnectionCreator connectionCreator = new ExecConnectionCreator(fabricServiceProvider.get().registerProtocol(execProtocol),
+      new LocalExecTunnel(execProtocol, allocator), bitContext.getEndpoint());
 
     final FragmentExecutorBuilder builder = new FragmentExecutorBuilder(
         clerk,
@@ -346,15 +349,34 @@ public class FragmentWorkManager implements Service, SafeExit {
 
   public class ExecConnectionCreator {
     private final FabricRunnerFactory factory;
+    private final LocalExecTunnel localTunnel;
+    private final NodeEndpoint localEndpoint;
 
-    public ExecConnectionCreator(FabricRunnerFactory factory) {
+    public ExecConnectionCreator(FabricRunnerFactory factory, LocalExecTunnel localTunnel, NodeEndpoint localEndpoint) {
       super();
       this.factory = factory;
+      this.localTunnel = localTunnel;
+      this.localEndpoint = localEndpoint;
     }
 
     public ExecTunnel getTunnel(NodeEndpoint endpoint) {
       return new ExecTunnel(factory.getCommandRunner(endpoint.getAddress(), endpoint.getFabricPort()));
     }
+
+    /**
+     * @return true if the fragments of the given endpoint run on this node
+     */
+    public boolean isLocal(NodeEndpoint endpoint) {
+      return localEndpoint.getAddress().equals(endpoint.getAddress())
+        && localEndpoint.getFabricPort() == endpoint.getFabricPort();
+    }
+
+    /**
+     * @return a tunnel handing messages directly to the fragments running on this node
+     */
+    public ExecTunnel getLocalTunnel() {
+      return localTunnel;
+    }
   }
 
   @Override
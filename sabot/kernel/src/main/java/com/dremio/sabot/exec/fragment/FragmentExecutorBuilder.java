@@ -274,7 +274,8 @@ public class FragmentExecutorBuilder {
             .getJobResultsClient(major.getForeman(), allocator, QueryIdHelper.getFragmentId(fragment.getHandle())).getTunnel();
         final DeferredException exception = new DeferredException();
         final StatusHandler handler = new StatusHandler(exception);
-        final TunnelProvider tunnelProvider = new TunnelProviderImpl(flushable.getAccountor(), jobResultsTunnel, dataCreator, handler, sharedResources.getGroup(PIPELINE_RES_GRP));
+        final TunnelProvider tunnelProvider = new TunnelProviderImpl(flushable.getAccountor(), jobResultsTunnel, dataCreator, handler,
+          sharedResources.getGroup(PIPELINE_RES_GRP), fragmentOptions.getOption(ExecConstants.ENABLE_LOCAL_EXCHANGE));
 
         final OperatorContextCreator creator = new OperatorContextCreator(
             stats,
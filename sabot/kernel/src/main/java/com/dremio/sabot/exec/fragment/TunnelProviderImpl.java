@@ -23,6 +23,7 @@ import com.dremio.exec.rpc.RpcOutcomeListener;
 import com.dremio.sabot.exec.FragmentWorkManager.ExecConnectionCreator;
 import com.dremio.sabot.exec.rpc.AccountingExecToCoordTunnel;
 import com.dremio.sabot.exec.rpc.AccountingExecTunnel;
+import com.dremio.sabot.exec.rpc.ExecTunnel;
 import com.dremio.sabot.exec.rpc.TunnelProvider;
 import com.dremio.sabot.threads.SendingAccountor;
 import com.dremio.sabot.threads.SendingMonitor;
@@ -44,15 +45,18 @@ class TunnelProviderImpl implements TunnelProvider {
   private final ExecConnectionCreator connectionCreator;
   private final SharedResourceGroup resourceGroup;
   private final RpcOutcomeListener<Ack> statusHandler;
+  private final boolean localExchange;
 
   public TunnelProviderImpl(
       SendingAccountor accountor,
       JobResultsTunnel tunnel,
       ExecConnectionCreator connectionCreator,
       RpcOutcomeListener<Ack> statusHandler,
-      SharedResourceGroup resourceGroup) {
+      SharedResourceGroup resourceGroup,
+      boolean localExchange) {
     super();
     this.accountor = accountor;
+    this.localExchange = localExchange;
     this.statusHandler = statusHandler;
     final SharedResource resource = resourceGroup.createResource("user", SharedResourceType.SEND_MSG_COORDINATOR);
     final SendingMonitor monitor = new SendingMonitor(resource, accountor);
@@ -72,7 +76,10 @@ class TunnelProviderImpl implements TunnelProvider {
     if (tunnel == null) {
       final SharedResource resource = resourceGroup.createResource("send-data-" + endpoint.getAddress(), SharedResourceType.SEND_MSG_DATA);
       SendingMonitor monitor = new SendingMonitor(resource, accountor);
-      tunnel = new AccountingExecTunnel(connectionCreator.getTunnel(endpoint), monitor, monitor.wrap(statusHandler));
+      // fragments on this node get the batches directly, without going through the fabric
+      final ExecTunnel execTunnel = localExchange && connectionCreator.isLocal(endpoint)
+        ? connectionCreator.getLocalTunnel() : connectionCreator.getTunnel(endpoint);
+      tunnel = new AccountingExecTunnel(execTunnel, monitor, monitor.wrap(statusHandler));
       tunnels.put(endpoint, tunnel);
     }
     return tunnel;
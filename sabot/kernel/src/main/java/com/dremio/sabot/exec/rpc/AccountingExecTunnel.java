@@ -58,4 +58,8 @@ public class AccountingExecTunnel {
     tunnel.sendOOBMessage(statusHandler, message);
   }
 
+  public boolean isLocal() {
+    return tunnel.isLocal();
+  }
+
 }
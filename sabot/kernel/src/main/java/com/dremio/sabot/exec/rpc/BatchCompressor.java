@@ -0,0 +1,179 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.exec.rpc;
+
+import java.nio.ByteBuffer;
+
+import org.apache.arrow.memory.ArrowBuf;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.util.LargeMemoryUtil;
+
+import com.dremio.exec.ExecConstants;
+import com.dremio.exec.proto.ExecRPC.BatchCompression;
+import com.dremio.exec.proto.ExecRPC.FragmentRecordBatch;
+import com.dremio.exec.record.FragmentWritableBatch;
+import com.dremio.options.OptionManager;
+import com.google.common.base.Preconditions;
+
+import io.netty.buffer.ByteBuf;
+
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4FastDecompressor;
+
+/**
+ * Compresses the buffers of the batches sent by an exchange with LZ4.
+ *
+ * Each buffer is compressed separately, and kept as is when it doesn't compress. Compression is adaptive: when a
+ * batch doesn't compress well enough, the following batches are sent uncompressed, and compression is attempted
+ * again after a while, as the data sent by the exchange changes.
+ */
+public class BatchCompressor {
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(BatchCompressor.class);
+
+  // batches sent uncompressed before trying to compress again, once a batch didn't compress well
+  private static final int BATCHES_BETWEEN_PROBES = 32;
+
+  private static final LZ4Compressor COMPRESSOR = LZ4Factory.fastestInstance().fastCompressor();
+  private static final LZ4FastDecompressor DECOMPRESSOR = LZ4Factory.fastestInstance().fastDecompressor();
+
+  private final BufferAllocator allocator;
+  private final boolean enabled;
+  private final double maxRatio;
+
+  private int batchesToSkip;
+
+  public BatchCompressor(OptionManager options, BufferAllocator allocator) {
+    this.allocator = allocator;
+    this.enabled = options.getOption(ExecConstants.EXCHANGE_COMPRESSION);
+    this.maxRatio = options.getOption(ExecConstants.EXCHANGE_COMPRESSION_MAX_RATIO);
+  }
+
+  /**
+   * Compresses a batch, if compression is enabled and the batch compresses well enough.
+   *
+   * @param batch batch to send
+   * @return the compressed batch, the buffers of the given batch being released, or the given batch
+   */
+  public FragmentWritableBatch compress(FragmentWritableBatch batch) {
+    if (!enabled) {
+      return batch;
+    }
+    if (batchesToSkip > 0) {
+      batchesToSkip--;
+      return batch;
+    }
+
+    final ByteBuf[] buffers = batch.getBuffers();
+    final long uncompressedSize = batch.getByteCount();
+    if (uncompressedSize == 0) {
+      return batch;
+    }
+
+    long maxSize = 0;
+    for (ByteBuf buffer : buffers) {
+      maxSize += COMPRESSOR.maxCompressedLength(buffer.readableBytes());
+    }
+
+    final FragmentRecordBatch.Builder header = batch.getHeader().toBuilder()
+      .setCompression(BatchCompression.LZ4);
+    final ArrowBuf body = allocator.buffer(maxSize);
+    long offset = 0;
+    try {
+      for (ByteBuf buffer : buffers) {
+        final int length = buffer.readableBytes();
+        final int maxLength = COMPRESSOR.maxCompressedLength(length);
+        final ByteBuffer src = buffer.nioBuffer(buffer.readerIndex(), length);
+        final ByteBuffer dest = body.nioBuffer(offset, maxLength);
+        int compressedLength = COMPRESSOR.compress(src, src.position(), length, dest, dest.position(), maxLength);
+        if (compressedLength >= length) {
+          body.setBytes(offset, buffer.nioBuffer(buffer.readerIndex(), length));
+          compressedLength = length;
+        }
+        header.addBufferLength(length)
+          .addCompressedLength(compressedLength);
+        offset += compressedLength;
+      }
+    } catch (RuntimeException e) {
+      body.release();
+      throw e;
+    }
+
+    if (offset > uncompressedSize * maxRatio) {
+      logger.debug("batch of {} bytes compressed to {} bytes, not compressing the next {} batches",
+        uncompressedSize, offset, BATCHES_BETWEEN_PROBES);
+      body.release();
+      batchesToSkip = BATCHES_BETWEEN_PROBES;
+      return batch;
+    }
+
+    body.writerIndex(offset);
+    batch.release();
+    return new FragmentWritableBatch(header.build(), new ByteBuf[] { body.asNettyBuffer() }, batch.getRecordCount());
+  }
+
+  /**
+   * Decompresses the body of a compressed batch.
+   *
+   * @return a new body, holding the uncompressed buffers one after the other
+   */
+  public static ArrowBuf decompress(FragmentRecordBatch header, ArrowBuf body, BufferAllocator allocator) {
+    Preconditions.checkArgument(header.getCompression() == BatchCompression.LZ4,
+      "Unsupported batch compression %s", header.getCompression());
+    Preconditions.checkArgument(header.getBufferLengthCount() == header.getCompressedLengthCount(),
+      "Invalid compressed batch header");
+
+    long size = 0;
+    for (long length : header.getBufferLengthList()) {
+      size += length;
+    }
+
+    final ArrowBuf decompressed = allocator.buffer(size);
+    long in = 0;
+    long out = 0;
+    try {
+      for (int i = 0; i < header.getBufferLengthCount(); i++) {
+        final int length = LargeMemoryUtil.checkedCastToInt(header.getBufferLength(i));
+        final int compressedLength = LargeMemoryUtil.checkedCastToInt(header.getCompressedLength(i));
+        if (compressedLength == length) {
+          decompressed.setBytes(out, body, in, length);
+        } else {
+          final ByteBuffer src = body.nioBuffer(in, compressedLength);
+          final ByteBuffer dest = decompressed.nioBuffer(out, length);
+          DECOMPRESSOR.decompress(src, src.position(), dest, dest.position(), length);
+        }
+        in += compressedLength;
+        out += length;
+      }
+    } catch (RuntimeException e) {
+      decompressed.release();
+      throw e;
+    }
+    decompressed.writerIndex(out);
+    return decompressed;
+  }
+
+  /**
+   * @return the header of a decompressed batch
+   */
+  public static FragmentRecordBatch decompressedHeader(FragmentRecordBatch header) {
+    return header.toBuilder()
+      .clearCompression()
+      .clearBufferLength()
+      .clearCompressedLength()
+      .build();
+  }
+}
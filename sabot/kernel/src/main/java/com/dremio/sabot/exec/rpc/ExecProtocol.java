@@ -26,6 +26,7 @@ import com.dremio.common.config.SabotConfig;
 import com.dremio.common.utils.protos.QueryIdHelper;
 import com.dremio.exec.exception.FragmentSetupException;
 import com.dremio.exec.proto.ExecProtos.FragmentHandle;
+import com.dremio.exec.proto.ExecRPC.BatchCompression;
 import com.dremio.exec.proto.ExecRPC.FinishedReceiver;
 import com.dremio.exec.proto.ExecRPC.FragmentRecordBatch;
 import com.dremio.exec.proto.ExecRPC.FragmentStreamComplete;
@@ -73,7 +74,7 @@ public class ExecProtocol implements FabricProtocol {
     switch(rpcType){
     case RpcType.REQ_RECORD_BATCH_VALUE: {
       final FragmentRecordBatch fragmentBatch = RpcBus.get(pBody, FragmentRecordBatch.PARSER);
-      handleFragmentRecordBatch(fragmentBatch, body, sender);
+      handleFragmentRecordBatch(fragmentBatch, toArrowBuf(body), sender);
       return;
     }
 
@@ -93,7 +94,7 @@ public class ExecProtocol implements FabricProtocol {
 
     case RpcType.REQ_OOB_MESSAGE_VALUE: {
       final OOBMessage oobMessage = RpcBus.get(pBody, OOBMessage.PARSER);
-      handleOobMessage(oobMessage, body);
+      handleOobMessage(new OutOfBandMessage(oobMessage, toArrowBuf(body)));
       sender.send(OK);
       return;
     }
@@ -103,25 +104,41 @@ public class ExecProtocol implements FabricProtocol {
     }
   }
 
-  private void handleOobMessage(final OOBMessage message, final ByteBuf body) {
-    final ArrowBuf buf = Optional.ofNullable(body).map(b -> ((NettyArrowBuf) b).arrowBuf()).orElse(null);
-    fragmentsManager.handle(new OutOfBandMessage(message, buf));
+  private static ArrowBuf toArrowBuf(ByteBuf body) {
+    return Optional.ofNullable(body).map(b -> ((NettyArrowBuf) b).arrowBuf()).orElse(null);
   }
 
-  private void handleReceiverFinished(final FinishedReceiver finishedReceiver) throws RpcException {
+  void handleOobMessage(final OutOfBandMessage message) {
+    fragmentsManager.handle(message);
+  }
+
+  void handleReceiverFinished(final FinishedReceiver finishedReceiver) throws RpcException {
     fragmentsManager.receiverFinished(finishedReceiver.getSender(), finishedReceiver.getReceiver());
   }
 
-  private void handleFragmentStreamCompletion(final FragmentStreamComplete completion) throws RpcException {
+  void handleFragmentStreamCompletion(final FragmentStreamComplete completion) throws RpcException {
     final int targetCount = completion.getReceivingMinorFragmentIdCount();
     for (int minor = 0; minor < targetCount; minor++) {
       fragmentsManager.handle(getHandle(completion, minor), completion);
     }
   }
 
-  private void handleFragmentRecordBatch(FragmentRecordBatch fragmentBatch, ByteBuf body, ResponseSender sender)
+  /**
+   * Hands a batch to the receiving fragments. They take their own reference to the body, which the caller releases.
+   */
+  void handleFragmentRecordBatch(FragmentRecordBatch fragmentBatch, ArrowBuf body, ResponseSender sender)
       throws RpcException {
 
+    if (fragmentBatch.getCompression() != BatchCompression.NO_COMPRESSION) {
+      final ArrowBuf decompressed = BatchCompressor.decompress(fragmentBatch, body, allocator);
+      try {
+        handleFragmentRecordBatch(BatchCompressor.decompressedHeader(fragmentBatch), decompressed, sender);
+      } finally {
+        decompressed.release();
+      }
+      return;
+    }
+
     final AckSender ack = new AckSender(sender);
 
     // increment so we don't get false returns.
@@ -129,9 +146,7 @@ public class ExecProtocol implements FabricProtocol {
 
     try {
 
-      ArrowBuf dBodyBuf = (body == null) ? null : ((NettyArrowBuf) body)
-        .arrowBuf();
-      final IncomingDataBatch batch = new IncomingDataBatch(fragmentBatch, dBodyBuf, ack);
+      final IncomingDataBatch batch = new IncomingDataBatch(fragmentBatch, body, ack);
       final int targetCount = fragmentBatch.getReceivingMinorFragmentIdCount();
 
       // randomize who gets first transfer (and thus ownership) so memory usage
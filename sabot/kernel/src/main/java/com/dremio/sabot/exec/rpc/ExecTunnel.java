@@ -51,6 +51,13 @@ public class ExecTunnel {
     manager.runCommand(new SendOOBMessage(outcomeListener, message));
   }
 
+  /**
+   * @return true if the receiving fragments run on this node, and batches are not sent through the network
+   */
+  public boolean isLocal() {
+    return false;
+  }
+
   private static void checkFragmentHandle(FragmentHandle handle) {
     Preconditions.checkState(handle.hasQueryId(), "must set query id");
     Preconditions.checkState(handle.hasMajorFragmentId(), "must set major fragment id");
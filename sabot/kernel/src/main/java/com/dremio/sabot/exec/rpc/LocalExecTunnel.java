@@ -0,0 +1,193 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.exec.rpc;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.arrow.memory.ArrowBuf;
+import org.apache.arrow.memory.BufferAllocator;
+
+import com.dremio.exec.proto.ExecRPC.FinishedReceiver;
+import com.dremio.exec.proto.ExecRPC.FragmentStreamComplete;
+import com.dremio.exec.proto.GeneralRPCProtos.Ack;
+import com.dremio.exec.record.FragmentWritableBatch;
+import com.dremio.exec.rpc.Acks;
+import com.dremio.exec.rpc.Response;
+import com.dremio.exec.rpc.ResponseSender;
+import com.dremio.exec.rpc.RpcException;
+import com.dremio.exec.rpc.RpcOutcomeListener;
+import com.dremio.exec.rpc.UserRpcException;
+import com.dremio.sabot.exec.fragment.OutOfBandMessage;
+
+import io.netty.buffer.ByteBuf;
+
+/**
+ * Tunnel to the fragments running on this node. Messages are handed to the receiving fragments by the sending
+ * thread, instead of being serialized and sent through the fabric on loopback.
+ *
+ * Batch buffers are gathered into a single body owned by the exec rpc allocator, like batches received from the
+ * network, and the sender is acknowledged once the receivers consumed the batch. Accounting and back-pressure are
+ * thus the same as for remote fragments.
+ */
+public class LocalExecTunnel extends ExecTunnel {
+  private final ExecProtocol protocol;
+  private final BufferAllocator allocator;
+
+  public LocalExecTunnel(ExecProtocol protocol, BufferAllocator allocator) {
+    super(null);
+    this.protocol = protocol;
+    this.allocator = allocator;
+  }
+
+  @Override
+  public void sendStreamComplete(RpcOutcomeListener<Ack> outcomeListener, FragmentStreamComplete streamComplete) {
+    try {
+      protocol.handleFragmentStreamCompletion(streamComplete);
+    } catch (RpcException | RuntimeException e) {
+      // the sender waits for the outcome of every message, whatever the receiver failure
+      outcomeListener.failed(RpcException.mapException(e));
+      return;
+    }
+    outcomeListener.success(Acks.OK, null);
+  }
+
+  @Override
+  public void sendRecordBatch(RpcOutcomeListener<Ack> outcomeListener, FragmentWritableBatch batch) {
+    final ArrowBuf body;
+    try {
+      body = gather(batch.getBuffers());
+    } catch (RuntimeException e) {
+      outcomeListener.failed(new RpcException("Failure while allocating local batch", e));
+      return;
+    } finally {
+      // like a network write, sending consumes the batch buffers
+      for (ByteBuf buffer : batch.getBuffers()) {
+        buffer.release();
+      }
+    }
+
+    final LocalResponseSender sender = new LocalResponseSender(outcomeListener);
+    try {
+      protocol.handleFragmentRecordBatch(batch.getHeader(), body, sender);
+    } catch (RpcException | RuntimeException e) {
+      sender.failed(RpcException.mapException(e));
+    } finally {
+      if (body != null) {
+        body.release();
+      }
+    }
+  }
+
+  @Override
+  public void sendOOBMessage(RpcOutcomeListener<Ack> outcomeListener, OutOfBandMessage message) {
+    final ArrowBuf buffer = message.getBuffer();
+    final ArrowBuf body;
+    try {
+      body = buffer == null ? null : gather(buffer.asNettyBuffer());
+    } catch (RuntimeException e) {
+      outcomeListener.failed(new RpcException("Failure while allocating local message", e));
+      return;
+    } finally {
+      if (buffer != null) {
+        buffer.release();
+      }
+    }
+
+    try {
+      protocol.handleOobMessage(new OutOfBandMessage(message.toProtoMessage(), body));
+    } catch (RuntimeException e) {
+      outcomeListener.failed(new RpcException(e));
+      return;
+    } finally {
+      if (body != null) {
+        body.release();
+      }
+    }
+    outcomeListener.success(Acks.OK, null);
+  }
+
+  @Override
+  public boolean isLocal() {
+    return true;
+  }
+
+  @Override
+  public void informReceiverFinished(RpcOutcomeListener<Ack> outcomeListener, FinishedReceiver finishedReceiver) {
+    try {
+      protocol.handleReceiverFinished(finishedReceiver);
+    } catch (RpcException | RuntimeException e) {
+      outcomeListener.failed(RpcException.mapException(e));
+      return;
+    }
+    outcomeListener.success(Acks.OK, null);
+  }
+
+  /**
+   * Copies buffers into a single body, as the receivers expect
+   *
+   * @return the body, or null if there is no data
+   */
+  private ArrowBuf gather(ByteBuf... buffers) {
+    long size = 0;
+    for (ByteBuf buffer : buffers) {
+      size += buffer.readableBytes();
+    }
+    if (size == 0) {
+      return null;
+    }
+
+    final ArrowBuf body = allocator.buffer(size);
+    long offset = 0;
+    for (ByteBuf buffer : buffers) {
+      final int length = buffer.readableBytes();
+      body.setBytes(offset, buffer.nioBuffer(buffer.readerIndex(), length));
+      offset += length;
+    }
+    body.writerIndex(size);
+    return body;
+  }
+
+  /**
+   * Completes the send once the receiving fragments acknowledged the batch, or failed to handle it.
+   */
+  private static final class LocalResponseSender implements ResponseSender {
+    private final RpcOutcomeListener<Ack> outcomeListener;
+    // the receivers may acknowledge the batch before failing
+    private final AtomicBoolean completed = new AtomicBoolean();
+
+    private LocalResponseSender(RpcOutcomeListener<Ack> outcomeListener) {
+      this.outcomeListener = outcomeListener;
+    }
+
+    @Override
+    public void send(Response r) {
+      if (completed.compareAndSet(false, true)) {
+        outcomeListener.success((Ack) r.pBody, null);
+      }
+    }
+
+    @Override
+    public void sendFailure(UserRpcException e) {
+      failed(e);
+    }
+
+    private void failed(RpcException e) {
+      if (completed.compareAndSet(false, true)) {
+        outcomeListener.failed(e);
+      }
+    }
+  }
+}
@@ -69,6 +69,7 @@ public class AccumulatorBuilder {
 
     final byte[] accumulatorTypes = new byte[aggregateExpressions.size()];
     final List<Field> outputVectorFields = new ArrayList<>(aggregateExpressions.size());
+    final List<Field> accumulatorVectorFields = new ArrayList<>(aggregateExpressions.size());
     final List<FieldVector> inputVectors = new ArrayList<>(aggregateExpressions.size());
 
     for (int i = 0; i < aggregateExpressions.size(); i++) {
@@ -89,15 +90,17 @@ public class AccumulatorBuilder {
       /* COUNT(1) */
       if (func.getName().equals("count") && (exprs.isEmpty() || (exprs.size() == 1 && isCountLiteral(exprs.get(0))))) {
         accumulatorTypes[i] = (byte)AccumulatorType.COUNT1.ordinal();
+        accumulatorVectorFields.add(outputField);
         /* count1 doesn't need an input accumulator vector */
         inputVectors.add(null);
         continue;
       }
 
-      /* SUM, MIN, MAX, $SUM0, COUNT */
+      /* SUM, MIN, MAX, $SUM0, COUNT, HLL, HLL_MERGE */
       final ValueVectorReadExpression vvread = (ValueVectorReadExpression) exprs.get(0);
       inputVector = incoming.getValueAccessorById(FieldVector.class, vvread.getFieldId().getFieldIds()).getValueVector();
       accumulatorTypes[i] = getAccumulatorTypeFromName(func.getName());
+      accumulatorVectorFields.add(getAccumulatorVectorField(accumulatorTypes[i], outputField));
 
       if ((exprs.size() != 1 ||  !(exprs.get(0) instanceof ValueVectorReadExpression))) {
         throw unsup("Accumulation expression has an unexpected number of type of arguments: " + exprs.toString());
@@ -106,7 +109,24 @@ public class AccumulatorBuilder {
       inputVectors.add(inputVector);
     }
 
-    return new MaterializedAggExpressionsResult(accumulatorTypes, inputVectors, outputVectorFields);
+    return new MaterializedAggExpressionsResult(accumulatorTypes, inputVectors, outputVectorFields,
+                                                accumulatorVectorFields);
+  }
+
+  /**
+   * Get the field of the accumulator vectors that store the computed values. This is the
+   * field of the output vector except for the HLL accumulators, which store updatable
+   * sketches in fixed width vectors and output them serialized in variable width vectors.
+   *
+   * @param accumulatorType type of accumulator
+   * @param outputField field of the output vector
+   * @return field of the accumulator vectors
+   */
+  private static Field getAccumulatorVectorField(final byte accumulatorType, final Field outputField) {
+    if (accumulatorType == AccumulatorType.HLL.ordinal() || accumulatorType == AccumulatorType.HLL_MERGE.ordinal()) {
+      return BaseNdvAccumulator.getAccumulatorVectorField(outputField);
+    }
+    return outputField;
   }
 
   public static MaterializedAggExpressionsResult getAccumulatorTypesFromExpressions(ClassProducer producer,
@@ -129,6 +149,8 @@ public class AccumulatorBuilder {
    * @param materializedAggExpressions holder for materialized aggregate expressions and info on input/output vectors
    * @param outgoing Outgoing vector container
    * @param maxValuesPerBatch maximum records that can be stored in a hashtable block/batch
+   * @param estimatedVariableWidthSize estimated width of variable width values, used to size the
+   *                                   accumulators of variable width MIN/MAX
    *
    * @param decimalV2Enabled
    * @return A Nested accumulator that holds individual sub-accumulators.
@@ -146,7 +168,8 @@ public class AccumulatorBuilder {
                                               VectorContainer outgoing,
                                               final int maxValuesPerBatch,
                                               final long jointAllocationMin,
-                                              final long jointAllocationLimit, boolean decimalV2Enabled) {
+                                              final long jointAllocationLimit,
+                                              final int estimatedVariableWidthSize, boolean decimalV2Enabled) {
     final byte[] accumulatorTypes = materializedAggExpressions.accumulatorTypes;
     final List<FieldVector> inputVectors = materializedAggExpressions.inputVectors;
     final List<Field> outputVectorFields = materializedAggExpressions.outputVectorFields;
@@ -162,7 +185,7 @@ public class AccumulatorBuilder {
       transferVector = outgoing.addOrGet(outputVector.getField());
       accums[i] = getAccumulator(accumulatorType, inputVector, outputVector,
                                  transferVector, maxValuesPerBatch, computationVectorAllocator,
-                                 decimalV2Enabled);
+                                 estimatedVariableWidthSize, decimalV2Enabled);
       if (accums[i] == null) {
         throw new IllegalStateException("ERROR: invalid accumulator state");
       }
@@ -175,6 +198,7 @@ public class AccumulatorBuilder {
                                             FieldVector outputVector, FieldVector transferVector,
                                             final int maxValuesPerBatch,
                                             final BufferAllocator computationVectorAllocator,
+                                            final int estimatedVariableWidthSize,
                                             boolean decimalCompleteEnabled) {
     if (accumulatorType == AccumulatorType.COUNT1.ordinal()) {
       return new CountOneAccumulator(incomingValues, outputVector, transferVector, maxValuesPerBatch,
@@ -257,6 +281,10 @@ public class AccumulatorBuilder {
             // in the interval. Comparisons are the same as comparisons on the underlying int values
             return new MinAccumulators.IntMinAccumulator(incomingValues, outputVector, transferVector, maxValuesPerBatch,
                                                          computationVectorAllocator);
+          case VARCHAR:
+          case VARBINARY:
+            return new MinAccumulators.VarLenMinAccumulator(incomingValues, transferVector, maxValuesPerBatch,
+                                                            computationVectorAllocator, estimatedVariableWidthSize);
         }
         break;
       }
@@ -309,6 +337,10 @@ public class AccumulatorBuilder {
             // in the interval. Comparisons are the same as comparisons on the underlying int values
             return new MaxAccumulators.IntMaxAccumulator(incomingValues, outputVector, transferVector, maxValuesPerBatch,
                                                          computationVectorAllocator);
+          case VARCHAR:
+          case VARBINARY:
+            return new MaxAccumulators.VarLenMaxAccumulator(incomingValues, transferVector, maxValuesPerBatch,
+                                                            computationVectorAllocator, estimatedVariableWidthSize);
         }
         break;
       }
@@ -344,6 +376,57 @@ public class AccumulatorBuilder {
                                           computationVectorAllocator);
       }
 
+      case 6: {
+        switch(type){
+          case INT:
+            return new NdvAccumulators.IntNdvAccumulator(incomingValues, transferVector, maxValuesPerBatch,
+                                                         computationVectorAllocator);
+          case FLOAT4:
+            return new NdvAccumulators.FloatNdvAccumulator(incomingValues, transferVector, maxValuesPerBatch,
+                                                           computationVectorAllocator);
+          case BIGINT:
+            return new NdvAccumulators.BigIntNdvAccumulator(incomingValues, transferVector, maxValuesPerBatch,
+                                                            computationVectorAllocator);
+          case FLOAT8:
+            return new NdvAccumulators.DoubleNdvAccumulator(incomingValues, transferVector, maxValuesPerBatch,
+                                                            computationVectorAllocator);
+          case DECIMAL:
+            if (decimalCompleteEnabled) {
+              return new NdvAccumulators.DecimalNdvAccumulatorV2(incomingValues, transferVector, maxValuesPerBatch,
+                computationVectorAllocator);
+            } else {
+              return new NdvAccumulators.DecimalNdvAccumulator(incomingValues, transferVector, maxValuesPerBatch,
+                computationVectorAllocator);
+            }
+          case BIT:
+            return new NdvAccumulators.BitNdvAccumulator(incomingValues, transferVector, maxValuesPerBatch,
+                                                         computationVectorAllocator);
+          case DATE:
+          case TIMESTAMP:
+            // dates and timestamps are 8-byte values
+            return new NdvAccumulators.BigIntNdvAccumulator(incomingValues, transferVector, maxValuesPerBatch,
+                                                            computationVectorAllocator);
+          case TIME:
+          case INTERVALYEAR:
+            // time and interval-year are 4-byte values
+            return new NdvAccumulators.IntNdvAccumulator(incomingValues, transferVector, maxValuesPerBatch,
+                                                         computationVectorAllocator);
+          case INTERVALDAY:
+            return new NdvAccumulators.IntervalDayNdvAccumulator(incomingValues, transferVector, maxValuesPerBatch,
+                                                                 computationVectorAllocator);
+          case VARCHAR:
+          case VARBINARY:
+            return new NdvAccumulators.VarLenNdvAccumulator(incomingValues, transferVector, maxValuesPerBatch,
+                                                            computationVectorAllocator);
+        }
+        break;
+      }
+
+      case 7: {
+        return new NdvAccumulators.NdvUnionAccumulator(incomingValues, transferVector, maxValuesPerBatch,
+                                                       computationVectorAllocator);
+      }
+
     }
 
     return null;
@@ -358,19 +441,26 @@ public class AccumulatorBuilder {
     final byte[] accumulatorTypes;
     final List<FieldVector> inputVectors;
     final List<Field> outputVectorFields;
+    final List<Field> accumulatorVectorFields;
 
     public MaterializedAggExpressionsResult(final byte[] accumulatorTypes,
                                             final List<FieldVector> inputVectors,
-                                            final List<Field> outputVectorFields) {
+                                            final List<Field> outputVectorFields,
+                                            final List<Field> accumulatorVectorFields) {
       this.accumulatorTypes = accumulatorTypes;
       this.inputVectors = inputVectors;
       this.outputVectorFields = outputVectorFields;
+      this.accumulatorVectorFields = accumulatorVectorFields;
     }
 
     public List<Field> getOutputVectorFields() {
       return outputVectorFields;
     }
 
+    public List<Field> getAccumulatorVectorFields() {
+      return accumulatorVectorFields;
+    }
+
     public List<FieldVector> getInputVectors() {
       return inputVectors;
     }
@@ -382,10 +472,15 @@ public class AccumulatorBuilder {
     MAX,
     SUM0,
     COUNT,
-    COUNT1
+    COUNT1,
+    HLL,
+    HLL_MERGE
   }
 
   private static byte getAccumulatorTypeFromName(String name) {
+    if (name.equals("hll_merge")) {
+      return (byte)AccumulatorType.HLL_MERGE.ordinal();
+    }
     // Strip _complete if present.
     String functionName  = name.split("_")[0];
     switch (functionName) {
@@ -401,6 +496,8 @@ public class AccumulatorBuilder {
         return (byte)AccumulatorType.COUNT.ordinal();
       case "count1":
         return (byte)AccumulatorType.COUNT1.ordinal();
+      case "hll":
+        return (byte)AccumulatorType.HLL.ordinal();
       default:
         throw UserException.unsupportedError().message("Unable to handle accumulator function %s", name).build(logger);
     }
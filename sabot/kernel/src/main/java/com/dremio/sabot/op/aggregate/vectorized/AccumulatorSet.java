@@ -43,6 +43,7 @@ public class AccumulatorSet implements ResizeListener, AutoCloseable {
   private final int jointAllocationLimit;
   private final BufferAllocator allocator;
   private final Accumulator[] children;
+  private final BaseVarBinaryAccumulator[] variableWidthChildren;
   private final Map<Integer, List<List<Integer>>> combinedAccumulators;
   private final List<Integer> singleAccumulators;
   private final int validitySizeForSingleAccumulator;
@@ -54,6 +55,13 @@ public class AccumulatorSet implements ResizeListener, AutoCloseable {
     this.jointAllocationLimit = (int)jointAllocationLimit;
     this.allocator = allocator;
     this.children = children;
+    final List<BaseVarBinaryAccumulator> variableWidth = new ArrayList<>();
+    for (Accumulator child : children) {
+      if (child instanceof BaseVarBinaryAccumulator) {
+        variableWidth.add((BaseVarBinaryAccumulator) child);
+      }
+    }
+    this.variableWidthChildren = variableWidth.toArray(new BaseVarBinaryAccumulator[0]);
     this.validitySizeForSingleAccumulator = children.length > 0 ? children[0].getValidityBufferSize() : 0;
     final int numAllocationBuckets = Long.numberOfTrailingZeros(jointAllocationLimit) - Long.numberOfTrailingZeros(jointAllocationMin);
     this.combinedAccumulators = new HashMap<>(numAllocationBuckets);
@@ -202,6 +210,19 @@ public class AccumulatorSet implements ResizeListener, AutoCloseable {
     } // hashtable/operator will handle the exception
   }
 
+  /**
+   * Reserve the space needed by variable width accumulators to accumulate a record.
+   * See {@link BaseVarBinaryAccumulator#reserve(int, int)}.
+   *
+   * @param batchIndex hash table batch of the group of the record
+   * @param incomingIndex index of the record in the input vectors
+   */
+  public void reserveVariableWidth(final int batchIndex, final int incomingIndex) {
+    for (BaseVarBinaryAccumulator a : variableWidthChildren) {
+      a.reserve(batchIndex, incomingIndex);
+    }
+  }
+
   public void accumulate(final long memoryAddr, final int count,
                          final int bitsInChunk, final int chunkOffsetMask) {
     for(Accumulator a : children){
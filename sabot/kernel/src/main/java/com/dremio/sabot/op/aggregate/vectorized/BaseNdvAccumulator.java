@@ -0,0 +1,223 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.op.aggregate.vectorized;
+
+import java.util.Arrays;
+
+import org.apache.arrow.memory.ArrowBuf;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.FixedSizeBinaryVector;
+import org.apache.arrow.vector.VarBinaryVector;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.types.pojo.FieldType;
+
+import com.dremio.exec.expr.fn.hll.StatisticsAggrFunctions;
+import com.yahoo.memory.WritableMemory;
+import com.yahoo.sketches.hll.HllSketch;
+import com.yahoo.sketches.hll.TgtHllType;
+
+import io.netty.util.internal.PlatformDependent;
+
+/**
+ * A base accumulator for HLL/NDV functions in the spilling hash aggregate.
+ *
+ * Unlike the accumulators in nospill, the sketches are not allocated separately: every group
+ * owns a fixed size region of the data buffer of the accumulator vector, large enough for
+ * an updatable HLL_8 sketch. The accumulator vectors are then plain fixed width vectors
+ * (of type FixedSizeBinary) that are spilled and read back like any other accumulator vector.
+ * The validity bit of a group is set once its sketch has been initialized.
+ *
+ * An updatable HLL_8 sketch is also a valid image of an HLL union, which is what allows
+ * the spilled sketches to be merged during post-spill processing.
+ *
+ * @param <T> type of the sketch objects wrapping the regions of the accumulator vectors
+ */
+abstract class BaseNdvAccumulator<T> extends BaseSingleAccumulator {
+
+  /* size (in bytes) of the region holding the sketch of a single group */
+  static final int SKETCH_SIZE = HllSketch.getMaxUpdatableSerializationBytes(StatisticsAggrFunctions.HLL_ACCURACY,
+                                                                             TgtHllType.HLL_8);
+  /* output for the groups that never got a non null input */
+  private static final byte[] EMPTY_SKETCH =
+    new HllSketch(StatisticsAggrFunctions.HLL_ACCURACY, TgtHllType.HLL_8).toCompactByteArray();
+
+  /* sketch objects wrapping the regions of the accumulator vectors, created lazily per batch */
+  private Object[][] sketches = new Object[1][];
+
+  BaseNdvAccumulator(final FieldVector input, final FieldVector transferVector,
+                     final AccumulatorBuilder.AccumulatorType type,
+                     final int maxValuesPerBatch, final BufferAllocator computationVectorAllocator) {
+    super(input, newAccumulatorVector(transferVector, computationVectorAllocator), transferVector,
+          type, maxValuesPerBatch, computationVectorAllocator);
+  }
+
+  /**
+   * Used to recreate the accumulator for post-spill processing
+   */
+  BaseNdvAccumulator(final BaseNdvAccumulator<?> accumulator, final FieldVector input,
+                     final AccumulatorBuilder.AccumulatorType type,
+                     final int maxValuesPerBatch, final BufferAllocator computationVectorAllocator) {
+    super(input, accumulator.getOutput(), accumulator.getTransferVector(),
+          type, maxValuesPerBatch, computationVectorAllocator,
+          accumulator.getBitAddresses(), accumulator.getValueAddresses(), accumulator.getAccumulators());
+  }
+
+  /**
+   * Get the field of the vectors storing the sketches computed for an
+   * HLL accumulator whose output vector is of the given field.
+   *
+   * @param outputField field of the output vector (VARBINARY)
+   * @return field of the accumulator vectors (FIXEDSIZEBINARY)
+   */
+  static Field getAccumulatorVectorField(final Field outputField) {
+    return new Field(outputField.getName(),
+                     new FieldType(true, new ArrowType.FixedSizeBinary(SKETCH_SIZE), null),
+                     null);
+  }
+
+  private static FieldVector newAccumulatorVector(final FieldVector transferVector,
+                                                  final BufferAllocator computationVectorAllocator) {
+    /* never allocated, only used as template for the accumulator vector of each batch */
+    return new FixedSizeBinaryVector(transferVector.getName(), computationVectorAllocator, SKETCH_SIZE);
+  }
+
+  /**
+   * Create a new sketch in the given region
+   */
+  abstract T newSketch(WritableMemory memory);
+
+  /**
+   * Wrap the sketch already initialized in the given region
+   */
+  abstract T wrapSketch(WritableMemory memory);
+
+  abstract byte[] toCompactByteArray(T sketch);
+
+  /**
+   * Get the sketch of a group, initializing it if this is the first time
+   * the group is accumulated into.
+   *
+   * @param chunkIndex hash table batch index of the group
+   * @param chunkOffset index of the group in the batch
+   * @return sketch of the group
+   */
+  @SuppressWarnings("unchecked")
+  final T getSketch(final int chunkIndex, final int chunkOffset) {
+    if (chunkIndex >= sketches.length) {
+      sketches = Arrays.copyOf(sketches, Math.max(chunkIndex + 1, sketches.length * 2));
+    }
+    Object[] batchSketches = sketches[chunkIndex];
+    if (batchSketches == null) {
+      batchSketches = new Object[maxValuesPerBatch];
+      sketches[chunkIndex] = batchSketches;
+    }
+    T sketch = (T) batchSketches[chunkOffset];
+    if (sketch == null) {
+      final WritableMemory memory = getSketchMemory(chunkIndex, chunkOffset);
+      final long bitUpdateAddr = bitAddresses[chunkIndex] + ((chunkOffset >>> 5) * 4);
+      final int bitUpdateVal = 1 << (chunkOffset & 31);
+      final int bits = PlatformDependent.getInt(bitUpdateAddr);
+      if ((bits & bitUpdateVal) == 0) {
+        sketch = newSketch(memory);
+        PlatformDependent.putInt(bitUpdateAddr, bits | bitUpdateVal);
+      } else {
+        sketch = wrapSketch(memory);
+      }
+      batchSketches[chunkOffset] = sketch;
+    }
+    return sketch;
+  }
+
+  private WritableMemory getSketchMemory(final int chunkIndex, final int chunkOffset) {
+    final ArrowBuf dataBuffer = getAccumulators()[chunkIndex].getDataBuffer();
+    return WritableMemory.wrap(dataBuffer.nioBuffer(chunkOffset * SKETCH_SIZE, SKETCH_SIZE));
+  }
+
+  private void clearSketches(final int batchIndex) {
+    if (batchIndex < sketches.length) {
+      sketches[batchIndex] = null;
+    }
+  }
+
+  /**
+   * Only the validity buffer needs to be cleared, the region of a group
+   * is initialized when its sketch is created.
+   */
+  @Override
+  void initialize(FieldVector vector) {
+    final ArrowBuf validityBuffer = vector.getValidityBuffer();
+    writeWordwise(validityBuffer.memoryAddress(), validityBuffer.capacity(), 0);
+  }
+
+  @Override
+  public void addBatch(final ArrowBuf dataBuffer, final ArrowBuf validityBuffer) {
+    super.addBatch(dataBuffer, validityBuffer);
+    clearSketches(getBatchCount() - 1);
+  }
+
+  @Override
+  public void revertResize() {
+    super.revertResize();
+    clearSketches(getBatchCount());
+  }
+
+  @Override
+  public void resetToMinimumSize() throws Exception {
+    super.resetToMinimumSize();
+    sketches = new Object[1][];
+  }
+
+  @Override
+  public void releaseBatch(final int batchIdx) {
+    super.releaseBatch(batchIdx);
+    clearSketches(batchIdx);
+  }
+
+  /**
+   * The sketches can't be transferred as they are, so the output
+   * vector is filled with the compact form of the sketches. The
+   * accumulator vector of the batch is left in place and, for the
+   * first batch, cleared for post-spill processing.
+   *
+   * @param batchIndex batch to output
+   */
+  @Override
+  public void output(final int batchIndex) {
+    final long bitAddr = bitAddresses[batchIndex];
+    final byte[][] values = new byte[maxValuesPerBatch][];
+    int totalSize = 0;
+    for (int i = 0; i < maxValuesPerBatch; i++) {
+      final int bitVal = (PlatformDependent.getByte(bitAddr + (i >>> 3)) >>> (i & 7)) & 1;
+      values[i] = (bitVal == 0) ? EMPTY_SKETCH : toCompactByteArray(getSketch(batchIndex, i));
+      totalSize += values[i].length;
+    }
+
+    final VarBinaryVector outputVector = (VarBinaryVector) getTransferVector();
+    outputVector.allocateNew(totalSize, maxValuesPerBatch);
+    for (int i = 0; i < maxValuesPerBatch; i++) {
+      outputVector.set(i, values[i]);
+    }
+
+    clearSketches(batchIndex);
+    if (batchIndex == 0) {
+      final FieldVector accumulationVector = getAccumulators()[batchIndex];
+      accumulationVector.setValueCount(0);
+      initialize(accumulationVector);
+    }
+  }
+}
@@ -0,0 +1,500 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.op.aggregate.vectorized;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+import org.apache.arrow.memory.ArrowBuf;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.BaseVariableWidthVector;
+import org.apache.arrow.vector.BitVectorHelper;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.MutableVarcharVector;
+import org.apache.arrow.vector.VariableWidthVector;
+import org.apache.arrow.vector.holders.NullableVarCharHolder;
+
+import com.dremio.common.AutoCloseables;
+import com.dremio.exec.expr.TypeHelper;
+import com.dremio.exec.proto.UserBitShared.SerializedField;
+import com.google.common.base.Preconditions;
+import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableList;
+
+import io.netty.util.internal.PlatformDependent;
+
+/**
+ * A base accumulator for MIN/MAX on variable width (VARCHAR, VARBINARY) columns
+ * in the spilling hash aggregate.
+ *
+ * The computed values of each batch are stored in a {@link MutableVarcharVector}, the
+ * same structure used by nospill, which is allocated by the accumulator itself when a
+ * batch is added: the buffers jointly allocated by {@link AccumulatorSet} are sized for
+ * fixed width vectors and are not used. The data buffer of a batch is pre-allocated using
+ * the estimated width of variable width values.
+ *
+ * Since a mutable vector appends every new value, accumulation may need more memory than
+ * pre-allocated. This memory is reserved with {@link #reserve(int, int)} as the records are
+ * inserted in the hash table, where running out of memory is handled by spilling, so that
+ * {@link #accumulate(long, int, int, int)} never allocates.
+ *
+ * Since the values of a mutable vector are not stored in index order, a batch is spilled
+ * in the layout of a regular variable width vector (validity, offsets and data) which is
+ * streamed to the spill file without any additional allocation. The spilled batch is read
+ * back in a variable width vector that becomes the input of the accumulator for post-spill
+ * processing.
+ */
+abstract class BaseVarBinaryAccumulator implements Accumulator {
+
+  /* ratio of garbage to the capacity of the data buffer that triggers compaction */
+  private static final double COMPACTION_THRESHOLD = 0.5;
+
+  private FieldVector input;
+  private final FieldVector transferVector;
+  private final AccumulatorBuilder.AccumulatorType type;
+  final int maxValuesPerBatch;
+  private final BufferAllocator computationVectorAllocator;
+  private final int validityBufferSize;
+  private final int dataBufferSizePerBatch;
+  MutableVarcharVector[] accumulators;
+  private int batches;
+  /* number and total length of the values reserved in each batch since the last accumulation */
+  private int[] pendingValues;
+  private long[] pendingBytes;
+  private boolean resizeAttempted;
+  private final NullableVarCharHolder holder = new NullableVarCharHolder();
+
+  // serialized field used to build the metadata of spilled batches
+  private final SerializedField serializedField;
+
+  /**
+   * @param input source vector containing data to be accumulated
+   * @param transferVector vector in outgoing container that will hold the accumulated results when operator outputs data
+   * @param type accumulator type
+   * @param maxValuesPerBatch maximum records in a hashtable batch/block
+   * @param computationVectorAllocator allocator
+   * @param estimatedVariableWidthSize estimated width of the values, used to pre-allocate the accumulator vectors
+   */
+  BaseVarBinaryAccumulator(final FieldVector input, final FieldVector transferVector,
+                           final AccumulatorBuilder.AccumulatorType type, final int maxValuesPerBatch,
+                           final BufferAllocator computationVectorAllocator, final int estimatedVariableWidthSize) {
+    this.input = input;
+    this.transferVector = transferVector;
+    this.type = type;
+    this.maxValuesPerBatch = maxValuesPerBatch;
+    this.computationVectorAllocator = computationVectorAllocator;
+    this.validityBufferSize = getValidityBufferSizeFromCount(maxValuesPerBatch);
+    this.dataBufferSizePerBatch = maxValuesPerBatch * estimatedVariableWidthSize;
+    this.accumulators = new MutableVarcharVector[0];
+    this.pendingValues = new int[0];
+    this.pendingBytes = new long[0];
+    this.batches = 0;
+    this.resizeAttempted = false;
+    this.serializedField = TypeHelper.getMetadata(transferVector);
+  }
+
+  AccumulatorBuilder.AccumulatorType getType() {
+    return type;
+  }
+
+  @Override
+  public FieldVector getInput() {
+    return input;
+  }
+
+  /**
+   * Set the input vector. For post-spill processing, this is the
+   * variable width vector a spilled batch was read into.
+   *
+   * @param inputVector new input vector
+   */
+  @Override
+  public void setInput(final FieldVector inputVector) {
+    this.input = inputVector;
+  }
+
+  public int getBatchCount() {
+    return batches;
+  }
+
+  @Override
+  public void verifyBatchCount(final int batches) {
+    Preconditions.checkArgument(this.batches == batches, "Error: Detected incorrect batch count in accumulator");
+  }
+
+  private static int getValidityBufferSizeFromCount(final int valueCount) {
+    return (int) Math.ceil(valueCount / 8.0);
+  }
+
+  /**
+   * All the accumulators in an {@link AccumulatorSet} are expected to have the
+   * same validity buffer size, even though the one of this accumulator is not used.
+   */
+  @Override
+  public int getValidityBufferSize() {
+    return validityBufferSize;
+  }
+
+  /**
+   * The accumulator allocates its own vectors, which are accounted for by the memory
+   * estimate of the hash aggregate and reserved as records are inserted.
+   */
+  @Override
+  public int getDataBufferSize() {
+    return 0;
+  }
+
+  /**
+   * Reserve the space needed to accumulate a record in a batch. Called when the record is
+   * inserted in the hash table, before it is added to the records to accumulate, so that
+   * an {@link org.apache.arrow.memory.OutOfMemoryException} can be handled by spilling
+   * and the insertion retried. Nothing is reserved if the reservation fails.
+   *
+   * @param batchIndex hash table batch of the group of the record
+   * @param incomingIndex index of the record in the input vector
+   */
+  void reserve(final int batchIndex, final int incomingIndex) {
+    final FieldVector inputVector = getInput();
+    if (((BaseVariableWidthVector) inputVector).isSet(incomingIndex) == 0) {
+      /* null records are skipped by accumulation */
+      return;
+    }
+    final ArrowBuf inputOffsetBuf = inputVector.getOffsetBuffer();
+    final int length = inputOffsetBuf.getInt((incomingIndex + 1) * BaseVariableWidthVector.OFFSET_WIDTH) -
+      inputOffsetBuf.getInt(incomingIndex * BaseVariableWidthVector.OFFSET_WIDTH);
+    final int values = pendingValues[batchIndex] + 1;
+    final long bytes = pendingBytes[batchIndex] + length;
+    accumulators[batchIndex].ensureAppendCapacity(values, bytes);
+    pendingValues[batchIndex] = values;
+    pendingBytes[batchIndex] = bytes;
+  }
+
+  /**
+   * Accumulate the records of each batch, whose space was reserved with {@link #reserve(int, int)}.
+   */
+  @Override
+  public final void accumulate(final long memoryAddr, final int count,
+                               final int bitsInChunk, final int chunkOffsetMask) {
+    accumulateReserved(memoryAddr, count, bitsInChunk, chunkOffsetMask);
+    clearReservations();
+  }
+
+  /**
+   * Same as {@link Accumulator#accumulate(long, int, int, int)}. Values can be set in the
+   * accumulator vectors with the 'setSafe' apis, which won't reallocate.
+   */
+  abstract void accumulateReserved(long memoryAddr, int count, int bitsInChunk, int chunkOffsetMask);
+
+  private void clearReservations() {
+    Arrays.fill(pendingValues, 0);
+    Arrays.fill(pendingBytes, 0);
+  }
+
+  @Override
+  public void addBatch(final ArrowBuf dataBuffer, final ArrowBuf validityBuffer) {
+    try {
+      if (batches == accumulators.length) {
+        /* provision more to avoid copy in the next call to addBatch */
+        accumulators = Arrays.copyOf(accumulators, (batches == 0) ? 1 : batches * 2);
+        pendingValues = Arrays.copyOf(pendingValues, accumulators.length);
+        pendingBytes = Arrays.copyOf(pendingBytes, accumulators.length);
+      }
+      resizeAttempted = true;
+      final MutableVarcharVector vector = new MutableVarcharVector(transferVector.getName(),
+                                                                   computationVectorAllocator, COMPACTION_THRESHOLD);
+      /* store the new vector and increment batches before allocating memory, so that
+       * the operation can be rolled back if the allocation fails.
+       */
+      accumulators[batches] = vector;
+      batches++;
+      vector.allocateNew(dataBufferSizePerBatch, maxValuesPerBatch);
+    } catch (Exception e) {
+      /* this will be caught by LBlockHashTable and subsequently handled by VectorizedHashAggOperator */
+      Throwables.propagate(e);
+    }
+  }
+
+  @Override
+  public void revertResize() {
+    if (!resizeAttempted) {
+      return;
+    }
+
+    accumulators[batches - 1].close();
+    accumulators[batches - 1] = null;
+    pendingValues[batches - 1] = 0;
+    pendingBytes[batches - 1] = 0;
+    resizeAttempted = false;
+    batches--;
+  }
+
+  @Override
+  public void commitResize() {
+    this.resizeAttempted = false;
+  }
+
+  @Override
+  public long getSizeInBytes() {
+    long size = 0;
+    for (int i = 0; i < batches; i++) {
+      final MutableVarcharVector vector = accumulators[i];
+      size += vector.getValidityBuffer().capacity() + vector.getOffsetBuffer().capacity() +
+        vector.getDataBuffer().capacity();
+    }
+    return size;
+  }
+
+  @Override
+  public void resetToMinimumSize() throws Exception {
+    final MutableVarcharVector[] oldAccumulators = this.accumulators;
+    accumulators = Arrays.copyOfRange(oldAccumulators, 0, 1);
+    Preconditions.checkArgument(accumulators[0] != null, "Error: expecting a valid accumulator");
+    accumulators[0].reset();
+    batches = 1;
+    pendingValues = Arrays.copyOf(pendingValues, 1);
+    pendingBytes = Arrays.copyOf(pendingBytes, 1);
+    clearReservations();
+
+    AutoCloseables.close(Arrays.asList(Arrays.copyOfRange(oldAccumulators, 1, oldAccumulators.length)));
+  }
+
+  @Override
+  public void releaseBatch(final int batchIdx) {
+    //the 0th batch memory is never released, only reset.
+    Preconditions.checkArgument(batchIdx < batches, "Error: incorrect batch index to release");
+    pendingValues[batchIdx] = 0;
+    pendingBytes[batchIdx] = 0;
+    if (batchIdx == 0) {
+      accumulators[0].reset();
+    } else {
+      accumulators[batchIdx].close();
+    }
+  }
+
+  /**
+   * Get the value of a group.
+   *
+   * @param vector accumulator vector of the batch of the group
+   * @param index index of the group in the batch
+   * @param holder holder to populate, isSet is 0 if the group has no value yet
+   */
+  static void getValue(final MutableVarcharVector vector, final int index, final NullableVarCharHolder holder) {
+    holder.isSet = 0;
+    if (vector.isIndexSafe(index)) {
+      vector.get(index, holder);
+    }
+  }
+
+  /**
+   * Get the total length of the values stored in the first valueCount
+   * groups of a batch.
+   */
+  private int getDataLength(final MutableVarcharVector vector, final int valueCount) {
+    final NullableVarCharHolder holder = this.holder;
+    int length = 0;
+    for (int i = 0; i < valueCount; i++) {
+      getValue(vector, i, holder);
+      if (holder.isSet == 1) {
+        length += holder.end - holder.start;
+      }
+    }
+    return length;
+  }
+
+  /**
+   * Copy the values of the batch to the vector in outgoing container. The
+   * memory of the accumulator vector is released except for the first batch
+   * which is reset for post-spill processing.
+   *
+   * @param batchIndex batch to output
+   */
+  @Override
+  public void output(final int batchIndex) {
+    final MutableVarcharVector accumulationVector = accumulators[batchIndex];
+    final BaseVariableWidthVector outputVector = (BaseVariableWidthVector) transferVector;
+    ((VariableWidthVector) outputVector).allocateNew(getDataLength(accumulationVector, maxValuesPerBatch),
+                                                     maxValuesPerBatch);
+    final ArrowBuf validityBuffer = outputVector.getValidityBuffer();
+    final ArrowBuf offsetBuffer = outputVector.getOffsetBuffer();
+    final long dataAddr = outputVector.getDataBufferAddress();
+    final NullableVarCharHolder holder = this.holder;
+    int offset = 0;
+    offsetBuffer.setInt(0, 0);
+    for (int i = 0; i < maxValuesPerBatch; i++) {
+      getValue(accumulationVector, i, holder);
+      if (holder.isSet == 1) {
+        final int length = holder.end - holder.start;
+        PlatformDependent.copyMemory(holder.buffer.memoryAddress() + holder.start, dataAddr + offset, length);
+        offset += length;
+        BitVectorHelper.setValidityBitToOne(validityBuffer, i);
+      }
+      offsetBuffer.setInt((i + 1) * BaseVariableWidthVector.OFFSET_WIDTH, offset);
+    }
+    outputVector.setLastSet(maxValuesPerBatch - 1);
+
+    if (batchIndex == 0) {
+      accumulationVector.reset();
+    } else {
+      accumulationVector.close();
+    }
+  }
+
+  /**
+   * Get the metadata of a spilled batch, as if the batch was stored
+   * in a regular variable width vector.
+   *
+   * @param batchIndex batch to spill
+   * @param valueCount number of groups in the batch
+   * @return metadata of the spilled batch
+   */
+  SerializedField getSpilledBatchMetadata(final int batchIndex, final int valueCount) {
+    final int validityLength = getValidityBufferSizeFromCount(valueCount);
+    final int offsetsLength = (valueCount + 1) * BaseVariableWidthVector.OFFSET_WIDTH;
+    final int dataLength = getDataLength(accumulators[batchIndex], valueCount);
+    final SerializedField field = this.serializedField;
+    final SerializedField valuesField = field.getChild(1);
+    return field.toBuilder()
+      .setValueCount(valueCount)
+      .setBufferLength(validityLength + offsetsLength + dataLength)
+      .clearChild()
+      .addChild(field.getChild(0).toBuilder().setValueCount(valueCount).setBufferLength(validityLength))
+      .addChild(valuesField.toBuilder()
+                  .setValueCount(valueCount)
+                  .setBufferLength(offsetsLength + dataLength)
+                  .clearChild()
+                  .addChild(valuesField.getChild(0).toBuilder()
+                              .setValueCount(valueCount + 1)
+                              .setBufferLength(offsetsLength)))
+      .build();
+  }
+
+  /**
+   * Write a batch to the spill file in the layout described by
+   * {@link #getSpilledBatchMetadata(int, int)}: validity, offsets
+   * and then data.
+   *
+   * @param batchIndex batch to spill
+   * @param valueCount number of groups in the batch
+   * @param output output stream for the spill file
+   * @param ioBuffer buffer used to stage the bytes written to the stream
+   * @return number of bytes written
+   * @throws IOException failure while writing to stream
+   */
+  long writeSpilledBatch(final int batchIndex, final int valueCount,
+                         final OutputStream output, final byte[] ioBuffer) throws IOException {
+    final MutableVarcharVector vector = accumulators[batchIndex];
+    final NullableVarCharHolder holder = this.holder;
+    final StagingWriter writer = new StagingWriter(output, ioBuffer);
+
+    /* validity */
+    for (int i = 0; i < valueCount; i += 8) {
+      int bits = 0;
+      for (int j = i; j < Math.min(i + 8, valueCount); j++) {
+        getValue(vector, j, holder);
+        bits |= holder.isSet << (j - i);
+      }
+      writer.writeByte(bits);
+    }
+
+    /* offsets */
+    int offset = 0;
+    writer.writeInt(offset);
+    for (int i = 0; i < valueCount; i++) {
+      getValue(vector, i, holder);
+      if (holder.isSet == 1) {
+        offset += holder.end - holder.start;
+      }
+      writer.writeInt(offset);
+    }
+
+    /* data */
+    for (int i = 0; i < valueCount; i++) {
+      getValue(vector, i, holder);
+      if (holder.isSet == 1) {
+        writer.writeBytes(holder.buffer, holder.start, holder.end - holder.start);
+      }
+    }
+
+    writer.flush();
+    return writer.getBytesWritten();
+  }
+
+  /**
+   * Writes to a stream through a heap buffer, in little endian order
+   * like the buffers of the vectors.
+   */
+  private static final class StagingWriter {
+    private final OutputStream output;
+    private final byte[] buffer;
+    private int position;
+    private long bytesWritten;
+
+    StagingWriter(final OutputStream output, final byte[] buffer) {
+      this.output = output;
+      this.buffer = buffer;
+    }
+
+    void writeByte(final int value) throws IOException {
+      ensureAvailable(1);
+      buffer[position++] = (byte) value;
+    }
+
+    void writeInt(final int value) throws IOException {
+      ensureAvailable(4);
+      buffer[position++] = (byte) value;
+      buffer[position++] = (byte) (value >>> 8);
+      buffer[position++] = (byte) (value >>> 16);
+      buffer[position++] = (byte) (value >>> 24);
+    }
+
+    void writeBytes(final ArrowBuf source, final int start, final int length) throws IOException {
+      int index = start;
+      int remaining = length;
+      while (remaining > 0) {
+        ensureAvailable(1);
+        final int toCopy = Math.min(remaining, buffer.length - position);
+        source.getBytes(index, buffer, position, toCopy);
+        position += toCopy;
+        index += toCopy;
+        remaining -= toCopy;
+      }
+    }
+
+    private void ensureAvailable(final int length) throws IOException {
+      if (buffer.length - position < length) {
+        flush();
+      }
+    }
+
+    void flush() throws IOException {
+      if (position > 0) {
+        output.write(buffer, 0, position);
+        bytesWritten += position;
+        position = 0;
+      }
+    }
+
+    long getBytesWritten() {
+      return bytesWritten;
+    }
+  }
+
+  @Override
+  public void close() throws Exception {
+    AutoCloseables.close(ImmutableList.copyOf(Arrays.copyOf(accumulators, batches)));
+  }
+}
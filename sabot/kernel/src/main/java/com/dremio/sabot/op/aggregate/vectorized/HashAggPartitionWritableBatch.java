@@ -16,6 +16,7 @@
 package com.dremio.sabot.op.aggregate.vectorized;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import org.apache.arrow.memory.ArrowBuf;
@@ -35,6 +36,7 @@ public class HashAggPartitionWritableBatch {
   private final List<ArrowBuf> fixedBlockBuffers;
   private final List<ArrowBuf> variableBlockBuffers;
   private final Accumulator[] accumulators;
+  private final BaseVarBinaryAccumulator[] variableWidthAccumulators;
   private final ArrowBuf[] buffers;
   private int currentBatchIndex;
   private final int blockWidth;
@@ -48,9 +50,9 @@ public class HashAggPartitionWritableBatch {
   static final byte VARIABLE_BUFFER_LENGTH_OFFSET = 4;
   static final byte NUM_ACCUMULATORS_OFFSET = 8;
 
-  /* as of now we only have fixed width accumulators so each
-   * corresponding accumulator column vector that stores computed
-   * values has 2 buffers -- validity, data
+  /* each fixed width accumulator column vector that stores computed
+   * values has 2 buffers -- validity, data. variable width accumulators
+   * are not spilled as buffers but written by the accumulator itself.
    */
   private static final int NUM_BUFFERS_PERACCUMULATOR_PERBATCH = 2;
 
@@ -72,9 +74,13 @@ public class HashAggPartitionWritableBatch {
     this.hashTable = hashTable;
     this.accumulators = accumulator.getChildren();
     checkAccumulators(fixedBlockBuffers.size());
+    this.variableWidthAccumulators = Arrays.stream(accumulators)
+      .filter(a -> a instanceof BaseVarBinaryAccumulator)
+      .toArray(BaseVarBinaryAccumulator[]::new);
     this.fixedBlockBuffers = fixedBlockBuffers;
     this.variableBlockBuffers = variableBlockBuffers;
-    this.numWritableBuffers = NUM_HASHTABLE_BUFFERS_PERBATCH + (accumulators.length * NUM_BUFFERS_PERACCUMULATOR_PERBATCH);
+    this.numWritableBuffers = NUM_HASHTABLE_BUFFERS_PERBATCH +
+      ((accumulators.length - variableWidthAccumulators.length) * NUM_BUFFERS_PERACCUMULATOR_PERBATCH);
     this.buffers = new ArrowBuf[numWritableBuffers];
     this.blockWidth = blockWidth;
     this.currentBatchIndex = 0;
@@ -85,12 +91,17 @@ public class HashAggPartitionWritableBatch {
   /**
    * Verify the following:
    *
-   * 1. Each accumulator in the top level NestedAccumulator is of type BaseSingleAccumulator.
-   * 2. The number of batches in each BaseSingleAccumulator is equal to the number of batches
+   * 1. Each accumulator in the top level NestedAccumulator is of type BaseSingleAccumulator
+   * or BaseVarBinaryAccumulator.
+   * 2. The number of batches in each accumulator is equal to the number of batches
    * in the hash table.
    */
   private void checkAccumulators(int batchCount) {
     for (int i = 0; i < accumulators.length; i++) {
+      if (accumulators[i] instanceof BaseVarBinaryAccumulator) {
+        Preconditions.checkArgument(((BaseVarBinaryAccumulator)accumulators[i]).getBatchCount() == batchCount);
+        continue;
+      }
       Preconditions.checkArgument(accumulators[i] instanceof BaseSingleAccumulator, "ERROR: invalid accumulator type");
       Preconditions.checkArgument(((BaseSingleAccumulator)accumulators[i]).getBatchCount() == batchCount);
     }
@@ -152,6 +163,11 @@ public class HashAggPartitionWritableBatch {
    *
    * So total 6 buffers per batch.
    *
+   * Variable width accumulators (MIN/MAX on VARCHAR, VARBINARY) don't store their values
+   * in index order so they have no buffers that can be spilled as is. Their metadata is
+   * part of the batch definition like for other accumulators, but their data is written
+   * by the caller after all the buffers, see {@link #getVariableWidthAccumulators()}.
+   *
    * Finally, we form a set of buffers (from hash table and accumulator) along with corresponding
    * metadata and this is then spilled by the caller.
    *
@@ -185,6 +201,12 @@ public class HashAggPartitionWritableBatch {
 
     int k = 2;
     for (int i = 0; i < accumulators.length; i++) {
+      if (accumulators[i] instanceof BaseVarBinaryAccumulator) {
+        final BaseVarBinaryAccumulator accumulator = (BaseVarBinaryAccumulator)accumulators[i];
+        metadata.add(accumulator.getSpilledBatchMetadata(currentBatchIndex, numRecordsInChunk));
+        accumulatorTypes[i] = (byte)accumulator.getType().ordinal();
+        continue;
+      }
       final BaseSingleAccumulator accumulator = (BaseSingleAccumulator)accumulators[i];
       accumulator.setValueCount(currentBatchIndex, numRecordsInChunk);
       final List<ArrowBuf> accumulatorBuffers = accumulator.getBuffers(currentBatchIndex);
@@ -213,6 +235,16 @@ public class HashAggPartitionWritableBatch {
     return buffers;
   }
 
+  /**
+   * Get the variable width accumulators, in the order their data
+   * is expected to be written after the buffers of a batch.
+   *
+   * @return variable width accumulators
+   */
+  BaseVarBinaryAccumulator[] getVariableWidthAccumulators() {
+    return variableWidthAccumulators;
+  }
+
   public static class HashAggPartitionBatchDefinition {
     final int fixedBufferLength;
     final int variableBufferLength;
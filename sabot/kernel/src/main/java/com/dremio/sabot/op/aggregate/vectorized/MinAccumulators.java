@@ -21,9 +21,14 @@ import static com.dremio.sabot.op.aggregate.vectorized.VectorizedHashAggOperator
 
 import java.math.BigDecimal;
 
+import org.apache.arrow.memory.ArrowBuf;
 import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.BaseVariableWidthVector;
 import org.apache.arrow.vector.DecimalVector;
 import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.MutableVarcharVector;
+import org.apache.arrow.vector.holders.NullableVarCharHolder;
+import org.apache.arrow.vector.util.ByteFunctionHelpers;
 
 import com.dremio.exec.util.DecimalUtils;
 
@@ -554,4 +559,48 @@ public class MinAccumulators {
     }
     return a;
   }
+
+  public static class VarLenMinAccumulator extends BaseVarBinaryAccumulator {
+
+    public VarLenMinAccumulator(FieldVector input, FieldVector transferVector, int maxValuesPerBatch,
+                                BufferAllocator computationVectorAllocator, int estimatedVariableWidthSize) {
+      super(input, transferVector, AccumulatorBuilder.AccumulatorType.MIN, maxValuesPerBatch,
+            computationVectorAllocator, estimatedVariableWidthSize);
+    }
+
+    @Override
+    void accumulateReserved(final long memoryAddr, final int count,
+                            final int bitsInChunk, final int chunkOffsetMask) {
+      final long maxMemAddr = memoryAddr + count * PARTITIONINDEX_HTORDINAL_WIDTH;
+      final FieldVector inputVector = getInput();
+      final long incomingBit = inputVector.getValidityBufferAddress();
+      final ArrowBuf inputOffsetBuf = inputVector.getOffsetBuffer();
+      final ArrowBuf inputBuf = inputVector.getDataBuffer();
+      final NullableVarCharHolder holder = new NullableVarCharHolder();
+
+      for (long partitionAndOrdinalAddr = memoryAddr; partitionAndOrdinalAddr < maxMemAddr; partitionAndOrdinalAddr += PARTITIONINDEX_HTORDINAL_WIDTH) {
+        /* get the index of data in input vector */
+        final int incomingIndex = PlatformDependent.getInt(partitionAndOrdinalAddr + KEYINDEX_OFFSET);
+        final int bitVal = (PlatformDependent.getByte(incomingBit + ((incomingIndex >>> 3))) >>> (incomingIndex & 7)) & 1;
+        /* incoming record is null, skip it */
+        if (bitVal == 0) {
+          continue;
+        }
+        final int startOffset = inputOffsetBuf.getInt(incomingIndex * BaseVariableWidthVector.OFFSET_WIDTH);
+        final int endOffset = inputOffsetBuf.getInt((incomingIndex + 1) * BaseVariableWidthVector.OFFSET_WIDTH);
+        /* get the hash table ordinal */
+        final int tableIndex = PlatformDependent.getInt(partitionAndOrdinalAddr + HTORDINAL_OFFSET);
+        /* get the hash table batch index */
+        final int chunkIndex = tableIndex >>> bitsInChunk;
+        final int chunkOffset = tableIndex & chunkOffsetMask;
+        final MutableVarcharVector accumulator = accumulators[chunkIndex];
+        getValue(accumulator, chunkOffset, holder);
+        /* replace the current min if there is none yet or the incoming value is smaller */
+        if (holder.isSet == 0 ||
+          ByteFunctionHelpers.compare(inputBuf, startOffset, endOffset, holder.buffer, holder.start, holder.end) == -1) {
+          accumulator.setSafe(chunkOffset, startOffset, endOffset - startOffset, inputBuf);
+        }
+      }
+    }
+  }
 }
@@ -0,0 +1,420 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.op.aggregate.vectorized;
+
+import static com.dremio.sabot.op.aggregate.vectorized.VectorizedHashAggOperator.HTORDINAL_OFFSET;
+import static com.dremio.sabot.op.aggregate.vectorized.VectorizedHashAggOperator.KEYINDEX_OFFSET;
+import static com.dremio.sabot.op.aggregate.vectorized.VectorizedHashAggOperator.PARTITIONINDEX_HTORDINAL_WIDTH;
+
+import org.apache.arrow.memory.ArrowBuf;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.BaseVariableWidthVector;
+import org.apache.arrow.vector.DecimalVector;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.FixedSizeBinaryVector;
+
+import com.dremio.exec.expr.fn.hll.StatisticsAggrFunctions;
+import com.dremio.exec.util.DecimalUtils;
+import com.yahoo.memory.Memory;
+import com.yahoo.memory.WritableMemory;
+import com.yahoo.sketches.hll.HllSketch;
+import com.yahoo.sketches.hll.TgtHllType;
+import com.yahoo.sketches.hll.Union;
+
+import io.netty.util.internal.PlatformDependent;
+
+/**
+ * Spillable accumulators for HLL/NDV functions. See {@link BaseNdvAccumulator}.
+ */
+public final class NdvAccumulators {
+
+  private NdvAccumulators(){};
+
+  /**
+   * Base for the accumulators of the hll function, that update the sketch
+   * of each group with the values of the input vector.
+   */
+  abstract static class BaseHllAccumulator extends BaseNdvAccumulator<HllSketch> {
+
+    BaseHllAccumulator(final FieldVector input, final FieldVector transferVector,
+                       final int maxValuesPerBatch, final BufferAllocator computationVectorAllocator) {
+      super(input, transferVector, AccumulatorBuilder.AccumulatorType.HLL, maxValuesPerBatch,
+            computationVectorAllocator);
+    }
+
+    @Override
+    HllSketch newSketch(WritableMemory memory) {
+      return new HllSketch(StatisticsAggrFunctions.HLL_ACCURACY, TgtHllType.HLL_8, memory);
+    }
+
+    @Override
+    HllSketch wrapSketch(WritableMemory memory) {
+      return HllSketch.writableWrap(memory);
+    }
+
+    @Override
+    byte[] toCompactByteArray(HllSketch sketch) {
+      return sketch.toCompactByteArray();
+    }
+  }
+
+  public static class IntNdvAccumulator extends BaseHllAccumulator {
+    private static final int WIDTH_INPUT = 4;
+
+    public IntNdvAccumulator(final FieldVector input, final FieldVector transferVector,
+                             final int maxValuesPerBatch, final BufferAllocator computationVectorAllocator) {
+      super(input, transferVector, maxValuesPerBatch, computationVectorAllocator);
+    }
+
+    @Override
+    public void accumulate(final long memoryAddr, final int count,
+                           final int bitsInChunk, final int chunkOffsetMask) {
+      final long maxAddr = memoryAddr + count * PARTITIONINDEX_HTORDINAL_WIDTH;
+      final FieldVector inputVector = getInput();
+      final long incomingBit = inputVector.getValidityBufferAddress();
+      final long incomingValue = inputVector.getDataBufferAddress();
+
+      for (long partitionAndOrdinalAddr = memoryAddr; partitionAndOrdinalAddr < maxAddr; partitionAndOrdinalAddr += PARTITIONINDEX_HTORDINAL_WIDTH) {
+        final int incomingIndex = PlatformDependent.getInt(partitionAndOrdinalAddr + KEYINDEX_OFFSET);
+        final int bitVal = (PlatformDependent.getByte(incomingBit + ((incomingIndex >>> 3))) >>> (incomingIndex & 7)) & 1;
+        /* incoming record is null, skip it */
+        if (bitVal == 0) {
+          continue;
+        }
+        final int newVal = PlatformDependent.getInt(incomingValue + (incomingIndex * WIDTH_INPUT));
+        final int tableIndex = PlatformDependent.getInt(partitionAndOrdinalAddr + HTORDINAL_OFFSET);
+        getSketch(tableIndex >>> bitsInChunk, tableIndex & chunkOffsetMask).update(newVal);
+      }
+    }
+  }
+
+  public static class BigIntNdvAccumulator extends BaseHllAccumulator {
+    private static final int WIDTH_INPUT = 8;
+
+    public BigIntNdvAccumulator(final FieldVector input, final FieldVector transferVector,
+                                final int maxValuesPerBatch, final BufferAllocator computationVectorAllocator) {
+      super(input, transferVector, maxValuesPerBatch, computationVectorAllocator);
+    }
+
+    @Override
+    public void accumulate(final long memoryAddr, final int count,
+                           final int bitsInChunk, final int chunkOffsetMask) {
+      final long maxAddr = memoryAddr + count * PARTITIONINDEX_HTORDINAL_WIDTH;
+      final FieldVector inputVector = getInput();
+      final long incomingBit = inputVector.getValidityBufferAddress();
+      final long incomingValue = inputVector.getDataBufferAddress();
+
+      for (long partitionAndOrdinalAddr = memoryAddr; partitionAndOrdinalAddr < maxAddr; partitionAndOrdinalAddr += PARTITIONINDEX_HTORDINAL_WIDTH) {
+        final int incomingIndex = PlatformDependent.getInt(partitionAndOrdinalAddr + KEYINDEX_OFFSET);
+        final int bitVal = (PlatformDependent.getByte(incomingBit + ((incomingIndex >>> 3))) >>> (incomingIndex & 7)) & 1;
+        if (bitVal == 0) {
+          continue;
+        }
+        final long newVal = PlatformDependent.getLong(incomingValue + (incomingIndex * WIDTH_INPUT));
+        final int tableIndex = PlatformDependent.getInt(partitionAndOrdinalAddr + HTORDINAL_OFFSET);
+        getSketch(tableIndex >>> bitsInChunk, tableIndex & chunkOffsetMask).update(newVal);
+      }
+    }
+  }
+
+  public static class FloatNdvAccumulator extends BaseHllAccumulator {
+    private static final int WIDTH_INPUT = 4;
+
+    public FloatNdvAccumulator(final FieldVector input, final FieldVector transferVector,
+                               final int maxValuesPerBatch, final BufferAllocator computationVectorAllocator) {
+      super(input, transferVector, maxValuesPerBatch, computationVectorAllocator);
+    }
+
+    @Override
+    public void accumulate(final long memoryAddr, final int count,
+                           final int bitsInChunk, final int chunkOffsetMask) {
+      final long maxAddr = memoryAddr + count * PARTITIONINDEX_HTORDINAL_WIDTH;
+      final FieldVector inputVector = getInput();
+      final long incomingBit = inputVector.getValidityBufferAddress();
+      final long incomingValue = inputVector.getDataBufferAddress();
+
+      for (long partitionAndOrdinalAddr = memoryAddr; partitionAndOrdinalAddr < maxAddr; partitionAndOrdinalAddr += PARTITIONINDEX_HTORDINAL_WIDTH) {
+        final int incomingIndex = PlatformDependent.getInt(partitionAndOrdinalAddr + KEYINDEX_OFFSET);
+        final int bitVal = (PlatformDependent.getByte(incomingBit + ((incomingIndex >>> 3))) >>> (incomingIndex & 7)) & 1;
+        if (bitVal == 0) {
+          continue;
+        }
+        final float newVal = Float.intBitsToFloat(PlatformDependent.getInt(incomingValue + (incomingIndex * WIDTH_INPUT)));
+        final int tableIndex = PlatformDependent.getInt(partitionAndOrdinalAddr + HTORDINAL_OFFSET);
+        getSketch(tableIndex >>> bitsInChunk, tableIndex & chunkOffsetMask).update(newVal);
+      }
+    }
+  }
+
+  public static class DoubleNdvAccumulator extends BaseHllAccumulator {
+    private static final int WIDTH_INPUT = 8;
+
+    public DoubleNdvAccumulator(final FieldVector input, final FieldVector transferVector,
+                                final int maxValuesPerBatch, final BufferAllocator computationVectorAllocator) {
+      super(input, transferVector, maxValuesPerBatch, computationVectorAllocator);
+    }
+
+    @Override
+    public void accumulate(final long memoryAddr, final int count,
+                           final int bitsInChunk, final int chunkOffsetMask) {
+      final long maxAddr = memoryAddr + count * PARTITIONINDEX_HTORDINAL_WIDTH;
+      final FieldVector inputVector = getInput();
+      final long incomingBit = inputVector.getValidityBufferAddress();
+      final long incomingValue = inputVector.getDataBufferAddress();
+
+      for (long partitionAndOrdinalAddr = memoryAddr; partitionAndOrdinalAddr < maxAddr; partitionAndOrdinalAddr += PARTITIONINDEX_HTORDINAL_WIDTH) {
+        final int incomingIndex = PlatformDependent.getInt(partitionAndOrdinalAddr + KEYINDEX_OFFSET);
+        final int bitVal = (PlatformDependent.getByte(incomingBit + ((incomingIndex >>> 3))) >>> (incomingIndex & 7)) & 1;
+        if (bitVal == 0) {
+          continue;
+        }
+        final double newVal = Double.longBitsToDouble(PlatformDependent.getLong(incomingValue + (incomingIndex * WIDTH_INPUT)));
+        final int tableIndex = PlatformDependent.getInt(partitionAndOrdinalAddr + HTORDINAL_OFFSET);
+        getSketch(tableIndex >>> bitsInChunk, tableIndex & chunkOffsetMask).update(newVal);
+      }
+    }
+  }
+
+  /**
+   * Used when decimal v2 is disabled, the values are accumulated as doubles.
+   */
+  public static class DecimalNdvAccumulator extends BaseHllAccumulator {
+    private static final int WIDTH_INPUT = 16;
+    private final byte[] valBuf = new byte[WIDTH_INPUT];
+
+    public DecimalNdvAccumulator(final FieldVector input, final FieldVector transferVector,
+                                 final int maxValuesPerBatch, final BufferAllocator computationVectorAllocator) {
+      super(input, transferVector, maxValuesPerBatch, computationVectorAllocator);
+    }
+
+    @Override
+    public void accumulate(final long memoryAddr, final int count,
+                           final int bitsInChunk, final int chunkOffsetMask) {
+      final long maxAddr = memoryAddr + count * PARTITIONINDEX_HTORDINAL_WIDTH;
+      final FieldVector inputVector = getInput();
+      final long incomingBit = inputVector.getValidityBufferAddress();
+      final long incomingValue = inputVector.getDataBufferAddress();
+      final int scale = ((DecimalVector) inputVector).getScale();
+
+      for (long partitionAndOrdinalAddr = memoryAddr; partitionAndOrdinalAddr < maxAddr; partitionAndOrdinalAddr += PARTITIONINDEX_HTORDINAL_WIDTH) {
+        final int incomingIndex = PlatformDependent.getInt(partitionAndOrdinalAddr + KEYINDEX_OFFSET);
+        final int bitVal = (PlatformDependent.getByte(incomingBit + ((incomingIndex >>> 3))) >>> (incomingIndex & 7)) & 1;
+        if (bitVal == 0) {
+          continue;
+        }
+        final java.math.BigDecimal newVal = DecimalUtils.getBigDecimalFromLEBytes(incomingValue + (incomingIndex * WIDTH_INPUT), valBuf, scale);
+        final int tableIndex = PlatformDependent.getInt(partitionAndOrdinalAddr + HTORDINAL_OFFSET);
+        getSketch(tableIndex >>> bitsInChunk, tableIndex & chunkOffsetMask).update(newVal.doubleValue());
+      }
+    }
+  }
+
+  public static class DecimalNdvAccumulatorV2 extends BaseHllAccumulator {
+    private static final int WIDTH_INPUT = 16;
+
+    public DecimalNdvAccumulatorV2(final FieldVector input, final FieldVector transferVector,
+                                   final int maxValuesPerBatch, final BufferAllocator computationVectorAllocator) {
+      super(input, transferVector, maxValuesPerBatch, computationVectorAllocator);
+    }
+
+    @Override
+    public void accumulate(final long memoryAddr, final int count,
+                           final int bitsInChunk, final int chunkOffsetMask) {
+      final long maxAddr = memoryAddr + count * PARTITIONINDEX_HTORDINAL_WIDTH;
+      final FieldVector inputVector = getInput();
+      final long incomingBit = inputVector.getValidityBufferAddress();
+      final ArrowBuf inputBuf = inputVector.getDataBuffer();
+
+      for (long partitionAndOrdinalAddr = memoryAddr; partitionAndOrdinalAddr < maxAddr; partitionAndOrdinalAddr += PARTITIONINDEX_HTORDINAL_WIDTH) {
+        final int incomingIndex = PlatformDependent.getInt(partitionAndOrdinalAddr + KEYINDEX_OFFSET);
+        final int bitVal = (PlatformDependent.getByte(incomingBit + ((incomingIndex >>> 3))) >>> (incomingIndex & 7)) & 1;
+        if (bitVal == 0) {
+          continue;
+        }
+        final int tableIndex = PlatformDependent.getInt(partitionAndOrdinalAddr + HTORDINAL_OFFSET);
+        getSketch(tableIndex >>> bitsInChunk, tableIndex & chunkOffsetMask)
+          .update(Memory.wrap(inputBuf.nioBuffer(incomingIndex * WIDTH_INPUT, WIDTH_INPUT)), 0, WIDTH_INPUT);
+      }
+    }
+  }
+
+  public static class BitNdvAccumulator extends BaseHllAccumulator {
+
+    public BitNdvAccumulator(final FieldVector input, final FieldVector transferVector,
+                             final int maxValuesPerBatch, final BufferAllocator computationVectorAllocator) {
+      super(input, transferVector, maxValuesPerBatch, computationVectorAllocator);
+    }
+
+    @Override
+    public void accumulate(final long memoryAddr, final int count,
+                           final int bitsInChunk, final int chunkOffsetMask) {
+      final long maxAddr = memoryAddr + count * PARTITIONINDEX_HTORDINAL_WIDTH;
+      final FieldVector inputVector = getInput();
+      final long incomingBit = inputVector.getValidityBufferAddress();
+      final long incomingValue = inputVector.getDataBufferAddress();
+
+      for (long partitionAndOrdinalAddr = memoryAddr; partitionAndOrdinalAddr < maxAddr; partitionAndOrdinalAddr += PARTITIONINDEX_HTORDINAL_WIDTH) {
+        final int incomingIndex = PlatformDependent.getInt(partitionAndOrdinalAddr + KEYINDEX_OFFSET);
+        final int bitVal = (PlatformDependent.getByte(incomingBit + ((incomingIndex >>> 3))) >>> (incomingIndex & 7)) & 1;
+        if (bitVal == 0) {
+          continue;
+        }
+        final int newVal = (PlatformDependent.getByte(incomingValue + ((incomingIndex >>> 3))) >>> (incomingIndex & 7)) & 1;
+        final int tableIndex = PlatformDependent.getInt(partitionAndOrdinalAddr + HTORDINAL_OFFSET);
+        getSketch(tableIndex >>> bitsInChunk, tableIndex & chunkOffsetMask).update(newVal);
+      }
+    }
+  }
+
+  public static class IntervalDayNdvAccumulator extends BaseHllAccumulator {
+    private static final int WIDTH_INPUT = 8;       /* pair-of-ints inputs */
+
+    public IntervalDayNdvAccumulator(final FieldVector input, final FieldVector transferVector,
+                                     final int maxValuesPerBatch, final BufferAllocator computationVectorAllocator) {
+      super(input, transferVector, maxValuesPerBatch, computationVectorAllocator);
+    }
+
+    @Override
+    public void accumulate(final long memoryAddr, final int count,
+                           final int bitsInChunk, final int chunkOffsetMask) {
+      final long maxAddr = memoryAddr + count * PARTITIONINDEX_HTORDINAL_WIDTH;
+      final FieldVector inputVector = getInput();
+      final long incomingBit = inputVector.getValidityBufferAddress();
+      final long incomingValue = inputVector.getDataBufferAddress();
+
+      for (long partitionAndOrdinalAddr = memoryAddr; partitionAndOrdinalAddr < maxAddr; partitionAndOrdinalAddr += PARTITIONINDEX_HTORDINAL_WIDTH) {
+        final int incomingIndex = PlatformDependent.getInt(partitionAndOrdinalAddr + KEYINDEX_OFFSET);
+        final int bitVal = (PlatformDependent.getByte(incomingBit + ((incomingIndex >>> 3))) >>> (incomingIndex & 7)) & 1;
+        if (bitVal == 0) {
+          continue;
+        }
+        final long newVal = PlatformDependent.getLong(incomingValue + (incomingIndex * WIDTH_INPUT));
+        final int tableIndex = PlatformDependent.getInt(partitionAndOrdinalAddr + HTORDINAL_OFFSET);
+        getSketch(tableIndex >>> bitsInChunk, tableIndex & chunkOffsetMask).update(newVal);
+      }
+    }
+  }
+
+  public static class VarLenNdvAccumulator extends BaseHllAccumulator {
+
+    public VarLenNdvAccumulator(final FieldVector input, final FieldVector transferVector,
+                                final int maxValuesPerBatch, final BufferAllocator computationVectorAllocator) {
+      super(input, transferVector, maxValuesPerBatch, computationVectorAllocator);
+    }
+
+    @Override
+    public void accumulate(final long memoryAddr, final int count,
+                           final int bitsInChunk, final int chunkOffsetMask) {
+      final long maxAddr = memoryAddr + count * PARTITIONINDEX_HTORDINAL_WIDTH;
+      final FieldVector inputVector = getInput();
+      final long incomingBit = inputVector.getValidityBufferAddress();
+      final ArrowBuf inputOffsetBuf = inputVector.getOffsetBuffer();
+      final ArrowBuf inputBuf = inputVector.getDataBuffer();
+
+      for (long partitionAndOrdinalAddr = memoryAddr; partitionAndOrdinalAddr < maxAddr; partitionAndOrdinalAddr += PARTITIONINDEX_HTORDINAL_WIDTH) {
+        final int incomingIndex = PlatformDependent.getInt(partitionAndOrdinalAddr + KEYINDEX_OFFSET);
+        final int bitVal = (PlatformDependent.getByte(incomingBit + ((incomingIndex >>> 3))) >>> (incomingIndex & 7)) & 1;
+        if (bitVal == 0) {
+          continue;
+        }
+        final int startOffset = inputOffsetBuf.getInt(incomingIndex * BaseVariableWidthVector.OFFSET_WIDTH);
+        final int endOffset = inputOffsetBuf.getInt((incomingIndex + 1) * BaseVariableWidthVector.OFFSET_WIDTH);
+        final int len = endOffset - startOffset;
+        final int tableIndex = PlatformDependent.getInt(partitionAndOrdinalAddr + HTORDINAL_OFFSET);
+        getSketch(tableIndex >>> bitsInChunk, tableIndex & chunkOffsetMask)
+          .update(Memory.wrap(inputBuf.nioBuffer(startOffset, len)), 0, len);
+      }
+    }
+  }
+
+  /**
+   * Accumulator of the hll_merge function, that unions the sketches of the input
+   * vector into the sketch of each group. The input is either a VARBINARY vector
+   * holding serialized sketches or, during post-spill processing, a spilled
+   * FIXEDSIZEBINARY accumulator vector holding updatable sketches.
+   */
+  public static class NdvUnionAccumulator extends BaseNdvAccumulator<Union> {
+
+    public NdvUnionAccumulator(final FieldVector input, final FieldVector transferVector,
+                               final int maxValuesPerBatch, final BufferAllocator computationVectorAllocator) {
+      super(input, transferVector, AccumulatorBuilder.AccumulatorType.HLL_MERGE, maxValuesPerBatch,
+            computationVectorAllocator);
+    }
+
+    /**
+     * Create a NdvUnionAccumulator from an hll accumulator. This is
+     * used for post-spill processing.
+     * @param hllAccumulator hll accumulator
+     * @param input new input vector (read from spilled batch)
+     * @param maxValuesPerBatch batch size
+     * @param computationVectorAllocator accumulator vector allocator
+     */
+    NdvUnionAccumulator(final BaseHllAccumulator hllAccumulator,
+                        final FieldVector input, final int maxValuesPerBatch,
+                        final BufferAllocator computationVectorAllocator) {
+      super(hllAccumulator, input, AccumulatorBuilder.AccumulatorType.HLL_MERGE, maxValuesPerBatch,
+            computationVectorAllocator);
+    }
+
+    @Override
+    Union newSketch(WritableMemory memory) {
+      return new Union(StatisticsAggrFunctions.HLL_ACCURACY, memory);
+    }
+
+    @Override
+    Union wrapSketch(WritableMemory memory) {
+      return Union.writableWrap(memory);
+    }
+
+    @Override
+    byte[] toCompactByteArray(Union sketch) {
+      return sketch.toCompactByteArray();
+    }
+
+    @Override
+    public void accumulate(final long memoryAddr, final int count,
+                           final int bitsInChunk, final int chunkOffsetMask) {
+      final long maxAddr = memoryAddr + count * PARTITIONINDEX_HTORDINAL_WIDTH;
+      final FieldVector inputVector = getInput();
+      final long incomingBit = inputVector.getValidityBufferAddress();
+      final ArrowBuf inputBuf = inputVector.getDataBuffer();
+      /* spilled sketches are stored in fixed size slots, serialized ones in a variable width vector */
+      final int inputWidth = (inputVector instanceof FixedSizeBinaryVector) ?
+        ((FixedSizeBinaryVector) inputVector).getByteWidth() : 0;
+      final ArrowBuf inputOffsetBuf = (inputWidth == 0) ? inputVector.getOffsetBuffer() : null;
+
+      for (long partitionAndOrdinalAddr = memoryAddr; partitionAndOrdinalAddr < maxAddr; partitionAndOrdinalAddr += PARTITIONINDEX_HTORDINAL_WIDTH) {
+        final int incomingIndex = PlatformDependent.getInt(partitionAndOrdinalAddr + KEYINDEX_OFFSET);
+        final int bitVal = (PlatformDependent.getByte(incomingBit + ((incomingIndex >>> 3))) >>> (incomingIndex & 7)) & 1;
+        if (bitVal == 0) {
+          continue;
+        }
+        final int startOffset;
+        final int len;
+        if (inputWidth == 0) {
+          startOffset = inputOffsetBuf.getInt(incomingIndex * BaseVariableWidthVector.OFFSET_WIDTH);
+          len = inputOffsetBuf.getInt((incomingIndex + 1) * BaseVariableWidthVector.OFFSET_WIDTH) - startOffset;
+        } else {
+          startOffset = incomingIndex * inputWidth;
+          len = inputWidth;
+        }
+        final HllSketch sketch = HllSketch.wrap(Memory.wrap(inputBuf.nioBuffer(startOffset, len)));
+        final int tableIndex = PlatformDependent.getInt(partitionAndOrdinalAddr + HTORDINAL_OFFSET);
+        getSketch(tableIndex >>> bitsInChunk, tableIndex & chunkOffsetMask).update(sketch);
+      }
+    }
+  }
+}
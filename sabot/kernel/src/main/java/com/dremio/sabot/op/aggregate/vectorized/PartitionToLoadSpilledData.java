@@ -22,7 +22,10 @@ import org.apache.arrow.memory.ArrowBuf;
 import org.apache.arrow.memory.BufferAllocator;
 import org.apache.arrow.memory.util.LargeMemoryUtil;
 import org.apache.arrow.vector.BaseFixedWidthVector;
+import org.apache.arrow.vector.BaseVariableWidthVector;
 import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.FixedSizeBinaryVector;
+import org.apache.arrow.vector.types.pojo.ArrowType;
 import org.apache.arrow.vector.types.pojo.Field;
 
 import com.dremio.common.AutoCloseables;
@@ -96,6 +99,20 @@ public class PartitionToLoadSpilledData implements AutoCloseable {
                                     final int variableDataLength,
                                     final List<Field> postSpillAccumulatorVectorTypes,
                                     final int batchSize) throws Exception {
+    this(allocator, fixedDataLength, variableDataLength, postSpillAccumulatorVectorTypes, batchSize, 0);
+  }
+
+  /**
+   * @param estimatedVariableWidthSize estimated width of the values of variable width
+   *                                   accumulators (MIN/MAX on VARCHAR, VARBINARY), used
+   *                                   to pre-allocate their data buffer.
+   */
+  public PartitionToLoadSpilledData(final BufferAllocator allocator,
+                                    final int fixedDataLength,
+                                    final int variableDataLength,
+                                    final List<Field> postSpillAccumulatorVectorTypes,
+                                    final int batchSize,
+                                    final int estimatedVariableWidthSize) throws Exception {
     Preconditions.checkArgument(allocator != null, "Error: need a valid allocator to pre-allocate memory");
     this.allocator = allocator;
     /* we use Numbers.nextPowerOfTwo because that is how memory allocation happens
@@ -116,7 +133,7 @@ public class PartitionToLoadSpilledData implements AutoCloseable {
       this.recordsInBatch = 0;
       this.accumulatorTypes = new byte[postSpillAccumulatorVectorTypes.size()];
       initBuffers();
-      initPostSpillAccumulatorVectors(postSpillAccumulatorVectorTypes, batchSize, rollbackable);
+      initPostSpillAccumulatorVectors(postSpillAccumulatorVectorTypes, batchSize, estimatedVariableWidthSize, rollbackable);
       rollbackable.commit();
       logger.debug("Extra Partition Pre-allocation, fixed-data length: {}, variable-data length: {}, actual fixed-data capacity: {}, actual variable-data capacty: {}, batchSize: {}",
                    fixedDataLength, variableDataLength, fixedKeyColPivotedData.capacity(), variableKeyColPivotedData.capacity(), batchSize);
@@ -131,21 +148,36 @@ public class PartitionToLoadSpilledData implements AutoCloseable {
    * considering the type. The target type information is already available here
    * since {@link VectorizedHashAggOperator} has materialized the aggregate
    * expressions.
+   *
+   * Unlike the data of fixed width accumulators, the size of the data of variable width
+   * accumulators (MIN/MAX on VARCHAR, VARBINARY) in a spilled batch is not bounded, so the
+   * data buffer of their vectors is only pre-allocated using the estimated width of values.
    * @param postSpillAccumulatorVectorTypes accumulator vector types
    * @param valueCount value count for the vector
+   * @param estimatedVariableWidthSize estimated width of values of variable width accumulators
    */
   private void initPostSpillAccumulatorVectors(final List<Field> postSpillAccumulatorVectorTypes,
                                                final int valueCount,
+                                               final int estimatedVariableWidthSize,
                                                final AutoCloseables.RollbackCloseable rollbackCloseable) {
     int count = 0;
     for (Field field : postSpillAccumulatorVectorTypes) {
-     FieldVector vector = TypeHelper.getNewVector(field, allocator);
-     /* we have aggregation on INT, BIGINT, FLOAT, FLOAT4 and DECIMAL types of
-      * columns which are all fixed width.
+     /* the sketches of HLL accumulators are stored in fixed size binary vectors, whose
+      * width has to be taken from the field.
       */
-     Preconditions.checkArgument(vector instanceof BaseFixedWidthVector, "Error: detected invalid accumulator vector type");
+     final FieldVector vector = (field.getType() instanceof ArrowType.FixedSizeBinary) ?
+       new FixedSizeBinaryVector(field.getName(), field.getFieldType(), allocator) :
+       TypeHelper.getNewVector(field, allocator);
      rollbackCloseable.add(vector);
-     ((BaseFixedWidthVector) vector).allocateNew(valueCount);
+     if (vector instanceof BaseVariableWidthVector) {
+       ((BaseVariableWidthVector) vector).allocateNew((long) valueCount * estimatedVariableWidthSize, valueCount);
+     } else {
+       /* other than variable width min/max, we have aggregation on INT, BIGINT, FLOAT, FLOAT4
+        * and DECIMAL types of columns which are all fixed width.
+        */
+       Preconditions.checkArgument(vector instanceof BaseFixedWidthVector, "Error: detected invalid accumulator vector type");
+       ((BaseFixedWidthVector) vector).allocateNew(valueCount);
+     }
 
      Preconditions.checkArgument(vector.getValueCapacity() >= valueCount, "Error: failed to correctly pre-allocate accumulator vector in extra partition");
      postSpillAccumulatorVectors[count] = vector;
@@ -300,6 +332,13 @@ public class PartitionToLoadSpilledData implements AutoCloseable {
     variableKeyColPivotedData.readerIndex(0);
     variableKeyColPivotedData.writerIndex(0);
     for (FieldVector vector : postSpillAccumulatorVectors) {
+      if (vector instanceof BaseVariableWidthVector) {
+        final ArrowBuf offsetBuffer = vector.getOffsetBuffer();
+        offsetBuffer.readerIndex(0);
+        offsetBuffer.writerIndex(0);
+        offsetBuffer.setZero(0, offsetBuffer.capacity());
+        ((BaseVariableWidthVector) vector).setLastSet(-1);
+      }
       final ArrowBuf validityBuffer = vector.getValidityBuffer();
       final ArrowBuf dataBuffer = vector.getDataBuffer();
       validityBuffer.readerIndex(0);
@@ -589,6 +589,7 @@ public class VectorizedHashAggOperator implements SingleInputOperator {
                                                                           maxHashTableBatchSize,
                                                                           jointAllocationMin,
                                                                           jointAllocationLimit,
+                                                                          estimatedVariableWidthKeySize,
                                                                           decimalV2Enabled);
         /* this step allocates memory for control structure in hashtable and reverts itself if
          * allocation fails so we don't have to rely on rollback closeable
@@ -625,7 +626,7 @@ public class VectorizedHashAggOperator implements SingleInputOperator {
     setLocalInfoForHashTable();
 
     /* STEP 4: Build extra partition (aka loading or read partition) */
-    final List<Field> postSpillAccumulatorVectorFields = materializeAggExpressionsResult.outputVectorFields;
+    final List<Field> postSpillAccumulatorVectorFields = materializeAggExpressionsResult.accumulatorVectorFields;
     allocateExtraPartition(postSpillAccumulatorVectorFields);
 
     final long memoryAfterExtraPartition = allocator.getAllocatedMemory();
@@ -655,7 +656,8 @@ public class VectorizedHashAggOperator implements SingleInputOperator {
     final int fixedBlockSize = fixedWidthDataRowSize * maxHashTableBatchSize;
     final int variableBlockSize = maxVariableBlockLength;
     try {
-      partitionToLoadSpilledData = new PartitionToLoadSpilledData(allocator, fixedBlockSize, variableBlockSize, postSpillAccumulatorVectorFields, maxHashTableBatchSize);
+      partitionToLoadSpilledData = new PartitionToLoadSpilledData(allocator, fixedBlockSize, variableBlockSize, postSpillAccumulatorVectorFields,
+                                                                  maxHashTableBatchSize, estimatedVariableWidthKeySize);
     } catch (OutOfMemoryException e) {
       ooms++;
       throw debug.prepareAndThrowException(e, PREALLOC_FAILURE_LOADING_PARTITION, HashAggErrorType.OOM);
@@ -944,6 +946,7 @@ public class VectorizedHashAggOperator implements SingleInputOperator {
    * (1) rehashing -- expanding ordinals by adding control blocks
    * (2) adding data blocks
    * (3) (2) also adds a corresponding accumulator vector in each accumulator
+   * (4) reserving space in variable width accumulators to accumulate the record
    *
    * The memory allocation in {@link LBlockHashTable} is made to be atomic
    * such that if it fails, we cleanup the state back to where it was as if
@@ -986,6 +989,8 @@ public class VectorizedHashAggOperator implements SingleInputOperator {
           try {
             // directly pass the absolute address of the record in pivot buffer to hash table
             final int ordinal = table.getOrInsertWithRetry(keyFixedAddr, keyVarAddr, keyVarLen, (int) keyHash, dataWidth, true);
+            hashAggPartitions[hashPartitionIndex].accumulator.reserveVariableWidth(ordinal >>> bitsInChunk,
+                                                                                  keyIndex + recordsConsumed);
             /* insert successful so store the tuple of <hash table ordinal, incoming key index> */
             /* set the bit to remember the target partitions, this will be used later during accumulation */
             partitionsUsed = partitionsUsed | (1 << hashPartitionIndex);
@@ -1427,8 +1432,10 @@ public class VectorizedHashAggOperator implements SingleInputOperator {
    * We don't need to handle OutOfMemory here since accumulator target vector(s)
    * already exist (and allocated). If hashtable insertion required adding
    * new data blocks then it would have also added new corresponding
-   * accumulator vector and allocated it. Whether or not this was successful
-   * should have already been known to us at the time of insertion in function
+   * accumulator vector and allocated it. Variable width accumulators may need
+   * more space than allocated with the batch, which is reserved for each record
+   * as it is inserted. Whether or not this was successful should have already
+   * been known to us at the time of insertion in function
    * insertIntoPartitions() method.
    */
   private void accumulateForAllPartitions(long partitionsUsed) {
@@ -209,9 +209,11 @@ public class VectorizedHashAggPartition implements AutoCloseable {
    *
    * (1) Set the input vector for each accumulator. The new input vector
    * is the one we deserialized from spilled batch.
-   * (2) For count, count1, sum, $sum0 convert the accumulator type.
+   * (2) For count, count1, sum, $sum0, hll convert the accumulator type.
    * For example an pre-spill IntSumAccumulator will become
-   * BigIntSumAccumulator for post-spill processing.
+   * BigIntSumAccumulator for post-spill processing, and an hll
+   * accumulator will become an NdvUnionAccumulator that merges the
+   * spilled sketches.
    *
    * @param accumulatorTypes
    * @param accumulatorVectors
@@ -250,6 +252,19 @@ public class VectorizedHashAggPartition implements AutoCloseable {
         updateSumZeroAccumulator(deserializedAccumulator, partitionAccumulators,
                                  i, computationVectorAllocator);
       }
+      else if (accumulatorType == AccumulatorBuilder.AccumulatorType.HLL.ordinal()) {
+        /* handle HLL: the spilled sketches are merged into the sketches of the groups */
+        partitionAccumulators[i] =
+          new NdvAccumulators.NdvUnionAccumulator((NdvAccumulators.BaseHllAccumulator)partitionAccumulator,
+                                                  deserializedAccumulator,
+                                                  maxValuesPerBatch,
+                                                  computationVectorAllocator);
+      } else if (accumulatorType == AccumulatorBuilder.AccumulatorType.HLL_MERGE.ordinal()) {
+        /* handle HLL_MERGE */
+        Preconditions.checkArgument(partitionAccumulator instanceof NdvAccumulators.NdvUnionAccumulator,
+                                    "Error: expecting ndv union accumulator");
+        partitionAccumulator.setInput(deserializedAccumulator);
+      }
       else {
         /* handle MIN, MAX */
         Preconditions.checkArgument(
@@ -269,7 +284,7 @@ public class VectorizedHashAggPartition implements AutoCloseable {
 
     /* We only need to handle DECIMAL in case decimal v2 is disabled.
      * For example, Int(Min/Max)Accumulator remains Int(Min/Max)Accumulator, Float(Min/Max)Accumulator
-     * remains Float(Min/Max)Accumulator and similarly for Double(Min/Max), BigInt(Min/Max) etc.
+     * remains Float(Min/Max)Accumulator and similarly for Double(Min/Max), BigInt(Min/Max), VarLen(Min/Max) etc.
      * The accumulator vector that was spilled now becomes the new input vector for
      * post-spill processing. However, for decimal min/max we store the output
      * (min and max values) in an accumulator vector of type Double. So for post-spill
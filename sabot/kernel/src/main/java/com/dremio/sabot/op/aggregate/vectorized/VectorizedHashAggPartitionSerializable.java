@@ -25,6 +25,7 @@ import java.util.concurrent.TimeUnit;
 
 import org.apache.arrow.memory.ArrowBuf;
 import org.apache.arrow.memory.util.LargeMemoryUtil;
+import org.apache.arrow.vector.BaseVariableWidthVector;
 import org.apache.arrow.vector.FieldVector;
 
 import com.dremio.exec.cache.AbstractStreamSerializable;
@@ -208,7 +209,9 @@ public class VectorizedHashAggPartitionSerializable extends AbstractStreamSerial
   /**
    * Read accumulator vectors from spilled batch into memory. The memory for de-serializing comes
    * from{@link PartitionToLoadSpilledData} that has pre-allocated memory for all the structures
-   * written in a spilled batch.
+   * written in a spilled batch. The data of variable width accumulators is written after the
+   * buffers of all fixed width accumulators, and their data buffer is expanded if the spilled
+   * values don't fit in the pre-allocated memory.
    *
    * @param batchDef batch definition
    * @param input input stream
@@ -219,27 +222,62 @@ public class VectorizedHashAggPartitionSerializable extends AbstractStreamSerial
     final FieldVector[] vectorList = partitionToLoadSpilledData.getPostSpillAccumulatorVectors();
     final List<UserBitShared.SerializedField> fieldList = batchDef.getFieldList();
     Preconditions.checkArgument(fieldList.size() == vectorList.length, "Error: read incorrect number of accumulator vectors from spilled batch");
-    int count = 0;
     long length = 0;
-    for (UserBitShared.SerializedField metaData : fieldList) {
-      final FieldVector vector = vectorList[count];
-      final int rawDataLength = metaData.getBufferLength();
-      length += rawDataLength;
-      final UserBitShared.SerializedField bitsField = metaData.getChild(0);
-      final UserBitShared.SerializedField valuesField = metaData.getChild(1);
-      final int bitsLength = bitsField.getBufferLength();
-      final int dataLength = valuesField.getBufferLength();
-      Preconditions.checkArgument(rawDataLength == bitsLength + dataLength, "Error, read incorrect accumulator vector buffer length");
-      final ArrowBuf validityBuffer = vector.getValidityBuffer();
-      final ArrowBuf dataBuffer = vector.getDataBuffer();
-      readIntoArrowBuf(validityBuffer, bitsLength, input);
-      readIntoArrowBuf(dataBuffer, dataLength, input);
-      vector.setValueCount(metaData.getValueCount());
-      count++;
+    for (int i = 0; i < vectorList.length; i++) {
+      if (!(vectorList[i] instanceof BaseVariableWidthVector)) {
+        length += readFixedWidthAccumulator(vectorList[i], fieldList.get(i), input);
+      }
+    }
+    for (int i = 0; i < vectorList.length; i++) {
+      if (vectorList[i] instanceof BaseVariableWidthVector) {
+        length += readVariableWidthAccumulator((BaseVariableWidthVector) vectorList[i], fieldList.get(i), input);
+      }
     }
     return length;
   }
 
+  private long readFixedWidthAccumulator(final FieldVector vector, final UserBitShared.SerializedField metaData,
+                                         final InputStream input) throws IOException {
+    final int rawDataLength = metaData.getBufferLength();
+    final UserBitShared.SerializedField bitsField = metaData.getChild(0);
+    final UserBitShared.SerializedField valuesField = metaData.getChild(1);
+    final int bitsLength = bitsField.getBufferLength();
+    final int dataLength = valuesField.getBufferLength();
+    Preconditions.checkArgument(rawDataLength == bitsLength + dataLength, "Error, read incorrect accumulator vector buffer length");
+    final ArrowBuf validityBuffer = vector.getValidityBuffer();
+    final ArrowBuf dataBuffer = vector.getDataBuffer();
+    readIntoArrowBuf(validityBuffer, bitsLength, input);
+    readIntoArrowBuf(dataBuffer, dataLength, input);
+    vector.setValueCount(metaData.getValueCount());
+    return rawDataLength;
+  }
+
+  private long readVariableWidthAccumulator(final BaseVariableWidthVector vector,
+                                            final UserBitShared.SerializedField metaData,
+                                            final InputStream input) throws IOException {
+    final int rawDataLength = metaData.getBufferLength();
+    final UserBitShared.SerializedField bitsField = metaData.getChild(0);
+    final UserBitShared.SerializedField valuesField = metaData.getChild(1);
+    final int bitsLength = bitsField.getBufferLength();
+    final int offsetsLength = valuesField.getChild(0).getBufferLength();
+    final int dataLength = valuesField.getBufferLength() - offsetsLength;
+    Preconditions.checkArgument(rawDataLength == bitsLength + offsetsLength + dataLength,
+      "Error, read incorrect accumulator vector buffer length");
+    Preconditions.checkArgument(offsetsLength <= vector.getOffsetBuffer().capacity(),
+      "Error: detected incorrect amount of provisioned memory for deserializing variable width accumulator");
+    /* the width of the accumulated values is only estimated when pre-allocating */
+    while (vector.getDataBuffer().capacity() < dataLength) {
+      vector.reallocDataBuffer();
+    }
+    readIntoArrowBuf(vector.getValidityBuffer(), bitsLength, input);
+    readIntoArrowBuf(vector.getOffsetBuffer(), offsetsLength, input);
+    readIntoArrowBuf(vector.getDataBuffer(), dataLength, input);
+    final int valueCount = metaData.getValueCount();
+    vector.setLastSet(valueCount - 1);
+    vector.setValueCount(valueCount);
+    return rawDataLength;
+  }
+
   /**
    * Reads an ArrowBuf from stream
    *
@@ -320,6 +358,15 @@ public class VectorizedHashAggPartitionSerializable extends AbstractStreamSerial
       spilledDataSize += buffer.readableBytes();
       writeArrowBuf(buffer, output);
     }
+    /* write data of variable width accumulators, in the order they appear in batch definition */
+    final int recordCount = batchDefinition.accumulatorBatchDef.getRecordCount();
+    for (BaseVarBinaryAccumulator accumulator : writableBatch.getVariableWidthAccumulators()) {
+      //track io time as wait time
+      try (OperatorStats.WaitRecorder recorder = OperatorStats.getWaitRecorder(operatorStats)) {
+        spilledDataSize += accumulator.writeSpilledBatch(batchDefinition.getCurrentBatchIndex(), recordCount,
+                                                         output, ioBuffer);
+      }
+    }
 
     final long elapsed = watch.elapsed(TimeUnit.MILLISECONDS);
     if (elapsed >= this.warnMaxSpillTime) {
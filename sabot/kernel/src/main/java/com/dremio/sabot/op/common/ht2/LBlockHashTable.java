@@ -20,9 +20,12 @@ import static java.util.Arrays.copyOfRange;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Formatter;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
 
 import org.apache.arrow.memory.ArrowBuf;
@@ -35,6 +38,7 @@ import com.dremio.common.AutoCloseables.RollbackCloseable;
 import com.dremio.common.util.Numbers;
 import com.dremio.exec.util.BloomFilter;
 import com.dremio.exec.util.LBlockHashTableKeyReader;
+import com.dremio.exec.util.ValueListFilter;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Stopwatch;
@@ -1294,4 +1298,52 @@ public final class LBlockHashTable implements AutoCloseable {
       return Optional.empty();
     }
   }
+
+  /**
+   * Prepares an exact list of the values of a single integer key field. Since this is an optimisation, errors are
+   * not propagated to the consumer. Instead, they get an empty optional, as they do if the table holds more than
+   * {@code maxValues} distinct values or a null value for the field.
+   *
+   * @param fieldName name of the key field, of type int or bigint
+   * @param maxValues maximum number of distinct values in the list
+   * @return
+   */
+  public Optional<ValueListFilter> prepareValueListFilter(String fieldName, int maxValues) {
+    if (size() == 0) {
+      // nothing can match, and the list still needs to be merged with the lists of other fragments
+      return Optional.of(ValueListFilter.of(Collections.emptyList()));
+    }
+
+    LBlockHashTableKeyReader.Builder keyReaderBuilder = new LBlockHashTableKeyReader.Builder()
+            .setBufferAllocator(this.allocator)
+            .setFieldsToRead(Collections.singletonList(fieldName))
+            .setPivot(pivot)
+            .setMaxValuesPerBatch(MAX_VALUES_PER_BATCH)
+            .setTableFixedAddresses(tableFixedAddresses)
+            .setTableVarAddresses(initVariableAddresses)
+            .setTotalNumOfRecords(size());
+    try (LBlockHashTableKeyReader keyReader = keyReaderBuilder.build()) {
+      final int valueWidth = keyReader.getKeyBufSize() - 1;
+      if (keyReader.isKeyTrimmedToFitSize() || (valueWidth != 4 && valueWidth != 8)) {
+        return Optional.empty();
+      }
+
+      final ArrowBuf keyHolder = keyReader.getKeyHolder();
+      final Set<Long> values = new HashSet<>();
+      while (keyReader.loadNextKey()) {
+        if (keyHolder.getByte(0) == 0) {
+          // null keys can't be listed
+          return Optional.empty();
+        }
+        values.add(valueWidth == 4 ? keyHolder.getInt(1) : keyHolder.getLong(1));
+        if (values.size() > maxValues) {
+          return Optional.empty();
+        }
+      }
+      return Optional.of(ValueListFilter.of(values));
+    } catch (Exception e) {
+      logger.warn("Unable to prepare value list filter for " + fieldName, e);
+      return Optional.empty();
+    }
+  }
 }
@@ -64,4 +64,14 @@ public class SpillServiceOptionsImpl implements SpillServiceOptions {
   public long spillSweepThreshold() {
     return options().getOption(ExecConstants.SPILL_SWEEP_THRESHOLD);
   }
+
+  @Override
+  public int ioThreads() {
+    return (int) options().getOption(ExecConstants.SPILL_IO_THREADS);
+  }
+
+  @Override
+  public long ioBufferMemory() {
+    return options().getOption(ExecConstants.SPILL_IO_BUFFER_MEMORY);
+  }
 }
@@ -25,6 +25,7 @@ import org.apache.arrow.memory.BufferAllocator;
 import org.apache.arrow.vector.SimpleBigIntVector;
 
 import com.dremio.exec.util.BloomFilter;
+import com.dremio.exec.util.ValueListFilter;
 import com.dremio.sabot.op.common.ht2.BlockChunk;
 import com.dremio.sabot.op.common.ht2.FixedBlockVector;
 import com.dremio.sabot.op.common.ht2.HashComputation;
@@ -124,6 +125,11 @@ public class BlockJoinTable implements JoinTable {
     return table.prepareBloomFilter(fieldNames, sizeDynamically);
   }
 
+  @Override
+  public Optional<ValueListFilter> prepareValueListFilter(String fieldName, int maxValues) {
+    return table.prepareValueListFilter(fieldName, maxValues);
+  }
+
   @Override
   public void insert(long findAddr, int records) {
     try(FixedBlockVector fbv = new FixedBlockVector(allocator, buildPivot.getBlockWidth());
@@ -53,7 +53,13 @@ public class HashJoinStats {
     OUTPUT_RECORDS,
     HASHCOMPUTATION_TIME_NANOS,  /* used by hash agg and build side of hash join */
     PROBE_HASHCOMPUTATION_TIME_NANOS, /* used by probe side of hash join */
-    RUNTIME_FILTER_DROP_COUNT;
+    RUNTIME_FILTER_DROP_COUNT,
+    SPILL_COUNT,                /* number of partitions spilled, across all levels of recursion */
+    SPILL_WRITE_BYTES,
+    SPILL_READ_BYTES,
+    SPILL_WRITE_IO_NANOS,
+    SPILL_READ_IO_NANOS,
+    RECURSION_DEPTH;
 
 
     @Override
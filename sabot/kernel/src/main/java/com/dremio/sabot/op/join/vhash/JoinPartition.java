@@ -0,0 +1,346 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.op.join.vhash;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.util.TransferPair;
+
+import com.dremio.common.AutoCloseables;
+import com.dremio.exec.physical.config.HashJoinPOP;
+import com.dremio.exec.record.BatchSchema;
+import com.dremio.exec.record.VectorAccessible;
+import com.dremio.exec.record.VectorContainer;
+import com.dremio.exec.record.VectorWrapper;
+import com.dremio.sabot.exec.context.OperatorContext;
+import com.dremio.sabot.op.copier.FieldBufferCopier;
+import com.dremio.sabot.op.sort.external.SpillManager;
+import com.dremio.sabot.op.sort.external.SpillManager.SpillFile;
+import com.dremio.sabot.op.sort.external.SpillManager.SpillInputStream;
+import com.dremio.sabot.op.sort.external.SpillManager.SpillOutputStream;
+import com.dremio.sabot.op.spi.DualInputOperator;
+import com.google.common.base.Preconditions;
+
+/**
+ * One hash partition of the {@link SpillingHashJoinOperator}.
+ *
+ * A partition starts in memory: the build records routed to it are buffered until the end of the build side,
+ * at which point an in-memory {@link VectorizedHashJoinOperator} is built over them and probed with the
+ * probe records of the partition. If memory runs low, the partition is spilled instead: its buffered build
+ * records, and any later build or probe records routed to it, are written to spill files and joined in a
+ * later, recursive, pass.
+ */
+class JoinPartition implements AutoCloseable {
+
+  private final OperatorContext context;
+  private final BatchSchema buildSchema;
+  private final BatchSchema probeSchema;
+  private final int level;
+  private final String name;
+
+  private final List<VectorContainer> buildBatches = new ArrayList<>();
+  private long buildBytes;
+  private long buildRecords;
+  private long probeRecords;
+
+  // spilled state
+  private SpillFile buildFile;
+  private SpillOutputStream buildOutput;
+  private int buildBatchesSpilled;
+  private SpillFile probeFile;
+  private SpillOutputStream probeOutput;
+  private int probeBatchesSpilled;
+
+  // in-memory join state
+  private VectorizedHashJoinOperator join;
+  private VectorContainer buildStaging;
+  private VectorContainer probeStaging;
+  private List<FieldBufferCopier> probeCopiers;
+  private final List<TransferPair> transfers = new ArrayList<>();
+  private long pendingProbeAddr;
+  private int pendingProbeCount;
+
+  JoinPartition(OperatorContext context, BatchSchema buildSchema, BatchSchema probeSchema, int level, String name) {
+    this.context = context;
+    this.buildSchema = buildSchema;
+    this.probeSchema = probeSchema;
+    this.level = level;
+    this.name = name;
+  }
+
+  int getLevel() {
+    return level;
+  }
+
+  boolean isSpilled() {
+    return buildFile != null;
+  }
+
+  long getBuildRecords() {
+    return buildRecords;
+  }
+
+  long getProbeRecords() {
+    return probeRecords;
+  }
+
+  /**
+   * @return memory held by the buffered build records of the partition
+   */
+  long getBuildBytes() {
+    return buildBytes;
+  }
+
+  /**
+   * Adds the build records selected by the given selection vector.
+   */
+  void addBuild(VectorAccessible source, long sv2Addr, int count) throws IOException {
+    Preconditions.checkState(join == null, "Build side of partition %s is already complete", name);
+    final VectorContainer batch = copy(source, buildSchema, sv2Addr, count);
+    buildRecords += count;
+    if (isSpilled()) {
+      try (VectorContainer toSpill = batch) {
+        buildOutput.writeBatch(toSpill);
+        buildBatchesSpilled++;
+      }
+    } else {
+      buildBatches.add(batch);
+      buildBytes += getBufferSize(batch);
+    }
+  }
+
+  /**
+   * Moves all the buffered build records of this partition to disk. Subsequent records will be written
+   * to disk as well.
+   *
+   * @return memory released
+   */
+  long spill(SpillManager spillManager) throws Exception {
+    Preconditions.checkState(!isSpilled(), "Partition %s is already spilled", name);
+    Preconditions.checkState(join == null, "Partition %s can't be spilled once its hash table is built", name);
+    buildFile = spillManager.getSpillFile(name + "-build");
+    buildOutput = buildFile.create(true);
+    probeFile = spillManager.getSpillFile(name + "-probe");
+
+    final long released = buildBytes;
+    for (VectorContainer batch : buildBatches) {
+      buildOutput.writeBatch(batch);
+      buildBatchesSpilled++;
+    }
+    AutoCloseables.close(buildBatches);
+    buildBatches.clear();
+    buildBytes = 0;
+    return released;
+  }
+
+  /**
+   * Ends the build side of a spilled partition.
+   */
+  void finishBuildSpill() throws IOException {
+    Preconditions.checkState(isSpilled());
+    if (buildOutput != null) {
+      buildOutput.close();
+      buildOutput = null;
+    }
+  }
+
+  /**
+   * Builds the hash table of an in-memory partition, handing over its buffered build records.
+   *
+   * @param outgoing the container the joined records are transferred to
+   */
+  void buildTable(HashJoinPOP config, VectorContainer outgoing) throws Exception {
+    Preconditions.checkState(!isSpilled() && join == null);
+    buildStaging = VectorContainer.create(context.getAllocator(), buildSchema);
+    probeStaging = VectorContainer.create(context.getAllocator(), probeSchema);
+    join = new VectorizedHashJoinOperator(context, config, false);
+
+    final VectorAccessible joinOutput = join.setup(probeStaging, buildStaging);
+    final Iterator<VectorWrapper<?>> targets = outgoing.iterator();
+    for (VectorWrapper<?> w : joinOutput) {
+      transfers.add(w.getValueVector().makeTransferPair(targets.next().getValueVector()));
+    }
+
+    final Iterator<VectorContainer> batches = buildBatches.iterator();
+    while (batches.hasNext()) {
+      try (VectorContainer batch = batches.next()) {
+        final Iterator<VectorWrapper<?>> staging = buildStaging.iterator();
+        for (VectorWrapper<?> w : batch) {
+          w.getValueVector().makeTransferPair(staging.next().getValueVector()).transfer();
+        }
+        buildStaging.setAllCount(batch.getRecordCount());
+        join.consumeDataRight(batch.getRecordCount());
+        batches.remove();
+      }
+    }
+    buildBytes = 0;
+    join.noMoreToConsumeRight();
+  }
+
+  /**
+   * Adds the probe records selected by the given selection vector. Records of an in-memory partition are
+   * only joined on the next call to {@link #output()}, so the selection vector and the source must stay
+   * valid until then.
+   *
+   * @return true if the records need to be joined through {@link #output()}
+   */
+  boolean addProbe(VectorAccessible source, long sv2Addr, int count) throws IOException {
+    probeRecords += count;
+    if (isSpilled()) {
+      if (probeOutput == null) {
+        probeOutput = probeFile.create(true);
+      }
+      try (VectorContainer batch = copy(source, probeSchema, sv2Addr, count)) {
+        probeOutput.writeBatch(batch);
+        probeBatchesSpilled++;
+      }
+      return false;
+    }
+
+    if (join == null || join.getState() != DualInputOperator.State.CAN_CONSUME_L) {
+      // no build records to match against, or the join doesn't need any more probe records
+      return false;
+    }
+    if (probeCopiers == null) {
+      probeCopiers = FieldBufferCopier.getCopiers(VectorContainer.getFieldVectors(source),
+        VectorContainer.getFieldVectors(probeStaging));
+    }
+    pendingProbeAddr = sv2Addr;
+    pendingProbeCount = count;
+    return true;
+  }
+
+  /**
+   * Joins pending probe records and moves the next output batch, if any, to the outgoing container.
+   *
+   * @return number of records moved to the outgoing container, or -1 if this partition has nothing to output
+   */
+  int output() throws Exception {
+    if (join == null) {
+      return -1;
+    }
+
+    if (pendingProbeCount > 0) {
+      for (FieldBufferCopier copier : probeCopiers) {
+        copier.copy(pendingProbeAddr, pendingProbeCount);
+      }
+      probeStaging.setAllCount(pendingProbeCount);
+      join.consumeDataLeft(pendingProbeCount);
+      pendingProbeCount = 0;
+    }
+
+    if (join.getState() != DualInputOperator.State.CAN_PRODUCE) {
+      return -1;
+    }
+
+    final int records = join.outputData();
+    for (TransferPair transfer : transfers) {
+      transfer.transfer();
+    }
+    return records;
+  }
+
+  /**
+   * @return true if the next call to {@link #output()} may move records to the outgoing container
+   */
+  boolean hasOutput() {
+    return join != null && (pendingProbeCount > 0 || join.getState() == DualInputOperator.State.CAN_PRODUCE);
+  }
+
+  /**
+   * Ends the probe side of the partition.
+   *
+   * @return true if the partition has more records to output through {@link #output()}
+   */
+  boolean finishProbe() throws Exception {
+    if (isSpilled()) {
+      if (probeOutput != null) {
+        probeOutput.close();
+        probeOutput = null;
+      }
+      return false;
+    }
+
+    if (join != null && join.getState() == DualInputOperator.State.CAN_CONSUME_L) {
+      join.noMoreToConsumeLeft();
+    }
+    return join != null && join.getState() == DualInputOperator.State.CAN_PRODUCE;
+  }
+
+  int getBuildBatchesSpilled() {
+    return buildBatchesSpilled;
+  }
+
+  int getProbeBatchesSpilled() {
+    return probeBatchesSpilled;
+  }
+
+  SpillInputStream openBuild() throws IOException {
+    return buildFile.open(true);
+  }
+
+  SpillInputStream openProbe() throws IOException {
+    return probeBatchesSpilled > 0 ? probeFile.open(true) : null;
+  }
+
+  private VectorContainer copy(VectorAccessible source, BatchSchema schema, long sv2Addr, int count) {
+    final VectorContainer target = VectorContainer.create(context.getAllocator(), schema);
+    try {
+      final List<FieldBufferCopier> copiers = FieldBufferCopier.getCopiers(VectorContainer.getFieldVectors(source),
+        VectorContainer.getFieldVectors(target));
+      for (FieldBufferCopier copier : copiers) {
+        copier.copy(sv2Addr, count);
+      }
+      target.setAllCount(count);
+      return target;
+    } catch (RuntimeException | Error e) {
+      target.close();
+      throw e;
+    }
+  }
+
+  private static long getBufferSize(VectorContainer container) {
+    long size = 0;
+    for (VectorWrapper<?> w : container) {
+      size += ((FieldVector) w.getValueVector()).getBufferSize();
+    }
+    return size;
+  }
+
+  @Override
+  public void close() throws Exception {
+    final List<AutoCloseable> closeables = new ArrayList<>(buildBatches);
+    closeables.add(buildOutput);
+    closeables.add(probeOutput);
+    closeables.add(buildFile);
+    closeables.add(probeFile);
+    closeables.add(join);
+    closeables.add(buildStaging);
+    closeables.add(probeStaging);
+    AutoCloseables.close(closeables);
+    buildBatches.clear();
+  }
+
+  @Override
+  public String toString() {
+    return String.format("%s (build records: %d, probe records: %d, spilled: %s)", name, buildRecords, probeRecords,
+      isSpilled());
+  }
+}
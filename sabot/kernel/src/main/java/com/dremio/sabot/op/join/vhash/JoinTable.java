@@ -20,6 +20,7 @@ import java.util.Optional;
 import java.util.concurrent.TimeUnit;
 
 import com.dremio.exec.util.BloomFilter;
+import com.dremio.exec.util.ValueListFilter;
 
 public interface JoinTable extends AutoCloseable {
   public void insert(final long outputAddr, final int records);
@@ -59,4 +60,15 @@ public interface JoinTable extends AutoCloseable {
   default Optional<BloomFilter> prepareBloomFilter(List<String> fieldNames, boolean sizeDynamically) {
     return Optional.empty();
   }
+
+  /**
+   * Prepares an exact list of the values of a single integer key field. Since this is an optimisation, errors are
+   * not propagated to the consumer. Instead, they get an empty optional.
+   * @param fieldName
+   * @param maxValues Maximum number of distinct values, no list is prepared beyond that.
+   * @return
+   */
+  default Optional<ValueListFilter> prepareValueListFilter(String fieldName, int maxValues) {
+    return Optional.empty();
+  }
 }
@@ -0,0 +1,142 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.op.join.vhash;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.arrow.memory.ArrowBuf;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.SimpleBigIntVector;
+
+import com.dremio.sabot.op.common.ht2.BlockChunk;
+import com.dremio.sabot.op.common.ht2.FieldVectorPair;
+import com.dremio.sabot.op.common.ht2.FixedBlockVector;
+import com.dremio.sabot.op.common.ht2.HashComputation;
+import com.dremio.sabot.op.common.ht2.PivotBuilder;
+import com.dremio.sabot.op.common.ht2.PivotDef;
+import com.dremio.sabot.op.common.ht2.Pivots;
+import com.dremio.sabot.op.common.ht2.VariableBlockVector;
+import com.google.common.base.Preconditions;
+
+import io.netty.util.internal.PlatformDependent;
+
+/**
+ * Splits the records of a batch into hash partitions of the join keys. For each partition, the
+ * ordinals of its records are written into a two byte selection vector that can be used with
+ * {@link com.dremio.sabot.op.copier.FieldBufferCopier}.
+ *
+ * The build and probe sides of a join must use the same seed so that matching keys land in the same
+ * partition. Each level of recursive partitioning uses a different seed so that the records of a spilled
+ * partition are spread again when it is re-partitioned.
+ */
+class PartitionHasher implements AutoCloseable {
+
+  private static final int SV2_SIZE = 2;
+
+  private final BufferAllocator allocator;
+  private final PivotDef pivot;
+  private final int numPartitions;
+  private final long seed;
+  private final int[] counts;
+
+  private ArrowBuf selections;
+  private int capacity;
+
+  PartitionHasher(BufferAllocator allocator, List<FieldVectorPair> keys, int numPartitions, long seed) {
+    Preconditions.checkArgument(Integer.bitCount(numPartitions) == 1, "Number of partitions must be a power of two");
+    this.allocator = allocator;
+    this.pivot = PivotBuilder.getBlockDefinition(keys);
+    this.numPartitions = numPartitions;
+    this.seed = seed;
+    this.counts = new int[numPartitions];
+  }
+
+  /**
+   * Computes the partition of the first {@code records} records of the key vectors.
+   */
+  void partition(final int records) {
+    ensureCapacity(records);
+    Arrays.fill(counts, 0);
+    if (records == 0) {
+      return;
+    }
+
+    try (FixedBlockVector fbv = new FixedBlockVector(allocator, pivot.getBlockWidth());
+         VariableBlockVector var = new VariableBlockVector(allocator, pivot.getVariableCount());
+         SimpleBigIntVector hashValues = new SimpleBigIntVector("hashvalues", allocator)) {
+      Pivots.pivot(pivot, records, fbv, var);
+      hashValues.allocateNew(records);
+      final BlockChunk blockChunk = new BlockChunk(fbv.getMemoryAddress(), var.getMemoryAddress(),
+        pivot.getVariableCount() == 0, pivot.getBlockWidth(), records, hashValues.getBufferAddress(), seed);
+      HashComputation.computeHash(blockChunk);
+
+      final long selectionsAddr = selections.memoryAddress();
+      final int mask = numPartitions - 1;
+      for (int i = 0; i < records; i++) {
+        final long hash = hashValues.get(i);
+        final int partition = (int) (hash ^ (hash >>> 32)) & mask;
+        PlatformDependent.putShort(selectionsAddr + ((long) partition * capacity + counts[partition]) * SV2_SIZE, (short) i);
+        counts[partition]++;
+      }
+    }
+  }
+
+  /**
+   * @return width in bytes of the fixed part of the pivoted keys
+   */
+  int getBlockWidth() {
+    return pivot.getBlockWidth();
+  }
+
+  int getNumPartitions() {
+    return numPartitions;
+  }
+
+  /**
+   * @return number of records of the last batch that belong to the partition
+   */
+  int getCount(int partition) {
+    return counts[partition];
+  }
+
+  /**
+   * @return address of the selection vector holding the ordinals of the partition's records in the last batch
+   */
+  long getSelectionAddress(int partition) {
+    return selections.memoryAddress() + (long) partition * capacity * SV2_SIZE;
+  }
+
+  private void ensureCapacity(int records) {
+    if (selections != null && records <= capacity) {
+      return;
+    }
+    if (selections != null) {
+      selections.close();
+      selections = null;
+    }
+    capacity = Math.max(records, 1);
+    selections = allocator.buffer((long) numPartitions * capacity * SV2_SIZE);
+  }
+
+  @Override
+  public void close() {
+    if (selections != null) {
+      selections.close();
+      selections = null;
+    }
+  }
+}
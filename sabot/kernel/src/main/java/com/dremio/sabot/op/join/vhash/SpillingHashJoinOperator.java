@@ -0,0 +1,535 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.op.join.vhash;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.OutOfMemoryException;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.calcite.rel.core.JoinRelType;
+
+import com.dremio.common.AutoCloseables;
+import com.dremio.common.exceptions.UserException;
+import com.dremio.common.expression.LogicalExpression;
+import com.dremio.common.logical.data.JoinCondition;
+import com.dremio.exec.expr.ValueVectorReadExpression;
+import com.dremio.exec.physical.config.HashJoinPOP;
+import com.dremio.exec.proto.ExecProtos.FragmentHandle;
+import com.dremio.exec.proto.helper.QueryIdHelper;
+import com.dremio.exec.record.BatchSchema.SelectionVectorMode;
+import com.dremio.exec.record.VectorAccessible;
+import com.dremio.exec.record.VectorContainer;
+import com.dremio.options.Options;
+import com.dremio.options.TypeValidators.BooleanValidator;
+import com.dremio.options.TypeValidators.PositiveLongValidator;
+import com.dremio.options.TypeValidators.PowerOfTwoLongValidator;
+import com.dremio.options.TypeValidators.RangeLongValidator;
+import com.dremio.sabot.exec.context.OperatorContext;
+import com.dremio.sabot.exec.context.OperatorStats;
+import com.dremio.sabot.op.common.hashtable.HashTable;
+import com.dremio.sabot.op.common.ht2.FieldVectorPair;
+import com.dremio.sabot.op.join.vhash.HashJoinStats.Metric;
+import com.dremio.sabot.op.sort.external.SpillManager;
+import com.dremio.sabot.op.sort.external.SpillManager.SpillInputStream;
+import com.dremio.sabot.op.spi.DualInputOperator;
+
+/**
+ * A hybrid hash join that can spill to disk.
+ *
+ * Build records are hash partitioned on the join keys. Partitions are kept in memory as long as there is enough
+ * headroom in the operator allocator; otherwise the largest partition is spilled, along with all the later build
+ * and probe records that belong to it. Once the build side is complete, each in-memory partition is joined by its
+ * own {@link VectorizedHashJoinOperator} while the probe side streams through.
+ *
+ * Spilled partitions are joined once the probe side is exhausted, by reading back their build and probe records
+ * and running them through a new partitioning pass with a different hash seed. A spilled partition can be spilled
+ * again, up to {@link #MAX_RECURSION} levels deep, after which the pass is done fully in memory.
+ *
+ * Runtime filters are not produced by this operator, as none of its partitions sees all of the build keys.
+ */
+@Options
+public class SpillingHashJoinOperator implements DualInputOperator {
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(SpillingHashJoinOperator.class);
+
+  public static final BooleanValidator ENABLED = new BooleanValidator("exec.op.join.spill", false);
+  public static final PowerOfTwoLongValidator NUM_PARTITIONS = new PowerOfTwoLongValidator("exec.op.join.spill.num_partitions", 32, 8);
+  public static final RangeLongValidator MAX_RECURSION = new RangeLongValidator("exec.op.join.spill.max_recursion", 0, 16, 4);
+  public static final PositiveLongValidator MEMORY_RESERVE = new PositiveLongValidator("exec.op.join.spill.memory_reserve_bytes", Integer.MAX_VALUE, 16 * 1024 * 1024);
+  // spill all the partitions of the first pass, to exercise the spilling code paths in tests
+  public static final BooleanValidator DEBUG_SPILL_ALL = new BooleanValidator("exec.op.join.spill.debug.spill_all", false);
+
+  // per record overhead of a hash table: the pivoted key, its hash and the links, with room to grow
+  private static final int TABLE_BYTES_PER_RECORD_OVERHEAD = 8 + 2 * HashTable.BUILD_RECORD_LINK_SIZE;
+
+  private final OperatorContext context;
+  private final HashJoinPOP config;
+  private final JoinRelType joinType;
+  private final BufferAllocator allocator;
+  private final VectorContainer outgoing;
+
+  private final int numPartitions;
+  private final int maxRecursion;
+  private final long memoryReserve;
+  private final boolean debugSpillAll;
+
+  // spilled partitions still to be joined, most recently spilled first
+  private final Deque<JoinPartition> spilled = new ArrayDeque<>();
+
+  private State state = State.NEEDS_SETUP;
+  private VectorAccessible left;
+  private VectorAccessible right;
+  private SpillManager spillManager;
+  private Pass pass;
+  // true while the probe records come from the left input, as opposed to a spilled partition
+  private boolean probingInput = true;
+
+  // state of the spilled partition being joined
+  private JoinPartition current;
+  private VectorContainer buildRead;
+  private VectorContainer probeRead;
+  private SpillInputStream probeInput;
+  private int probeBatchesRemaining;
+
+  private int partitionSequence;
+  private long spillCount;
+  private int maxLevel;
+  private long outputRecords;
+
+  public SpillingHashJoinOperator(OperatorContext context, HashJoinPOP config) {
+    this.context = context;
+    this.config = config;
+    this.joinType = config.getJoinType();
+    this.allocator = context.getAllocator();
+    this.outgoing = new VectorContainer(allocator);
+    this.numPartitions = (int) context.getOptions().getOption(NUM_PARTITIONS);
+    this.maxRecursion = (int) context.getOptions().getOption(MAX_RECURSION);
+    this.memoryReserve = context.getOptions().getOption(MEMORY_RESERVE);
+    this.debugSpillAll = context.getOptions().getOption(DEBUG_SPILL_ALL);
+  }
+
+  @Override
+  public State getState() {
+    return state;
+  }
+
+  @Override
+  public VectorAccessible setup(VectorAccessible left, VectorAccessible right) throws Exception {
+    state.is(State.NEEDS_SETUP);
+
+    this.left = left;
+    this.right = right;
+    // same layout as the output of VectorizedHashJoinOperator, so its batches can be transferred as is
+    outgoing.addSchema(right.getSchema());
+    outgoing.addSchema(left.getSchema());
+    outgoing.buildSchema(SelectionVectorMode.NONE);
+    outgoing.setInitialCapacity(context.getTargetBatchSize());
+
+    pass = new Pass(0, right, left);
+    state = State.CAN_CONSUME_R;
+    return outgoing;
+  }
+
+  @Override
+  public void consumeDataRight(int records) throws Exception {
+    state.is(State.CAN_CONSUME_R);
+    pass.consumeBuild(records);
+  }
+
+  @Override
+  public void noMoreToConsumeRight() throws Exception {
+    state.is(State.CAN_CONSUME_R);
+    pass.finishBuild();
+
+    if (pass.getBuildRecords() == 0 && joinType != JoinRelType.LEFT && joinType != JoinRelType.FULL) {
+      state = State.DONE;
+      return;
+    }
+    state = State.CAN_CONSUME_L;
+  }
+
+  @Override
+  public void consumeDataLeft(int records) throws Exception {
+    state.is(State.CAN_CONSUME_L);
+    pass.consumeProbe(records);
+    if (pass.hasOutput()) {
+      state = State.CAN_PRODUCE;
+    }
+  }
+
+  @Override
+  public int outputData() throws Exception {
+    state.is(State.CAN_PRODUCE);
+
+    final int records = produce();
+    outputRecords += records;
+    updateStats();
+    return outgoing.setAllCount(records);
+  }
+
+  @Override
+  public void noMoreToConsumeLeft() throws Exception {
+    state.is(State.CAN_CONSUME_L);
+
+    probingInput = false;
+    pass.finishProbe();
+    spilled.addAll(pass.takeSpilled());
+    state = pass.hasOutput() || !spilled.isEmpty() ? State.CAN_PRODUCE : State.DONE;
+  }
+
+  /**
+   * Moves the next batch of joined records to the outgoing container, going through the spilled partitions once
+   * the probe input is exhausted.
+   *
+   * @return number of records moved to the outgoing container
+   */
+  private int produce() throws Exception {
+    while (true) {
+      final int records = pass == null ? -1 : pass.output();
+      if (records >= 0) {
+        if (probingInput && !pass.hasOutput()) {
+          state = State.CAN_CONSUME_L;
+        }
+        return records;
+      }
+
+      if (probingInput) {
+        state = State.CAN_CONSUME_L;
+        return 0;
+      }
+
+      if (probeBatchesRemaining > 0) {
+        probeRead.zeroVectors();
+        probeInput.load(probeRead, allocator);
+        probeBatchesRemaining--;
+        pass.consumeProbe(probeRead.getRecordCount());
+        continue;
+      }
+
+      if (pass != null && !pass.isProbeFinished()) {
+        // the spilled partition is fully read, its files can go
+        AutoCloseables.close(probeInput, current);
+        probeInput = null;
+        current = null;
+        pass.finishProbe();
+        spilled.addAll(pass.takeSpilled());
+        continue;
+      }
+
+      AutoCloseables.close(pass);
+      pass = null;
+      if (!startNextPartition()) {
+        state = State.DONE;
+        return 0;
+      }
+    }
+  }
+
+  /**
+   * Reads the build records of the next spilled partition back into a new pass, and opens its probe records.
+   *
+   * @return false if there are no more partitions to join
+   */
+  private boolean startNextPartition() throws Exception {
+    while (!spilled.isEmpty()) {
+      final JoinPartition partition = spilled.removeFirst();
+      if (partition.getProbeBatchesSpilled() == 0 && joinType != JoinRelType.RIGHT && joinType != JoinRelType.FULL) {
+        // no probe records to match, and the unmatched build records aren't part of the output
+        AutoCloseables.close(partition);
+        continue;
+      }
+
+      if (buildRead == null) {
+        buildRead = VectorContainer.create(allocator, right.getSchema());
+        probeRead = VectorContainer.create(allocator, left.getSchema());
+      }
+
+      current = partition;
+      pass = new Pass(partition.getLevel() + 1, buildRead, probeRead);
+      maxLevel = Math.max(maxLevel, pass.level);
+      logger.debug("Joining spilled partition {} at level {}", partition, pass.level);
+
+      try (SpillInputStream buildInput = partition.openBuild()) {
+        for (int i = 0; i < partition.getBuildBatchesSpilled(); i++) {
+          buildRead.zeroVectors();
+          buildInput.load(buildRead, allocator);
+          pass.consumeBuild(buildRead.getRecordCount());
+        }
+      }
+      buildRead.zeroVectors();
+      pass.finishBuild();
+
+      probeInput = partition.openProbe();
+      probeBatchesRemaining = partition.getProbeBatchesSpilled();
+      return true;
+    }
+    return false;
+  }
+
+  private SpillManager getSpillManager() {
+    if (spillManager == null) {
+      final FragmentHandle handle = context.getFragmentHandle();
+      final String id = String.format("joinspill-%s.%s.%s.%s", QueryIdHelper.getQueryId(handle.getQueryId()),
+        handle.getMajorFragmentId(), handle.getMinorFragmentId(), config.getProps().getOperatorId());
+      spillManager = new SpillManager(context.getConfig(), context.getOptions(), id, null, context.getSpillService(),
+        "hash join spilling", context.getStats());
+    }
+    return spillManager;
+  }
+
+  private void updateStats() {
+    final OperatorStats stats = context.getStats();
+    stats.setLongStat(Metric.OUTPUT_RECORDS, outputRecords);
+    stats.setLongStat(Metric.SPILL_COUNT, spillCount);
+    stats.setLongStat(Metric.RECURSION_DEPTH, maxLevel);
+    if (spillManager != null) {
+      stats.setLongStat(Metric.SPILL_WRITE_BYTES, spillManager.getAppWriteBytes());
+      stats.setLongStat(Metric.SPILL_READ_BYTES, spillManager.getAppReadBytes());
+      stats.setLongStat(Metric.SPILL_WRITE_IO_NANOS, spillManager.getIOWriteWait());
+      stats.setLongStat(Metric.SPILL_READ_IO_NANOS, spillManager.getIOReadWait());
+    }
+  }
+
+  @Override
+  public <OUT, IN, EXCEP extends Throwable> OUT accept(OperatorVisitor<OUT, IN, EXCEP> visitor, IN value) throws EXCEP {
+    return visitor.visitDualInput(this, value);
+  }
+
+  @Override
+  public void close() throws Exception {
+    updateStats();
+    final List<AutoCloseable> closeables = new ArrayList<>();
+    closeables.add(probeInput);
+    closeables.add(pass);
+    closeables.add(current);
+    closeables.addAll(spilled);
+    closeables.add(buildRead);
+    closeables.add(probeRead);
+    closeables.add(outgoing);
+    closeables.add(spillManager);
+    AutoCloseables.close(closeables);
+  }
+
+  private FieldVector getField(VectorAccessible accessible, LogicalExpression expr) {
+    final LogicalExpression materialized = context.getClassProducer().materialize(expr, accessible);
+    if (!(materialized instanceof ValueVectorReadExpression)) {
+      throw new IllegalStateException("Only direct references allowed.");
+    }
+    return accessible.getValueAccessorById(FieldVector.class,
+      ((ValueVectorReadExpression) materialized).getFieldId().getFieldIds()).getValueVector();
+  }
+
+  /**
+   * One partitioning pass over build and probe records. The first pass reads the operator inputs, the following
+   * ones read back the records of a spilled partition.
+   */
+  private final class Pass implements AutoCloseable {
+    private final int level;
+    private final VectorAccessible build;
+    private final VectorAccessible probe;
+    private final PartitionHasher buildHasher;
+    private final PartitionHasher probeHasher;
+    private final JoinPartition[] partitions;
+    // in-memory partitions with probe records to join or unmatched build records to output
+    private final Deque<JoinPartition> pending = new ArrayDeque<>();
+    private long buildRecords;
+    private boolean probeFinished;
+
+    Pass(int level, VectorAccessible build, VectorAccessible probe) {
+      this.level = level;
+      this.build = build;
+      this.probe = probe;
+
+      final List<FieldVectorPair> buildKeys = new ArrayList<>();
+      final List<FieldVectorPair> probeKeys = new ArrayList<>();
+      for (JoinCondition c : config.getConditions()) {
+        final FieldVector buildKey = getField(build, c.getRight());
+        buildKeys.add(new FieldVectorPair(buildKey, buildKey));
+        final FieldVector probeKey = getField(probe, c.getLeft());
+        probeKeys.add(new FieldVectorPair(probeKey, probeKey));
+      }
+
+      // each level uses its own seed, or the records of a spilled partition would all go to the same partition
+      this.buildHasher = new PartitionHasher(allocator, buildKeys, numPartitions, level + 1);
+      this.probeHasher = new PartitionHasher(allocator, probeKeys, numPartitions, level + 1);
+      this.partitions = new JoinPartition[numPartitions];
+      for (int i = 0; i < numPartitions; i++) {
+        partitions[i] = new JoinPartition(context, build.getSchema(), probe.getSchema(), level,
+          String.format("p%d-%d", level, partitionSequence++));
+      }
+    }
+
+    long getBuildRecords() {
+      return buildRecords;
+    }
+
+    boolean isProbeFinished() {
+      return probeFinished;
+    }
+
+    boolean hasOutput() {
+      return !pending.isEmpty();
+    }
+
+    private boolean canSpill() {
+      return level < maxRecursion;
+    }
+
+    void consumeBuild(int records) throws Exception {
+      buildRecords += records;
+      buildHasher.partition(records);
+      for (int i = 0; i < numPartitions; i++) {
+        final int count = buildHasher.getCount(i);
+        if (count == 0) {
+          continue;
+        }
+
+        while (canSpill() && allocator.getHeadroom() < memoryReserve && spillLargest()) {
+          // spill until there is enough memory left to copy the records
+        }
+        try {
+          partitions[i].addBuild(build, buildHasher.getSelectionAddress(i), count);
+        } catch (OutOfMemoryException e) {
+          if (!canSpill() || !spillLargest()) {
+            throw UserException.memoryError(e)
+              .message("Not enough memory to buffer the build side of hash join, even after spilling")
+              .addContext("level", level)
+              .build(logger);
+          }
+          partitions[i].addBuild(build, buildHasher.getSelectionAddress(i), count);
+        }
+      }
+    }
+
+    void finishBuild() throws Exception {
+      if (debugSpillAll && level == 0) {
+        for (JoinPartition partition : partitions) {
+          if (!partition.isSpilled() && partition.getBuildRecords() > 0) {
+            spill(partition);
+          }
+        }
+      }
+
+      while (canSpill() && getRequiredMemory() > allocator.getHeadroom() && spillLargest()) {
+        // spill until the hash tables of the remaining partitions fit
+      }
+
+      final boolean probeOuter = joinType == JoinRelType.LEFT || joinType == JoinRelType.FULL;
+      for (JoinPartition partition : partitions) {
+        if (partition.isSpilled()) {
+          partition.finishBuildSpill();
+        } else if (partition.getBuildRecords() > 0 || probeOuter) {
+          partition.buildTable(config, outgoing);
+        }
+      }
+    }
+
+    void consumeProbe(int records) throws Exception {
+      probeHasher.partition(records);
+      for (int i = 0; i < numPartitions; i++) {
+        final int count = probeHasher.getCount(i);
+        if (count > 0 && partitions[i].addProbe(probe, probeHasher.getSelectionAddress(i), count)) {
+          pending.add(partitions[i]);
+        }
+      }
+    }
+
+    /**
+     * Moves the next output batch of the pending partitions to the outgoing container.
+     *
+     * @return number of records moved, or -1 if no partition has anything left to output
+     */
+    int output() throws Exception {
+      while (!pending.isEmpty()) {
+        final JoinPartition partition = pending.peekFirst();
+        final int records = partition.output();
+        if (!partition.hasOutput()) {
+          pending.removeFirst();
+        }
+        if (records >= 0) {
+          return records;
+        }
+      }
+      return -1;
+    }
+
+    void finishProbe() throws Exception {
+      probeFinished = true;
+      for (JoinPartition partition : partitions) {
+        if (partition.finishProbe()) {
+          pending.add(partition);
+        }
+      }
+    }
+
+    /**
+     * Hands over the partitions spilled during this pass. They are no longer closed with the pass.
+     */
+    List<JoinPartition> takeSpilled() {
+      final List<JoinPartition> result = new ArrayList<>();
+      for (int i = 0; i < numPartitions; i++) {
+        if (partitions[i] != null && partitions[i].isSpilled()) {
+          result.add(partitions[i]);
+          partitions[i] = null;
+        }
+      }
+      return result;
+    }
+
+    private long getRequiredMemory() {
+      long required = memoryReserve;
+      for (JoinPartition partition : partitions) {
+        if (!partition.isSpilled()) {
+          required += partition.getBuildRecords() * 2 * (buildHasher.getBlockWidth() + TABLE_BYTES_PER_RECORD_OVERHEAD);
+        }
+      }
+      return required;
+    }
+
+    private boolean spillLargest() throws Exception {
+      JoinPartition largest = null;
+      for (JoinPartition partition : partitions) {
+        if (!partition.isSpilled() && partition.getBuildBytes() > 0
+          && (largest == null || partition.getBuildBytes() > largest.getBuildBytes())) {
+          largest = partition;
+        }
+      }
+      if (largest == null) {
+        return false;
+      }
+      spill(largest);
+      return true;
+    }
+
+    private void spill(JoinPartition partition) throws Exception {
+      final long released = partition.spill(getSpillManager());
+      spillCount++;
+      logger.debug("Spilled partition {}, released {} bytes", partition, released);
+    }
+
+    @Override
+    public void close() throws Exception {
+      final List<AutoCloseable> closeables = new ArrayList<>(Arrays.asList(partitions));
+      closeables.add(buildHasher);
+      closeables.add(probeHasher);
+      AutoCloseables.close(closeables);
+    }
+  }
+}
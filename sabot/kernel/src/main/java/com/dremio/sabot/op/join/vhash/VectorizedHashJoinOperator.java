@@ -36,6 +36,7 @@ import com.dremio.common.exceptions.UserException;
 import com.dremio.common.expression.CompleteType;
 import com.dremio.common.expression.LogicalExpression;
 import com.dremio.common.logical.data.JoinCondition;
+import com.dremio.common.types.TypeProtos.MinorType;
 import com.dremio.exec.ExecConstants;
 import com.dremio.exec.expr.ValueVectorReadExpression;
 import com.dremio.exec.physical.config.HashJoinPOP;
@@ -45,6 +46,7 @@ import com.dremio.exec.proto.CoordExecRPC.MajorFragmentAssignment;
 import com.dremio.exec.proto.CoordinationProtos.NodeEndpoint;
 import com.dremio.exec.proto.ExecProtos.CompositeColumnFilter;
 import com.dremio.exec.proto.ExecProtos.RuntimeFilter;
+import com.dremio.exec.proto.ExecProtos.RuntimeFilterType;
 import com.dremio.exec.record.BatchSchema.SelectionVectorMode;
 import com.dremio.exec.record.ExpandableHyperContainer;
 import com.dremio.exec.record.VectorAccessible;
@@ -53,6 +55,7 @@ import com.dremio.exec.record.VectorWrapper;
 import com.dremio.exec.util.BloomFilter;
 import com.dremio.exec.util.RuntimeFilterManager;
 import com.dremio.exec.util.RuntimeFilterProbeTarget;
+import com.dremio.exec.util.ValueListFilter;
 import com.dremio.sabot.exec.context.OperatorContext;
 import com.dremio.sabot.exec.context.OperatorStats;
 import com.dremio.sabot.exec.fragment.OutOfBandMessage;
@@ -151,15 +154,23 @@ public class VectorizedHashJoinOperator implements DualInputOperator {
   private boolean finishedProbe = false;
   private boolean debugInsertion = false;
   private long outputRecords = 0;
+  // false when this operator only joins one partition of the data, as its keys can't be used to filter the probe side
+  private final boolean runtimeFilterEnabled;
 
   public VectorizedHashJoinOperator(OperatorContext context, HashJoinPOP popConfig) throws OutOfMemoryException {
+    this(context, popConfig, true);
+  }
+
+  VectorizedHashJoinOperator(OperatorContext context, HashJoinPOP popConfig, boolean runtimeFilterEnabled) throws OutOfMemoryException {
     this.context = context;
     this.config = popConfig;
+    this.runtimeFilterEnabled = runtimeFilterEnabled;
     this.joinType = popConfig.getJoinType();
     this.outgoing = new VectorContainer(context.getAllocator());
     final Set<Integer> allMinorFragments = context.getAssignments().stream().flatMap(a -> a.getMinorFragmentIdList().stream())
               .collect(Collectors.toSet()); // all minor fragments across all assignments
-    this.filterManager = new RuntimeFilterManager(allMinorFragments);
+    this.filterManager = new RuntimeFilterManager(allMinorFragments,
+      (int) context.getOptions().getOption(ExecConstants.RUNTIME_FILTER_VALUE_FILTER_MAX_SIZE));
   }
 
   @Override
@@ -528,7 +539,9 @@ public class VectorizedHashJoinOperator implements DualInputOperator {
       return;
     }
 
-    tryPushRuntimeFilter();
+    if (runtimeFilterEnabled) {
+      tryPushRuntimeFilter();
+    }
     this.probe = new VectorizedProbe();
     this.probe.setup(
         context.getAllocator(),
@@ -660,22 +673,30 @@ public class VectorizedHashJoinOperator implements DualInputOperator {
         final RuntimeFilter.Builder runtimeFilterBuilder = RuntimeFilter.newBuilder()
                 .setProbeScanOperatorId(probeTarget.getProbeScanOperatorId())
                 .setProbeScanMajorFragmentId(probeTarget.getProbeScanMajorFragmentId());
-        final Optional<BloomFilter> partitionColFilter = table.prepareBloomFilter(probeTarget.getPartitionBuildTableKeys(), runtimeFilterInfo.isBroadcastJoin());
-        closeOnErr.add(partitionColFilter.orElse(null));
-        if (!partitionColFilter.isPresent() || partitionColFilter.get().isCrossingMaxFPP()) {
+        Optional<BloomFilter> partitionColFilter = table.prepareBloomFilter(probeTarget.getPartitionBuildTableKeys(), runtimeFilterInfo.isBroadcastJoin());
+        if (partitionColFilter.isPresent() && partitionColFilter.get().isCrossingMaxFPP()) {
           // No valid bloom filter for partition pruning
+          AutoCloseables.close(partitionColFilter.get());
+          partitionColFilter = Optional.empty();
+        }
+        closeOnErr.add(partitionColFilter.orElse(null));
+        final List<CompositeColumnFilter> nonPartitionColFilters = prepareNonPartitionColumnFilters(probeTarget);
+        if (!partitionColFilter.isPresent() && nonPartitionColFilters.isEmpty()) {
           logger.debug("Dropping filter for {}", probeTarget.toTargetIdString());
           continue;
         }
-        final CompositeColumnFilter partitionFilter = CompositeColumnFilter.newBuilder()
-                .addAllColumns(probeTarget.getPartitionProbeTableKeys())
-                .setSizeBytes(partitionColFilter.get().getSizeInBytes()).build();
-        runtimeFilterBuilder.setPartitionColumnFilter(partitionFilter);
+        if (partitionColFilter.isPresent()) {
+          final CompositeColumnFilter partitionFilter = CompositeColumnFilter.newBuilder()
+                  .addAllColumns(probeTarget.getPartitionProbeTableKeys())
+                  .setSizeBytes(partitionColFilter.get().getSizeInBytes()).build();
+          runtimeFilterBuilder.setPartitionColumnFilter(partitionFilter);
+        }
+        runtimeFilterBuilder.addAllNonPartitionColumnFilter(nonPartitionColFilters);
         final RuntimeFilter runtimeFilter = runtimeFilterBuilder.build();
         RuntimeFilterManager.RuntimeFilterManagerEntry fmEntry = null;
         if (!runtimeFilterInfo.isBroadcastJoin() && isSendingFragment) {
           // This fragment is one of the merge points. Set up FilterManager for interim use.
-          partitionColFilter.get().getDataBuffer().retain();
+          partitionColFilter.ifPresent(bf -> bf.getDataBuffer().retain());
           fmEntry = filterManager.coalesce(runtimeFilter, partitionColFilter.orElse(null), thisMinorFragment);
         }
 
@@ -685,8 +706,8 @@ public class VectorizedHashJoinOperator implements DualInputOperator {
           // All other filter pieces have already arrived. This one was last one to join.
           // Send merged filter to probe scan and close this individual piece explicitly.
           filterManager.remove(fmEntry);
-          sendRuntimeFilterToProbeScan(runtimeFilter, Optional.of(fmEntry.getPartitionColFilter()));
-          AutoCloseables.close(partitionColFilter.get());
+          sendRuntimeFilterToProbeScan(fmEntry.getCompositeFilter(), Optional.ofNullable(fmEntry.getPartitionColFilter()));
+          AutoCloseables.close(partitionColFilter.orElse(null));
         } else {
           // Send filter to merge points (minor fragments <=2) if not complete.
           sendRuntimeFilterAtMergePoints(runtimeFilter, partitionColFilter);
@@ -709,6 +730,40 @@ public class VectorizedHashJoinOperator implements DualInputOperator {
     }
   }
 
+  /**
+   * Prepares exact value lists for the non-partition probe columns with an integer key. Columns whose build side
+   * holds too many distinct values, or null values, are left out.
+   */
+  private List<CompositeColumnFilter> prepareNonPartitionColumnFilters(RuntimeFilterProbeTarget probeTarget) {
+    final List<CompositeColumnFilter> filters = new ArrayList<>();
+    if (!context.getOptions().getOption(ExecConstants.ENABLE_RUNTIME_FILTER_ON_NON_PARTITIONED_PARQUET)) {
+      return filters;
+    }
+
+    final int maxValues = (int) context.getOptions().getOption(ExecConstants.RUNTIME_FILTER_VALUE_FILTER_MAX_SIZE);
+    final List<String> buildKeys = probeTarget.getNonPartitionBuildTableKeys();
+    final List<String> probeKeys = probeTarget.getNonPartitionProbeTableKeys();
+    for (int i = 0; i < buildKeys.size(); i++) {
+      final Optional<MinorType> type = right.getSchema().findFieldIgnoreCase(buildKeys.get(i))
+        .map(f -> CompleteType.fromField(f).toMinorType());
+      if (!type.isPresent() || (type.get() != MinorType.INT && type.get() != MinorType.BIGINT)) {
+        continue;
+      }
+      final Optional<ValueListFilter> valueList = table.prepareValueListFilter(buildKeys.get(i), maxValues);
+      if (!valueList.isPresent()) {
+        logger.debug("No value list filter for {}, build key {}", probeTarget.toTargetIdString(), buildKeys.get(i));
+        continue;
+      }
+      filters.add(CompositeColumnFilter.newBuilder()
+        .setFilterType(RuntimeFilterType.VALUE_LIST)
+        .addColumns(probeKeys.get(i))
+        .addAllValues(valueList.get().getValues())
+        .setSizeBytes(valueList.get().size() * 8L)
+        .build());
+    }
+    return filters;
+  }
+
   @VisibleForTesting
   void sendRuntimeFilterAtMergePoints(RuntimeFilter filter, Optional<BloomFilter> bloomFilter) throws Exception {
     try(ArrowBuf bloomFilterBuf = bloomFilter.map(bf -> bf.getDataBuffer()).orElse(null)) {
@@ -749,17 +804,27 @@ public class VectorizedHashJoinOperator implements DualInputOperator {
   @Override
   public void workOnOOB(OutOfBandMessage message) {
     final ArrowBuf msgBuf = message.getBuffer();
-    if (msgBuf==null || msgBuf.capacity()==0) {
+    final RuntimeFilter runtimeFilter;
+    try {
+      runtimeFilter = message.getPayload(RuntimeFilter.parser());
+    } catch (Exception e) {
+      logger.warn("Invalid runtime filter received from minor fragment: " + message.getSendingMinorFragmentId(), e);
+      return;
+    }
+    // pieces with only non-partition column filters carry their values in the payload, and have no buffer
+    final boolean hasPartitionColFilter = runtimeFilter.hasPartitionColumnFilter();
+    if (hasPartitionColFilter && (msgBuf==null || msgBuf.capacity()==0)) {
       logger.warn("Empty runtime filter received from minor fragment: " + message.getSendingMinorFragmentId());
       return;
     }
-    msgBuf.retain();
+    if (hasPartitionColFilter) {
+      msgBuf.retain();
+    }
 
     try(RollbackCloseable closeOnErr = new RollbackCloseable()) {
-      closeOnErr.add(msgBuf);
-      final RuntimeFilter runtimeFilter = message.getPayload(RuntimeFilter.parser());
-      final BloomFilter bloomFilterPiece = BloomFilter.prepareFrom(msgBuf);
-      logger.debug("Received runtime filter piece {}, attempting merge.", bloomFilterPiece.getName());
+      closeOnErr.add(hasPartitionColFilter ? msgBuf : null);
+      final BloomFilter bloomFilterPiece = hasPartitionColFilter ? BloomFilter.prepareFrom(msgBuf) : null;
+      logger.debug("Received runtime filter piece from minor fragment {}, attempting merge.", message.getSendingMinorFragmentId());
       final RuntimeFilterManager.RuntimeFilterManagerEntry filterManagerEntry;
       filterManagerEntry = filterManager.coalesce(runtimeFilter, bloomFilterPiece, message.getSendingMinorFragmentId());
 
@@ -149,7 +149,10 @@ public class ScanOperator implements ProducerOperator {
     MAX_BOOSTED_FILE_READ_TIME_NS, // Max Boosted IO read Time.
     AVG_BOOSTED_FILE_READ_TIME_NS, // Average Boosted IO time.
     TOTAL_BOOSTED_BYTES_READ, // Total Boosted Bytes Read.
-    NUM_COLUMNS_BOOSTED
+    NUM_COLUMNS_BOOSTED,
+    NUM_ROW_GROUPS_PRUNED_BY_RUNTIME_FILTER, // Number of row groups pruned from runtime filter on non-partition columns
+    NUM_FOOTER_CACHE_HITS, // Number of Parquet footers found in the executor's footer cache
+    NUM_FOOTER_CACHE_MISSES // Number of Parquet footers read from the file
     ;
 
     @Override
@@ -344,22 +347,32 @@ public class ScanOperator implements ProducerOperator {
     final ArrowBuf msgBuf = message.getBuffer();
     final String senderInfo = String.format("Frag %d:%d, OpId %d", message.getSendingMajorFragmentId(),
             message.getSendingMinorFragmentId(), message.getSendingOperatorId());
-    if (msgBuf==null || msgBuf.capacity()==0) {
+    final ExecProtos.RuntimeFilter protoFilter;
+    try {
+      protoFilter = message.getPayload(ExecProtos.RuntimeFilter.parser());
+    } catch (Exception e) {
+      logger.warn("Invalid runtime filter received from {}", senderInfo, e);
+      return;
+    }
+    // filters on non-partition columns only carry their values in the payload, and have no buffer
+    final boolean hasPartitionColFilter = protoFilter.hasPartitionColumnFilter();
+    if (hasPartitionColFilter && (msgBuf==null || msgBuf.capacity()==0)) {
       logger.warn("Empty runtime filter received from {}", senderInfo);
       return;
     }
-    msgBuf.retain();
+    if (hasPartitionColFilter) {
+      msgBuf.retain();
+    }
 
     logger.info("Filter received from {}", senderInfo);
     try(RollbackCloseable closeOnErr = new RollbackCloseable()) {
-      closeOnErr.add(msgBuf);
+      closeOnErr.add(hasPartitionColFilter ? msgBuf : null);
       // scan operator handles the OOB message that it gets from the join operator
-      final BloomFilter bloomFilter = BloomFilter.prepareFrom(msgBuf);
-      final ExecProtos.RuntimeFilter protoFilter = message.getPayload(ExecProtos.RuntimeFilter.parser());
+      final BloomFilter bloomFilter = hasPartitionColFilter ? BloomFilter.prepareFrom(msgBuf) : null;
       final RuntimeFilter filter = RuntimeFilter.getInstance(protoFilter, bloomFilter, senderInfo);
 
       boolean isAlreadyPresent = this.runtimeFilters.stream().anyMatch(r -> r.isOnSameColumns(filter));
-      if (protoFilter.getPartitionColumnFilter().getSizeBytes() != bloomFilter.getSizeInBytes()) {
+      if (bloomFilter != null && protoFilter.getPartitionColumnFilter().getSizeBytes() != bloomFilter.getSizeInBytes()) {
         logger.error("Invalid incoming runtime filter size. Expected size {}, actual size {}, filter {}",
                 protoFilter.getPartitionColumnFilter().getSizeBytes(), bloomFilter.getSizeInBytes(), bloomFilter.toString());
         AutoCloseables.close(filter);
@@ -367,7 +380,8 @@ public class ScanOperator implements ProducerOperator {
         logger.debug("Skipping enforcement because filter is already present {}", filter);
         AutoCloseables.close(filter);
       } else {
-        logger.debug("Adding filter to the record readers {}, current reader {}, FPP {}.", filter, this.currentReader.getClass().getName(), bloomFilter.getExpectedFPP());
+        logger.debug("Adding filter to the record readers {}, current reader {}, FPP {}.", filter, this.currentReader.getClass().getName(),
+          bloomFilter == null ? -1D : bloomFilter.getExpectedFPP());
         this.runtimeFilters.add(filter);
         this.currentReader.addRuntimeFilter(filter);
       }
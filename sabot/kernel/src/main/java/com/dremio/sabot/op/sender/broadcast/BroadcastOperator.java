@@ -36,6 +36,7 @@ import com.dremio.sabot.exec.context.MetricDef;
 import com.dremio.sabot.exec.context.OperatorContext;
 import com.dremio.sabot.exec.context.OperatorStats;
 import com.dremio.sabot.exec.rpc.AccountingExecTunnel;
+import com.dremio.sabot.exec.rpc.BatchCompressor;
 import com.dremio.sabot.exec.rpc.TunnelProvider;
 import com.dremio.sabot.op.sender.BaseSender;
 import com.dremio.sabot.op.spi.TerminalOperator;
@@ -60,12 +61,14 @@ public class BroadcastOperator extends BaseSender {
   private final ExecProtos.FragmentHandle handle;
   private final OperatorStats stats;
   private final OperatorContext context;
+  private final BatchCompressor compressor;
 
   private VectorAccessible incoming;
 
   public enum Metric implements MetricDef {
     N_RECEIVERS,
-    BYTES_SENT;
+    BYTES_SENT,
+    BYTES_SAVED;
     @Override
     public int metricId() {
       return ordinal();
@@ -78,6 +81,7 @@ public class BroadcastOperator extends BaseSender {
     this.context = context;
     this.handle = context.getFragmentHandle();
     this.stats = context.getStats();
+    this.compressor = new BatchCompressor(context.getOptions(), context.getAllocator());
 
     final List<MinorFragmentEndpoint> destinations = config.getDestinations(context.getEndpointsIndex());
     final ArrayListMultimap<NodeEndpoint, Integer> dests = ArrayListMultimap.create();
@@ -115,6 +119,7 @@ public class BroadcastOperator extends BaseSender {
   private void updateStats(FragmentWritableBatch writableBatch) {
     stats.setLongStat(Metric.N_RECEIVERS, tunnels.length);
     stats.addLongStat(Metric.BYTES_SENT, writableBatch.getByteCount());
+    stats.addLongStat(Metric.BYTES_SAVED, writableBatch.getUncompressedByteCount() - writableBatch.getByteCount());
   }
 
   @Override
@@ -178,20 +183,38 @@ public class BroadcastOperator extends BaseSender {
       }
     }
 
+    // batch sent to the other nodes, compressed once and shared by their tunnels
+    FragmentWritableBatch remoteBatch = null;
     for (int i = 0; i < tunnels.length; ++i) {
-      FragmentWritableBatch batch = new FragmentWritableBatch(
-          handle.getQueryId(),
-          handle.getMajorFragmentId(),
-          handle.getMinorFragmentId(),
-          config.getReceiverMajorFragmentId(),
-          new ArrowRecordBatch(arrowRecordBatch.getLength(), arrowRecordBatch.getNodes(), buffers, false),
-          receivingMinorFragments[i]);
+      final FragmentWritableBatch batch;
+      if (tunnels[i].isLocal()) {
+        batch = newBatch(arrowRecordBatch, buffers, receivingMinorFragments[i]);
+      } else {
+        if (remoteBatch == null) {
+          remoteBatch = compressor.compress(newBatch(arrowRecordBatch, buffers, receivingMinorFragments[i]));
+        }
+        batch = remoteBatch.withReceivers(receivingMinorFragments[i]);
+      }
       updateStats(batch);
       tunnels[i].sendRecordBatch(batch);
       for (ArrowBuf buf : buffers) {
         buf.release();
       }
     }
+    if (remoteBatch != null) {
+      remoteBatch.release();
+    }
+  }
+
+  private FragmentWritableBatch newBatch(ArrowRecordBatch arrowRecordBatch, List<ArrowBuf> buffers,
+                                         int[] receivingMinorFragments) {
+    return new FragmentWritableBatch(
+        handle.getQueryId(),
+        handle.getMajorFragmentId(),
+        handle.getMinorFragmentId(),
+        config.getReceiverMajorFragmentId(),
+        new ArrowRecordBatch(arrowRecordBatch.getLength(), arrowRecordBatch.getNodes(), buffers, false),
+        receivingMinorFragments);
   }
 
   public static class Creator implements TerminalOperator.Creator<BroadcastSender> {
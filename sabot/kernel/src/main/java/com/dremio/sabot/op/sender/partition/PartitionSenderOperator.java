@@ -92,7 +92,8 @@ public class PartitionSenderOperator extends BaseSender {
     PRECOPY_NS,
     FLUSH_NS,
     NUM_FLUSHES,
-    BUCKET_SIZE;
+    BUCKET_SIZE,
+    BYTES_SAVED;
 
     @Override
     public int metricId() {
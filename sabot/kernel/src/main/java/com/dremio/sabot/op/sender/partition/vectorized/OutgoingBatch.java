@@ -33,6 +33,7 @@ import com.dremio.exec.record.VectorWrapper;
 import com.dremio.sabot.exec.context.OperatorContext;
 import com.dremio.sabot.exec.context.OperatorStats;
 import com.dremio.sabot.exec.rpc.AccountingExecTunnel;
+import com.dremio.sabot.exec.rpc.BatchCompressor;
 import com.dremio.sabot.op.sender.partition.PartitionSenderOperator.Metric;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.Lists;
@@ -45,6 +46,7 @@ import com.google.common.collect.Lists;
  */
 public class OutgoingBatch extends VectorContainer {
   private final AccountingExecTunnel tunnel;
+  private final BatchCompressor compressor;
   private final HashPartitionSender config;
   private final OperatorContext context;
   private final int oppositeMinorFragmentId;
@@ -65,7 +67,7 @@ public class OutgoingBatch extends VectorContainer {
   private volatile boolean dropAll;
 
   OutgoingBatch(int batchIdx, int nextBatchIdx, int maxRecords, final VectorAccessible incoming,
-                BufferAllocator allocator, AccountingExecTunnel tunnel, HashPartitionSender config,
+                BufferAllocator allocator, AccountingExecTunnel tunnel, BatchCompressor compressor, HashPartitionSender config,
                 OperatorContext context, int oppositeMinorFragmentId, OperatorStats stats) {
     Preconditions.checkArgument(maxRecords <= Character.MAX_VALUE, "maxRecords cannot exceed " + Character.MAX_VALUE);
     this.batchIdx = batchIdx;
@@ -73,6 +75,7 @@ public class OutgoingBatch extends VectorContainer {
     this.maxRecords = maxRecords;
 
     this.tunnel = tunnel;
+    this.compressor = compressor;
     this.config = config;
     this.context = context;
     this.oppositeMinorFragmentId = oppositeMinorFragmentId;
@@ -167,6 +170,9 @@ public class OutgoingBatch extends VectorContainer {
       config.getReceiverMajorFragmentId(),
       this,
       oppositeMinorFragmentId);
+    if (!tunnel.isLocal()) {
+      writableBatch = compressor.compress(writableBatch);
+    }
 
     updateStats(writableBatch);
 
@@ -179,6 +185,7 @@ public class OutgoingBatch extends VectorContainer {
 
   private void updateStats(FragmentWritableBatch writableBatch) {
     stats.addLongStat(Metric.BYTES_SENT, writableBatch.getByteCount());
+    stats.addLongStat(Metric.BYTES_SAVED, writableBatch.getUncompressedByteCount() - writableBatch.getByteCount());
     stats.addLongStat(Metric.BATCHES_SENT, 1);
     stats.addLongStat(Metric.RECORDS_SENT, writableBatch.getRecordCount());
   }
@@ -43,6 +43,7 @@ import com.dremio.exec.record.VectorContainer;
 import com.dremio.sabot.exec.context.OperatorContext;
 import com.dremio.sabot.exec.context.OperatorStats;
 import com.dremio.sabot.exec.rpc.AccountingExecTunnel;
+import com.dremio.sabot.exec.rpc.BatchCompressor;
 import com.dremio.sabot.exec.rpc.TunnelProvider;
 import com.dremio.sabot.op.sender.BaseSender;
 import com.dremio.sabot.op.sender.partition.PartitionSenderOperator.Metric;
@@ -208,6 +209,8 @@ public class VectorizedPartitionSenderOperator extends BaseSender {
    */
   private void initBatchesAndLookup(VectorAccessible incoming) {
     final BufferAllocator allocator = context.getAllocator();
+    // shared by all outgoing batches, compression is chosen for the whole exchange
+    final BatchCompressor compressor = new BatchCompressor(context.getOptions(), allocator);
     final List<MinorFragmentEndpoint> destinations = config.getDestinations(context.getEndpointsIndex());
     for (int p = 0; p < numReceivers; p++) {
       final int batchB = numReceivers + p;
@@ -215,8 +218,8 @@ public class VectorizedPartitionSenderOperator extends BaseSender {
       final MinorFragmentEndpoint destination = destinations.get(p);
       final AccountingExecTunnel tunnel = tunnelProvider.getExecTunnel(destination.getEndpoint());
 
-      batches[p] = new OutgoingBatch(p, batchB, numRecordsBeforeFlush, incoming, allocator, tunnel, config, context, destination.getMinorFragmentId(), stats);
-      batches[batchB] = new OutgoingBatch(batchB, p, numRecordsBeforeFlush, incoming, allocator, tunnel, config, context, destination.getMinorFragmentId(), stats);
+      batches[p] = new OutgoingBatch(p, batchB, numRecordsBeforeFlush, incoming, allocator, tunnel, compressor, config, context, destination.getMinorFragmentId(), stats);
+      batches[batchB] = new OutgoingBatch(batchB, p, numRecordsBeforeFlush, incoming, allocator, tunnel, compressor, config, context, destination.getMinorFragmentId(), stats);
 
       // Only allocate the primary batch. Backup batch is allocated when it is needed.
       batches[p].allocateNew();
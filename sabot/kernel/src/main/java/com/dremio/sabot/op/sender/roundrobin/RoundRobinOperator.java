@@ -39,6 +39,7 @@ import com.dremio.sabot.exec.context.MetricDef;
 import com.dremio.sabot.exec.context.OperatorContext;
 import com.dremio.sabot.exec.context.OperatorStats;
 import com.dremio.sabot.exec.rpc.AccountingExecTunnel;
+import com.dremio.sabot.exec.rpc.BatchCompressor;
 import com.dremio.sabot.exec.rpc.TunnelProvider;
 import com.dremio.sabot.op.sender.BaseSender;
 import com.dremio.sabot.op.spi.TerminalOperator;
@@ -61,6 +62,7 @@ public class RoundRobinOperator extends BaseSender {
 
   private final List<AccountingExecTunnel> tunnels;
   private final List<List<Integer>> minorFragments;
+  private final BatchCompressor compressor;
   private int currentTunnelsIndex;
   private int currentMinorFragmentsIndex;
 
@@ -68,7 +70,8 @@ public class RoundRobinOperator extends BaseSender {
 
   public enum Metric implements MetricDef {
     N_RECEIVERS,
-    BYTES_SENT;
+    BYTES_SENT,
+    BYTES_SAVED;
     @Override
     public int metricId() {
       return ordinal();
@@ -81,6 +84,7 @@ public class RoundRobinOperator extends BaseSender {
     this.allocator = context.getAllocator();
     this.handle = context.getFragmentHandle();
     this.stats = context.getStats();
+    this.compressor = new BatchCompressor(context.getOptions(), allocator);
 
     List<MinorFragmentEndpoint> destinations = config.getDestinations(context.getEndpointsIndex());
     final ArrayListMultimap<NodeEndpoint, Integer> dests = ArrayListMultimap.create();
@@ -112,6 +116,7 @@ public class RoundRobinOperator extends BaseSender {
   private void updateStats(FragmentWritableBatch writableBatch) {
     stats.setLongStat(Metric.N_RECEIVERS, tunnels.size());
     stats.addLongStat(Metric.BYTES_SENT, writableBatch.getByteCount());
+    stats.addLongStat(Metric.BYTES_SAVED, writableBatch.getUncompressedByteCount() - writableBatch.getByteCount());
   }
 
   @Override
@@ -167,6 +172,7 @@ public class RoundRobinOperator extends BaseSender {
         }
       }).toList();
 
+    final AccountingExecTunnel tunnel = tunnels.get(currentTunnelsIndex);
     FragmentWritableBatch batch = new FragmentWritableBatch(
       handle.getQueryId(),
       handle.getMajorFragmentId(),
@@ -175,8 +181,11 @@ public class RoundRobinOperator extends BaseSender {
       new ArrowRecordBatch(arrowRecordBatch.getLength(), arrowRecordBatch.getNodes(), buffers, false),
       minorFragments.get(currentTunnelsIndex).get(currentMinorFragmentsIndex)
     );
+    if (!tunnel.isLocal()) {
+      batch = compressor.compress(batch);
+    }
     updateStats(batch);
-    tunnels.get(currentTunnelsIndex).sendRecordBatch(batch);
+    tunnel.sendRecordBatch(batch);
 
     currentMinorFragmentsIndex++;
     if (currentMinorFragmentsIndex >= minorFragments.get(currentTunnelsIndex).size()) {
@@ -38,12 +38,16 @@ import com.dremio.exec.ExecConstants;
 import com.dremio.exec.cache.VectorAccessibleFlatBufSerializable;
 import com.dremio.exec.record.VectorContainer;
 import com.dremio.exec.store.InputStreamWithStats;
+import com.dremio.exec.store.IoBufferBudget;
 import com.dremio.exec.store.LocalSyncableFileSystem.LocalSyncableOutputStream;
 import com.dremio.exec.store.LocalSyncableFileSystem.WritesArrowBuf;
 import com.dremio.exec.store.OutputStreamWithStats;
+import com.dremio.exec.store.ReadAheadInputStream;
+import com.dremio.exec.store.WriteBehindOutputStream;
 import com.dremio.options.OptionManager;
 import com.dremio.sabot.exec.context.OperatorStats;
 import com.dremio.service.spill.SpillDirectory;
+import com.dremio.service.spill.SpillDirectoryUsage;
 import com.dremio.service.spill.SpillService;
 
 import net.jpountz.lz4.LZ4BlockInputStream;
@@ -64,6 +68,9 @@ public class SpillManager implements AutoCloseable {
   private final String caller;
   private final OperatorStats stats;
   private final boolean useDirectWritePathIfPossible;
+  // sizes of each of the two heap buffers used when spill files are written and read in the background
+  private final int writeBehindBufferSize;
+  private final int readAheadBufferSize;
   private long appWriteBytes;
   private long appReadBytes;
   private long ioReadBytes;
@@ -87,8 +94,12 @@ public class SpillManager implements AutoCloseable {
     // load options
     if (optionManager != null) {
       this.useDirectWritePathIfPossible = optionManager.getOption(ExecConstants.EXTERNAL_SORT_DIRECT_WRITE);
+      this.writeBehindBufferSize = (int) optionManager.getOption(ExecConstants.SPILL_WRITE_BEHIND_BUFFER_SIZE);
+      this.readAheadBufferSize = (int) optionManager.getOption(ExecConstants.SPILL_READ_AHEAD_BUFFER_SIZE);
     } else {
       this.useDirectWritePathIfPossible = ExecConstants.EXTERNAL_SORT_DIRECT_WRITE.getDefault().getBoolVal();
+      this.writeBehindBufferSize = (int) ExecConstants.SPILL_WRITE_BEHIND_BUFFER_SIZE.getDefault().getNumVal();
+      this.readAheadBufferSize = (int) ExecConstants.SPILL_READ_AHEAD_BUFFER_SIZE.getDefault().getNumVal();
     }
 
     try {
@@ -103,7 +114,8 @@ public class SpillManager implements AutoCloseable {
   public SpillFile getSpillFile(String fileName) throws RuntimeException {
     try {
       final SpillDirectory spillDirectory = spillService.getSpillSubdir(id);
-      return new SpillFile(spillDirectory.getFileSystem(), new Path(spillDirectory.getSpillDirPath(), fileName));
+      return new SpillFile(spillDirectory.getFileSystem(), new Path(spillDirectory.getSpillDirPath(), fileName),
+        spillDirectory.getUsage());
     } catch (UserException e) {
       throw UserException.dataWriteError(e)
         .addContext("for %s spill id %s", caller, id)
@@ -120,10 +132,12 @@ public class SpillManager implements AutoCloseable {
   final public class SpillFile implements AutoCloseable {
     private final FileSystem fs;
     private final Path path;
+    private final SpillDirectoryUsage usage;
 
-    SpillFile(FileSystem fs, Path path) {
+    SpillFile(FileSystem fs, Path path, SpillDirectoryUsage usage) {
       this.fs = fs;
       this.path = path;
+      this.usage = usage;
     }
 
     public SpillOutputStream create(boolean compressed) throws IOException {
@@ -182,6 +196,18 @@ public class SpillManager implements AutoCloseable {
 
   }
 
+  /**
+   * Reserves the memory of the buffers of a spill file written or read in the background.
+   *
+   * @return the reservation, or null if the spill file is written or read by the calling thread
+   */
+  private IoBufferBudget.Reservation reserveIoBuffers(long bytes) {
+    if (spillService.getIoExecutor() == null) {
+      return null;
+    }
+    return spillService.getIoBufferBudget().tryReserve(bytes);
+  }
+
   private SpillOutputStream createSpillOutputStream(SpillFile file, boolean compressed) throws IOException {
     FSDataOutputStream output = file.fs.create(file.path);
     OutputStream actualOutput = output;
@@ -193,9 +219,17 @@ public class SpillManager implements AutoCloseable {
     } catch (Exception ex) {
       logger.debug("Failed to get inner wrapped stream, using fallback.", ex);
     }
+    final IoBufferBudget.Reservation reservation =
+      reserveIoBuffers(WriteBehindOutputStream.getReservation(writeBehindBufferSize));
+    if (reservation != null) {
+      // the I/O time tracked below is then the time spent waiting for the background writes
+      actualOutput = new WriteBehindOutputStream(actualOutput, spillService.getIoExecutor(), writeBehindBufferSize,
+        reservation);
+    }
     ABOutputStreamWithStats base = new ABOutputStreamWithStats(actualOutput);
     ABOutputStreamWithStats top = compressed ? new ABOutputStreamWithStats(new LZ4BlockOutputStream(base)) : base;
     boolean useDirectWrite = useDirectWritePathIfPossible && !compressed && actualOutput instanceof WritesArrowBuf;
+    file.usage.writeStarted();
     return new SpillOutputStream(top, base, file, compressed, useDirectWrite);
   }
 
@@ -207,6 +241,8 @@ public class SpillManager implements AutoCloseable {
     private final SpillFile file;
     private boolean compressed;
     private boolean writeDirect;
+    private boolean closed;
+    private long reportedIOBytes;
 
     private SpillOutputStream(
         ABOutputStreamWithStats top,
@@ -254,12 +290,31 @@ public class SpillManager implements AutoCloseable {
       VectorAccessibleFlatBufSerializable serializable = new VectorAccessibleFlatBufSerializable(outgoing, null);
       serializable.setWriteDirect(writeDirect);
       serializable.writeToStream(top);
+      reportProgress();
       return serializable.getBytesWritten();
     }
 
+    /**
+     * Reports the bytes written to the spill file since the last report to the usage of its spill directory
+     */
+    private void reportProgress() {
+      final long ioBytes = getIOBytes();
+      file.usage.writeProgressed(ioBytes - reportedIOBytes);
+      reportedIOBytes = ioBytes;
+    }
+
     @Override
     public void close() throws IOException {
-      super.close();
+      if (closed) {
+        return;
+      }
+      closed = true;
+      try {
+        super.close();
+      } finally {
+        reportProgress();
+        file.usage.writeCompleted(getIOBytes(), getIOTime());
+      }
       if(stats != null) {
         stats.moveProcessingToWait(getIOTime());
       }
@@ -273,8 +328,14 @@ public class SpillManager implements AutoCloseable {
 
   private SpillInputStream createSpillInputStream(SpillFile file, boolean compressed) throws IOException {
     InputStream output = file.fs.open(file.path);
+    final IoBufferBudget.Reservation reservation =
+      reserveIoBuffers(ReadAheadInputStream.getReservation(readAheadBufferSize));
+    if (reservation != null) {
+      output = new ReadAheadInputStream(output, spillService.getIoExecutor(), readAheadBufferSize, reservation);
+    }
     InputStreamWithStats base = new InputStreamWithStats(output);
     InputStreamWithStats top = compressed ? new InputStreamWithStats(new LZ4BlockInputStream(base)) : base;
+    file.usage.readStarted();
     return new SpillInputStream(top, base, file, compressed);
   }
 
@@ -284,6 +345,7 @@ public class SpillManager implements AutoCloseable {
     private final InputStreamWithStats base;
     private final SpillFile file;
     private boolean compressed;
+    private boolean closed;
 
     private SpillInputStream(
         InputStreamWithStats top,
@@ -332,7 +394,15 @@ public class SpillManager implements AutoCloseable {
 
     @Override
     public void close() throws IOException {
-      super.close();
+      if (closed) {
+        return;
+      }
+      closed = true;
+      try {
+        super.close();
+      } finally {
+        file.usage.readCompleted(getIOBytes(), getIOTime());
+      }
       if(stats != null) {
         stats.moveProcessingToWait(getIOTime());
       }
@@ -15,8 +15,6 @@
  */
 package com.dremio.sabot.op.windowframe;
 
-import java.util.List;
-
 import javax.inject.Named;
 
 import org.apache.arrow.memory.ArrowBuf;
@@ -43,12 +41,14 @@ public abstract class FrameSupportTemplate implements WindowFramer {
   protected FunctionContext context;
   private VectorAccessible container;
   private VectorContainer internal;
-  private List<VectorContainer> batches;
+  private SpillableBatchList batches;
   private int outputCount; // number of rows in currently/last processed batch
 
   private VectorContainer current;
 
   private int frameLastRow;
+  // batch holding the last row of the current frame, pinned while the frame is processed
+  private VectorContainer lastValueBatch;
 
   // true when at least one window function needs to process all batches of a partition before passing any batch downstream
   private boolean requireFullPartition;
@@ -59,10 +59,13 @@ public abstract class FrameSupportTemplate implements WindowFramer {
 
   private WindowPOP popConfig;
 
+  // evaluates the aggregates of ROWS frames with offsets, null for other frames
+  private SlidingFrame slidingFrame;
+
   @Override
-  public void setup(final List<VectorContainer> batches, final VectorAccessible container, final OperatorContext oContext,
+  public void setup(final SpillableBatchList batches, final VectorAccessible container, final OperatorContext oContext,
                     final boolean requireFullPartition, final WindowPOP popConfig,
-                    FunctionContext context) throws SchemaChangeException {
+                    FunctionContext context, SlidingFrame slidingFrame) throws SchemaChangeException {
     this.container = container;
     this.batches = batches;
     this.context = context;
@@ -73,6 +76,10 @@ public abstract class FrameSupportTemplate implements WindowFramer {
 
     this.requireFullPartition = requireFullPartition;
     this.popConfig = popConfig;
+    this.slidingFrame = slidingFrame;
+    if (slidingFrame != null) {
+      slidingFrame.setup(batches);
+    }
   }
 
   private void allocateInternal() {
@@ -99,6 +106,10 @@ public abstract class FrameSupportTemplate implements WindowFramer {
 
     outputCount = current.getRecordCount();
 
+    if (slidingFrame != null) {
+      slidingFrame.setupOutput(container);
+    }
+
     while (currentRow < outputCount) {
       if (!isPartitionDone()) {
         // we have a pending partition we need to handle from a previous call to doWork()
@@ -118,6 +129,10 @@ public abstract class FrameSupportTemplate implements WindowFramer {
         reset();
       }
     }
+
+    if (slidingFrame != null) {
+      slidingFrame.batchDone();
+    }
   }
 
   private void newPartition(final VectorAccessible current, final int currentRow) throws SchemaChangeException {
@@ -127,6 +142,9 @@ public abstract class FrameSupportTemplate implements WindowFramer {
 
     setupPartition(context, current, container);
     saveFirstValue(currentRow);
+    if (slidingFrame != null) {
+      slidingFrame.newPartition(currentRow);
+    }
   }
 
   private void reset() {
@@ -151,7 +169,9 @@ public abstract class FrameSupportTemplate implements WindowFramer {
 
     setupWriteFirstValue(internal, container);
 
-    if (popConfig.isFrameUnitsRows()) {
+    if (slidingFrame != null) {
+      return processSlidingROWS(currentRow);
+    } else if (popConfig.isFrameUnitsRows()) {
       return processROWS(currentRow);
     } else {
       return processRANGE(currentRow);
@@ -177,6 +197,18 @@ public abstract class FrameSupportTemplate implements WindowFramer {
     return row;
   }
 
+  private int processSlidingROWS(int row) {
+    while (row < outputCount && !isPartitionDone()) {
+      // only frames ending after the current row need the rows after it, and they always get the full partition
+      slidingFrame.evaluate(row, remainingRows - 1);
+
+      remainingRows--;
+      row++;
+    }
+
+    return row;
+  }
+
   private int processRANGE(int row) throws Exception {
     while (row < outputCount && !isPartitionDone()) {
       if (remainingPeers == 0) {
@@ -256,38 +288,50 @@ public abstract class FrameSupportTemplate implements WindowFramer {
     logger.trace("aggregating rows starting from {}", start);
 
     final boolean unboundedFollowing = popConfig.getEnd().isUnbounded();
-    VectorAccessible last = current;
+    int lastBatch = 0;
     long length = 0;
 
     // a single frame can include rows from multiple batches
     // start processing first batch and, if necessary, move to next batches
-    for (VectorAccessible batch : batches) {
+    outer:
+    for (int index = 0; index < batches.size(); index++) {
+      final VectorAccessible batch = batches.get(index);
       setupEvaluatePeer(batch, container);
       final int recordCount = batch.getRecordCount();
 
       // for every remaining row in the partition, count it if it's a peer row
-      for (int row = (batch == current) ? start : 0; row < recordCount; row++, length++) {
+      for (int row = (index == 0) ? start : 0; row < recordCount; row++, length++) {
         if (unboundedFollowing) {
           if (length >= remainingRows) {
-            break;
+            break outer;
           }
         } else {
           if (!isPeer(start, current, row, batch)) {
-            break;
+            break outer;
           }
         }
 
         evaluatePeer(row);
-        last = batch;
+        lastBatch = index;
         frameLastRow = row;
       }
     }
 
-    setupReadLastValue(last, container);
+    // the last value is read for all the peer rows, while other batches may be loaded, and its batch must stay loaded
+    unpinLastValueBatch();
+    lastValueBatch = batches.pin(lastBatch);
+    setupReadLastValue(lastValueBatch, container);
 
     return length;
   }
 
+  private void unpinLastValueBatch() {
+    if (lastValueBatch != null) {
+      batches.unpin(lastValueBatch);
+      lastValueBatch = null;
+    }
+  }
+
   @Override
   public int getOutputCount() {
     return outputCount;
@@ -297,6 +341,7 @@ public abstract class FrameSupportTemplate implements WindowFramer {
   @Override
   public void close() {
     logger.trace("clearing internal");
+    unpinLastValueBatch();
     internal.clear();
   }
 
@@ -15,8 +15,6 @@
  */
 package com.dremio.sabot.op.windowframe;
 
-import java.util.List;
-
 import javax.inject.Named;
 
 import org.apache.arrow.memory.ArrowBuf;
@@ -44,7 +42,7 @@ public abstract class NoFrameSupportTemplate implements WindowFramer {
   private VectorAccessible container;
   private VectorContainer internal;
   private boolean lagCopiedToInternal;
-  private List<VectorContainer> batches;
+  private SpillableBatchList batches;
   private int outputCount; // number of rows in currently/last processed batch
 
   private VectorAccessible current;
@@ -55,8 +53,9 @@ public abstract class NoFrameSupportTemplate implements WindowFramer {
   private Partition partition; // current partition being processed
 
   @Override
-  public void setup(final List<VectorContainer> batches, final VectorAccessible container, final OperatorContext oContext,
-                    final boolean requireFullPartition, final WindowPOP popConfig, FunctionContext context) throws SchemaChangeException {
+  public void setup(final SpillableBatchList batches, final VectorAccessible container, final OperatorContext oContext,
+                    final boolean requireFullPartition, final WindowPOP popConfig, FunctionContext context,
+                    SlidingFrame slidingFrame) throws SchemaChangeException {
     this.container = container;
     this.batches = batches;
     this.context = context;
@@ -257,13 +256,15 @@ public abstract class NoFrameSupportTemplate implements WindowFramer {
 
     // a single frame can include rows from multiple batches
     // start processing first batch and, if necessary, move to next batches
+    outer:
     for (VectorAccessible batch : batches) {
       final int recordCount = batch.getRecordCount();
 
       // for every remaining row in the partition, count it if it's a peer row
       for (int row = (batch == current) ? start : 0; row < recordCount; row++, length++) {
         if (!isPeer(start, current, row, batch)) {
-          break;
+          // the following batches, which may be spilled, can't hold peer rows
+          break outer;
         }
       }
     }
@@ -0,0 +1,772 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.op.windowframe;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.DateMilliVector;
+import org.apache.arrow.vector.DecimalVector;
+import org.apache.arrow.vector.Float4Vector;
+import org.apache.arrow.vector.Float8Vector;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.TimeMilliVector;
+import org.apache.arrow.vector.TimeStampMilliVector;
+import org.apache.arrow.vector.ValueVector;
+
+import com.dremio.common.exceptions.UserException;
+import com.dremio.common.types.TypeProtos.MinorType;
+import com.dremio.exec.physical.config.WindowPOP;
+import com.dremio.exec.record.TypedFieldId;
+import com.dremio.exec.record.VectorAccessible;
+import com.dremio.exec.record.VectorContainer;
+
+/**
+ * Evaluates aggregate window functions over ROWS frames with offset bounds, e.g.
+ * {@code SUM(x) OVER (ORDER BY t ROWS BETWEEN 29 PRECEDING AND CURRENT ROW)}.
+ *
+ * Instead of aggregating the whole frame of every row, the frame slides along the partition: rows entering the frame
+ * are added to the aggregates, and rows leaving it are removed. SUM, COUNT and AVG keep removable running totals and
+ * MIN and MAX a monotonic deque of candidates, so each row is added and removed once whatever the frame width.
+ *
+ * Input values are buffered when read, as rows may leave the frame after their batch was released.
+ *
+ * Public, as it's called by the generated framers.
+ */
+public final class SlidingFrame {
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(SlidingFrame.class);
+
+  private final boolean unboundedStart;
+  private final long startOffset;
+  private final boolean unboundedEnd;
+  private final long endOffset;
+  private final Aggregator[] aggregators;
+
+  private List<VectorContainer> batches;
+
+  private long position; // index of the current row in its partition
+  private long read; // number of rows of the partition read
+  private long added; // number of rows of the partition added to the frame
+  private long removed; // number of rows of the partition removed from the frame
+
+  // next row to read, the batch is relative to the first batch held by the operator
+  private int readBatch;
+  private int readRow;
+  private VectorAccessible inputBatch;
+
+  SlidingFrame(WindowPOP pop, List<Aggregator> aggregators) {
+    this.unboundedStart = pop.getStart().isUnbounded();
+    this.startOffset = pop.getStart().getOffset();
+    this.unboundedEnd = pop.getEnd().isUnbounded();
+    this.endOffset = pop.getEnd().getOffset();
+    this.aggregators = aggregators.toArray(new Aggregator[0]);
+    for (Aggregator aggregator : this.aggregators) {
+      // rows are never removed from frames starting at the partition start
+      aggregator.retainAdded = !unboundedStart;
+    }
+  }
+
+  /**
+   * @return true if rows following the current row are part of the frame, and the full partition is needed
+   */
+  static boolean requiresFollowingRows(WindowPOP pop) {
+    return pop.getEnd().isUnbounded() || pop.getEnd().getOffset() > 0;
+  }
+
+  public void setup(List<VectorContainer> batches) {
+    this.batches = batches;
+  }
+
+  /**
+   * called before processing the first batch held by the operator.
+   */
+  public void setupOutput(VectorAccessible outgoing) {
+    for (Aggregator aggregator : aggregators) {
+      aggregator.setupOutput(outgoing);
+    }
+  }
+
+  /**
+   * called when a new partition starts at the given row of the first batch.
+   */
+  public void newPartition(int row) {
+    position = 0;
+    read = 0;
+    added = 0;
+    removed = 0;
+    readBatch = 0;
+    readRow = row;
+    inputBatch = null;
+    for (Aggregator aggregator : aggregators) {
+      aggregator.reset();
+    }
+  }
+
+  /**
+   * slides the frame to the current row, writes the aggregates of the frame and moves to the next row.
+   *
+   * @param outIndex index of the current row in the first batch
+   * @param rowsAfter number of rows of the partition after the current row, only used by frames ending after the
+   *                  current row, for which the full partition is available
+   */
+  public void evaluate(int outIndex, long rowsAfter) {
+    final long frameEnd; // last row of the frame, inclusive
+    if (unboundedEnd) {
+      frameEnd = position + rowsAfter;
+    } else if (endOffset > 0) {
+      frameEnd = position + Math.min(endOffset, rowsAfter);
+    } else {
+      frameEnd = position + endOffset;
+    }
+
+    // the current row must be read before its batch is released, even if it isn't part of the frame yet
+    final long lastRead = Math.max(frameEnd, position);
+    while (read <= lastRead) {
+      readNext();
+    }
+
+    while (added <= frameEnd) {
+      for (Aggregator aggregator : aggregators) {
+        aggregator.add();
+      }
+      added++;
+    }
+
+    if (!unboundedStart) {
+      final long frameStart = position + startOffset;
+      while (removed < frameStart && removed < added) {
+        for (Aggregator aggregator : aggregators) {
+          aggregator.remove();
+        }
+        removed++;
+      }
+    }
+
+    for (Aggregator aggregator : aggregators) {
+      aggregator.write(outIndex);
+    }
+    position++;
+  }
+
+  private void readNext() {
+    VectorContainer batch = batches.get(readBatch);
+    while (readRow >= batch.getRecordCount()) {
+      readBatch++;
+      readRow = 0;
+      batch = batches.get(readBatch);
+    }
+
+    if (batch != inputBatch) {
+      for (Aggregator aggregator : aggregators) {
+        aggregator.setupInput(batch);
+      }
+      inputBatch = batch;
+    }
+
+    for (Aggregator aggregator : aggregators) {
+      aggregator.read(readRow);
+    }
+    read++;
+    if (++readRow >= batch.getRecordCount()) {
+      readBatch++;
+      readRow = 0;
+    }
+  }
+
+  /**
+   * called once all rows of the first batch are processed, before the operator releases it.
+   */
+  public void batchDone() {
+    if (readBatch > 0) {
+      readBatch--;
+    } else {
+      readRow = 0;
+    }
+    inputBatch = null;
+  }
+
+  /**
+   * Creates the aggregator evaluating a window function.
+   *
+   * @param name name of the aggregate function
+   * @param inputId input field of the function, or null if its argument is a constant
+   * @param inputType type of the input field
+   * @param outputId output field of the function
+   */
+  static Aggregator newAggregator(String name, TypedFieldId inputId, MinorType inputType, TypedFieldId outputId) {
+    final String function = name.toLowerCase();
+    if ("count".equals(function)) {
+      return new CountAggregator(inputId, outputId);
+    }
+
+    final Kind kind = inputId == null ? null : Kind.of(inputType);
+    if (kind == null) {
+      throw UserException.unsupportedError()
+        .message("Window frames with offsets aren't supported for %s of %s", name, inputId == null ? "constants" : inputType)
+        .build(logger);
+    }
+    switch (function) {
+      case "sum":
+        return new SumAggregator(inputId, outputId, kind, false, false);
+      case "$sum0":
+        return new SumAggregator(inputId, outputId, kind, true, false);
+      case "avg":
+        return new SumAggregator(inputId, outputId, kind, false, true);
+      case "min":
+        return new MinMaxAggregator(inputId, outputId, kind, false);
+      case "max":
+        return new MinMaxAggregator(inputId, outputId, kind, true);
+      default:
+        throw UserException.unsupportedError()
+          .message("Window frames with offsets are only supported for SUM, COUNT, AVG, MIN and MAX, not %s", name)
+          .build(logger);
+    }
+  }
+
+  /**
+   * How values are stored: as longs, as the raw bits of doubles, or as BigDecimal objects.
+   */
+  enum Kind {
+    LONG,
+    DOUBLE,
+    DECIMAL;
+
+    static Kind of(MinorType type) {
+      switch (type) {
+        case INT:
+        case BIGINT:
+        case DATE:
+        case TIME:
+        case TIMESTAMP:
+          return LONG;
+        case FLOAT4:
+        case FLOAT8:
+          return DOUBLE;
+        case DECIMAL:
+          return DECIMAL;
+        default:
+          return null;
+      }
+    }
+  }
+
+  /**
+   * Aggregates the rows of a sliding frame, in the order they're read.
+   */
+  abstract static class Aggregator {
+    private final TypedFieldId inputId;
+    private final TypedFieldId outputId;
+    // rows added to the frame must be buffered until they're removed
+    boolean retainAdded;
+
+    protected ValueVector input;
+    protected ValueVector output;
+
+    Aggregator(TypedFieldId inputId, TypedFieldId outputId) {
+      this.inputId = inputId;
+      this.outputId = outputId;
+    }
+
+    void setupInput(VectorAccessible batch) {
+      input = inputId == null ? null : getVector(batch, inputId);
+    }
+
+    void setupOutput(VectorAccessible outgoing) {
+      output = getVector(outgoing, outputId);
+    }
+
+    /**
+     * buffers the value of the given row of the input batch.
+     */
+    abstract void read(int index);
+
+    /**
+     * adds the oldest buffered row that isn't part of the frame yet.
+     */
+    abstract void add();
+
+    /**
+     * removes the oldest row of the frame.
+     */
+    abstract void remove();
+
+    abstract void write(int outIndex);
+
+    abstract void reset();
+
+    private static ValueVector getVector(VectorAccessible batch, TypedFieldId fieldId) {
+      return batch.getValueAccessorById(ValueVector.class, fieldId.getFieldIds()).getValueVector();
+    }
+  }
+
+  private static final class CountAggregator extends Aggregator {
+    private final ValueDeque values = new ValueDeque();
+    private int inFrame; // number of buffered rows added to the frame
+    private long count;
+
+    CountAggregator(TypedFieldId inputId, TypedFieldId outputId) {
+      super(inputId, outputId);
+    }
+
+    @Override
+    void read(int index) {
+      values.addLast(0, 0, null, input != null && input.isNull(index));
+    }
+
+    @Override
+    void add() {
+      if (!values.isNull(inFrame)) {
+        count++;
+      }
+      if (retainAdded) {
+        inFrame++;
+      } else {
+        values.removeFirst();
+      }
+    }
+
+    @Override
+    void remove() {
+      if (!values.isNull(0)) {
+        count--;
+      }
+      values.removeFirst();
+      inFrame--;
+    }
+
+    @Override
+    void write(int outIndex) {
+      ((BigIntVector) output).setSafe(outIndex, count);
+    }
+
+    @Override
+    void reset() {
+      values.clear();
+      inFrame = 0;
+      count = 0;
+    }
+  }
+
+  /**
+   * SUM, $SUM0 and AVG.
+   */
+  private static final class SumAggregator extends Aggregator {
+    private final Kind kind;
+    private final boolean zeroIfEmpty;
+    private final boolean average;
+    private final ValueDeque values = new ValueDeque();
+    private int inFrame; // number of buffered rows added to the frame
+    private long count;
+    private long longSum;
+    private double doubleSum;
+    private BigDecimal decimalSum = BigDecimal.ZERO;
+    // infinite and NaN values can't be removed from a running sum, so they're counted instead
+    private long nanCount;
+    private long positiveInfinityCount;
+    private long negativeInfinityCount;
+
+    SumAggregator(TypedFieldId inputId, TypedFieldId outputId, Kind kind, boolean zeroIfEmpty, boolean average) {
+      super(inputId, outputId);
+      this.kind = kind;
+      this.zeroIfEmpty = zeroIfEmpty;
+      this.average = average;
+    }
+
+    @Override
+    void read(int index) {
+      readValue(values, input, index, kind);
+    }
+
+    @Override
+    void add() {
+      update(inFrame, 1);
+      if (retainAdded) {
+        inFrame++;
+      } else {
+        values.removeFirst();
+      }
+    }
+
+    @Override
+    void remove() {
+      update(0, -1);
+      values.removeFirst();
+      inFrame--;
+    }
+
+    private void update(int index, int sign) {
+      if (values.isNull(index)) {
+        return;
+      }
+      count += sign;
+      switch (kind) {
+        case LONG:
+          longSum += sign * values.getBits(index);
+          break;
+        case DOUBLE:
+          final double value = Double.longBitsToDouble(values.getBits(index));
+          if (Double.isNaN(value)) {
+            nanCount += sign;
+          } else if (value == Double.POSITIVE_INFINITY) {
+            positiveInfinityCount += sign;
+          } else if (value == Double.NEGATIVE_INFINITY) {
+            negativeInfinityCount += sign;
+          } else {
+            doubleSum += sign * value;
+          }
+          break;
+        case DECIMAL:
+          final BigDecimal decimal = values.getDecimal(index);
+          decimalSum = sign > 0 ? decimalSum.add(decimal) : decimalSum.subtract(decimal);
+          break;
+        default:
+          throw new IllegalStateException("Unexpected kind " + kind);
+      }
+    }
+
+    @Override
+    void write(int outIndex) {
+      if (count == 0) {
+        if (zeroIfEmpty) {
+          writeValue(output, outIndex, Kind.LONG, 0, null);
+        }
+        return;
+      }
+
+      switch (kind) {
+        case LONG:
+          if (average) {
+            writeValue(output, outIndex, Kind.DOUBLE, Double.doubleToRawLongBits((double) longSum / count), null);
+          } else {
+            writeValue(output, outIndex, Kind.LONG, longSum, null);
+          }
+          break;
+        case DOUBLE:
+          final double sum = doubleSum();
+          writeValue(output, outIndex, Kind.DOUBLE, Double.doubleToRawLongBits(average ? sum / count : sum), null);
+          break;
+        case DECIMAL:
+          if (average) {
+            final int scale = output instanceof DecimalVector ? ((DecimalVector) output).getScale() : decimalSum.scale() + 6;
+            writeValue(output, outIndex, Kind.DECIMAL, 0, decimalSum.divide(BigDecimal.valueOf(count), scale, RoundingMode.HALF_UP));
+          } else {
+            writeValue(output, outIndex, Kind.DECIMAL, 0, decimalSum);
+          }
+          break;
+        default:
+          throw new IllegalStateException("Unexpected kind " + kind);
+      }
+    }
+
+    private double doubleSum() {
+      if (nanCount > 0 || (positiveInfinityCount > 0 && negativeInfinityCount > 0)) {
+        return Double.NaN;
+      } else if (positiveInfinityCount > 0) {
+        return Double.POSITIVE_INFINITY;
+      } else if (negativeInfinityCount > 0) {
+        return Double.NEGATIVE_INFINITY;
+      }
+      return doubleSum;
+    }
+
+    @Override
+    void reset() {
+      values.clear();
+      inFrame = 0;
+      count = 0;
+      longSum = 0;
+      doubleSum = 0;
+      decimalSum = BigDecimal.ZERO;
+      nanCount = 0;
+      positiveInfinityCount = 0;
+      negativeInfinityCount = 0;
+    }
+  }
+
+  /**
+   * MIN and MAX, keeping the frame rows that may still become the result in a deque ordered by position and value.
+   */
+  private static final class MinMaxAggregator extends Aggregator {
+    private final Kind kind;
+    private final boolean max;
+    // rows read but not added yet
+    private final ValueDeque pending = new ValueDeque();
+    private final ValueDeque candidates = new ValueDeque();
+    private long nextAdded;
+    private long nextRemoved;
+
+    MinMaxAggregator(TypedFieldId inputId, TypedFieldId outputId, Kind kind, boolean max) {
+      super(inputId, outputId);
+      this.kind = kind;
+      this.max = max;
+    }
+
+    @Override
+    void read(int index) {
+      readValue(pending, input, index, kind);
+    }
+
+    @Override
+    void add() {
+      if (!pending.isNull(0)) {
+        final long bits = pending.getBits(0);
+        final BigDecimal decimal = pending.getDecimal(0);
+        // rows that are older and not better than the new one can't be the result anymore
+        while (!candidates.isEmpty() && !isBetter(candidates.size() - 1, bits, decimal)) {
+          candidates.removeLast();
+        }
+        candidates.addLast(nextAdded, bits, decimal, false);
+      }
+      pending.removeFirst();
+      nextAdded++;
+    }
+
+    private boolean isBetter(int index, long bits, BigDecimal decimal) {
+      final int cmp;
+      switch (kind) {
+        case LONG:
+          cmp = Long.compare(candidates.getBits(index), bits);
+          break;
+        case DOUBLE:
+          cmp = Double.compare(Double.longBitsToDouble(candidates.getBits(index)), Double.longBitsToDouble(bits));
+          break;
+        case DECIMAL:
+          cmp = candidates.getDecimal(index).compareTo(decimal);
+          break;
+        default:
+          throw new IllegalStateException("Unexpected kind " + kind);
+      }
+      return max ? cmp > 0 : cmp < 0;
+    }
+
+    @Override
+    void remove() {
+      if (!candidates.isEmpty() && candidates.getPosition(0) == nextRemoved) {
+        candidates.removeFirst();
+      }
+      nextRemoved++;
+    }
+
+    @Override
+    void write(int outIndex) {
+      if (!candidates.isEmpty()) {
+        writeValue(output, outIndex, kind, candidates.getBits(0), candidates.getDecimal(0));
+      }
+    }
+
+    @Override
+    void reset() {
+      pending.clear();
+      candidates.clear();
+      nextAdded = 0;
+      nextRemoved = 0;
+    }
+  }
+
+  private static void readValue(ValueDeque values, ValueVector input, int index, Kind kind) {
+    if (input.isNull(index)) {
+      values.addLast(0, 0, null, true);
+      return;
+    }
+
+    switch (kind) {
+      case LONG:
+        final long value;
+        if (input instanceof IntVector) {
+          value = ((IntVector) input).get(index);
+        } else if (input instanceof BigIntVector) {
+          value = ((BigIntVector) input).get(index);
+        } else if (input instanceof DateMilliVector) {
+          value = ((DateMilliVector) input).get(index);
+        } else if (input instanceof TimeStampMilliVector) {
+          value = ((TimeStampMilliVector) input).get(index);
+        } else if (input instanceof TimeMilliVector) {
+          value = ((TimeMilliVector) input).get(index);
+        } else {
+          throw new UnsupportedOperationException("Unexpected vector " + input.getClass().getSimpleName());
+        }
+        values.addLast(0, value, null, false);
+        break;
+      case DOUBLE:
+        final double doubleValue = input instanceof Float4Vector ? ((Float4Vector) input).get(index) : ((Float8Vector) input).get(index);
+        values.addLast(0, Double.doubleToRawLongBits(doubleValue), null, false);
+        break;
+      case DECIMAL:
+        values.addLast(0, 0, ((DecimalVector) input).getObject(index), false);
+        break;
+      default:
+        throw new IllegalStateException("Unexpected kind " + kind);
+    }
+  }
+
+  private static void writeValue(ValueVector output, int index, Kind kind, long bits, BigDecimal decimal) {
+    if (output instanceof DecimalVector) {
+      final DecimalVector vector = (DecimalVector) output;
+      final BigDecimal value;
+      switch (kind) {
+        case LONG:
+          value = BigDecimal.valueOf(bits);
+          break;
+        case DOUBLE:
+          value = BigDecimal.valueOf(Double.longBitsToDouble(bits));
+          break;
+        default:
+          value = decimal;
+      }
+      vector.setSafe(index, value.setScale(vector.getScale(), RoundingMode.HALF_UP));
+      return;
+    }
+
+    if (output instanceof Float8Vector || output instanceof Float4Vector) {
+      final double value;
+      switch (kind) {
+        case LONG:
+          value = bits;
+          break;
+        case DOUBLE:
+          value = Double.longBitsToDouble(bits);
+          break;
+        default:
+          value = decimal.doubleValue();
+      }
+      if (output instanceof Float8Vector) {
+        ((Float8Vector) output).setSafe(index, value);
+      } else {
+        ((Float4Vector) output).setSafe(index, (float) value);
+      }
+      return;
+    }
+
+    final long value;
+    switch (kind) {
+      case LONG:
+        value = bits;
+        break;
+      case DOUBLE:
+        value = (long) Double.longBitsToDouble(bits);
+        break;
+      default:
+        value = decimal.longValue();
+    }
+    if (output instanceof BigIntVector) {
+      ((BigIntVector) output).setSafe(index, value);
+    } else if (output instanceof IntVector) {
+      ((IntVector) output).setSafe(index, (int) value);
+    } else if (output instanceof DateMilliVector) {
+      ((DateMilliVector) output).setSafe(index, value);
+    } else if (output instanceof TimeStampMilliVector) {
+      ((TimeStampMilliVector) output).setSafe(index, value);
+    } else if (output instanceof TimeMilliVector) {
+      ((TimeMilliVector) output).setSafe(index, (int) value);
+    } else {
+      throw new UnsupportedOperationException("Unexpected vector " + output.getClass().getSimpleName());
+    }
+  }
+
+  /**
+   * Growable ring buffer of nullable values and their positions, with random access from the first one.
+   */
+  private static final class ValueDeque {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private long[] positions = new long[INITIAL_CAPACITY];
+    private long[] bits = new long[INITIAL_CAPACITY];
+    private BigDecimal[] decimals = new BigDecimal[INITIAL_CAPACITY];
+    private boolean[] nulls = new boolean[INITIAL_CAPACITY];
+    private int first;
+    private int size;
+
+    boolean isEmpty() {
+      return size == 0;
+    }
+
+    int size() {
+      return size;
+    }
+
+    private int slot(int index) {
+      return (first + index) & (bits.length - 1);
+    }
+
+    long getPosition(int index) {
+      return positions[slot(index)];
+    }
+
+    long getBits(int index) {
+      return bits[slot(index)];
+    }
+
+    BigDecimal getDecimal(int index) {
+      return decimals[slot(index)];
+    }
+
+    boolean isNull(int index) {
+      return nulls[slot(index)];
+    }
+
+    void addLast(long position, long value, BigDecimal decimal, boolean isNull) {
+      if (size == bits.length) {
+        grow();
+      }
+      final int slot = slot(size);
+      positions[slot] = position;
+      bits[slot] = value;
+      decimals[slot] = decimal;
+      nulls[slot] = isNull;
+      size++;
+    }
+
+    void removeFirst() {
+      decimals[first] = null;
+      first = (first + 1) & (bits.length - 1);
+      size--;
+    }
+
+    void removeLast() {
+      size--;
+      decimals[slot(size)] = null;
+    }
+
+    void clear() {
+      Arrays.fill(decimals, null);
+      first = 0;
+      size = 0;
+    }
+
+    private void grow() {
+      final int capacity = bits.length * 2;
+      final long[] newPositions = new long[capacity];
+      final long[] newBits = new long[capacity];
+      final BigDecimal[] newDecimals = new BigDecimal[capacity];
+      final boolean[] newNulls = new boolean[capacity];
+      for (int i = 0; i < size; i++) {
+        final int slot = slot(i);
+        newPositions[i] = positions[slot];
+        newBits[i] = bits[slot];
+        newDecimals[i] = decimals[slot];
+        newNulls[i] = nulls[slot];
+      }
+      positions = newPositions;
+      bits = newBits;
+      decimals = newDecimals;
+      nulls = newNulls;
+      first = 0;
+    }
+  }
+}
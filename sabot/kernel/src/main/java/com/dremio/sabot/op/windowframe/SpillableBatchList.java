@@ -0,0 +1,309 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.op.windowframe;
+
+import java.io.IOException;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+
+import org.apache.arrow.vector.ValueVector;
+
+import com.dremio.common.AutoCloseables;
+import com.dremio.common.exceptions.UserException;
+import com.dremio.exec.ExecConstants;
+import com.dremio.exec.proto.ExecProtos.FragmentHandle;
+import com.dremio.exec.proto.helper.QueryIdHelper;
+import com.dremio.exec.record.BatchSchema;
+import com.dremio.exec.record.VectorContainer;
+import com.dremio.exec.record.VectorWrapper;
+import com.dremio.sabot.exec.context.OperatorContext;
+import com.dremio.sabot.op.sort.external.SpillManager;
+import com.dremio.sabot.op.sort.external.SpillManager.SpillFile;
+import com.dremio.sabot.op.sort.external.SpillManager.SpillInputStream;
+import com.dremio.sabot.op.sort.external.SpillManager.SpillOutputStream;
+
+/**
+ * Batches buffered by the window operator, in arrival order.
+ *
+ * Once the batches held in memory exceed the spill threshold, typically because of a large partition, batches are
+ * spilled to disk and loaded back when the framers access them, and when they reach the front of the list. The first
+ * batch, which is being framed, and the last batch, used to detect the end of the partition, always stay in memory.
+ * The most recently accessed loaded batches are retained, as framers compare rows of adjacent batches, and a framer
+ * reading a loaded batch across several accesses to the list pins it so it isn't released.
+ *
+ * Public, as it's used by the generated framers.
+ */
+public class SpillableBatchList extends AbstractList<VectorContainer> implements AutoCloseable {
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(SpillableBatchList.class);
+
+  private static final int MAX_LOADED_BATCHES = 2;
+
+  private final OperatorContext context;
+  private final long spillThreshold;
+  private final boolean compress;
+  private final List<Entry> entries = new ArrayList<>();
+  // spilled batches currently loaded, least recently accessed first
+  private final LinkedList<Entry> loaded = new LinkedList<>();
+
+  private BatchSchema schema;
+  private SpillManager spillManager;
+  private int nextSpillFile;
+  private long inMemoryBytes;
+  private int batchesOnDisk;
+
+  private long batchesSpilled;
+  private long batchesLoaded;
+  private long peakBatchesInMemory;
+
+  SpillableBatchList(OperatorContext context) {
+    this.context = context;
+    this.compress = context.getOptions().getOption(ExecConstants.EXTERNAL_SORT_COMPRESS_SPILL_FILES);
+    if (context.getOptions().getOption(ExecConstants.WINDOW_SPILL_ENABLED)) {
+      // leave room for the outgoing batch, the loaded batches and the state of the window functions
+      this.spillThreshold = Math.min(context.getOptions().getOption(ExecConstants.WINDOW_SPILL_THRESHOLD_BYTES),
+        context.getAllocator().getLimit() / 2);
+    } else {
+      this.spillThreshold = Long.MAX_VALUE;
+    }
+  }
+
+  @Override
+  public boolean add(VectorContainer batch) {
+    if (schema == null) {
+      schema = batch.getSchema();
+    }
+    final Entry entry = new Entry(batch);
+    entries.add(entry);
+    inMemoryBytes += entry.size;
+    peakBatchesInMemory = Math.max(peakBatchesInMemory, entries.size() - batchesOnDisk);
+
+    try {
+      spillIfNeeded();
+    } catch (IOException e) {
+      throw UserException.dataWriteError(e)
+        .message("Failure while spilling window partition")
+        .build(logger);
+    }
+    return true;
+  }
+
+  @Override
+  public VectorContainer get(int index) {
+    return get(entries.get(index)).batch;
+  }
+
+  /**
+   * Gets a batch that must stay in memory until it's unpinned, even if other batches are loaded in the meantime.
+   */
+  public VectorContainer pin(int index) {
+    final Entry entry = get(entries.get(index));
+    entry.pins++;
+    return entry.batch;
+  }
+
+  /**
+   * Releases a batch returned by {@link #pin(int)}, which may be released once other batches are loaded.
+   */
+  public void unpin(VectorContainer batch) {
+    // batches that aren't loaded anymore were removed, or moved to the front of the list and stay in memory
+    for (Entry entry : loaded) {
+      if (entry.batch == batch) {
+        entry.pins--;
+        return;
+      }
+    }
+  }
+
+  private Entry get(Entry entry) {
+    if (entry.batch == null) {
+      load(entry);
+      loaded.add(entry);
+      evictLoaded();
+    } else if (loaded.remove(entry)) {
+      // most recently accessed
+      loaded.add(entry);
+    }
+    return entry;
+  }
+
+  private void evictLoaded() {
+    final Iterator<Entry> iterator = loaded.iterator();
+    // the entry just loaded is the last one, and is never evicted
+    for (int toEvict = loaded.size() - MAX_LOADED_BATCHES; toEvict > 0 && iterator.hasNext(); ) {
+      final Entry entry = iterator.next();
+      if (entry.pins == 0 && iterator.hasNext()) {
+        iterator.remove();
+        entry.release();
+        toEvict--;
+      }
+    }
+  }
+
+  /**
+   * Removes a batch from the list, the caller is responsible for closing it.
+   */
+  @Override
+  public VectorContainer remove(int index) {
+    final Entry entry = entries.remove(index);
+    loaded.remove(entry);
+    if (entry.batch != null && entry.file == null) {
+      inMemoryBytes -= entry.size;
+    }
+    final VectorContainer batch = entry.batch;
+    entry.batch = null;
+    deleteFile(entry);
+
+    if (!entries.isEmpty()) {
+      // the first batch is framed, and must stay in memory until it is removed
+      final Entry first = entries.get(0);
+      if (first.file != null) {
+        if (first.batch == null) {
+          load(first);
+        }
+        loaded.remove(first);
+        deleteFile(first);
+        inMemoryBytes += first.size;
+      }
+    }
+    return batch;
+  }
+
+  @Override
+  public int size() {
+    return entries.size();
+  }
+
+  private void spillIfNeeded() throws IOException {
+    // spill the most recent batches first, the framers need the batches following the first one sooner
+    for (int i = entries.size() - 2; i > 0 && inMemoryBytes > spillThreshold; i--) {
+      final Entry entry = entries.get(i);
+      if (entry.file == null) {
+        spill(entry);
+      }
+    }
+  }
+
+  private void spill(Entry entry) throws IOException {
+    final SpillFile file = getSpillManager().getSpillFile(String.format("batch%05d", nextSpillFile++));
+    try (SpillOutputStream out = file.create(compress)) {
+      out.writeBatch(entry.batch);
+    }
+    logger.debug("spilled batch of {} bytes to {}", entry.size, file.getPath());
+
+    entry.file = file;
+    entry.batch.close();
+    entry.batch = null;
+    inMemoryBytes -= entry.size;
+    batchesOnDisk++;
+    batchesSpilled++;
+  }
+
+  private void deleteFile(Entry entry) {
+    if (entry.file == null) {
+      return;
+    }
+    try {
+      entry.file.close();
+    } catch (Exception e) {
+      logger.warn("Failed to delete window spill file {}", entry.file.getPath(), e);
+    }
+    entry.file = null;
+    batchesOnDisk--;
+  }
+
+  private void load(Entry entry) {
+    final VectorContainer batch = VectorContainer.create(context.getAllocator(), schema);
+    try (SpillInputStream in = entry.file.open(compress)) {
+      in.load(batch, context.getAllocator());
+    } catch (IOException e) {
+      batch.close();
+      throw UserException.dataReadError(e)
+        .message("Failure while reading spilled window partition")
+        .build(logger);
+    }
+    entry.batch = batch;
+    batchesLoaded++;
+  }
+
+  private SpillManager getSpillManager() {
+    if (spillManager == null) {
+      final FragmentHandle handle = context.getFragmentHandle();
+      final String id = String.format("windowspill-%s.%s.%s.%s", QueryIdHelper.getQueryId(handle.getQueryId()),
+        handle.getMajorFragmentId(), handle.getMinorFragmentId(), context.getStats().getOperatorId());
+      spillManager = new SpillManager(context.getConfig(), context.getOptions(), id, null, context.getSpillService(),
+        "window spilling", context.getStats());
+    }
+    return spillManager;
+  }
+
+  long getBatchesSpilled() {
+    return batchesSpilled;
+  }
+
+  long getBatchesLoaded() {
+    return batchesLoaded;
+  }
+
+  long getPeakBatchesInMemory() {
+    return peakBatchesInMemory;
+  }
+
+  SpillManager getSpillManagerIfCreated() {
+    return spillManager;
+  }
+
+  @Override
+  public void close() throws Exception {
+    final List<AutoCloseable> closeables = new ArrayList<>();
+    for (Entry entry : entries) {
+      closeables.add(entry.batch);
+    }
+    entries.clear();
+    loaded.clear();
+    // deletes the spill files
+    closeables.add(spillManager);
+    AutoCloseables.close(closeables);
+  }
+
+  private static long getSize(VectorContainer batch) {
+    long size = 0;
+    for (VectorWrapper<?> wrapper : batch) {
+      final ValueVector vector = wrapper.getValueVector();
+      size += vector.getBufferSize();
+    }
+    return size;
+  }
+
+  private static final class Entry {
+    private final long size;
+    private VectorContainer batch; // null when spilled and not loaded
+    private SpillFile file; // null when the batch was never spilled
+    private int pins; // number of framers holding the loaded batch
+
+    private Entry(VectorContainer batch) {
+      this.batch = batch;
+      this.size = getSize(batch);
+    }
+
+    private void release() {
+      batch.close();
+      batch = null;
+    }
+  }
+}
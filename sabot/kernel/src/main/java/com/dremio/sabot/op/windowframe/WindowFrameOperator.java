@@ -18,7 +18,6 @@ package com.dremio.sabot.op.windowframe;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.LinkedList;
 import java.util.List;
 
 import org.apache.arrow.memory.OutOfMemoryException;
@@ -42,7 +41,10 @@ import com.dremio.exec.physical.config.WindowPOP;
 import com.dremio.exec.record.VectorAccessible;
 import com.dremio.exec.record.VectorContainer;
 import com.dremio.exec.record.VectorWrapper;
+import com.dremio.sabot.exec.context.MetricDef;
 import com.dremio.sabot.exec.context.OperatorContext;
+import com.dremio.sabot.exec.context.OperatorStats;
+import com.dremio.sabot.op.sort.external.SpillManager;
 import com.dremio.sabot.op.spi.SingleInputOperator;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Iterables;
@@ -59,7 +61,7 @@ public class WindowFrameOperator implements SingleInputOperator {
   private final OperatorContext context;
   private final List<WindowFunction> functions = Lists.newArrayList();
   private final WindowPOP config;
-  private final LinkedList<VectorContainer> batches = new LinkedList<>();
+  private final SpillableBatchList batches;
 
   private VectorAccessible incoming;
   private VectorContainer outgoing;
@@ -73,6 +75,22 @@ public class WindowFrameOperator implements SingleInputOperator {
   public WindowFrameOperator(OperatorContext context, WindowPOP config) throws OutOfMemoryException {
     this.context = context;
     this.config = config;
+    this.batches = new SpillableBatchList(context);
+  }
+
+  public enum Metric implements MetricDef {
+    SPILL_COUNT,                // number of batches spilled to disk
+    BATCHES_LOADED,             // number of times a spilled batch was read back
+    PEAK_BATCHES_IN_MEMORY,     // maximum number of batches kept in memory
+    SPILL_WRITE_BYTES,
+    SPILL_READ_BYTES,
+    SPILL_WRITE_IO_NANOS,
+    SPILL_READ_IO_NANOS;
+
+    @Override
+    public int metricId() {
+      return ordinal();
+    }
   }
 
   @Override
@@ -117,6 +135,7 @@ public class WindowFrameOperator implements SingleInputOperator {
   public int outputData() throws Exception {
     state.is(State.CAN_PRODUCE);
     doWork();
+    updateStats();
 
     if(batches.isEmpty()){
       state = State.DONE;
@@ -175,9 +194,9 @@ public class WindowFrameOperator implements SingleInputOperator {
       return false;
     }
 
-    final VectorAccessible current = batches.getFirst();
+    final VectorAccessible current = batches.get(0);
     final int currentSize = current.getRecordCount();
-    final VectorAccessible last = batches.getLast();
+    final VectorAccessible last = batches.get(batches.size() - 1);
     final int lastSize = last.getRecordCount();
 
     final boolean partitionEndReached = !framers[0].isSamePartition(currentSize - 1, current, lastSize - 1, last);
@@ -193,6 +212,20 @@ public class WindowFrameOperator implements SingleInputOperator {
   }
 
 
+  private void updateStats() {
+    final OperatorStats stats = context.getStats();
+    stats.setLongStat(Metric.SPILL_COUNT, batches.getBatchesSpilled());
+    stats.setLongStat(Metric.BATCHES_LOADED, batches.getBatchesLoaded());
+    stats.setLongStat(Metric.PEAK_BATCHES_IN_MEMORY, batches.getPeakBatchesInMemory());
+    final SpillManager spillManager = batches.getSpillManagerIfCreated();
+    if (spillManager != null) {
+      stats.setLongStat(Metric.SPILL_WRITE_BYTES, spillManager.getAppWriteBytes());
+      stats.setLongStat(Metric.SPILL_READ_BYTES, spillManager.getAppReadBytes());
+      stats.setLongStat(Metric.SPILL_WRITE_IO_NANOS, spillManager.getIOWriteWait());
+      stats.setLongStat(Metric.SPILL_READ_IO_NANOS, spillManager.getIOReadWait());
+    }
+  }
+
   private void createFramers(VectorAccessible batch) throws SchemaChangeException, IOException, ClassTransformationException {
     assert framers == null : "createFramer should only be called once";
 
@@ -217,9 +250,11 @@ public class WindowFrameOperator implements SingleInputOperator {
     this.transfers = ImmutableList.copyOf(transfers);
 
     final ClassProducer producer = context.getClassProducer();
+    final boolean slidingFrame = config.isSlidingRowsFrame();
+    final List<SlidingFrame.Aggregator> slidingAggregators = new ArrayList<>();
     // add aggregation vectors to the container, and materialize corresponding expressions
     for (final NamedExpression ne : config.getAggregations()) {
-      final WindowFunction winfun = WindowFunction.fromExpression(ne);
+      final WindowFunction winfun = WindowFunction.fromExpression(ne, slidingFrame);
 
       // build the schema before each pass since we're going to use the outbound schema for value resolution.
       outgoing.buildSchema();
@@ -227,6 +262,9 @@ public class WindowFrameOperator implements SingleInputOperator {
       if (winfun.materialize(ne, outgoing, producer)) {
         functions.add(winfun);
         requireFullPartition |= winfun.requiresFullPartition(config);
+        if (winfun instanceof WindowFunction.SlidingAggregate) {
+          slidingAggregators.add(((WindowFunction.SlidingAggregate) winfun).getAggregator());
+        }
 
         if (winfun.supportsCustomFrames()) {
           useCustomFrame = true;
@@ -257,13 +295,14 @@ public class WindowFrameOperator implements SingleInputOperator {
     int index = 0;
     if (useDefaultFrame) {
       framers[index] = generateFramer(keyExprs, orderExprs, functions, false);
-      framers[index].setup(batches, outgoing, context, requireFullPartition, config, context.getFunctionContext());
+      framers[index].setup(batches, outgoing, context, requireFullPartition, config, context.getFunctionContext(), null);
       index++;
     }
 
     if (useCustomFrame) {
       framers[index] = generateFramer(keyExprs, orderExprs, functions, true);
-      framers[index].setup(batches, outgoing, context, requireFullPartition, config, context.getFunctionContext());
+      framers[index].setup(batches, outgoing, context, requireFullPartition, config, context.getFunctionContext(),
+        slidingAggregators.isEmpty() ? null : new SlidingFrame(config, slidingAggregators));
     }
   }
 
@@ -340,7 +379,7 @@ public class WindowFrameOperator implements SingleInputOperator {
     if (framers != null) {
       closeables.addAll(Arrays.asList(framers));
     }
-    closeables.addAll(batches);
+    closeables.add(batches);
     AutoCloseables.close(closeables);
   }
 
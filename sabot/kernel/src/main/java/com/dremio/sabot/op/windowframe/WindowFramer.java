@@ -15,15 +15,12 @@
  */
 package com.dremio.sabot.op.windowframe;
 
-import java.util.List;
-
 import javax.inject.Named;
 
 import com.dremio.exec.compile.TemplateClassDefinition;
 import com.dremio.exec.exception.SchemaChangeException;
 import com.dremio.exec.physical.config.WindowPOP;
 import com.dremio.exec.record.VectorAccessible;
-import com.dremio.exec.record.VectorContainer;
 import com.dremio.sabot.exec.context.FunctionContext;
 import com.dremio.sabot.exec.context.OperatorContext;
 
@@ -31,8 +28,12 @@ public interface WindowFramer extends AutoCloseable {
   TemplateClassDefinition<WindowFramer> NOFRAME_TEMPLATE_DEFINITION = new TemplateClassDefinition<>(WindowFramer.class, NoFrameSupportTemplate.class);
   TemplateClassDefinition<WindowFramer> FRAME_TEMPLATE_DEFINITION = new TemplateClassDefinition<>(WindowFramer.class, FrameSupportTemplate.class);
 
-  void setup(final List<VectorContainer> batches, final VectorAccessible container, final OperatorContext operatorContext,
-             final boolean requireFullPartition, final WindowPOP popConfig, FunctionContext context) throws SchemaChangeException;
+  /**
+   * @param slidingFrame evaluates the aggregates of ROWS frames with offsets, or null if the frame has no offsets
+   */
+  void setup(final SpillableBatchList batches, final VectorAccessible container, final OperatorContext operatorContext,
+             final boolean requireFullPartition, final WindowPOP popConfig, FunctionContext context,
+             SlidingFrame slidingFrame) throws SchemaChangeException;
 
   /**
    * process the inner batch and write the aggregated values in the container
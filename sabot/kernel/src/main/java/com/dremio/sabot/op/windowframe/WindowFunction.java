@@ -69,6 +69,14 @@ public abstract class WindowFunction {
   }
 
   public static WindowFunction fromExpression(final NamedExpression expr) {
+    return fromExpression(expr, false);
+  }
+
+  /**
+   * @param slidingFrame true if the window uses a ROWS frame with offsets, whose aggregates are evaluated by
+   *                     {@link SlidingFrame}
+   */
+  public static WindowFunction fromExpression(final NamedExpression expr, final boolean slidingFrame) {
     if (!(expr.getExpr() instanceof FunctionCall)) {
       throw UserException.functionError()
               .message("Unsupported window function '%s'", expr.getExpr())
@@ -84,9 +92,15 @@ public abstract class WindowFunction {
       type = Type.AGGREGATE;
     }
 
+    if (slidingFrame && (type == Type.FIRST_VALUE || type == Type.LAST_VALUE)) {
+      throw UserException.unsupportedError()
+        .message("Window frames with offsets are only supported for SUM, COUNT, AVG, MIN and MAX, not %s", name)
+        .build(logger);
+    }
+
     switch (type) {
       case AGGREGATE:
-        return new WindowAggregate();
+        return slidingFrame ? new SlidingAggregate() : new WindowAggregate();
       case LEAD:
         return new Lead();
       case LAG:
@@ -191,6 +205,59 @@ public abstract class WindowFunction {
     }
   }
 
+  /**
+   * Aggregate over a ROWS frame with offsets, evaluated incrementally by {@link SlidingFrame} instead of generated code.
+   */
+  static class SlidingAggregate extends WindowAggregate {
+
+    private SlidingFrame.Aggregator aggregator;
+
+    @Override
+    boolean materialize(final NamedExpression ne, final VectorContainer batch, final ClassProducer producer) {
+      final LogicalExpression aggregate = producer.materialize(ne.getExpr(), batch);
+      if (aggregate == null) {
+        return false;
+      }
+
+      final Field output = aggregate.getCompleteType().toField(ne.getRef());
+      batch.addOrGet(output);
+      final TypedFieldId outputId = batch.getValueVectorId(ne.getRef());
+
+      // window aggregates read input columns, or constants as in COUNT(1)
+      final FunctionCall call = (FunctionCall) ne.getExpr();
+      TypedFieldId inputId = null;
+      MinorType inputType = null;
+      if (!call.args.isEmpty()) {
+        final LogicalExpression input = producer.materialize(call.args.get(0), batch);
+        if (input instanceof ValueVectorReadExpression) {
+          inputId = ((ValueVectorReadExpression) input).getFieldId();
+          inputType = input.getCompleteType().toMinorType();
+        }
+      }
+      aggregator = SlidingFrame.newAggregator(call.getName(), inputId, inputType, outputId);
+      return true;
+    }
+
+    SlidingFrame.Aggregator getAggregator() {
+      return aggregator;
+    }
+
+    @Override
+    void generateCode(ClassGenerator<WindowFramer> cg) {
+      // evaluated by SlidingFrame
+    }
+
+    @Override
+    public boolean requiresFullPartition(final WindowPOP pop) {
+      return SlidingFrame.requiresFollowingRows(pop);
+    }
+
+    @Override
+    public boolean canDoWork(int numBatchesAvailable, WindowPOP pop, boolean frameEndReached, boolean partitionEndReached) {
+      return partitionEndReached || !requiresFullPartition(pop);
+    }
+  }
+
   static class Ranking extends WindowFunction {
 
     protected TypedFieldId fieldId;
@@ -0,0 +1,121 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.task.slicing;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.dremio.config.DremioConfig;
+import com.dremio.exec.ExecConstants;
+import com.dremio.options.OptionManager;
+import com.dremio.sabot.task.AsyncTaskWrapper;
+import com.dremio.sabot.task.GroupManager;
+import com.dremio.sabot.task.Observer;
+import com.dremio.sabot.task.TaskManager;
+import com.dremio.sabot.task.TaskPool;
+import com.dremio.sabot.task.TaskPoolFactory;
+import com.google.common.collect.FluentIterable;
+import com.google.common.collect.ImmutableList;
+
+/**
+ * A task pool that runs all tasks on a fixed number of slicing threads, one per core by default.<br>
+ * <br>
+ * Tasks are expected to yield after a short amount of work. Runnable tasks are time-sliced according to the
+ * weights of their {@link com.dremio.sabot.task.SchedulingGroup}, blocked tasks release their thread and are
+ * re-enqueued through {@link TaskManager.TaskHandle#reEnqueue()} once they become available again.
+ */
+public class SlicingTaskPool implements TaskPool {
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(SlicingTaskPool.class);
+
+  /**
+   * Factory for {@code SlicingTaskPool}
+   */
+  public static final class Factory implements TaskPoolFactory {
+    @Override
+    public TaskPool newInstance(OptionManager options, DremioConfig config) {
+      final int numThreads = (int) options.getOption(ExecConstants.SLICING_NUM_THREADS);
+      return new SlicingTaskPool(
+        numThreads > 0 ? numThreads : Runtime.getRuntime().availableProcessors(),
+        TimeUnit.MILLISECONDS.toNanos(options.getOption(ExecConstants.SLICING_THREAD_QUANTUM_MS)));
+    }
+  }
+
+  // default weight of a task inside its scheduling group
+  private static final long TASK_WEIGHT = TaskManager.MAX_WEIGHT;
+
+  private final WorkStealingTaskManager<AsyncTaskWrapper> manager;
+  private final List<SlicingThread> threads;
+
+  public SlicingTaskPool(int numThreads, long quantumNanos) {
+    this.manager = new WorkStealingTaskManager<>(numThreads, quantumNanos, new LoggingObserver());
+
+    final ImmutableList.Builder<SlicingThread> builder = ImmutableList.builder();
+    for (int i = 0; i < numThreads; i++) {
+      builder.add(new SlicingThread(i, manager));
+    }
+    this.threads = builder.build();
+    threads.forEach(Thread::start);
+    logger.info("Started {} slicing threads", numThreads);
+  }
+
+  @Override
+  public void execute(AsyncTaskWrapper task) {
+    task.setTaskHandle(task.getSchedulingGroup().addTask(task, TASK_WEIGHT));
+  }
+
+  @Override
+  public Iterable<ThreadInfo> getSlicingThreads() {
+    return FluentIterable.from(threads).transform(SlicingThread::getThreadInfo).toList();
+  }
+
+  @Override
+  public boolean areAllThreadsAlive() {
+    return threads.stream().allMatch(Thread::isAlive);
+  }
+
+  @Override
+  public GroupManager<AsyncTaskWrapper> getGroupManager() {
+    return manager;
+  }
+
+  @Override
+  public void close() throws Exception {
+    threads.forEach(SlicingThread::close);
+    for (SlicingThread thread : threads) {
+      thread.join(TimeUnit.SECONDS.toMillis(1));
+    }
+  }
+
+  /**
+   * Logs scheduling decisions at trace level
+   */
+  private static final class LoggingObserver implements Observer<AsyncTaskWrapper> {
+    @Override
+    public void addTask(TaskManager.TaskHandle<AsyncTaskWrapper> task, int thread) {
+      logger.trace("task {} added to thread {}", task.getTask(), thread);
+    }
+
+    @Override
+    public void rebalance(TaskManager.TaskHandle<AsyncTaskWrapper> task, int srcThread, int dstThread) {
+      logger.trace("task {} moved from thread {} to thread {}", task.getTask(), srcThread, dstThread);
+    }
+
+    @Override
+    public void workRequestRejected(int thread) {
+      logger.trace("work request from thread {} rejected", thread);
+    }
+  }
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.task.slicing;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import com.dremio.sabot.task.AsyncTaskWrapper;
+import com.dremio.sabot.task.BlockRun;
+import com.dremio.sabot.task.TaskManager;
+import com.dremio.sabot.task.TaskManager.TaskHandle;
+import com.dremio.sabot.task.TaskManager.TaskProvider;
+import com.dremio.sabot.task.TaskPool;
+
+/**
+ * Executing thread of the {@link SlicingTaskPool}. Repeatedly asks its {@link TaskProvider} for the next task
+ * and runs it for one slice. Blocked tasks are handed a {@link BlockRun} callback and leave the thread, so a
+ * blocked fragment never holds on to an OS thread.
+ */
+class SlicingThread extends Thread implements TaskManager.WakeUpListener {
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(SlicingThread.class);
+
+  // upper bound on the time an idle thread waits before trying to steal work again
+  private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+  private final int slicingThreadId;
+  private final TaskProvider<AsyncTaskWrapper> provider;
+
+  private volatile boolean idle = false;
+  private volatile boolean closed = false;
+
+  SlicingThread(int slicingThreadId, TaskManager<AsyncTaskWrapper> manager) {
+    super("e" + slicingThreadId);
+    setDaemon(true);
+    this.slicingThreadId = slicingThreadId;
+    this.provider = manager.getTaskProvider(slicingThreadId, this);
+  }
+
+  @Override
+  public void run() {
+    long elapsed = 0;
+    TaskHandle<AsyncTaskWrapper> blocked = null;
+
+    while (!closed) {
+      final TaskHandle<AsyncTaskWrapper> handle = provider.getTask(elapsed);
+      elapsed = 0;
+
+      // the callback can only be registered once the provider accounted for the last run of the task, as
+      // it may re-enqueue the task immediately
+      if (blocked != null) {
+        blocked.getTask().setAvailabilityCallback(new BlockRun(blocked));
+        blocked = null;
+      }
+
+      if (handle == null) {
+        waitForWork();
+        continue;
+      }
+
+      final AsyncTaskWrapper task = handle.getTask();
+      final long start = System.nanoTime();
+      try {
+        task.run();
+      } catch (Throwable t) {
+        logger.error("Unhandled Exception in slicing thread {} while running task {}.", slicingThreadId, task, t);
+      }
+      elapsed = System.nanoTime() - start;
+
+      switch (task.getState()) {
+        case BLOCKED_ON_DOWNSTREAM:
+        case BLOCKED_ON_UPSTREAM:
+        case BLOCKED_ON_SHARED_RESOURCE:
+          blocked = handle;
+          break;
+        case DONE:
+          try {
+            task.getCleaner().close();
+          } catch (Throwable t) {
+            logger.error("Failure while cleaning up task {}.", task, t);
+          }
+          break;
+        case RUNNABLE:
+        default:
+          // the provider decides whether the task continues its slice or goes back to the run queue
+          break;
+      }
+    }
+  }
+
+  private void waitForWork() {
+    idle = true;
+    try {
+      if (provider.getNumTasks() == 0) {
+        LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+      }
+    } finally {
+      idle = false;
+    }
+  }
+
+  @Override
+  public void wakeUpIfIdle() {
+    if (idle) {
+      LockSupport.unpark(this);
+    }
+  }
+
+  void close() {
+    closed = true;
+    LockSupport.unpark(this);
+  }
+
+  TaskPool.ThreadInfo getThreadInfo() {
+    return new TaskPool.ThreadInfo(getName(), slicingThreadId, -1, -1, provider.getNumTasks(),
+      provider.getNumStaged(), provider.getNumWorkRequests(), getId());
+  }
+}
@@ -0,0 +1,349 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.task.slicing;
+
+import java.util.Iterator;
+import java.util.PriorityQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.dremio.sabot.task.Observer;
+import com.dremio.sabot.task.SchedulingGroup;
+import com.dremio.sabot.task.Task;
+import com.dremio.sabot.task.TaskManager;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
+
+/**
+ * {@link TaskManager} with one run queue per executing thread.<br>
+ * <br>
+ * Each run queue is ordered by the virtual runtime of its tasks: the time a task spent running, scaled
+ * by the inverse of its weight. A task's weight is the product of its own weight and the weights of all the
+ * groups it belongs to, so a group with a higher weight receives a proportionally larger share of cpu time.<br>
+ * <br>
+ * New tasks are placed on the thread with the shortest run queue. Blocked tasks go back to the queue of the
+ * thread they last ran on when they are re-enqueued. A thread whose queue is empty steals the task with the
+ * largest virtual runtime from the longest queue.
+ */
+public class WorkStealingTaskManager<T extends Task> implements TaskManager<T> {
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(WorkStealingTaskManager.class);
+
+  private final RunQueue[] queues;
+  private final long quantumNanos;
+  private final Observer<T> observer;
+  private final AtomicInteger nextThread = new AtomicInteger();
+
+  @SuppressWarnings("unchecked")
+  public WorkStealingTaskManager(int numThreads, long quantumNanos, Observer<T> observer) {
+    Preconditions.checkArgument(numThreads > 0, "At least one thread is required");
+    Preconditions.checkArgument(quantumNanos > 0, "Time quantum must be positive");
+    this.quantumNanos = quantumNanos;
+    this.observer = Preconditions.checkNotNull(observer);
+    this.queues = new WorkStealingTaskManager.RunQueue[numThreads];
+    for (int i = 0; i < numThreads; i++) {
+      queues[i] = new RunQueue(i);
+    }
+  }
+
+  public int getNumThreads() {
+    return queues.length;
+  }
+
+  @Override
+  public SchedulingGroup<T> newGroup(long weight) {
+    return new Group(weight(weight, MAX_WEIGHT));
+  }
+
+  @Override
+  public TaskHandle<T> addTask(T task, long weight) {
+    return newHandle(task, weight(weight, MAX_WEIGHT));
+  }
+
+  @Override
+  public TaskProvider<T> getTaskProvider(int thread, WakeUpListener listener) {
+    final RunQueue queue = queues[thread];
+    Preconditions.checkState(queue.listener == null, "Task provider for thread %s was already requested", thread);
+    queue.listener = Preconditions.checkNotNull(listener);
+    return queue;
+  }
+
+  /**
+   * Computes the effective weight of an entity given the effective weight of its parent. The result is
+   * always in [1, MAX_WEIGHT].
+   */
+  private static long weight(long weight, long parentWeight) {
+    Preconditions.checkArgument(weight > 0 && weight <= MAX_WEIGHT, "weight must be in ]0, %s]", MAX_WEIGHT);
+    return Math.max(1, weight * parentWeight / MAX_WEIGHT);
+  }
+
+  private TaskHandleImpl newHandle(T task, long effectiveWeight) {
+    final RunQueue queue = leastLoaded();
+    final TaskHandleImpl handle = new TaskHandleImpl(task, effectiveWeight, queue.id);
+    observer.addTask(handle, queue.id);
+    queue.enqueue(handle);
+    return handle;
+  }
+
+  /**
+   * @return the thread with the smallest number of tasks, starting the search at a rotating position
+   *         so ties are spread across threads
+   */
+  private RunQueue leastLoaded() {
+    final int start = Math.floorMod(nextThread.getAndIncrement(), queues.length);
+    RunQueue best = queues[start];
+    for (int i = 1; i < queues.length && best.getNumTasks() > 0; i++) {
+      final RunQueue candidate = queues[(start + i) % queues.length];
+      if (candidate.getNumTasks() < best.getNumTasks()) {
+        best = candidate;
+      }
+    }
+    return best;
+  }
+
+  /**
+   * Scheduling group whose tasks and sub-groups share the group's weight.
+   */
+  private final class Group implements SchedulingGroup<T> {
+    private final long effectiveWeight;
+
+    private Group(long effectiveWeight) {
+      this.effectiveWeight = effectiveWeight;
+    }
+
+    @Override
+    public SchedulingGroup<T> addGroup(long weight) {
+      return new Group(weight(weight, effectiveWeight));
+    }
+
+    @Override
+    public TaskHandle<T> addTask(T task, long weight) {
+      return newHandle(task, weight(weight, effectiveWeight));
+    }
+  }
+
+  /**
+   * Handle of a task. A handle is in at most one run queue at a time, which is tracked by {@code queued}.
+   */
+  private final class TaskHandleImpl implements TaskHandle<T> {
+    private final T task;
+    private final long weight;
+    private final AtomicBoolean queued = new AtomicBoolean(false);
+
+    private volatile int thread;
+    // only modified while the task is not queued, either by the thread running it or under the lock of its queue
+    private long vruntime;
+
+    private TaskHandleImpl(T task, long weight, int thread) {
+      this.task = task;
+      this.weight = weight;
+      this.thread = thread;
+    }
+
+    @Override
+    public T getTask() {
+      return task;
+    }
+
+    @Override
+    public void reEnqueue() {
+      queues[thread].enqueue(this);
+    }
+
+    @Override
+    public int getThread() {
+      return thread;
+    }
+
+    private void charge(long elapsedNanos) {
+      vruntime += elapsedNanos * MAX_WEIGHT / weight;
+    }
+
+    @Override
+    public String toString() {
+      return String.format("%s (thread: %d, weight: %d, vruntime: %d)", task.getState(), thread, weight, vruntime);
+    }
+  }
+
+  /**
+   * Run queue of a single executing thread. Enqueueing and stealing may happen from any thread, while
+   * {@link #getTask(long)} is only called by the owning thread.
+   */
+  private final class RunQueue implements TaskProvider<T> {
+    private final int id;
+    private final PriorityQueue<TaskHandleImpl> tasks = new PriorityQueue<>((h1, h2) -> Long.compare(h1.vruntime, h2.vruntime));
+    private volatile WakeUpListener listener;
+    private volatile int size;
+
+    // smallest virtual runtime seen by this queue, used to place woken up tasks without letting them starve others
+    private long minVruntime;
+
+    // owner thread state, current is also read by stealing threads to estimate the load of this queue
+    private volatile TaskHandleImpl current;
+    private long currentSliceNanos;
+    private int numWorkRequests;
+
+    private RunQueue(int id) {
+      this.id = id;
+    }
+
+    private void enqueue(TaskHandleImpl handle) {
+      if (!handle.queued.compareAndSet(false, true)) {
+        logger.debug("Task {} is already queued", handle);
+        return;
+      }
+      synchronized (this) {
+        handle.thread = id;
+        // a task that was blocked for a long time shouldn't monopolize the thread once it wakes up
+        handle.vruntime = Math.max(handle.vruntime, minVruntime);
+        tasks.add(handle);
+        size = tasks.size();
+      }
+      final WakeUpListener l = listener;
+      if (l != null) {
+        l.wakeUpIfIdle();
+      }
+    }
+
+    private synchronized TaskHandleImpl poll() {
+      final TaskHandleImpl handle = tasks.poll();
+      size = tasks.size();
+      if (handle != null) {
+        minVruntime = Math.max(minVruntime, handle.vruntime);
+        handle.queued.set(false);
+      }
+      return handle;
+    }
+
+    /**
+     * Removes the task with the largest virtual runtime, the one least likely to run soon on this thread.
+     */
+    private synchronized TaskHandleImpl steal() {
+      if (tasks.isEmpty() || (tasks.size() < 2 && current == null)) {
+        // leave the last task to an idle owner, it will most likely pick it up soon
+        return null;
+      }
+      TaskHandleImpl victim = null;
+      for (TaskHandleImpl handle : tasks) {
+        if (victim == null || handle.vruntime > victim.vruntime) {
+          victim = handle;
+        }
+      }
+      tasks.remove(victim);
+      size = tasks.size();
+      victim.vruntime -= minVruntime;
+      victim.queued.set(false);
+      return victim;
+    }
+
+    /**
+     * Number of tasks waiting on, or running on, this thread.
+     */
+    private int load() {
+      return size + (current != null ? 1 : 0);
+    }
+
+    private TaskHandleImpl stealFromBusiest() {
+      numWorkRequests++;
+      RunQueue busiest = null;
+      int busiestLoad = 0;
+      for (RunQueue queue : queues) {
+        if (queue == this || queue.size == 0) {
+          continue;
+        }
+        final int load = queue.load();
+        if (load > 1 && load > busiestLoad) {
+          busiest = queue;
+          busiestLoad = load;
+        }
+      }
+      if (busiest == null) {
+        observer.workRequestRejected(id);
+        return null;
+      }
+
+      final TaskHandleImpl handle = busiest.steal();
+      if (handle == null) {
+        observer.workRequestRejected(id);
+        return null;
+      }
+      synchronized (this) {
+        handle.vruntime += minVruntime;
+        handle.thread = id;
+      }
+      observer.rebalance(handle, busiest.id, id);
+      return handle;
+    }
+
+    @Override
+    public TaskHandle<T> getTask(long time) {
+      if (current != null) {
+        current.charge(time);
+        currentSliceNanos += time;
+        if (current.getTask().getState() == Task.State.RUNNABLE) {
+          if (currentSliceNanos < quantumNanos && size == 0) {
+            // nobody else is waiting on this thread, let the task continue its time slice
+            return current;
+          }
+          // time slice is over, or another task is waiting: put the task back in the queue
+          enqueue(current);
+        }
+        // blocked tasks are re-enqueued through their handle once they are unblocked, done tasks are dropped
+        current = null;
+      }
+
+      TaskHandleImpl next = poll();
+      if (next == null) {
+        next = stealFromBusiest();
+      }
+      current = next;
+      currentSliceNanos = 0;
+      return next;
+    }
+
+    @Override
+    public int getNumTasks() {
+      return size;
+    }
+
+    @Override
+    public int getNumStaged() {
+      return 0;
+    }
+
+    @Override
+    public int getNumWorkRequests() {
+      return numWorkRequests;
+    }
+
+    @Override
+    public synchronized String toString() {
+      final StringBuilder sb = new StringBuilder("RunQueue ").append(id).append(": [");
+      final Iterator<TaskHandleImpl> it = tasks.iterator();
+      while (it.hasNext()) {
+        sb.append(it.next());
+        if (it.hasNext()) {
+          sb.append(", ");
+        }
+      }
+      return sb.append(']').toString();
+    }
+  }
+
+  @VisibleForTesting
+  int getNumTasks(int thread) {
+    return queues[thread].getNumTasks();
+  }
+}
@@ -136,6 +136,40 @@ public class MutableVarcharVector extends BaseVariableWidthVector {
   }
 
 
+  /**
+   * Allocate memory for the vector, including the index to the values, so that
+   * valueCount values of totalBytes bytes can be set without reallocation.
+   *
+   * @param totalBytes desired total memory capacity for the data
+   * @param valueCount the desired number of elements in the vector
+   */
+  @Override
+  public void allocateNew(long totalBytes, int valueCount) {
+    super.allocateNew(totalBytes, valueCount);
+    fwdIndex.allocateNew(valueCount);
+  }
+
+  /**
+   * Make sure that valueCount values of totalBytes bytes can be appended with the
+   * 'setSafe' apis without reallocating the buffers. The garbage is compacted
+   * first, and the buffers are only grown if it doesn't free enough space.
+   *
+   * @param valueCount number of values to append
+   * @param totalBytes total length of the values to append
+   */
+  public void ensureAppendCapacity(int valueCount, long totalBytes) {
+    if (garbageSizeInBytes > 0 &&
+      (head + valueCount > getValueCapacity() || getCurrentOffset() + totalBytes > getByteCapacity())) {
+      compactInternal();
+    }
+    while (head + valueCount > getValueCapacity()) {
+      reallocValidityAndOffsetBuffers();
+    }
+    while (getCurrentOffset() + totalBytes > getByteCapacity()) {
+      reallocDataBuffer();
+    }
+  }
+
   /**
    * zero out the vector and the data in associated buffers.
    */
@@ -147,24 +147,63 @@ public class TestWindowFunctions extends BaseTestQuery {
     }
   }
 
-  @Test(expected = UnsupportedFunctionException.class) // DRILL-3188
+  @Test // DRILL-3188
   public void testWindowFrame() throws Exception {
+    final String query = "select n_regionkey as r, sum(n_regionkey) over(partition by n_regionkey order by n_nationkey rows between 1 preceding and 1 following) as col1, \n" +
+        "count(*) over(partition by n_regionkey order by n_nationkey rows between 1 preceding and 1 following) as col2 \n" +
+        "from cp.\"tpch/nation.parquet\" t";
+
+    testBuilder()
+        .sqlQuery(query)
+        .unOrdered()
+        .baselineColumns("r", "col1", "col2")
+        .baselineValues(0, 0l, 2l)
+        .baselineValues(0, 0l, 3l)
+        .baselineValues(0, 0l, 3l)
+        .baselineValues(0, 0l, 3l)
+        .baselineValues(0, 0l, 2l)
+        .baselineValues(1, 2l, 2l)
+        .baselineValues(1, 3l, 3l)
+        .baselineValues(1, 3l, 3l)
+        .baselineValues(1, 3l, 3l)
+        .baselineValues(1, 2l, 2l)
+        .baselineValues(2, 4l, 2l)
+        .baselineValues(2, 6l, 3l)
+        .baselineValues(2, 6l, 3l)
+        .baselineValues(2, 6l, 3l)
+        .baselineValues(2, 4l, 2l)
+        .baselineValues(3, 6l, 2l)
+        .baselineValues(3, 9l, 3l)
+        .baselineValues(3, 9l, 3l)
+        .baselineValues(3, 9l, 3l)
+        .baselineValues(3, 6l, 2l)
+        .baselineValues(4, 8l, 2l)
+        .baselineValues(4, 12l, 3l)
+        .baselineValues(4, 12l, 3l)
+        .baselineValues(4, 12l, 3l)
+        .baselineValues(4, 8l, 2l)
+        .build()
+        .run();
+  }
+
+  @Test(expected = UnsupportedFunctionException.class) // DRILL-3326
+  public void testWindowWithAlias() throws Exception {
     try {
-      final String query = "select n_regionkey, sum(n_regionkey) over(partition by n_regionkey order by n_regionkey rows between 1 preceding and 1 following ) \n" +
-          "from cp.\"tpch/nation.parquet\" t \n" +
-          "order by n_regionkey";
+      String query = "explain plan for SELECT sum(n_nationkey) OVER (PARTITION BY n_name ORDER BY n_nationkey RANGE BETWEEN CURRENT ROW AND 1 FOLLOWING) as col2 \n" +
+          "from cp.\"tpch/nation.parquet\"";
 
       test(query);
     } catch(UserException ex) {
-        throwAsUnsupportedException(ex);
-        throw ex;
+      throwAsUnsupportedException(ex);
+      throw ex;
     }
   }
 
-  @Test(expected = UnsupportedFunctionException.class) // DRILL-3326
-  public void testWindowWithAlias() throws Exception {
+  @Test(expected = UnsupportedFunctionException.class)
+  public void testSlidingRowsFrameMinOnVarchar() throws Exception {
     try {
-      String query = "explain plan for SELECT sum(n_nationkey) OVER (PARTITION BY n_name ORDER BY n_name ROWS BETWEEN CURRENT ROW AND 1 FOLLOWING) as col2 \n" +
+      final String query = "explain plan for select min(n_name) over(partition by n_regionkey order by n_nationkey \n" +
+          "rows between 2 preceding and current row) \n" +
           "from cp.\"tpch/nation.parquet\"";
 
       test(query);
@@ -0,0 +1,152 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.catalog;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyBoolean;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.anyVararg;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.atMost;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.dremio.connector.metadata.DatasetHandle;
+import com.dremio.connector.metadata.DatasetHandleListing;
+import com.dremio.connector.metadata.EntityPath;
+import com.dremio.connector.metadata.SourceMetadata;
+import com.dremio.connector.metadata.extensions.SupportsListingDatasets;
+import com.dremio.exec.store.DatasetRetrievalOptions;
+import com.dremio.service.namespace.NamespaceKey;
+import com.dremio.service.namespace.NamespaceService;
+import com.dremio.service.namespace.dataset.proto.DatasetConfig;
+import com.dremio.service.namespace.dataset.proto.ReadDefinition;
+import com.dremio.service.namespace.source.proto.MetadataPolicy;
+import com.dremio.service.namespace.source.proto.UpdateMode;
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Tests for {@link MetadataSynchronizer}
+ */
+public class TestMetadataSynchronizer {
+  private static final NamespaceKey SOURCE = new NamespaceKey("source");
+  private static final MetadataPolicy POLICY = new MetadataPolicy().setDatasetUpdateMode(UpdateMode.PREFETCH_QUERIED);
+
+  interface ListingSourceMetadata extends SourceMetadata, SupportsListingDatasets {
+  }
+
+  private NamespaceService namespace;
+  private DatasetSaver saver;
+  private ListingSourceMetadata sourceMetadata;
+
+  @Before
+  public void setup() throws Exception {
+    namespace = mock(NamespaceService.class);
+    saver = mock(DatasetSaver.class);
+    sourceMetadata = mock(ListingSourceMetadata.class);
+    when(namespace.getDataset(any(NamespaceKey.class)))
+        .thenReturn(new DatasetConfig().setTag("0").setReadDefinition(new ReadDefinition()));
+  }
+
+  /**
+   * Lists {@code count} datasets, of which the first {@code existing} ones are already in the namespace.
+   */
+  private void listDatasets(int count, int existing) throws Exception {
+    final List<DatasetHandle> handles = new ArrayList<>();
+    final List<NamespaceKey> existingKeys = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      final List<String> path = ImmutableList.of(SOURCE.getRoot(), "folder", "dataset" + i);
+      handles.add(() -> new EntityPath(path));
+      if (i < existing) {
+        existingKeys.add(new NamespaceKey(path));
+      }
+    }
+    when(namespace.getAllDatasets(eq(SOURCE))).thenReturn(existingKeys);
+    when(sourceMetadata.listDatasetHandles(anyVararg())).thenReturn((DatasetHandleListing) handles::iterator);
+  }
+
+  private SyncStatus synchronize(int parallelism) throws Exception {
+    final MetadataSynchronizer synchronizer = new MetadataSynchronizer(namespace, SOURCE, sourceMetadata, POLICY,
+        saver, DatasetRetrievalOptions.DEFAULT, parallelism);
+    synchronizer.setup();
+    return synchronizer.go();
+  }
+
+  @Test
+  public void testParallelSync() throws Exception {
+    listDatasets(40, 10);
+    final Set<String> threads = ConcurrentHashMap.newKeySet();
+    doAnswer(invocation -> threads.add(Thread.currentThread().getName()))
+        .when(namespace).addOrUpdateDataset(any(NamespaceKey.class), any(DatasetConfig.class));
+
+    final SyncStatus status = synchronize(4);
+
+    assertFalse(status.isInterrupted());
+    assertTrue(status.isRefreshed());
+    assertEquals(30, status.getShallowAdded());
+    assertEquals(10, status.getExtendedChanged());
+    verify(namespace, times(30)).addOrUpdateDataset(any(NamespaceKey.class), any(DatasetConfig.class));
+    verify(saver, times(10)).save(any(DatasetConfig.class), any(DatasetHandle.class), any(SourceMetadata.class),
+        anyBoolean(), any(DatasetRetrievalOptions.class));
+    // every listed dataset is kept
+    verify(namespace, never()).deleteDataset(any(NamespaceKey.class), anyString());
+    assertFalse(threads.contains(Thread.currentThread().getName()));
+  }
+
+  @Test
+  public void testWorkerFailureStopsSync() throws Exception {
+    listDatasets(100, 0);
+    doThrow(mock(ManagedStoragePlugin.class).new StoragePluginChanging("source is changing"))
+        .when(namespace).addOrUpdateDataset(any(NamespaceKey.class), any(DatasetConfig.class));
+
+    final SyncStatus status = synchronize(2);
+
+    // the failure reaches the synchronizer, which stops listing once it sees it
+    assertTrue(status.isInterrupted());
+    verify(namespace, atMost(3)).addOrUpdateDataset(any(NamespaceKey.class), any(DatasetConfig.class));
+  }
+
+  @Test
+  public void testSerialSync() throws Exception {
+    listDatasets(20, 5);
+    final Set<String> threads = ConcurrentHashMap.newKeySet();
+    doAnswer(invocation -> threads.add(Thread.currentThread().getName()))
+        .when(namespace).addOrUpdateDataset(any(NamespaceKey.class), any(DatasetConfig.class));
+
+    final SyncStatus status = synchronize(1);
+
+    assertEquals(15, status.getShallowAdded());
+    assertEquals(5, status.getExtendedChanged());
+    // datasets are synchronized by the calling thread
+    assertEquals(ImmutableList.of(Thread.currentThread().getName()), ImmutableList.copyOf(threads));
+  }
+}
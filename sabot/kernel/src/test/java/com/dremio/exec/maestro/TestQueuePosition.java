@@ -80,6 +80,10 @@ public class TestQueuePosition {
     BasicResourceAllocator ra = new BasicResourceAllocator(() -> clusterCoordinator,
       null);
     ResourceTracker resourceTracker = new ResourceTracker(plan, context, ra, observer);
+    // the tracker doesn't wait for the resources, failed checks fail the allocation future
+    resourceTracker.getAllocationFuture().get();
+    Assert.assertEquals(2, count.get());
+    resourceTracker.close();
   }
 
   /**
@@ -23,11 +23,18 @@ import static com.dremio.exec.physical.impl.window.DataPar.dataB3P2;
 import static com.dremio.exec.physical.impl.window.DataPar.dataB4P4;
 import static com.dremio.exec.physical.impl.window.WindowGenerator.generateInput;
 import static com.dremio.exec.physical.impl.window.WindowGenerator.generateOutput;
+import static com.dremio.sabot.Fixtures.NULL_BIGINT;
+import static com.dremio.sabot.Fixtures.NULL_DOUBLE;
 import static com.dremio.sabot.Fixtures.t;
+import static com.dremio.sabot.Fixtures.th;
+import static com.dremio.sabot.Fixtures.tr;
 import static java.util.Collections.singletonList;
+import static org.apache.calcite.rel.RelFieldCollation.Direction.ASCENDING;
 import static org.apache.calcite.rel.RelFieldCollation.Direction.DESCENDING;
 import static org.apache.calcite.rel.RelFieldCollation.NullDirection.FIRST;
+import static org.junit.Assert.assertTrue;
 
+import java.math.BigDecimal;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
@@ -36,11 +43,15 @@ import org.junit.Test;
 
 import com.dremio.common.logical.data.NamedExpression;
 import com.dremio.common.logical.data.Order;
+import com.dremio.exec.ExecConstants;
 import com.dremio.exec.physical.config.WindowPOP;
 import com.dremio.exec.physical.config.WindowPOP.Bound;
+import com.dremio.exec.planner.physical.PlannerSettings;
 import com.dremio.sabot.BaseTestOperator;
 import com.dremio.sabot.Fixtures;
+import com.dremio.sabot.Fixtures.DataRow;
 import com.dremio.sabot.Fixtures.Table;
+import com.dremio.sabot.exec.context.OperatorStats;
 import com.dremio.sabot.op.windowframe.WindowFrameOperator;
 
 public class TestWindowOperator extends BaseTestOperator {
@@ -106,6 +117,51 @@ public class TestWindowOperator extends BaseTestOperator {
     runTests(dataB4P4(true), dataB4P4(false));
   }
 
+  @Test
+  public void testSpilledPartitions() throws Exception {
+    try (AutoCloseable option = with(ExecConstants.WINDOW_SPILL_THRESHOLD_BYTES, 1)) {
+      final DataPar[] partitions = dataB4P4(true);
+      final WindowPOP window = createWindowPOP(true, true);
+      final Table input = t(WindowGenerator.header, generateInput(partitions));
+      final OperatorStats stats = validateSingle(window, WindowFrameOperator.class, input.toGenerator(getTestAllocator()),
+        generateOutput(partitions, true), 5);
+      assertTrue(stats.getLongStat(WindowFrameOperator.Metric.SPILL_COUNT) > 0);
+    }
+  }
+
+  @Test
+  public void testSpilledPartitionWithPeersAcrossBatches() throws Exception {
+    // SELECT sum(v), count(v), last_value(v) OVER(PARTITION BY p ORDER BY o RANGE BETWEEN UNBOUNDED PRECEDING AND CURRENT ROW)
+    final WindowPOP window = new WindowPOP(PROPS, null,
+      singletonList(n("p")), // withins
+      Arrays.asList(n("sum(v)", "s"), n("count(v)", "c"), n("last_value(v)", "lv")), // aggregations
+      singletonList(ordering("o", ASCENDING, FIRST)), // ordering
+      false, new Bound(true, Long.MIN_VALUE), new Bound(false, 0));
+
+    // the first partition spans 6 batches of 4 rows, with peer groups of 5 rows crossing the batches
+    final int rows = 24;
+    final DataRow[] inputRows = new DataRow[rows + 3];
+    final DataRow[] outputRows = new DataRow[rows + 3];
+    for (int i = 0; i < rows; i++) {
+      final long frameEnd = Math.min(i / 5 * 5 + 4, rows - 1);
+      inputRows[i] = tr(1L, (long) (i / 5), (long) i);
+      outputRows[i] = tr(1L, (long) (i / 5), (long) i, frameEnd * (frameEnd + 1) / 2, frameEnd + 1, frameEnd);
+    }
+    for (int i = 0; i < 3; i++) {
+      inputRows[rows + i] = tr(2L, 0L, 100L + i);
+      outputRows[rows + i] = tr(2L, 0L, 100L + i, 303L, 3L, 102L);
+    }
+
+    try (AutoCloseable option = with(ExecConstants.WINDOW_SPILL_THRESHOLD_BYTES, 1)) {
+      final Table input = t(th("p", "o", "v"), inputRows);
+      final Table output = t(th("p", "o", "v", "s", "c", "lv"), outputRows);
+      final OperatorStats stats = validateSingle(window, WindowFrameOperator.class, input.toGenerator(getTestAllocator()),
+        output, 4);
+      assertTrue(stats.getLongStat(WindowFrameOperator.Metric.SPILL_COUNT) > 3);
+      assertTrue(stats.getLongStat(WindowFrameOperator.Metric.BATCHES_LOADED) > 0);
+    }
+  }
+
   @Test // DRILL-4657
   public void test4657() throws Exception {
     // SELECT row_number() OVER(ORDER BY position_id) rn, rank() OVER(ORDER BY position_id) rnk FROM dfs.\"%s/window/b3.p2\"
@@ -121,4 +177,97 @@ public class TestWindowOperator extends BaseTestOperator {
     validateSingle(window, WindowFrameOperator.class, input, output, 20);
   }
 
+  @Test
+  public void testSlidingRowsFrame() throws Exception {
+    // SELECT sum(v), min(v), max(v) OVER(PARTITION BY p ROWS BETWEEN 2 PRECEDING AND 1 FOLLOWING)
+    final WindowPOP window = new WindowPOP(PROPS, null,
+      singletonList(n("p")), // withins
+      Arrays.asList(n("sum(v)", "s"), n("min(v)", "mn"), n("max(v)", "mx")), // aggregations
+      Collections.<Order.Ordering>emptyList(), // ordering
+      true, new Bound(false, -2), new Bound(false, 1));
+
+    final Table input = Fixtures.split(th("p", "v"), 2,
+      tr(1L, 5L), tr(1L, 3L), tr(1L, 8L), tr(1L, 1L), tr(1L, 4L),
+      tr(2L, 7L), tr(2L, 2L));
+    final Table output = t(th("p", "v", "s", "mn", "mx"),
+      tr(1L, 5L, 8L, 3L, 5L),
+      tr(1L, 3L, 16L, 3L, 8L),
+      tr(1L, 8L, 17L, 1L, 8L),
+      tr(1L, 1L, 16L, 1L, 8L),
+      tr(1L, 4L, 13L, 1L, 8L),
+      tr(2L, 7L, 9L, 2L, 7L),
+      tr(2L, 2L, 9L, 2L, 7L));
+    validateSingle(window, WindowFrameOperator.class, input, output, 2);
+  }
+
+  @Test
+  public void testSlidingRowsFrameAvgWithNulls() throws Exception {
+    // SELECT avg(v), count(v), min(v), max(v) OVER(PARTITION BY p ROWS BETWEEN 1 PRECEDING AND 1 FOLLOWING)
+    final WindowPOP window = new WindowPOP(PROPS, null,
+      singletonList(n("p")), // withins
+      Arrays.asList(n("avg(v)", "a"), n("count(v)", "c"), n("min(v)", "mn"), n("max(v)", "mx")), // aggregations
+      Collections.<Order.Ordering>emptyList(), // ordering
+      true, new Bound(false, -1), new Bound(false, 1));
+
+    final Table input = Fixtures.split(th("p", "v"), 2,
+      tr(1L, 4L), tr(1L, NULL_BIGINT), tr(1L, 6L), tr(1L, 10L), tr(1L, NULL_BIGINT),
+      tr(2L, NULL_BIGINT), tr(2L, NULL_BIGINT));
+    final Table output = t(th("p", "v", "a", "c", "mn", "mx"),
+      tr(1L, 4L, 4.0D, 1L, 4L, 4L),
+      tr(1L, NULL_BIGINT, 5.0D, 2L, 4L, 6L),
+      tr(1L, 6L, 8.0D, 2L, 6L, 10L),
+      tr(1L, 10L, 8.0D, 2L, 6L, 10L),
+      tr(1L, NULL_BIGINT, 10.0D, 1L, 10L, 10L),
+      tr(2L, NULL_BIGINT, NULL_DOUBLE, 0L, NULL_BIGINT, NULL_BIGINT),
+      tr(2L, NULL_BIGINT, NULL_DOUBLE, 0L, NULL_BIGINT, NULL_BIGINT));
+    validateSingle(window, WindowFrameOperator.class, input, output, 2);
+  }
+
+  @Test
+  public void testSlidingRowsFrameDecimal() throws Exception {
+    // SELECT sum(v), min(v), max(v) OVER(PARTITION BY p ROWS BETWEEN CURRENT ROW AND 2 FOLLOWING)
+    final WindowPOP window = new WindowPOP(PROPS, null,
+      singletonList(n("p")), // withins
+      Arrays.asList(n("sum(v)", "s"), n("min(v)", "mn"), n("max(v)", "mx")), // aggregations
+      Collections.<Order.Ordering>emptyList(), // ordering
+      true, new Bound(false, 0), new Bound(false, 2));
+
+    final Table input = Fixtures.split(th("p", "v"), 2,
+      tr(1L, new BigDecimal("1.50")), tr(1L, new BigDecimal("-2.25")), tr(1L, new BigDecimal("3.00")),
+      tr(1L, new BigDecimal("0.75")), tr(2L, new BigDecimal("10.10")));
+    final Table output = t(th("p", "v", "s", "mn", "mx"),
+      tr(1L, new BigDecimal("1.50"), new BigDecimal("2.25"), new BigDecimal("-2.25"), new BigDecimal("3.00")),
+      tr(1L, new BigDecimal("-2.25"), new BigDecimal("1.50"), new BigDecimal("-2.25"), new BigDecimal("3.00")),
+      tr(1L, new BigDecimal("3.00"), new BigDecimal("3.75"), new BigDecimal("0.75"), new BigDecimal("3.00")),
+      tr(1L, new BigDecimal("0.75"), new BigDecimal("0.75"), new BigDecimal("0.75"), new BigDecimal("0.75")),
+      tr(2L, new BigDecimal("10.10"), new BigDecimal("10.10"), new BigDecimal("10.10"), new BigDecimal("10.10")));
+    try (AutoCloseable decimalV2 = with(PlannerSettings.ENABLE_DECIMAL_V2, true)) {
+      validateSingle(window, WindowFrameOperator.class, input, output, 2);
+    }
+  }
+
+  @Test
+  public void testSlidingRowsFramePrecedingOnly() throws Exception {
+    // SELECT sum(v), count(v), min(v) OVER(PARTITION BY p ROWS BETWEEN 3 PRECEDING AND 1 PRECEDING)
+    final WindowPOP window = new WindowPOP(PROPS, null,
+      singletonList(n("p")), // withins
+      Arrays.asList(n("sum(v)", "s"), n("count(v)", "c"), n("min(v)", "mn")), // aggregations
+      Collections.<Order.Ordering>emptyList(), // ordering
+      true, new Bound(false, -3), new Bound(false, -1));
+
+    final Table input = Fixtures.split(th("p", "v"), 2,
+      tr(1L, 5L), tr(1L, 3L), tr(1L, 8L), tr(1L, 1L), tr(1L, 4L),
+      tr(2L, 7L), tr(2L, 2L));
+    // the frame of the first row of each partition is empty
+    final Table output = t(th("p", "v", "s", "c", "mn"),
+      tr(1L, 5L, NULL_BIGINT, 0L, NULL_BIGINT),
+      tr(1L, 3L, 5L, 1L, 5L),
+      tr(1L, 8L, 8L, 2L, 3L),
+      tr(1L, 1L, 16L, 3L, 3L),
+      tr(1L, 4L, 12L, 3L, 1L),
+      tr(2L, 7L, NULL_BIGINT, 0L, NULL_BIGINT),
+      tr(2L, 2L, 7L, 1L, 7L));
+    validateSingle(window, WindowFrameOperator.class, input, output, 2);
+  }
+
 }
@@ -16,9 +16,11 @@
 package com.dremio.exec.planner.acceleration;
 
 
+import static org.junit.Assert.assertEquals;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.atLeastOnce;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -27,11 +29,13 @@ import org.junit.Test;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
+import com.dremio.exec.planner.acceleration.substitution.SubstitutionUtils.PlanDependencies;
 import com.dremio.exec.planner.sql.SqlConverter;
 import com.dremio.exec.server.MaterializationDescriptorProvider;
 import com.dremio.exec.work.user.SubstitutionSettings;
 import com.dremio.sabot.rpc.user.UserSession;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 
 public class TestMaterializationList {
 
@@ -82,6 +86,27 @@ public class TestMaterializationList {
     verify(included, atLeastOnce()).getMaterializationFor(converter);
   }
 
+  @Test
+  public void testOnlyCandidatesAreExpanded() {
+    final PlanDependencies query = PlanDependencies.of(
+        ImmutableSet.of(ImmutableList.of("source", "t1")), ImmutableSet.of());
+    when(excluded.getMaterializationFor(converter)).thenReturn(relOptMat1);
+    when(excluded.getLayoutId()).thenReturn("rid-1");
+    when(excluded.mayBeUsedBy(query)).thenReturn(false);
+    when(included.getMaterializationFor(converter)).thenReturn(relOptMat2);
+    when(included.getLayoutId()).thenReturn("rid-2");
+    when(included.mayBeUsedBy(query)).thenReturn(true);
 
+    when(session.getSubstitutionSettings()).thenReturn(new SubstitutionSettings(ImmutableList.of()));
+    when(provider.get()).thenReturn(ImmutableList.of(excluded, included));
+
+    final MaterializationList materializations = new MaterializationList(converter, session, provider);
+    assertEquals(ImmutableList.of(relOptMat2), materializations.getCandidateMaterializations(query));
+    // a candidate is only expanded once per query
+    assertEquals(ImmutableList.of(relOptMat2), materializations.getCandidateMaterializations(query));
+    assertEquals(ImmutableList.of(relOptMat2), materializations.getExpandedMaterializations());
 
+    verify(excluded, never()).getMaterializationFor(any(SqlConverter.class));
+    verify(included, times(1)).getMaterializationFor(converter);
+  }
 }
@@ -0,0 +1,56 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.record;
+
+import static org.junit.Assert.assertEquals;
+
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+
+import com.dremio.exec.proto.ExecRPC.FragmentRecordBatch;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+
+/**
+ * Tests for {@link FragmentWritableBatch}
+ */
+public class TestFragmentWritableBatch {
+
+  @Test
+  public void testReceiversDoNotShareReaderIndex() {
+    final ByteBuf body = Unpooled.copiedBuffer("compressed body", StandardCharsets.UTF_8);
+    final FragmentWritableBatch batch = new FragmentWritableBatch(FragmentRecordBatch.getDefaultInstance(),
+        new ByteBuf[] { body }, 1);
+
+    final FragmentWritableBatch first = batch.withReceivers(1, 2);
+    final FragmentWritableBatch second = batch.withReceivers(3);
+    assertEquals(3, body.refCnt());
+    assertEquals(2, first.getHeader().getReceivingMinorFragmentIdCount());
+
+    // sending the first batch consumes its buffers, the second one still has the whole body to send
+    final ByteBuf sent = first.getBuffers()[0];
+    sent.readBytes(sent.readableBytes());
+    assertEquals(body.readableBytes(), second.getBuffers()[0].readableBytes());
+    assertEquals("compressed body", second.getBuffers()[0].toString(StandardCharsets.UTF_8));
+
+    first.release();
+    second.release();
+    batch.release();
+    assertEquals(0, body.refCnt());
+  }
+}
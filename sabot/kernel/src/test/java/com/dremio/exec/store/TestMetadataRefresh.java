@@ -165,6 +165,48 @@ public class TestMetadataRefresh extends BaseTestQuery {
       .build().run();
   }
 
+  @Test
+  public void testRefreshParquetWithNewFile() throws Exception {
+    Path root = Paths.get(getDfsTestTmpSchemaLocation(), "blue", "parquet_refresh");
+    Files.createDirectories(root.resolve("a"));
+    Files.createDirectories(root.resolve("b"));
+    Path file = Paths.get(TestMetadataRefresh.class.getResource("/parquet/bigIntDictionary.parquet").toURI());
+
+    Files.copy(file, root.resolve("a").resolve("f1.parquet"));
+
+    testBuilder()
+      .sqlQuery("ALTER TABLE dfs_test.blue.parquet_refresh REFRESH METADATA")
+      .unOrdered()
+      .baselineColumns("ok", "summary")
+      .baselineValues(true, "Metadata for table 'dfs_test.blue.parquet_refresh' refreshed.")
+      .build().run();
+
+    // pause to ensure mtime changes on directory
+    Thread.sleep(1200);
+
+    // the splits of the first file are reused, only the second file is read
+    Files.copy(file, root.resolve("b").resolve("f2.parquet"));
+
+    testBuilder()
+      .sqlQuery("ALTER TABLE dfs_test.blue.parquet_refresh REFRESH METADATA")
+      .unOrdered()
+      .baselineColumns("ok", "summary")
+      .baselineValues(true, "Metadata for table 'dfs_test.blue.parquet_refresh' refreshed.")
+      .build().run();
+
+    testBuilder()
+      .sqlQuery("select count(*) as a from dfs_test.blue.parquet_refresh where dir0 = 'b'")
+      .unOrdered()
+      .sqlBaselineQuery("select count(*) as a from dfs_test.blue.parquet_refresh where dir0 = 'a'")
+      .build().run();
+
+    testBuilder()
+      .sqlQuery("select count(*) as a from dfs_test.blue.parquet_refresh")
+      .unOrdered()
+      .sqlBaselineQuery("select 2 * count(*) as a from dfs_test.blue.parquet_refresh where dir0 = 'a'")
+      .build().run();
+  }
+
   @Test
   public void testRefreshWithoutAutoPromote() throws Exception {
     Path root = Paths.get(getDfsTestTmpSchemaLocation(), "blue", "metadata_refresh");
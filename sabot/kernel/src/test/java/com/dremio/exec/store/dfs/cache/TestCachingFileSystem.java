@@ -0,0 +1,187 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.dfs.cache;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.parquet.hadoop.metadata.BlockMetaData;
+import org.apache.parquet.hadoop.metadata.ColumnChunkMetaData;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.dremio.exec.ExecConstants;
+import com.dremio.exec.hadoop.HadoopFileSystem;
+import com.dremio.exec.store.parquet.BulkInputStream;
+import com.dremio.exec.store.parquet.InputStreamProvider;
+import com.dremio.exec.store.parquet.MutableParquetMetadata;
+import com.dremio.exec.store.parquet.SingleStreamProvider;
+import com.dremio.exec.store.parquet.Streams;
+import com.dremio.io.AsyncByteReader.FileKey;
+import com.dremio.io.file.FileAttributes;
+import com.dremio.io.file.FileSystem;
+import com.dremio.io.file.Path;
+import com.dremio.options.OptionManager;
+import com.dremio.sabot.exec.context.OperatorContext;
+import com.dremio.sabot.exec.context.OperatorStats;
+import com.dremio.sabot.op.scan.ScanOperator;
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Tests for {@link CachingFileSystem}
+ */
+public class TestCachingFileSystem {
+  private static final long MAX_FOOTER_LEN = ExecConstants.PARQUET_MAX_FOOTER_LEN_VALIDATOR.getDefault().getNumVal();
+
+  @Rule
+  public TemporaryFolder temp = new TemporaryFolder();
+
+  private final OptionManager options = mock(OptionManager.class);
+
+  private FileSystem fs;
+  private FileAttributes attributes;
+  private File dbPath;
+  private File mountPath;
+
+  @Before
+  public void setup() throws Exception {
+    when(options.getOption(LocalCacheFileSystemWrapper.VERIFY_CHECKSUM)).thenReturn(true);
+    when(options.getOption(LocalCacheFileSystemWrapper.EVICTION_POLICY)).thenReturn("lru");
+    dbPath = temp.newFolder("db");
+    mountPath = temp.newFolder("fs");
+    fs = HadoopFileSystem.getLocal(new Configuration());
+    // spans more than one cached block
+    attributes = fs.getFileAttributes(Path.of(TestCachingFileSystem.class.getResource("/parquet/bigIntDictionary.parquet").toURI()));
+  }
+
+  private LocalCacheManager newManager() throws Exception {
+    final LocalCacheManager manager = new LocalCacheManager("localhost", dbPath,
+      ImmutableList.of(new LocalCacheManager.MountPoint(0, mountPath, 100, 0)), options);
+    manager.open();
+    return manager;
+  }
+
+  private static OperatorContext newContext(OperatorStats stats) {
+    final OperatorContext context = mock(OperatorContext.class);
+    when(context.getStats()).thenReturn(stats);
+    return context;
+  }
+
+  /**
+   * Reads the footer and all the column chunks of the file the way the Parquet scan does.
+   */
+  private List<byte[]> readColumnChunks(FileSystem cachingFs) throws Exception {
+    final List<byte[]> chunks = new ArrayList<>();
+    try (InputStreamProvider provider = new SingleStreamProvider(cachingFs, attributes.getPath(), attributes.size(),
+      attributes.lastModifiedTime().toMillis(), MAX_FOOTER_LEN, false, null, null, null)) {
+      final MutableParquetMetadata footer = provider.getFooter();
+      for (BlockMetaData block : footer.getBlocks()) {
+        for (ColumnChunkMetaData column : block.getColumns()) {
+          final BulkInputStream stream = provider.getStream(column);
+          final byte[] chunk = new byte[(int) column.getTotalSize()];
+          stream.seek(column.getStartingPos());
+          stream.readFully(chunk, 0, chunk.length);
+          chunks.add(chunk);
+        }
+      }
+    }
+    return chunks;
+  }
+
+  private FileKey getFileKey() {
+    return FileKey.of(attributes.getPath(), Long.toString(attributes.lastModifiedTime().toMillis()),
+      FileKey.FileType.PARQUET);
+  }
+
+  private static void waitForEntries(LocalCacheManager manager, int numEntries) throws Exception {
+    final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+    while (manager.getNumEntries() < numEntries && System.nanoTime() < deadline) {
+      Thread.sleep(10);
+    }
+    assertEquals(numEntries, manager.getNumEntries());
+  }
+
+  @Test
+  public void testParquetScanServedFromCache() throws Exception {
+    final int numBlocks = (int) ((attributes.size() + CachingInputStream.BLOCK_SIZE - 1) / CachingInputStream.BLOCK_SIZE);
+    assertTrue(numBlocks > 1);
+
+    try (LocalCacheManager manager = newManager()) {
+      final OperatorStats firstStats = mock(OperatorStats.class);
+      final List<byte[]> expected = readColumnChunks(new CachingFileSystem(fs, manager, "s3", 100, newContext(firstStats)));
+      verify(firstStats, never()).addLongStat(ScanOperator.Metric.NUM_CACHE_MISSES, 0);
+      waitForEntries(manager, numBlocks);
+
+      final OperatorStats secondStats = mock(OperatorStats.class);
+      final List<byte[]> actual = readColumnChunks(new CachingFileSystem(fs, manager, "s3", 100, newContext(secondStats)));
+      verify(secondStats).addLongStat(ScanOperator.Metric.NUM_CACHE_MISSES, 0);
+      verify(secondStats, never()).addLongStat(ScanOperator.Metric.NUM_CACHE_HITS, 0);
+
+      assertEquals(expected.size(), actual.size());
+      for (int i = 0; i < expected.size(); i++) {
+        assertArrayEquals(expected.get(i), actual.get(i));
+      }
+    }
+  }
+
+  @Test
+  public void testStreamReadsMatchSource() throws Exception {
+    try (LocalCacheManager manager = newManager()) {
+      final FileSystem sourceFs = spy(fs);
+      final FileSystem cachingFs = new CachingFileSystem(sourceFs, manager, "s3", 100, null);
+      final byte[] expected = new byte[(int) attributes.size()];
+      try (BulkInputStream is = BulkInputStream.wrap(Streams.wrap(fs.open(attributes.getPath())))) {
+        is.readFully(expected, 0, expected.length);
+      }
+
+      // reads crossing the block boundary, from the source then from the cache
+      final int offset = CachingInputStream.BLOCK_SIZE - 100;
+      for (int i = 0; i < 2; i++) {
+        try (CachingInputStream is = (CachingInputStream) cachingFs.open(getFileKey(), attributes.size())) {
+          final byte[] actual = new byte[200];
+          is.setPosition(offset);
+          int read = 0;
+          while (read < actual.length) {
+            read += is.read(actual, read, actual.length - read);
+          }
+          assertArrayEquals(Arrays.copyOfRange(expected, offset, offset + actual.length), actual);
+          assertEquals(i == 0 ? 2 : 0, is.getMisses());
+          assertEquals(i == 0 ? 0 : 2, is.getHits());
+          assertEquals(offset + actual.length, is.getPosition());
+        }
+        waitForEntries(manager, 2);
+      }
+      // the version of the file is the one given by the caller
+      verify(sourceFs, never()).getFileAttributes(any());
+    }
+  }
+}
@@ -0,0 +1,182 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.dfs.cache;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.rocksdb.RocksIterator;
+
+import com.dremio.exec.work.CacheManagerFilesInfo;
+import com.dremio.options.OptionManager;
+import com.google.common.collect.ImmutableList;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+
+/**
+ * Tests for {@link LocalCacheManager}
+ */
+public class TestLocalCacheManager {
+
+  @Rule
+  public TemporaryFolder temp = new TemporaryFolder();
+
+  private final OptionManager options = mock(OptionManager.class);
+  private final CacheFileId fileId = new CacheFileId("s3", "/bucket/file.parquet", "1", "s3.bucket.\"file.parquet\"");
+  private final byte[] data = "some bytes of a remote file".getBytes(StandardCharsets.UTF_8);
+
+  private File dbPath;
+  private File mountPath;
+
+  @Before
+  public void setup() throws Exception {
+    when(options.getOption(LocalCacheFileSystemWrapper.VERIFY_CHECKSUM)).thenReturn(true);
+    when(options.getOption(LocalCacheFileSystemWrapper.EVICTION_POLICY)).thenReturn("lru");
+    dbPath = temp.newFolder("db");
+    mountPath = temp.newFolder("fs");
+  }
+
+  private LocalCacheManager newManager() throws Exception {
+    final LocalCacheManager manager = new LocalCacheManager("localhost", dbPath,
+      ImmutableList.of(new LocalCacheManager.MountPoint(0, mountPath, 100, 0)), options);
+    manager.open();
+    return manager;
+  }
+
+  private static byte[] read(LocalCacheManager manager, LocalCacheManager.CacheEntry entry, int length) {
+    final ByteBuf buf = Unpooled.buffer(length);
+    try {
+      if (!manager.read(entry, buf, 0)) {
+        return null;
+      }
+      final byte[] bytes = new byte[length];
+      buf.getBytes(0, bytes);
+      return bytes;
+    } finally {
+      buf.release();
+    }
+  }
+
+  @Test
+  public void testExactRangeLookup() throws Exception {
+    try (LocalCacheManager manager = newManager()) {
+      manager.write(fileId, 100, data, 100);
+
+      final LocalCacheManager.CacheEntry entry = manager.lookup(fileId, 100, data.length);
+      assertNotNull(entry);
+      assertArrayEquals(data, read(manager, entry, data.length));
+
+      assertNull(manager.lookup(fileId, 101, data.length));
+      assertNull(manager.lookup(fileId, 100, data.length - 1));
+      assertNull(manager.lookup(new CacheFileId("s3", "/bucket/file.parquet", "2", null), 100, data.length));
+    }
+  }
+
+  @Test
+  public void testChecksumMismatchInvalidatesEntry() throws Exception {
+    try (LocalCacheManager manager = newManager()) {
+      manager.write(fileId, 0, data, 100);
+      corruptCachedFiles(mountPath);
+
+      final LocalCacheManager.CacheEntry entry = manager.lookup(fileId, 0, data.length);
+      assertNotNull(entry);
+      assertNull(read(manager, entry, data.length));
+      assertNull(manager.lookup(fileId, 0, data.length));
+      assertEquals(0, manager.getNumEntries());
+    }
+  }
+
+  @Test
+  public void testEntriesSurviveRestart() throws Exception {
+    try (LocalCacheManager manager = newManager()) {
+      manager.write(fileId, 0, data, 100);
+    }
+
+    try (LocalCacheManager manager = newManager()) {
+      assertEquals(1, manager.getNumEntries());
+      final LocalCacheManager.CacheEntry entry = manager.lookup(fileId, 0, data.length);
+      assertNotNull(entry);
+      assertArrayEquals(data, read(manager, entry, data.length));
+
+      final RocksIterator iterator = manager.newIterator();
+      final List<CacheManagerFilesInfo> files = manager.getCachedFilesStats(iterator);
+      assertEquals(1, files.size());
+      assertTrue(manager.getCachedFilesStats(iterator).isEmpty());
+    }
+  }
+
+  @Test
+  public void testTruncatedFilesDroppedOnRestart() throws Exception {
+    try (LocalCacheManager manager = newManager()) {
+      manager.write(fileId, 0, data, 100);
+    }
+    truncateCachedFiles(mountPath);
+
+    try (LocalCacheManager manager = newManager()) {
+      assertEquals(0, manager.getNumEntries());
+      assertFalse(manager.getMountPointStats().isEmpty());
+    }
+  }
+
+  private static void corruptCachedFiles(File dir) throws Exception {
+    for (File file : listFiles(dir)) {
+      try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+        final int first = raf.read();
+        raf.seek(0);
+        raf.write(first ^ 0xFF);
+      }
+    }
+  }
+
+  private static void truncateCachedFiles(File dir) throws Exception {
+    for (File file : listFiles(dir)) {
+      try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+        raf.setLength(1);
+      }
+    }
+  }
+
+  private static List<File> listFiles(File dir) {
+    final ImmutableList.Builder<File> files = ImmutableList.builder();
+    final File[] children = dir.listFiles();
+    if (children != null) {
+      for (File child : children) {
+        if (child.isDirectory()) {
+          files.addAll(listFiles(child));
+        } else {
+          files.add(child);
+        }
+      }
+    }
+    return files.build();
+  }
+}
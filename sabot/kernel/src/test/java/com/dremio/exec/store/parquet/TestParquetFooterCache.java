@@ -0,0 +1,96 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.parquet;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+import java.util.Collections;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.parquet.hadoop.metadata.ParquetMetadata;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.dremio.exec.ExecConstants;
+import com.dremio.exec.hadoop.HadoopFileSystem;
+import com.dremio.io.file.FileAttributes;
+import com.dremio.io.file.FileSystem;
+import com.dremio.io.file.Path;
+import com.dremio.sabot.exec.context.OperatorStats;
+import com.dremio.sabot.op.scan.ScanOperator;
+
+/**
+ * Tests for {@link ParquetFooterCache}
+ */
+public class TestParquetFooterCache {
+  private static final long MAX_FOOTER_LEN = ExecConstants.PARQUET_MAX_FOOTER_LEN_VALIDATOR.getDefault().getNumVal();
+
+  private static FileSystem fs;
+  private static FileAttributes attributes;
+
+  @BeforeClass
+  public static void setup() throws Exception {
+    fs = HadoopFileSystem.getLocal(new Configuration());
+    attributes = fs.getFileAttributes(Path.of(TestParquetFooterCache.class.getResource("/parquet/all_scalar_types.parquet").toURI()));
+  }
+
+  private static ParquetMetadata getFooter(ParquetFooterCache cache, long mTime, OperatorStats stats) throws Exception {
+    try (BulkInputStream is = BulkInputStream.wrap(Streams.wrap(fs.open(attributes.getPath())))) {
+      return cache.getFooter(is, attributes.getPath().toString(), attributes.size(), mTime, fs, MAX_FOOTER_LEN, stats);
+    }
+  }
+
+  @Test
+  public void testFooterCachedByModificationTime() throws Exception {
+    final ParquetFooterCache cache = new ParquetFooterCache(1024 * 1024);
+    final OperatorStats stats = mock(OperatorStats.class);
+
+    final ParquetMetadata first = getFooter(cache, 1, stats);
+    final ParquetMetadata second = getFooter(cache, 1, stats);
+    assertEquals(1, cache.size());
+    assertEquals(first.getBlocks(), second.getBlocks());
+    verify(stats).addLongStat(ScanOperator.Metric.NUM_FOOTER_CACHE_MISSES, 1);
+    verify(stats).addLongStat(ScanOperator.Metric.NUM_FOOTER_CACHE_HITS, 1);
+
+    // a rewritten file gets its own entry
+    getFooter(cache, 2, stats);
+    assertEquals(2, cache.size());
+
+    // unknown modification time bypasses the cache
+    getFooter(cache, -1, null);
+    assertEquals(2, cache.size());
+  }
+
+  @Test
+  public void testCopiesAreIndependent() throws Exception {
+    final ParquetFooterCache cache = new ParquetFooterCache(1024 * 1024);
+    final int numBlocks = getFooter(cache, 1, null).getBlocks().size();
+
+    final MutableParquetMetadata footer = new MutableParquetMetadata(getFooter(cache, 1, null));
+    footer.removeUnusedRowGroups(Collections.emptySet());
+
+    assertEquals(numBlocks, getFooter(cache, 1, null).getBlocks().stream().filter(b -> b != null).count());
+  }
+
+  @Test
+  public void testFootersLargerThanCacheNotRetained() throws Exception {
+    final ParquetFooterCache cache = new ParquetFooterCache(1);
+    getFooter(cache, 1, null);
+    assertEquals(0, cache.size());
+  }
+}
@@ -81,6 +81,11 @@ public class TestSystemTable extends BaseTestQuery {
     test("select * from sys.fragments");
   }
 
+  @Test
+  public void spillDirectoriesTable() throws Exception {
+    test("select * from sys.spill_directories");
+  }
+
   @Test
   public void verifyNumNodes() throws Exception {
     testBuilder()
@@ -17,9 +17,11 @@
 package com.dremio.exec.util;
 
 import static com.dremio.exec.proto.ExecProtos.RuntimeFilterType.BLOOM_FILTER;
+import static com.dremio.exec.proto.ExecProtos.RuntimeFilterType.VALUE_LIST;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.doNothing;
@@ -144,6 +146,58 @@ public class RuntimeFilterManagerTest {
         assertEquals(1, filterManager.getFilterDropCount());
     }
 
+    @Test
+    public void testValueListFilterMerge() {
+        RuntimeFilterManager filterManager = new RuntimeFilterManager(Sets.newHashSet(1, 2, 3), 4);
+
+        RuntimeFilterManagerEntry entry = filterManager.coalesce(
+                newValueListFilter(opId1, majorFragment1, valueList("col1", 1L, 2L), valueList("col2", 10L)), null, 1);
+        filterManager.coalesce(newValueListFilter(opId1, majorFragment1, valueList("col1", 2L, 3L), valueList("col2", 20L)), null, 2);
+        assertTrue(entry.isNotDropped());
+        assertEquals(2, entry.getCompositeFilter().getNonPartitionColumnFilterCount());
+        assertEquals(Lists.newArrayList(1L, 2L, 3L), entry.getCompositeFilter().getNonPartitionColumnFilter(0).getValuesList());
+
+        // col1 grows beyond the limit, col2 is missing from the last piece
+        filterManager.coalesce(newValueListFilter(opId1, majorFragment1, valueList("col1", 4L, 5L)), null, 3);
+        assertTrue(entry.isComplete());
+        assertFalse(entry.isNotDropped());
+        assertEquals(0, entry.getCompositeFilter().getNonPartitionColumnFilterCount());
+        assertEquals(1, filterManager.getFilterDropCount());
+    }
+
+    @Test
+    public void testPartitionFilterDroppedIfMissingInPiece() {
+        RuntimeFilterManager filterManager = new RuntimeFilterManager(Sets.newHashSet(1, 2));
+
+        BloomFilter bf = mockedBloom();
+        RuntimeFilter filter1 = newFilter(opId1, majorFragment1, "col1").toBuilder()
+                .addNonPartitionColumnFilter(valueList("col2", 1L)).build();
+        RuntimeFilterManagerEntry entry = filterManager.coalesce(filter1, bf, 1);
+        filterManager.coalesce(newValueListFilter(opId1, majorFragment1, valueList("col2", 2L)), null, 2);
+
+        assertTrue(entry.isComplete());
+        assertTrue(entry.isNotDropped());
+        assertNull(entry.getPartitionColFilter());
+        assertFalse(entry.getCompositeFilter().hasPartitionColumnFilter());
+        assertEquals(Lists.newArrayList(1L, 2L), entry.getCompositeFilter().getNonPartitionColumnFilter(0).getValuesList());
+        verify(bf, times(1)).close();
+    }
+
+    private CompositeColumnFilter valueList(String col, Long... values) {
+        return CompositeColumnFilter.newBuilder()
+                .setFilterType(VALUE_LIST)
+                .addColumns(col)
+                .addAllValues(Lists.newArrayList(values))
+                .setSizeBytes(values.length * 8)
+                .build();
+    }
+
+    private RuntimeFilter newValueListFilter(int opId, int majorFragment, CompositeColumnFilter... colFilters) {
+        return RuntimeFilter.newBuilder()
+                .setProbeScanMajorFragmentId(majorFragment).setProbeScanOperatorId(opId)
+                .addAllNonPartitionColumnFilter(Lists.newArrayList(colFilters)).build();
+    }
+
     private BloomFilter mockedBloom() {
         BloomFilter bloom = mock(BloomFilter.class);
         when(bloom.isCrossingMaxFPP()).thenReturn(false);
@@ -189,7 +189,7 @@ public class TestMetadataProvider extends BaseTestQuery {
 
     assertEquals(RequestStatus.OK, resp.getStatus());
     List<TableMetadata> tables = resp.getTablesList();
-    assertEquals(25, tables.size());
+    assertEquals(26, tables.size());
 
     Iterator<TableMetadata> iterator = tables.iterator();
     verifyTable("INFORMATION_SCHEMA", "CATALOGS", iterator.next());
@@ -208,6 +208,7 @@ public class TestMetadataProvider extends BaseTestQuery {
     verifyTable("sys", "refreshes", iterator.next());
     verifyTable("sys", "services", iterator.next());
     verifyTable("sys", "slicing_threads", iterator.next());
+    verifyTable("sys", "spill_directories", iterator.next());
     verifyTable("sys", "threads", iterator.next());
     verifyTable("sys", "timezone_abbrevs", iterator.next());
     verifyTable("sys", "timezone_names", iterator.next());
@@ -240,7 +241,7 @@ public class TestMetadataProvider extends BaseTestQuery {
 
     assertEquals(RequestStatus.OK, resp.getStatus());
     List<TableMetadata> tables = resp.getTablesList();
-    assertEquals(24, tables.size());
+    assertEquals(25, tables.size());
 
     Iterator<TableMetadata> iterator = tables.iterator();
     verifyTable("INFORMATION_SCHEMA", "CATALOGS", iterator.next());
@@ -259,6 +260,7 @@ public class TestMetadataProvider extends BaseTestQuery {
     verifyTable("sys", "refreshes", iterator.next());
     verifyTable("sys", "services", iterator.next());
     verifyTable("sys", "slicing_threads", iterator.next());
+    verifyTable("sys", "spill_directories", iterator.next());
     verifyTable("sys", "threads", iterator.next());
     verifyTable("sys", "timezone_abbrevs", iterator.next());
     verifyTable("sys", "timezone_names", iterator.next());
@@ -278,7 +280,7 @@ public class TestMetadataProvider extends BaseTestQuery {
 
     assertEquals(RequestStatus.OK, resp.getStatus());
     List<TableMetadata> tables = resp.getTablesList();
-    assertEquals(15, tables.size());
+    assertEquals(16, tables.size());
 
     Iterator<TableMetadata> iterator = tables.iterator();
     verifyTable("INFORMATION_SCHEMA", "CATALOGS", iterator.next());
@@ -290,6 +292,7 @@ public class TestMetadataProvider extends BaseTestQuery {
     verifyTable("sys", "nodes", iterator.next());
     verifyTable("sys", "options", iterator.next());
     verifyTable("sys", "reflections", iterator.next());
+    verifyTable("sys", "spill_directories", iterator.next());
     verifyTable("sys", "timezone_abbrevs", iterator.next());
     verifyTable("sys", "timezone_names", iterator.next());
     verifyTable("sys", "version", iterator.next());
@@ -324,7 +327,7 @@ public class TestMetadataProvider extends BaseTestQuery {
     assertEquals(RequestStatus.OK, resp1.getStatus());
 
     final List<ColumnMetadata> columns1 = resp1.getColumnsList();
-    assertEquals(215, columns1.size());
+    assertEquals(226, columns1.size());
     assertTrue("incremental update column shouldn't be returned",
       columns1.stream().noneMatch(input -> input.getColumnName().equals(IncrementalUpdateUtils.UPDATE_COLUMN)));
   }
@@ -338,7 +341,7 @@ public class TestMetadataProvider extends BaseTestQuery {
 
     assertEquals(RequestStatus.OK, resp.getStatus());
     List<ColumnMetadata> columns = resp.getColumnsList();
-    assertEquals(20, columns.size());
+    assertEquals(21, columns.size());
 
 
     Iterator<ColumnMetadata> iterator = columns.iterator();
@@ -359,6 +362,7 @@ public class TestMetadataProvider extends BaseTestQuery {
     verifyColumn("sys", "services", "user_port", iterator.next());
     verifyColumn("sys", "services", "fabric_port", iterator.next());
     verifyColumn("sys", "slicing_threads", "fabric_port", iterator.next());
+    verifyColumn("sys", "spill_directories", "fabric_port", iterator.next());
     verifyColumn("sys", "threads", "fabric_port", iterator.next());
     verifyColumn("sys.cache", "datasets", "storage_plugin_name", iterator.next());
     verifyColumn("sys.cache", "mount_points", "mount_point_path", iterator.next());
@@ -15,17 +15,27 @@
  */
 package com.dremio.sabot.aggregate.hash;
 
+import static com.dremio.sabot.Fixtures.t;
+import static com.dremio.sabot.Fixtures.th;
+import static com.dremio.sabot.Fixtures.tr;
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
 import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.VarBinaryVector;
+import org.apache.commons.lang3.StringUtils;
 import org.junit.Assert;
 import org.junit.Rule;
 import org.junit.Test;
@@ -34,10 +44,12 @@ import org.junit.rules.TestRule;
 import com.dremio.common.logical.data.NamedExpression;
 import com.dremio.common.util.TestTools;
 import com.dremio.exec.ExecConstants;
+import com.dremio.exec.expr.fn.hll.StatisticsAggrFunctions;
 import com.dremio.exec.physical.base.OpProps;
 import com.dremio.exec.physical.config.HashAggregate;
 import com.dremio.exec.planner.physical.PlannerSettings;
 import com.dremio.exec.proto.UserBitShared;
+import com.dremio.exec.record.VectorAccessible;
 import com.dremio.exec.server.SabotContext;
 import com.dremio.options.OptionManager;
 import com.dremio.options.OptionValidatorListing;
@@ -46,11 +58,16 @@ import com.dremio.sabot.CustomHashAggDataGenerator;
 import com.dremio.sabot.CustomHashAggDataGeneratorDecimal;
 import com.dremio.sabot.CustomHashAggDataGeneratorLargeAccum;
 import com.dremio.sabot.Fixtures;
+import com.dremio.sabot.Fixtures.DataRow;
+import com.dremio.sabot.Generator;
 import com.dremio.sabot.exec.context.OperatorContextImpl;
 import com.dremio.sabot.op.aggregate.vectorized.VectorizedHashAggOperator;
 import com.dremio.sabot.op.aggregate.vectorized.VectorizedHashAggSpillStats;
+import com.dremio.sabot.op.spi.SingleInputOperator.State;
 import com.dremio.test.AllocatorRule;
 import com.dremio.test.UserExceptionMatcher;
+import com.yahoo.sketches.hll.HllSketch;
+import com.yahoo.sketches.hll.TgtHllType;
 
 public class TestSpillingHashAgg extends BaseTestOperator {
 
@@ -392,6 +409,168 @@ public class TestSpillingHashAgg extends BaseTestOperator {
     }
   }
 
+  /**
+   * Spill MIN/MAX on a varchar column whose values are much larger than the
+   * estimated width, so the accumulator vectors have to grow while the operator
+   * is short of memory. The spilled batches are read back and accumulated
+   * post-spill.
+   */
+  @Test
+  public void testSpillVarcharMinMax() throws Exception {
+    final int groups = 10_000;
+    final int rows = 30_000;
+    final DataRow[] inputRows = new DataRow[rows];
+    final String[] min = new String[groups];
+    final String[] max = new String[groups];
+    for (int i = 0; i < rows; i++) {
+      final int group = i % groups;
+      final String value = String.format("%05d", (i * 7919) % 100_000) + StringUtils.repeat('x', 100 + (i * 37) % 300);
+      inputRows[i] = tr(group, value);
+      if (min[group] == null || value.compareTo(min[group]) < 0) {
+        min[group] = value;
+      }
+      if (max[group] == null || value.compareTo(max[group]) > 0) {
+        max[group] = value;
+      }
+    }
+    final DataRow[] outputRows = new DataRow[groups];
+    for (int i = 0; i < groups; i++) {
+      outputRows[i] = tr(i, min[i], max[i]);
+    }
+    final Fixtures.Table input = t(th("KEY", "VALUE"), inputRows);
+    final Fixtures.Table expected = t(th("KEY", "MIN_VALUE", "MAX_VALUE"), outputRows).orderInsensitive();
+
+    OpProps props = PROPS.cloneWithNewReserve(1_000_000).cloneWithMemoryExpensive(true);
+    props.setMemLimit(4_000_000);
+    final HashAggregate agg = new HashAggregate(props, null,
+                                                Arrays.asList(n("KEY")),
+                                                Arrays.asList(n("min(VALUE)", "MIN_VALUE"),
+                                                              n("max(VALUE)", "MAX_VALUE")),
+                                                true,
+                                                true,
+                                                1f,
+                                                990);
+    try (AutoCloseable useSpillingAgg = with(VectorizedHashAggOperator.VECTORIZED_HASHAGG_USE_SPILLING_OPERATOR, true)) {
+      validateSingle(agg, VectorizedHashAggOperator.class, input, expected, 2000);
+      final VectorizedHashAggSpillStats stats = agg.getSpillStats();
+      assertTrue(stats.getSpills() > 0);
+      /* spilled partitions were read back */
+      assertTrue(stats.getIterations() > 1);
+
+      /* run with micro spilling disabled */
+      try (AutoCloseable options = with(VectorizedHashAggOperator.VECTORIZED_HASHAGG_ENABLE_MICRO_SPILLS, false)) {
+        validateSingle(agg, VectorizedHashAggOperator.class, input, expected, 2000);
+      }
+    }
+  }
+
+  /**
+   * Spill hll and hll_merge accumulators. The sketches of the spilled partitions are
+   * written out and merged back when the partitions are reloaded, and must give the
+   * same estimates as the non-spilled run.
+   */
+  @Test
+  public void testSpillNdv() throws Exception {
+    final int groups = 4_000;
+    final int rows = 40_000;
+    final DataRow[] inputRows = new DataRow[rows];
+    for (int i = 0; i < rows; i++) {
+      final HllSketch sketch = new HllSketch(StatisticsAggrFunctions.HLL_ACCURACY, TgtHllType.HLL_8);
+      sketch.update(i % 50);
+      sketch.update((i + 1) % 50);
+      inputRows[i] = tr(i % groups, (i * 31) % 7, "s" + (i / groups) % 6, sketch.toCompactByteArray());
+    }
+    final Fixtures.Table input = t(th("KEY", "INT_VALUE", "VARCHAR_VALUE", "SKETCH"), inputRows);
+
+    final Map<Integer, double[]> expected;
+    try (AutoCloseable useSpillingAgg = with(VectorizedHashAggOperator.VECTORIZED_HASHAGG_USE_SPILLING_OPERATOR, true)) {
+      final HashAggregate noSpillAgg = getHashAggregateNdv(16_000_000, 256_000_000, 990);
+      expected = runNdv(noSpillAgg, input);
+      assertEquals(0, noSpillAgg.getSpillStats().getSpills());
+      assertEquals(groups, expected.size());
+      /* 10 rows per group: 7 distinct ints, 6 distinct strings and 2 distinct merged values */
+      for (double[] estimates : expected.values()) {
+        assertEquals(7, estimates[0], 0.5);
+        assertEquals(6, estimates[1], 0.5);
+        assertEquals(2, estimates[2], 0.5);
+      }
+
+      final HashAggregate agg = getHashAggregateNdv(4_000_000, 16_000_000, 64);
+      assertNdvEquals(expected, runNdv(agg, input));
+      final VectorizedHashAggSpillStats stats = agg.getSpillStats();
+      assertTrue(stats.getSpills() > 0);
+      /* spilled partitions were read back */
+      assertTrue(stats.getIterations() > 1);
+
+      /* run with micro spilling disabled */
+      try (AutoCloseable options = with(VectorizedHashAggOperator.VECTORIZED_HASHAGG_ENABLE_MICRO_SPILLS, false)) {
+        assertNdvEquals(expected, runNdv(agg, input));
+      }
+    }
+  }
+
+  private HashAggregate getHashAggregateNdv(long reserve, long max, int hashTableBatchSize) {
+    OpProps props = PROPS.cloneWithNewReserve(reserve).cloneWithMemoryExpensive(true);
+    props.setMemLimit(max);
+    return new HashAggregate(props, null,
+                             Arrays.asList(n("KEY")),
+                             Arrays.asList(n("hll(INT_VALUE)", "NDV_INT"),
+                                           n("hll(VARCHAR_VALUE)", "NDV_VARCHAR"),
+                                           n("hll_merge(SKETCH)", "NDV_MERGE")),
+                             true,
+                             true,
+                             1f,
+                             hashTableBatchSize);
+  }
+
+  /**
+   * Runs the aggregation and returns the estimates of the hll sketches of each key.
+   */
+  private Map<Integer, double[]> runNdv(HashAggregate agg, Fixtures.Table input) throws Exception {
+    final Map<Integer, double[]> estimates = new HashMap<>();
+    try (VectorizedHashAggOperator op = newOperator(VectorizedHashAggOperator.class, agg, 2000);
+         Generator generator = input.toGenerator(getTestAllocator())) {
+      final VectorAccessible output = op.setup(generator.getOutput());
+      int count;
+      while (op.getState() == State.CAN_CONSUME && (count = generator.next(2000)) != 0) {
+        op.consumeData(count);
+        readNdv(op, output, estimates);
+      }
+      if (op.getState() == State.CAN_CONSUME) {
+        op.noMoreToConsume();
+      }
+      readNdv(op, output, estimates);
+      assertEquals(State.DONE, op.getState());
+    }
+    return estimates;
+  }
+
+  private static void readNdv(VectorizedHashAggOperator op, VectorAccessible output, Map<Integer, double[]> estimates)
+    throws Exception {
+    while (op.getState() == State.CAN_PRODUCE) {
+      final int records = op.outputData();
+      final IntVector keys = output.getValueAccessorById(IntVector.class, 0).getValueVector();
+      final VarBinaryVector[] sketches = new VarBinaryVector[3];
+      for (int i = 0; i < sketches.length; i++) {
+        sketches[i] = output.getValueAccessorById(VarBinaryVector.class, i + 1).getValueVector();
+      }
+      for (int i = 0; i < records; i++) {
+        final double[] values = new double[sketches.length];
+        for (int j = 0; j < sketches.length; j++) {
+          values[j] = HllSketch.heapify(sketches[j].get(i)).getEstimate();
+        }
+        assertNull(estimates.put(keys.get(i), values));
+      }
+    }
+  }
+
+  private static void assertNdvEquals(Map<Integer, double[]> expected, Map<Integer, double[]> actual) {
+    assertEquals(expected.size(), actual.size());
+    for (Map.Entry<Integer, double[]> entry : expected.entrySet()) {
+      assertArrayEquals("estimates of key " + entry.getKey(), entry.getValue(), actual.get(entry.getKey()), 1e-9);
+    }
+  }
+
   @Test
   public void testSpill50KDecimal() throws Exception {
     final HashAggregate agg = getHashAggregateDecimal(1_000_000, 2_100_000, 990);
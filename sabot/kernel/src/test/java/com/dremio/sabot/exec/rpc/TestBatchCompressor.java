@@ -0,0 +1,132 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.exec.rpc;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Random;
+
+import org.apache.arrow.memory.ArrowBuf;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.ipc.message.ArrowRecordBatch;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import com.dremio.exec.ExecConstants;
+import com.dremio.exec.proto.ExecRPC.BatchCompression;
+import com.dremio.exec.proto.UserBitShared.QueryId;
+import com.dremio.exec.record.FragmentWritableBatch;
+import com.dremio.options.OptionManager;
+import com.dremio.test.AllocatorRule;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.NettyArrowBuf;
+
+/**
+ * Tests for {@link BatchCompressor}
+ */
+public class TestBatchCompressor {
+  private static final QueryId QUERY_ID = QueryId.newBuilder().setPart1(1).setPart2(2).build();
+  private static final int BUFFER_SIZE = 4096;
+
+  @Rule
+  public final AllocatorRule allocatorRule = AllocatorRule.defaultAllocator();
+
+  private OptionManager options;
+
+  @Before
+  public void setup() {
+    options = mock(OptionManager.class);
+    when(options.getOption(ExecConstants.EXCHANGE_COMPRESSION)).thenReturn(true);
+    when(options.getOption(ExecConstants.EXCHANGE_COMPRESSION_MAX_RATIO)).thenReturn(0.8);
+  }
+
+  @Test
+  public void testRoundTrip() throws Exception {
+    try (BufferAllocator allocator = allocatorRule.newAllocator("test-batch-compressor", 0, Long.MAX_VALUE)) {
+      final BatchCompressor compressor = new BatchCompressor(options, allocator);
+      final Random random = new Random(0);
+      final FragmentWritableBatch batch;
+      try (ArrowBuf repeated = allocator.buffer(BUFFER_SIZE);
+           ArrowBuf randomBytes = allocator.buffer(64)) {
+        for (int i = 0; i < BUFFER_SIZE; i += 4) {
+          repeated.setInt(i, i % 64);
+        }
+        repeated.writerIndex(BUFFER_SIZE);
+        for (int i = 0; i < 64; i++) {
+          randomBytes.setByte(i, random.nextInt());
+        }
+        randomBytes.writerIndex(64);
+        batch = compressor.compress(newBatch(repeated, randomBytes));
+      }
+
+      assertEquals(BatchCompression.LZ4, batch.getHeader().getCompression());
+      assertEquals(Arrays.asList((long) BUFFER_SIZE, 64L), batch.getHeader().getBufferLengthList());
+      // the random buffer doesn't compress, and is kept as is
+      assertEquals(64L, batch.getHeader().getCompressedLength(1));
+      assertEquals(BUFFER_SIZE + 64, batch.getUncompressedByteCount());
+      assertTrue(batch.getByteCount() < BUFFER_SIZE / 2);
+
+      final ByteBuf body = batch.getBuffers()[0];
+      try (ArrowBuf decompressed = BatchCompressor.decompress(batch.getHeader(), ((NettyArrowBuf) body).arrowBuf(),
+        allocator)) {
+        batch.release();
+        assertEquals(BUFFER_SIZE + 64, decompressed.writerIndex());
+        for (int i = 0; i < BUFFER_SIZE; i += 4) {
+          assertEquals(i % 64, decompressed.getInt(i));
+        }
+        final Random expected = new Random(0);
+        for (int i = 0; i < 64; i++) {
+          assertEquals((byte) expected.nextInt(), decompressed.getByte(BUFFER_SIZE + i));
+        }
+      }
+      assertEquals(BatchCompression.NO_COMPRESSION,
+        BatchCompressor.decompressedHeader(batch.getHeader()).getCompression());
+    }
+  }
+
+  @Test
+  public void testIncompressibleBatchSentAsIs() throws Exception {
+    try (BufferAllocator allocator = allocatorRule.newAllocator("test-batch-compressor", 0, Long.MAX_VALUE)) {
+      final BatchCompressor compressor = new BatchCompressor(options, allocator);
+      final Random random = new Random(0);
+      try (ArrowBuf randomBytes = allocator.buffer(BUFFER_SIZE)) {
+        for (int i = 0; i < BUFFER_SIZE; i++) {
+          randomBytes.setByte(i, random.nextInt());
+        }
+        randomBytes.writerIndex(BUFFER_SIZE);
+
+        final FragmentWritableBatch batch = newBatch(randomBytes);
+        assertSame(batch, compressor.compress(batch));
+        assertEquals(BatchCompression.NO_COMPRESSION, batch.getHeader().getCompression());
+        assertEquals(BUFFER_SIZE, batch.getUncompressedByteCount());
+        batch.release();
+      }
+    }
+  }
+
+  private static FragmentWritableBatch newBatch(ArrowBuf... buffers) {
+    final ArrowRecordBatch recordBatch = new ArrowRecordBatch(1, Collections.emptyList(), Arrays.asList(buffers));
+    return new FragmentWritableBatch(QUERY_ID, 1, 0, 2, recordBatch, 0);
+  }
+}
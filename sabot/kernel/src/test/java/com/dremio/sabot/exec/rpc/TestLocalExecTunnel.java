@@ -0,0 +1,147 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.exec.rpc;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.arrow.memory.ArrowBuf;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.ipc.message.ArrowRecordBatch;
+import org.junit.Rule;
+import org.junit.Test;
+
+import com.dremio.common.config.SabotConfig;
+import com.dremio.exec.proto.ExecProtos.FragmentHandle;
+import com.dremio.exec.proto.ExecRPC.FragmentStreamComplete;
+import com.dremio.exec.proto.GeneralRPCProtos.Ack;
+import com.dremio.exec.proto.UserBitShared.QueryId;
+import com.dremio.exec.record.FragmentWritableBatch;
+import com.dremio.exec.rpc.Acks;
+import com.dremio.exec.rpc.RpcException;
+import com.dremio.exec.rpc.RpcOutcomeListener;
+import com.dremio.sabot.exec.FragmentExecutors;
+import com.dremio.sabot.exec.fragment.OutOfBandMessage;
+import com.dremio.sabot.op.receiver.RawFragmentBatch;
+import com.dremio.test.AllocatorRule;
+
+/**
+ * Tests for {@link LocalExecTunnel}
+ */
+public class TestLocalExecTunnel {
+  private static final QueryId QUERY_ID = QueryId.newBuilder().setPart1(1).setPart2(2).build();
+
+  @Rule
+  public final AllocatorRule allocatorRule = AllocatorRule.defaultAllocator();
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testBatchAcknowledgedOnceConsumed() throws Exception {
+    try (BufferAllocator allocator = allocatorRule.newAllocator("test-local-exec-tunnel", 0, Long.MAX_VALUE)) {
+      final List<RawFragmentBatch> received = new ArrayList<>();
+      final FragmentExecutors executors = mock(FragmentExecutors.class);
+      doAnswer(invocation -> {
+        received.add(((IncomingDataBatch) invocation.getArguments()[1]).newRawFragmentBatch(allocator));
+        return null;
+      }).when(executors).handle(any(FragmentHandle.class), any(IncomingDataBatch.class));
+
+      final LocalExecTunnel tunnel = new LocalExecTunnel(new ExecProtocol(SabotConfig.create(), allocator, executors), allocator);
+      final RpcOutcomeListener<Ack> listener = mock(RpcOutcomeListener.class);
+
+      try (ArrowBuf first = allocator.buffer(4);
+           ArrowBuf second = allocator.buffer(4)) {
+        first.setInt(0, 1);
+        first.writerIndex(4);
+        second.setInt(0, 2);
+        second.writerIndex(4);
+        final ArrowRecordBatch recordBatch = new ArrowRecordBatch(1, Collections.emptyList(), Arrays.asList(first, second));
+        tunnel.sendRecordBatch(listener, new FragmentWritableBatch(QUERY_ID, 1, 0, 2, recordBatch, 0));
+      }
+
+      assertEquals(1, received.size());
+      try (RawFragmentBatch batch = received.get(0)) {
+        assertEquals(1, batch.getBody().getInt(0));
+        assertEquals(2, batch.getBody().getInt(4));
+        verify(listener, never()).success(any(), any());
+
+        batch.sendOk();
+        verify(listener).success(Acks.OK, null);
+      }
+    }
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testReceiverFailureFailsBatch() throws Exception {
+    try (BufferAllocator allocator = allocatorRule.newAllocator("test-local-exec-tunnel", 0, Long.MAX_VALUE)) {
+      final FragmentExecutors executors = mock(FragmentExecutors.class);
+      doThrow(new IllegalStateException("receiver failure"))
+          .when(executors).handle(any(FragmentHandle.class), any(IncomingDataBatch.class));
+
+      final LocalExecTunnel tunnel = new LocalExecTunnel(new ExecProtocol(SabotConfig.create(), allocator, executors), allocator);
+      final RpcOutcomeListener<Ack> listener = mock(RpcOutcomeListener.class);
+
+      try (ArrowBuf buffer = allocator.buffer(4)) {
+        buffer.setInt(0, 1);
+        buffer.writerIndex(4);
+        final ArrowRecordBatch recordBatch = new ArrowRecordBatch(1, Collections.emptyList(), Collections.singletonList(buffer));
+        tunnel.sendRecordBatch(listener, new FragmentWritableBatch(QUERY_ID, 1, 0, 2, recordBatch, 0));
+      }
+
+      // the sender is told about the failure, instead of waiting for an acknowledgement forever
+      verify(listener).failed(any(RpcException.class));
+      verify(listener, never()).success(any(), any());
+    }
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testReceiverFailureFailsMessages() throws Exception {
+    try (BufferAllocator allocator = allocatorRule.newAllocator("test-local-exec-tunnel", 0, Long.MAX_VALUE)) {
+      final FragmentExecutors executors = mock(FragmentExecutors.class);
+      doThrow(new IllegalStateException("receiver failure")).when(executors).handle(any(OutOfBandMessage.class));
+      doThrow(new IllegalStateException("receiver failure"))
+          .when(executors).handle(any(FragmentHandle.class), any(FragmentStreamComplete.class));
+
+      final LocalExecTunnel tunnel = new LocalExecTunnel(new ExecProtocol(SabotConfig.create(), allocator, executors), allocator);
+
+      final RpcOutcomeListener<Ack> oobListener = mock(RpcOutcomeListener.class);
+      tunnel.sendOOBMessage(oobListener, new OutOfBandMessage(QUERY_ID, 1, Collections.singletonList(0), 1, 0,
+          new OutOfBandMessage.Payload(Acks.OK), false));
+      verify(oobListener).failed(any(RpcException.class));
+      verify(oobListener, never()).success(any(), any());
+
+      final RpcOutcomeListener<Ack> completionListener = mock(RpcOutcomeListener.class);
+      tunnel.sendStreamComplete(completionListener, FragmentStreamComplete.newBuilder()
+          .setQueryId(QUERY_ID)
+          .setReceivingMajorFragmentId(1)
+          .addReceivingMinorFragmentId(0)
+          .build());
+      verify(completionListener).failed(any(RpcException.class));
+      verify(completionListener, never()).success(any(), any());
+    }
+  }
+}
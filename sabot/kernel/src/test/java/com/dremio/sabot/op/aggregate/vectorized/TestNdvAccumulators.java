@@ -0,0 +1,124 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.op.aggregate.vectorized;
+
+import static com.dremio.sabot.op.aggregate.vectorized.VectorizedHashAggOperator.HTORDINAL_OFFSET;
+import static com.dremio.sabot.op.aggregate.vectorized.VectorizedHashAggOperator.KEYINDEX_OFFSET;
+import static com.dremio.sabot.op.aggregate.vectorized.VectorizedHashAggOperator.PARTITIONINDEX_HTORDINAL_WIDTH;
+import static org.junit.Assert.assertEquals;
+
+import org.apache.arrow.memory.ArrowBuf;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.VarBinaryVector;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import com.dremio.common.util.Numbers;
+import com.dremio.test.AllocatorRule;
+import com.dremio.test.DremioTest;
+import com.yahoo.sketches.hll.HllSketch;
+
+/**
+ * Tests for the spillable HLL accumulators in {@link NdvAccumulators}
+ */
+public class TestNdvAccumulators extends DremioTest {
+  private static final int MAX_VALUES_PER_BATCH = 4;
+  private static final int BITS_IN_CHUNK = 2;
+  private static final int CHUNK_OFFSET_MASK = MAX_VALUES_PER_BATCH - 1;
+
+  @Rule
+  public final AllocatorRule allocatorRule = AllocatorRule.defaultAllocator();
+
+  private BufferAllocator allocator;
+
+  @Before
+  public void setup() {
+    allocator = allocatorRule.newAllocator("test-ndv-accumulators", 0, Long.MAX_VALUE);
+  }
+
+  @After
+  public void cleanup() throws Exception {
+    allocator.close();
+  }
+
+  @Test
+  public void testAccumulateAndMergeSpilledSketches() throws Exception {
+    try (IntVector input = new IntVector("input", allocator);
+         VarBinaryVector output = new VarBinaryVector("ndv", allocator);
+         ArrowBuf ordinals = allocator.buffer(6 * PARTITIONINDEX_HTORDINAL_WIDTH)) {
+      input.allocateNew(6);
+      input.set(0, 1);
+      input.set(1, 2);
+      input.set(2, 3);
+      input.set(3, 1);
+      input.set(4, 5);
+      input.setNull(5);
+      input.setValueCount(6);
+      /* records 0-3 go to group 0, records 4-5 to group 1 */
+      setOrdinals(ordinals, 0, 0, 0, 0, 1, 1);
+
+      try (NdvAccumulators.IntNdvAccumulator accumulator =
+             new NdvAccumulators.IntNdvAccumulator(input, output, MAX_VALUES_PER_BATCH, allocator)) {
+        addBatch(accumulator);
+        accumulator.accumulate(ordinals.memoryAddress(), 6, BITS_IN_CHUNK, CHUNK_OFFSET_MASK);
+
+        /* merge the sketches of groups 0 and 1, as read from a spilled batch, into group 0 */
+        final FieldVector spilledSketches = accumulator.getAccumulatorVector(0);
+        setOrdinals(ordinals, 0, 0);
+        try (NdvAccumulators.NdvUnionAccumulator union =
+               new NdvAccumulators.NdvUnionAccumulator(spilledSketches, output, MAX_VALUES_PER_BATCH, allocator)) {
+          addBatch(union);
+          union.accumulate(ordinals.memoryAddress(), 2, BITS_IN_CHUNK, CHUNK_OFFSET_MASK);
+
+          union.output(0);
+          output.setValueCount(2);
+          assertEquals(4, HllSketch.heapify(output.get(0)).getEstimate(), 0.5);
+          assertEquals(0, HllSketch.heapify(output.get(1)).getEstimate(), 0.5);
+        }
+
+        accumulator.output(0);
+        output.setValueCount(3);
+        assertEquals(3, HllSketch.heapify(output.get(0)).getEstimate(), 0.5);
+        assertEquals(1, HllSketch.heapify(output.get(1)).getEstimate(), 0.5);
+        /* group without any non null input */
+        assertEquals(0, HllSketch.heapify(output.get(2)).getEstimate(), 0.5);
+      }
+    }
+  }
+
+  /**
+   * Write the given hash table ordinals, record i going to group ordinals[i]
+   */
+  private static void setOrdinals(ArrowBuf buffer, int... ordinals) {
+    for (int i = 0; i < ordinals.length; i++) {
+      buffer.setInt(i * PARTITIONINDEX_HTORDINAL_WIDTH + HTORDINAL_OFFSET, ordinals[i]);
+      buffer.setInt(i * PARTITIONINDEX_HTORDINAL_WIDTH + KEYINDEX_OFFSET, i);
+    }
+  }
+
+  private void addBatch(Accumulator accumulator) {
+    /* same layout as the joint allocation done by AccumulatorSet */
+    final int validitySize = accumulator.getValidityBufferSize();
+    final int dataOffset = Numbers.nextMultipleOfEight(validitySize);
+    try (ArrowBuf buffer = allocator.buffer(dataOffset + accumulator.getDataBufferSize())) {
+      accumulator.addBatch(buffer.slice(dataOffset, accumulator.getDataBufferSize()), buffer.slice(0, validitySize));
+    }
+  }
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.op.aggregate.vectorized;
+
+import static com.dremio.sabot.op.aggregate.vectorized.VectorizedHashAggOperator.HTORDINAL_OFFSET;
+import static com.dremio.sabot.op.aggregate.vectorized.VectorizedHashAggOperator.KEYINDEX_OFFSET;
+import static com.dremio.sabot.op.aggregate.vectorized.VectorizedHashAggOperator.PARTITIONINDEX_HTORDINAL_WIDTH;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.apache.arrow.memory.ArrowBuf;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.VarCharVector;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import com.dremio.exec.expr.TypeHelper;
+import com.dremio.exec.proto.UserBitShared.SerializedField;
+import com.dremio.test.AllocatorRule;
+import com.dremio.test.DremioTest;
+
+/**
+ * Tests for the variable width MIN/MAX accumulators of the spilling hash aggregate
+ */
+public class TestVarLenMinMaxAccumulators extends DremioTest {
+  private static final int MAX_VALUES_PER_BATCH = 4;
+  private static final int BITS_IN_CHUNK = 2;
+  private static final int CHUNK_OFFSET_MASK = MAX_VALUES_PER_BATCH - 1;
+  private static final int ESTIMATED_WIDTH = 2;
+
+  @Rule
+  public final AllocatorRule allocatorRule = AllocatorRule.defaultAllocator();
+
+  private BufferAllocator allocator;
+
+  @Before
+  public void setup() {
+    allocator = allocatorRule.newAllocator("test-varlen-min-max-accumulators", 0, Long.MAX_VALUE);
+  }
+
+  @After
+  public void cleanup() throws Exception {
+    allocator.close();
+  }
+
+  @Test
+  public void testMaxSpillAndReload() throws Exception {
+    try (VarCharVector input = newInput("b", "abc", "c", null, null, "z much longer value than estimated");
+         VarCharVector output = new VarCharVector("max", allocator);
+         VarCharVector spilled = new VarCharVector("max", allocator);
+         ArrowBuf ordinals = allocator.buffer(6 * PARTITIONINDEX_HTORDINAL_WIDTH)) {
+      setOrdinals(ordinals, 0, 0, 1, 1, 2, 0);
+
+      try (MaxAccumulators.VarLenMaxAccumulator accumulator =
+             new MaxAccumulators.VarLenMaxAccumulator(input, output, MAX_VALUES_PER_BATCH, allocator, ESTIMATED_WIDTH)) {
+        accumulator.addBatch(null, null);
+        accumulator.accumulate(ordinals.memoryAddress(), 6, BITS_IN_CHUNK, CHUNK_OFFSET_MASK);
+
+        /* spill the three groups of the batch and load them back as a regular vector */
+        final SerializedField metadata = accumulator.getSpilledBatchMetadata(0, 3);
+        final ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        /* small staging buffer so that values are written in several chunks */
+        final long written = accumulator.writeSpilledBatch(0, 3, stream, new byte[8]);
+        assertEquals(metadata.getBufferLength(), written);
+        final byte[] bytes = stream.toByteArray();
+        try (ArrowBuf buffer = allocator.buffer(bytes.length)) {
+          buffer.setBytes(0, bytes);
+          TypeHelper.load(spilled, metadata, buffer);
+        }
+        assertEquals(3, spilled.getValueCount());
+        assertEquals("z much longer value than estimated", spilled.getObject(0).toString());
+        assertEquals("c", spilled.getObject(1).toString());
+        assertTrue(spilled.isNull(2));
+
+        accumulator.output(0);
+        output.setValueCount(3);
+        assertEquals("z much longer value than estimated", output.getObject(0).toString());
+        assertEquals("c", output.getObject(1).toString());
+        assertTrue(output.isNull(2));
+      }
+    }
+  }
+
+  @Test
+  public void testMin() throws Exception {
+    try (VarCharVector input = newInput("b", "abc", "c", null, "zz", "zy");
+         VarCharVector output = new VarCharVector("min", allocator);
+         ArrowBuf ordinals = allocator.buffer(6 * PARTITIONINDEX_HTORDINAL_WIDTH)) {
+      /* records 4-5 go to a second batch */
+      setOrdinals(ordinals, 0, 0, 1, 1, 4, 4);
+
+      try (MinAccumulators.VarLenMinAccumulator accumulator =
+             new MinAccumulators.VarLenMinAccumulator(input, output, MAX_VALUES_PER_BATCH, allocator, ESTIMATED_WIDTH)) {
+        accumulator.addBatch(null, null);
+        accumulator.addBatch(null, null);
+        accumulator.accumulate(ordinals.memoryAddress(), 6, BITS_IN_CHUNK, CHUNK_OFFSET_MASK);
+
+        accumulator.output(1);
+        output.setValueCount(1);
+        assertEquals("zy", output.getObject(0).toString());
+
+        accumulator.output(0);
+        output.setValueCount(2);
+        assertEquals("abc", output.getObject(0).toString());
+        assertEquals("c", output.getObject(1).toString());
+
+        /* the first batch is kept for post-spill processing */
+        accumulator.resetToMinimumSize();
+        accumulator.verifyBatchCount(1);
+      }
+    }
+  }
+
+  private VarCharVector newInput(String... values) {
+    final VarCharVector input = new VarCharVector("input", allocator);
+    input.allocateNew();
+    for (int i = 0; i < values.length; i++) {
+      if (values[i] == null) {
+        input.setNull(i);
+      } else {
+        input.setSafe(i, values[i].getBytes(StandardCharsets.UTF_8));
+      }
+    }
+    input.setValueCount(values.length);
+    return input;
+  }
+
+  /**
+   * Write the given hash table ordinals, record i going to group ordinals[i]
+   */
+  private static void setOrdinals(ArrowBuf buffer, int... ordinals) {
+    for (int i = 0; i < ordinals.length; i++) {
+      buffer.setInt(i * PARTITIONINDEX_HTORDINAL_WIDTH + HTORDINAL_OFFSET, ordinals[i]);
+      buffer.setInt(i * PARTITIONINDEX_HTORDINAL_WIDTH + KEYINDEX_OFFSET, i);
+    }
+  }
+}
@@ -39,6 +39,7 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.mockito.ArgumentCaptor;
 
+import com.dremio.exec.ExecConstants;
 import com.dremio.exec.physical.base.OpProps;
 import com.dremio.exec.physical.config.HashJoinPOP;
 import com.dremio.exec.planner.fragment.EndpointsIndex;
@@ -52,6 +53,7 @@ import com.dremio.exec.proto.ExecProtos.FragmentHandle;
 import com.dremio.exec.proto.ExecProtos.RuntimeFilter;
 import com.dremio.exec.proto.UserBitShared.QueryId;
 import com.dremio.exec.util.BloomFilter;
+import com.dremio.options.OptionManager;
 import com.dremio.sabot.exec.context.OperatorContext;
 import com.dremio.sabot.exec.fragment.OutOfBandMessage;
 import com.dremio.sabot.exec.rpc.AccountingExecTunnel;
@@ -381,6 +383,10 @@ public class VectorizedHashJoinOperatorTest {
         when(context.getAllocator()).thenReturn(bfTestAllocator);
         FragmentAssignment assignment = FragmentAssignment.newBuilder().addAllMinorFragmentId(Lists.newArrayList(1,2,3,4)).build();
         when(context.getAssignments()).thenReturn(Lists.newArrayList(assignment));
+        OptionManager options = mock(OptionManager.class);
+        when(options.getOption(ExecConstants.ENABLE_RUNTIME_FILTER_ON_NON_PARTITIONED_PARQUET)).thenReturn(false);
+        when(options.getOption(ExecConstants.RUNTIME_FILTER_VALUE_FILTER_MAX_SIZE)).thenReturn(100L);
+        when(context.getOptions()).thenReturn(options);
         return context;
     }
 
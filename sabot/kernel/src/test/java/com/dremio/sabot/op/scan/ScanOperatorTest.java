@@ -17,6 +17,7 @@
 package com.dremio.sabot.op.scan;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.doNothing;
@@ -120,6 +121,32 @@ public class ScanOperatorTest {
         }
     }
 
+    @Test
+    public void testWorkOnOOBValueListFilterWithoutBuffer() {
+        RuntimeFilter filter = RuntimeFilter.newBuilder()
+                .setProbeScanMajorFragmentId(2)
+                .setProbeScanOperatorId(131074)
+                .addNonPartitionColumnFilter(CompositeColumnFilter.newBuilder()
+                        .addColumns("col1")
+                        .setFilterType(RuntimeFilterType.VALUE_LIST)
+                        .addAllValues(Lists.newArrayList(5L, 1L, 3L))
+                        .setSizeBytes(24).build())
+                .build();
+        OutOfBandMessage msg = newOOBMessage(filter, null, 1, 2);
+        RecordReader mockReader = mock(RecordReader.class);
+        ScanOperator scanOp = new ScanOperator(mock(SubScan.class), getMockContext(), Lists.newArrayList(mockReader).iterator(), null, null, null);
+
+        scanOp.workOnOOB(msg);
+        scanOp.workOnOOB(newOOBMessage(filter, null, 1, 1)); // should get skipped
+
+        ArgumentCaptor<com.dremio.exec.store.RuntimeFilter> addedFilter = ArgumentCaptor.forClass(com.dremio.exec.store.RuntimeFilter.class);
+        verify(mockReader, times(1)).addRuntimeFilter(addedFilter.capture());
+        assertNull(addedFilter.getValue().getPartitionColumnFilter());
+        assertEquals(1, addedFilter.getValue().getNonPartitionColumnFilter().size());
+        assertEquals(Lists.newArrayList(1L, 3L, 5L),
+                addedFilter.getValue().getNonPartitionColumnFilter().get(0).getValueList().getValues());
+    }
+
     private OperatorContext getMockContext() {
         OperatorContext context = mock(OperatorContext.class);
         OperatorStats stats = mock(OperatorStats.class);
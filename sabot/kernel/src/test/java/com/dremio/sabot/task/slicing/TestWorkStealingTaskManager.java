@@ -0,0 +1,179 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.task.slicing;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+
+import com.dremio.sabot.task.Observer;
+import com.dremio.sabot.task.SchedulingGroup;
+import com.dremio.sabot.task.Task;
+import com.dremio.sabot.task.TaskManager;
+import com.dremio.sabot.task.TaskManager.TaskHandle;
+import com.dremio.sabot.task.TaskManager.TaskProvider;
+
+/**
+ * Unit tests for {@link WorkStealingTaskManager}
+ */
+public class TestWorkStealingTaskManager {
+
+  private static final long QUANTUM = 100;
+
+  private static final class DummyTask implements Task {
+    private State state = State.RUNNABLE;
+
+    @Override
+    public State getState() {
+      return state;
+    }
+  }
+
+  private static final class CountingObserver implements Observer<DummyTask> {
+    private int added;
+    private int rebalanced;
+    private int rejected;
+
+    @Override
+    public void addTask(TaskHandle<DummyTask> task, int thread) {
+      added++;
+    }
+
+    @Override
+    public void rebalance(TaskHandle<DummyTask> task, int srcThread, int dstThread) {
+      rebalanced++;
+    }
+
+    @Override
+    public void workRequestRejected(int thread) {
+      rejected++;
+    }
+  }
+
+  private static final TaskManager.WakeUpListener NO_OP = () -> {};
+
+  @Test
+  public void testTasksAreSpreadAcrossThreads() {
+    final CountingObserver observer = new CountingObserver();
+    final WorkStealingTaskManager<DummyTask> manager = new WorkStealingTaskManager<>(2, QUANTUM, observer);
+    final SchedulingGroup<DummyTask> group = manager.newGroup(TaskManager.MAX_WEIGHT);
+
+    group.addTask(new DummyTask(), TaskManager.MAX_WEIGHT);
+    group.addTask(new DummyTask(), TaskManager.MAX_WEIGHT);
+
+    assertEquals(2, observer.added);
+    assertEquals(1, manager.getNumTasks(0));
+    assertEquals(1, manager.getNumTasks(1));
+  }
+
+  @Test
+  public void testRunnableTaskKeepsThreadUntilQuantumExpires() {
+    final WorkStealingTaskManager<DummyTask> manager = new WorkStealingTaskManager<>(1, QUANTUM, new CountingObserver());
+    final TaskProvider<DummyTask> provider = manager.getTaskProvider(0, NO_OP);
+
+    final TaskHandle<DummyTask> t1 = manager.addTask(new DummyTask(), TaskManager.MAX_WEIGHT);
+    assertSame(t1, provider.getTask(0));
+    // alone on the thread, keeps running within its quantum
+    assertSame(t1, provider.getTask(QUANTUM / 2));
+
+    final TaskHandle<DummyTask> t2 = manager.addTask(new DummyTask(), TaskManager.MAX_WEIGHT);
+    // another task is waiting, so t1 yields and t2, with a smaller vruntime, runs next
+    assertSame(t2, provider.getTask(QUANTUM / 2));
+    assertSame(t2, provider.getTask(QUANTUM / 2));
+    assertSame(t1, provider.getTask(QUANTUM));
+  }
+
+  @Test
+  public void testHeavierGroupGetsMoreTime() {
+    final WorkStealingTaskManager<DummyTask> manager = new WorkStealingTaskManager<>(1, QUANTUM, new CountingObserver());
+    final TaskProvider<DummyTask> provider = manager.getTaskProvider(0, NO_OP);
+
+    final TaskHandle<DummyTask> heavy = manager.newGroup(TaskManager.MAX_WEIGHT).addTask(new DummyTask(), TaskManager.MAX_WEIGHT);
+    final TaskHandle<DummyTask> light = manager.newGroup(TaskManager.MAX_WEIGHT / 10).addTask(new DummyTask(), TaskManager.MAX_WEIGHT);
+
+    int heavyRuns = 0;
+    int lightRuns = 0;
+    TaskHandle<DummyTask> handle = provider.getTask(0);
+    for (int i = 0; i < 110; i++) {
+      if (handle == heavy) {
+        heavyRuns++;
+      } else if (handle == light) {
+        lightRuns++;
+      }
+      handle = provider.getTask(QUANTUM);
+    }
+
+    assertEquals(100, heavyRuns, 1);
+    assertEquals(10, lightRuns, 1);
+  }
+
+  @Test
+  public void testBlockedTaskIsReEnqueued() {
+    final WorkStealingTaskManager<DummyTask> manager = new WorkStealingTaskManager<>(1, QUANTUM, new CountingObserver());
+    final TaskProvider<DummyTask> provider = manager.getTaskProvider(0, NO_OP);
+
+    final TaskHandle<DummyTask> handle = manager.addTask(new DummyTask(), TaskManager.MAX_WEIGHT);
+    assertSame(handle, provider.getTask(0));
+
+    handle.getTask().state = Task.State.BLOCKED_ON_UPSTREAM;
+    assertNull(provider.getTask(QUANTUM));
+    assertEquals(0, provider.getNumTasks());
+
+    handle.getTask().state = Task.State.RUNNABLE;
+    handle.reEnqueue();
+    // a second wake up must not queue the task twice
+    handle.reEnqueue();
+    assertEquals(1, provider.getNumTasks());
+    assertSame(handle, provider.getTask(0));
+  }
+
+  @Test
+  public void testIdleThreadStealsWork() {
+    final CountingObserver observer = new CountingObserver();
+    final WorkStealingTaskManager<DummyTask> manager = new WorkStealingTaskManager<>(2, QUANTUM, observer);
+    final TaskProvider<DummyTask> provider0 = manager.getTaskProvider(0, NO_OP);
+    final TaskProvider<DummyTask> provider1 = manager.getTaskProvider(1, NO_OP);
+
+    for (int i = 0; i < 4; i++) {
+      manager.addTask(new DummyTask(), TaskManager.MAX_WEIGHT);
+    }
+    // drain thread 1 and mark its tasks done
+    for (int i = 0; i < 2; i++) {
+      provider1.getTask(0).getTask().state = Task.State.DONE;
+    }
+    assertEquals(0, provider1.getNumTasks());
+
+    // thread 0 runs one of its tasks, the other one waits in its queue
+    final TaskHandle<DummyTask> running = provider0.getTask(0);
+    assertEquals(0, running.getThread());
+    assertEquals(1, provider0.getNumTasks());
+
+    // thread 1 has nothing left to run, it steals the task waiting behind the running one
+    final TaskHandle<DummyTask> stolen = provider1.getTask(0);
+    assertNotSame(running, stolen);
+    assertEquals(1, stolen.getThread());
+    assertEquals(1, observer.rebalanced);
+    assertEquals(0, provider0.getNumTasks());
+
+    // thread 0 only has its running task left, there is nothing to steal
+    stolen.getTask().state = Task.State.DONE;
+    assertNull(provider1.getTask(0));
+    assertEquals(1, observer.rejected);
+  }
+}
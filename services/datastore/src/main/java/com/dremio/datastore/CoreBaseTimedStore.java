@@ -18,12 +18,14 @@ package com.dremio.datastore;
 import static com.dremio.common.perf.Timer.time;
 
 import java.util.List;
+import java.util.Map;
 
 import com.dremio.common.perf.Timer.TimedBlock;
 import com.dremio.datastore.SearchTypes.SearchQuery;
 import com.dremio.datastore.api.Document;
 import com.dremio.datastore.api.FindByCondition;
 import com.dremio.datastore.api.FindByRange;
+import com.dremio.datastore.indexed.IndexPutOption;
 
 /**
  * Adds timing instrumentation to KVStore interface
@@ -99,6 +101,27 @@ abstract class CoreBaseTimedStore<K, V> implements CoreKVStore<K, V> {
     }
   }
 
+  @Override
+  public void bulkPut(Map<KVStoreTuple<K>, KVStoreTuple<V>> documents) {
+    try (TimedBlock b = time(name + ".bulkPut")) {
+      kvStore.bulkPut(documents);
+    }
+  }
+
+  @Override
+  public void bulkDelete(List<KVStoreTuple<K>> keys) {
+    try (TimedBlock b = time(name + ".bulkDelete")) {
+      kvStore.bulkDelete(keys);
+    }
+  }
+
+  @Override
+  public void deleteRange(FindByRange<KVStoreTuple<K>> range) {
+    try (TimedBlock b = time(name + ".deleteRange")) {
+      kvStore.deleteRange(range);
+    }
+  }
+
   /**
    * Basic timed store.
    *
@@ -128,6 +151,13 @@ abstract class CoreBaseTimedStore<K, V> implements CoreKVStore<K, V> {
       this.kvStore = kvStore;
     }
 
+    @Override
+    public void bulkPut(Map<KVStoreTuple<KEY>, KVStoreTuple<VALUE>> documents, Map<KVStoreTuple<KEY>, IndexPutOption> indexOptions) {
+      try (TimedBlock b = time(getName() + ".bulkPut")) {
+        kvStore.bulkPut(documents, indexOptions);
+      }
+    }
+
     @Override
     public Iterable<Document<KVStoreTuple<KEY>, KVStoreTuple<VALUE>>> find(FindByCondition find, FindOption... options) {
       try (TimedBlock b = time(getName() + ".find(FindByCondition)")) {
@@ -16,10 +16,12 @@
 package com.dremio.datastore;
 
 import java.util.List;
+import java.util.Map;
 
 import com.dremio.datastore.SearchTypes.SearchQuery;
 import com.dremio.datastore.api.Document;
 import com.dremio.datastore.api.FindByCondition;
+import com.dremio.datastore.indexed.IndexPutOption;
 
 /**
  * Core indexed store.
@@ -45,6 +47,15 @@ public interface CoreIndexedStore<K, V> extends CoreKVStore<K, V> {
    */
   List<Integer> getCounts(SearchQuery... conditions);
 
+  /**
+   * Saves a batch of documents, indexing each one with the index fields of its put option, as a put with that
+   * option would.
+   *
+   * @param documents the key and value of the documents to save.
+   * @param indexOptions the index put option of each document, by key.
+   */
+  void bulkPut(Map<KVStoreTuple<K>, KVStoreTuple<V>> documents, Map<KVStoreTuple<K>, IndexPutOption> indexOptions);
+
   /**
    * ReIndex all the entries in the store
    * @return number of entries which got reIndexed.
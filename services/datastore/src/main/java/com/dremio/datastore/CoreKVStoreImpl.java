@@ -16,7 +16,9 @@
 package com.dremio.datastore;
 
 import java.util.ConcurrentModificationException;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import com.dremio.datastore.api.Document;
 import com.dremio.datastore.api.FindByRange;
@@ -109,8 +111,31 @@ public class CoreKVStoreImpl<KEY, VALUE> implements CoreKVStore<KEY, VALUE> {
     }
   }
 
+  @Override
+  public void bulkPut(Map<KVStoreTuple<KEY>, KVStoreTuple<VALUE>> documents) {
+    // byte arrays are compared by identity, so equal keys are kept in order and the last one wins
+    final Map<byte[], byte[]> convertedDocuments = new LinkedHashMap<>();
+    documents.forEach((key, value) -> convertedDocuments.put(key.getSerializedBytes(), value.getSerializedBytes()));
+    rawStore.bulkPut(convertedDocuments);
+  }
+
+  @Override
+  public void bulkDelete(List<KVStoreTuple<KEY>> keys) {
+    rawStore.bulkDelete(Lists.transform(keys, keyToBytes));
+  }
+
+  @Override
+  public void deleteRange(FindByRange<KVStoreTuple<KEY>> range) {
+    rawStore.deleteRange(toByteRange(range));
+  }
+
   @Override
   public Iterable<Document<KVStoreTuple<KEY>, KVStoreTuple<VALUE>>> find(FindByRange<KVStoreTuple<KEY>> find, FindOption... options) {
+    final Iterable<Document<byte[], byte[]>> range = rawStore.find(toByteRange(find), options);
+    return Iterables.transform(range, this::fromDocument);
+  }
+
+  private static <KEY> FindByRange<byte[]> toByteRange(FindByRange<KVStoreTuple<KEY>> find) {
     final ImmutableFindByRange.Builder<byte[]> rangeBuilder = new ImmutableFindByRange.Builder<>();
 
     if (find.getStart() != null) {
@@ -123,8 +148,7 @@ public class CoreKVStoreImpl<KEY, VALUE> implements CoreKVStore<KEY, VALUE> {
         .setIsEndInclusive(find.isEndInclusive());
     }
 
-    final Iterable<Document<byte[], byte[]>> range = rawStore.find(rangeBuilder.build(), options);
-    return Iterables.transform(range, this::fromDocument);
+    return rangeBuilder.build();
   }
 
   @Override
@@ -21,6 +21,9 @@ import java.util.Collections;
 import java.util.ConcurrentModificationException;
 import java.util.List;
 
+import com.dremio.datastore.RemoteDataStoreProtobuf.BulkDeleteRequest;
+import com.dremio.datastore.RemoteDataStoreProtobuf.BulkPutRequest;
+import com.dremio.datastore.RemoteDataStoreProtobuf.BulkPutResponse;
 import com.dremio.datastore.RemoteDataStoreProtobuf.ContainsRequest;
 import com.dremio.datastore.RemoteDataStoreProtobuf.ContainsResponse;
 import com.dremio.datastore.RemoteDataStoreProtobuf.DeleteRequest;
@@ -225,6 +228,43 @@ public class DatastoreRpcClient {
       .build());
   }
 
+  /**
+   * Bulk put method to store a batch of key value entries in the store with a single request. Versions are not
+   * validated.
+   *
+   * @param storeId the store ID.
+   * @param puts the entries to store, without put options.
+   * @throws RpcException when RPC related errors are encountered.
+   */
+  public void bulkPut(String storeId, List<PutRequest> puts) throws RpcException {
+    final BulkPutRequest request = BulkPutRequest.newBuilder()
+      .setStoreId(storeId)
+      .addAllPuts(puts)
+      .build();
+
+    final ReceivedResponseMessage<BulkPutResponse> response = rpcService.getBulkPutEndpoint().send(request);
+    if (response.getBody().hasErrorMessage()) {
+      throw new RpcException(response.getBody().getErrorMessage());
+    }
+  }
+
+  /**
+   * Bulk delete method to remove the key-value store entries corresponding to the provided keys with a single
+   * request. Versions are not validated.
+   *
+   * @param storeId the store ID.
+   * @param keys the keys of the key-value store entries to remove.
+   * @throws RpcException when RPC related errors are encountered.
+   */
+  public void bulkDelete(String storeId, List<ByteString> keys) throws RpcException {
+    final BulkDeleteRequest request = BulkDeleteRequest.newBuilder()
+      .setStoreId(storeId)
+      .addAllKeys(keys)
+      .build();
+
+    rpcService.getBulkDeleteEndpoint().send(request);
+  }
+
   /**
    * Delete method to removed key-value store entry corresponding to the provided key from the store. Tag can be
    * {@code null} if no validation is required.
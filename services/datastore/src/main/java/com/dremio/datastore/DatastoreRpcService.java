@@ -20,6 +20,10 @@ import javax.inject.Provider;
 import org.apache.arrow.memory.ArrowBuf;
 import org.apache.arrow.memory.BufferAllocator;
 
+import com.dremio.datastore.RemoteDataStoreProtobuf.BulkDeleteRequest;
+import com.dremio.datastore.RemoteDataStoreProtobuf.BulkDeleteResponse;
+import com.dremio.datastore.RemoteDataStoreProtobuf.BulkPutRequest;
+import com.dremio.datastore.RemoteDataStoreProtobuf.BulkPutResponse;
 import com.dremio.datastore.RemoteDataStoreProtobuf.ContainsRequest;
 import com.dremio.datastore.RemoteDataStoreProtobuf.ContainsResponse;
 import com.dremio.datastore.RemoteDataStoreProtobuf.DeleteRequest;
@@ -57,6 +61,8 @@ public class DatastoreRpcService {
   private static final int TYPE_SEARCH = 5;
   private static final int TYPE_PUT = 6;
   private static final int TYPE_DELETE = 7;
+  private static final int TYPE_BULK_PUT = 8;
+  private static final int TYPE_BULK_DELETE = 9;
   private static final int TYPE_GET_STORE = 10;
 
   private final Provider<NodeEndpoint> master;
@@ -68,6 +74,8 @@ public class DatastoreRpcService {
   private SendEndpointCreator<SearchRequest, SearchResponse> searchEndpointCreator;
   private SendEndpointCreator<PutRequest, PutResponse> putEndpointCreator;
   private SendEndpointCreator<DeleteRequest, DeleteResponse> deleteEndpointCreator;
+  private SendEndpointCreator<BulkPutRequest, BulkPutResponse> bulkPutEndpointCreator;
+  private SendEndpointCreator<BulkDeleteRequest, BulkDeleteResponse> bulkDeleteEndpointCreator;
   private SendEndpointCreator<GetStoreRequest, GetStoreResponse> getStoreEndpointCreator;
 
   public DatastoreRpcService(Provider<NodeEndpoint> masterNode,
@@ -134,6 +142,22 @@ public class DatastoreRpcService {
         }
       });
 
+    bulkPutEndpointCreator = builder.register(TYPE_BULK_PUT,
+      new AbstractReceiveHandler<BulkPutRequest, BulkPutResponse>(BulkPutRequest.getDefaultInstance(), BulkPutResponse.getDefaultInstance()) {
+        @Override
+        public SentResponseMessage<BulkPutResponse> handle(BulkPutRequest request, ArrowBuf dBody) throws RpcException {
+          return new SentResponseMessage<>(handler.bulkPut(request));
+        }
+      });
+
+    bulkDeleteEndpointCreator = builder.register(TYPE_BULK_DELETE,
+      new AbstractReceiveHandler<BulkDeleteRequest, BulkDeleteResponse>(BulkDeleteRequest.getDefaultInstance(), BulkDeleteResponse.getDefaultInstance()) {
+        @Override
+        public SentResponseMessage<BulkDeleteResponse> handle(BulkDeleteRequest request, ArrowBuf dBody) throws RpcException {
+          return new SentResponseMessage<>(handler.bulkDelete(request));
+        }
+      });
+
     getStoreEndpointCreator = builder.register(TYPE_GET_STORE,
       new AbstractReceiveHandler<GetStoreRequest, GetStoreResponse>(GetStoreRequest.getDefaultInstance(), GetStoreResponse.getDefaultInstance()) {
         @Override
@@ -182,6 +206,14 @@ public class DatastoreRpcService {
     return newEndpoint(deleteEndpointCreator);
   }
 
+  public SendEndpoint<BulkPutRequest, BulkPutResponse> getBulkPutEndpoint() throws RpcException {
+    return newEndpoint(bulkPutEndpointCreator);
+  }
+
+  public SendEndpoint<BulkDeleteRequest, BulkDeleteResponse> getBulkDeleteEndpoint() throws RpcException {
+    return newEndpoint(bulkDeleteEndpointCreator);
+  }
+
   public SendEndpoint<GetStoreRequest, GetStoreResponse> getGetStoreEndpoint() throws RpcException {
     return newEndpoint(getStoreEndpointCreator);
   }
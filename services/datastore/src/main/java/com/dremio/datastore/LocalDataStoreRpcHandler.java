@@ -15,9 +15,14 @@
  */
 package com.dremio.datastore;
 
+import java.util.ArrayList;
 import java.util.ConcurrentModificationException;
 import java.util.List;
 
+import com.dremio.datastore.RemoteDataStoreProtobuf.BulkDeleteRequest;
+import com.dremio.datastore.RemoteDataStoreProtobuf.BulkDeleteResponse;
+import com.dremio.datastore.RemoteDataStoreProtobuf.BulkPutRequest;
+import com.dremio.datastore.RemoteDataStoreProtobuf.BulkPutResponse;
 import com.dremio.datastore.RemoteDataStoreProtobuf.ContainsRequest;
 import com.dremio.datastore.RemoteDataStoreProtobuf.ContainsResponse;
 import com.dremio.datastore.RemoteDataStoreProtobuf.DeleteRequest;
@@ -167,6 +172,23 @@ public class LocalDataStoreRpcHandler extends DefaultDataStoreRpcHandler {
     return DeleteResponse.getDefaultInstance();
   }
 
+  @Override
+  public BulkPutResponse bulkPut(BulkPutRequest request) {
+    return putHandler.applyBulk(request, false);
+  }
+
+  @Override
+  public BulkDeleteResponse bulkDelete(BulkDeleteRequest request) {
+    final CoreKVStore store = coreStoreProvider.getStore(request.getStoreId());
+    final List<KVStoreTuple<?>> keys = new ArrayList<>(request.getKeysCount());
+    for (ByteString key : request.getKeysList()) {
+      keys.add(store.newKey().setSerializedBytes(key.toByteArray()));
+    }
+
+    store.bulkDelete(keys);
+    return BulkDeleteResponse.getDefaultInstance();
+  }
+
   @Override
   public GetStoreResponse getStore(GetStoreRequest request) {
     String storeId = coreStoreProvider.getStoreID(request.getName());
@@ -15,7 +15,9 @@
  */
 package com.dremio.datastore;
 
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 import com.dremio.datastore.api.Document;
@@ -78,6 +80,20 @@ public class LocalKVStore<K, V> implements KVStore<K, V> {
     return fromDocument(coreKVStore.put(buildKey(key), buildValue(value), options));
   }
 
+  @Override
+  public void bulkPut(Map<K, V> documents) {
+    final Map<KVStoreTuple<K>, KVStoreTuple<V>> convertedDocuments = new LinkedHashMap<>();
+    documents.forEach((key, value) -> convertedDocuments.put(buildKey(key), buildValue(value)));
+    coreKVStore.bulkPut(convertedDocuments);
+  }
+
+  @Override
+  public void bulkDelete(List<K> keys) {
+    coreKVStore.bulkDelete(keys.stream()
+      .map(this::buildKey)
+      .collect(Collectors.toList()));
+  }
+
   @Override
   public boolean contains(K key, ContainsOption... options) {
     return coreKVStore.contains(buildKey(key), options);
@@ -88,16 +104,23 @@ public class LocalKVStore<K, V> implements KVStore<K, V> {
     coreKVStore.delete(buildKey(key), options);
   }
 
+  @Override
+  public void deleteRange(FindByRange<K> range) {
+    coreKVStore.deleteRange(convertRange(range));
+  }
+
   @Override
   public Iterable<Document<K, V>> find(FindByRange<K> find, FindOption... options) {
-    final FindByRange<KVStoreTuple<K>> convertedRange = new ImmutableFindByRange.Builder<KVStoreTuple<K>>()
+    return Iterables.transform(coreKVStore.find(convertRange(find), options), this::fromDocument);
+  }
+
+  private FindByRange<KVStoreTuple<K>> convertRange(FindByRange<K> find) {
+    return new ImmutableFindByRange.Builder<KVStoreTuple<K>>()
       .setStart(buildKey(find.getStart()))
       .setIsStartInclusive(find.isStartInclusive())
       .setEnd(buildKey(find.getEnd()))
       .setIsEndInclusive(find.isEndInclusive())
       .build();
-
-    return Iterables.transform(coreKVStore.find(convertedRange, options), this::fromDocument);
   }
 
   @Override
@@ -17,7 +17,9 @@ package com.dremio.datastore;
 
 import java.util.ArrayList;
 import java.util.ConcurrentModificationException;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import com.dremio.datastore.api.Document;
 import com.dremio.datastore.api.KVStore;
@@ -84,6 +86,33 @@ public class PutHandler {
     return builder.build();
   }
 
+  public RemoteDataStoreProtobuf.BulkPutResponse applyBulk(RemoteDataStoreProtobuf.BulkPutRequest request, boolean convertIndexesToPutOption) {
+    final CoreKVStore store = coreStoreProvider.getStore(request.getStoreId());
+    final boolean indexViaPutOption = (store instanceof CoreIndexedStore) && convertIndexesToPutOption;
+    final Map<KVStoreTuple<?>, KVStoreTuple<?>> documents = new LinkedHashMap<>();
+    final Map<KVStoreTuple<?>, IndexPutOption> indexOptions = new LinkedHashMap<>();
+
+    for (RemoteDataStoreProtobuf.PutRequest put : request.getPutsList()) {
+      final KVStoreTuple<?> key = store.newKey().setSerializedBytes(put.getKey().toByteArray());
+      documents.put(key, store.newValue().setSerializedBytes(put.getValue().toByteArray()));
+      if (indexViaPutOption) {
+        indexOptions.put(key, toIndexPutOption(put));
+      }
+    }
+
+    try {
+      if (indexViaPutOption) {
+        ((CoreIndexedStore) store).bulkPut(documents, indexOptions);
+      } else {
+        store.bulkPut(documents);
+      }
+    } catch (DatastoreException e) {
+      return RemoteDataStoreProtobuf.BulkPutResponse.newBuilder().setErrorMessage(e.getMessage()).build();
+    }
+
+    return RemoteDataStoreProtobuf.BulkPutResponse.getDefaultInstance();
+  }
+
   private static IndexPutOption toIndexPutOption(RemoteDataStoreProtobuf.PutRequest putRequest) {
     Preconditions.checkArgument(putRequest != null);
     return new ImmutableIndexPutOption.Builder().setIndexedFields(putRequest.getIndexFieldsList()).build();
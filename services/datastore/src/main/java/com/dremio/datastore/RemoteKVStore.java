@@ -17,10 +17,12 @@ package com.dremio.datastore;
 
 import static java.lang.String.format;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
+import com.dremio.datastore.RemoteDataStoreProtobuf.PutRequest;
 import com.dremio.datastore.api.Document;
 import com.dremio.datastore.api.FindByRange;
 import com.dremio.datastore.api.ImmutableDocument;
@@ -56,6 +58,8 @@ public class RemoteKVStore <K, V> implements KVStore<K, V> {
     DELETE,
     CHECK_AND_DELETE,
     DELETE_VERSION,
+    BULK_PUT,
+    BULK_DELETE,
     FIND_BY_RANGE,
     FIND_ALL
   }
@@ -195,6 +199,48 @@ public class RemoteKVStore <K, V> implements KVStore<K, V> {
     }
   }
 
+  @Override
+  public void bulkPut(Map<K, V> documents) {
+    if (documents.isEmpty()) {
+      return;
+    }
+
+    final List<PutRequest> puts = new ArrayList<>(documents.size());
+    for (Map.Entry<K, V> document : documents.entrySet()) {
+      final PutRequestDocumentWriter putRequestDocumentWriter = new PutRequestDocumentWriter();
+      if (helper.hasDocumentConverter()) {
+        helper.getDocumentConverter().convert(putRequestDocumentWriter, document.getKey(), document.getValue());
+      }
+
+      final PutRequest.Builder builder = PutRequest.newBuilder();
+      putRequestDocumentWriter.toPutRequest(builder);
+      puts.add(builder
+        .setStoreId(storeId)
+        .setKey(convertKey(document.getKey()))
+        .setValue(convertValue(document.getValue()))
+        .build());
+    }
+
+    try (TimerContext timer = time(Stats.BULK_PUT)) {
+      client.bulkPut(storeId, puts);
+    } catch (RpcException e) {
+      throw new DatastoreException(format("Failed to put multiple values in store id: %s", getStoreId()), e);
+    }
+  }
+
+  @Override
+  public void bulkDelete(List<K> keys) {
+    if (keys.isEmpty()) {
+      return;
+    }
+
+    try (TimerContext timer = time(Stats.BULK_DELETE)) {
+      client.bulkDelete(storeId, Lists.transform(keys, this::convertKey));
+    } catch (RpcException e) {
+      throw new DatastoreException(format("Failed to delete multiple values from store id: %s", getStoreId()), e);
+    }
+  }
+
   @Override
   public Iterable<Document<K, V>> find(FindByRange<K> find, FindOption... options) {
     final RemoteDataStoreProtobuf.FindRequest.Builder request = RemoteDataStoreProtobuf.FindRequest.newBuilder()
@@ -27,9 +27,15 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
 import java.util.UUID;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -45,12 +51,15 @@ import org.rocksdb.FlushOptions;
 import org.rocksdb.RocksDB;
 import org.rocksdb.RocksDBException;
 import org.rocksdb.RocksIterator;
+import org.rocksdb.WriteBatch;
+import org.rocksdb.WriteOptions;
 import org.xerial.snappy.SnappyInputStream;
 import org.xerial.snappy.SnappyOutputStream;
 
 import com.dremio.common.AutoCloseables;
 import com.dremio.common.DeferredException;
 import com.dremio.common.concurrent.AutoCloseableLock;
+import com.dremio.common.util.Closeable;
 import com.dremio.datastore.api.Document;
 import com.dremio.datastore.api.FindByRange;
 import com.dremio.datastore.api.ImmutableDocument;
@@ -319,6 +328,55 @@ class RocksDBStore implements ByteStore {
     return lock;
   }
 
+  /**
+   * Acquires the shared locks of all the stripes the keys belong to. Stripes are locked in ascending order, and
+   * each of them only once.
+   */
+  private Closeable sharedLocks(Collection<byte[]> keys) {
+    final BitSet stripes = new BitSet(parallel);
+    for (byte[] key : keys) {
+      Preconditions.checkNotNull(key);
+      stripes.set(Math.abs(Arrays.hashCode(key) % parallel));
+    }
+    return sharedLocks(stripes);
+  }
+
+  /**
+   * Acquires the shared locks of all the stripes, in ascending order.
+   */
+  private Closeable allSharedLocks() {
+    final BitSet stripes = new BitSet(parallel);
+    stripes.set(0, parallel);
+    return sharedLocks(stripes);
+  }
+
+  private Closeable sharedLocks(BitSet stripes) {
+    final List<AutoCloseableLock> acquiredLocks = new ArrayList<>(stripes.cardinality());
+    final Closeable release = () -> {
+      for (int i = acquiredLocks.size() - 1; i >= 0; i--) {
+        acquiredLocks.get(i).close();
+      }
+    };
+    try {
+      for (int i = stripes.nextSetBit(0); i >= 0; i = stripes.nextSetBit(i + 1)) {
+        acquiredLocks.add(sharedLocks[i].open());
+      }
+    } catch (RuntimeException e) {
+      release.close();
+      throw e;
+    }
+    return release;
+  }
+
+  /**
+   * Reads the raw values of the keys with a single RocksDB call.
+   *
+   * @return the values found, keyed by the same key instances
+   */
+  private Map<byte[], byte[]> multiGet(List<byte[]> keys) throws RocksDBException {
+    return db.multiGet(Collections.nCopies(keys.size(), handle), keys);
+  }
+
   /**
    * Delete all values. Deletes only values inside the store, leaving behind any leftover blobs that have been placed
    * directly in the file system.
@@ -483,11 +541,72 @@ class RocksDBStore implements ByteStore {
 
   @Override
   public Iterable<Document<byte[], byte[]>> get(List<byte[]> keys, GetOption... options) {
-    final List<Document<byte[], byte[]>> results = new ArrayList<>();
-    for (byte[] key : keys) {
-      results.add(get(key, options));
+    if (keys.isEmpty()) {
+      return Collections.emptyList();
+    }
+
+    // values are returned keyed by instance, and keys may be a view creating new arrays on each access
+    final List<byte[]> keyList = new ArrayList<>(keys);
+    try (Closeable locks = sharedLocks(keyList)) {
+      throwIfClosed();
+      final Map<byte[], byte[]> valuesOrPtrs = multiGet(keyList);
+
+      final List<Document<byte[], byte[]>> results = new ArrayList<>(keyList.size());
+      for (byte[] key : keyList) {
+        final RocksEntry result = resolvePtrOrValue(valuesOrPtrs.get(key));
+        if (result == null) {
+          results.add(null);
+        } else {
+          final byte[] value = result.getData();
+          results.add(toDocument(key, value, toTag(result.getMeta(), value)));
+        }
+      }
+      return results;
+    } catch (RocksDBException | BlobNotFoundException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  @Override
+  public void bulkPut(Map<byte[], byte[]> documents) {
+    // equal keys are collapsed, and the last value is kept
+    final Map<byte[], byte[]> sortedDocuments = new TreeMap<>(UnsignedBytes.lexicographicalComparator());
+    for (Map.Entry<byte[], byte[]> document : documents.entrySet()) {
+      if (document.getValue() == null) {
+        throw new NullPointerException("null values are not allowed in kvstore");
+      }
+      sortedDocuments.put(Preconditions.checkNotNull(document.getKey()), document.getValue());
+    }
+    if (sortedDocuments.isEmpty()) {
+      return;
+    }
+
+    final List<byte[]> keys = new ArrayList<>(sortedDocuments.keySet());
+    final List<BlobHolder> blobs = new ArrayList<>(keys.size());
+    try (Closeable locks = sharedLocks(keys);
+         WriteBatch batch = new WriteBatch();
+         WriteOptions writeOptions = new WriteOptions()) {
+      throwIfClosed();
+      final Map<byte[], byte[]> oldValuesOrPtrs = multiGet(keys);
+
+      for (Map.Entry<byte[], byte[]> document : sortedDocuments.entrySet()) {
+        final byte[] newValue = document.getValue();
+        final BlobHolder blob = metaManager.filterPut(newValue, ByteStore.generateTagFromBytes(newValue));
+        blobs.add(blob);
+        batch.put(handle, document.getKey(), blob.ptrOrValue());
+      }
+      db.write(writeOptions, batch);
+
+      for (byte[] key : keys) {
+        metaManager.deleteTranslation(meta(oldValuesOrPtrs.get(key)));
+      }
+      blobs.forEach(BlobHolder::commit);
+    } catch (RocksDBException | IOException e) {
+      throw new RuntimeException(e);
+    } finally {
+      // deletes the blobs of a failed batch
+      blobs.forEach(BlobHolder::close);
     }
-    return results;
   }
 
   @Override
@@ -579,6 +698,93 @@ class RocksDBStore implements ByteStore {
     }
   }
 
+  @Override
+  public void bulkDelete(List<byte[]> keys) {
+    final Set<byte[]> sortedKeys = new TreeSet<>(UnsignedBytes.lexicographicalComparator());
+    sortedKeys.addAll(keys);
+    if (sortedKeys.isEmpty()) {
+      return;
+    }
+
+    final List<byte[]> keyList = new ArrayList<>(sortedKeys);
+    try (Closeable locks = sharedLocks(keyList);
+         WriteBatch batch = new WriteBatch();
+         WriteOptions writeOptions = new WriteOptions()) {
+      throwIfClosed();
+      final Map<byte[], byte[]> oldValuesOrPtrs = multiGet(keyList);
+      if (oldValuesOrPtrs.isEmpty()) {
+        return;
+      }
+
+      for (byte[] key : oldValuesOrPtrs.keySet()) {
+        batch.delete(handle, key);
+      }
+      db.write(writeOptions, batch);
+
+      for (byte[] oldValueOrPtr : oldValuesOrPtrs.values()) {
+        metaManager.deleteTranslation(meta(oldValueOrPtr));
+      }
+    } catch (RocksDBException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  @Override
+  public void deleteRange(FindByRange<byte[]> range) {
+    try (Closeable locks = allSharedLocks()) {
+      throwIfClosed();
+      // RocksDB deletes the keys from begin (inclusive) to end (exclusive)
+      final byte[] begin;
+      if (range.getStart() == null) {
+        begin = new byte[0];
+      } else {
+        begin = range.isStartInclusive() ? range.getStart() : successor(range.getStart());
+      }
+      final byte[] end;
+      if (range.getEnd() == null) {
+        try (RocksIterator iter = db.newIterator(handle)) {
+          iter.seekToLast();
+          if (!iter.isValid()) {
+            return;
+          }
+          end = successor(iter.key());
+        }
+      } else {
+        end = range.isEndInclusive() ? successor(range.getEnd()) : range.getEnd();
+      }
+      if (UnsignedBytes.lexicographicalComparator().compare(begin, end) >= 0) {
+        return;
+      }
+
+      // values stored as blobs are not removed with the range, so find them first
+      final List<Rocks.Meta> blobMetas = new ArrayList<>();
+      if (metaManager != INLINE_BLOB_MANAGER) {
+        try (RocksIterator iter = db.newIterator(handle)) {
+          for (iter.seek(begin);
+               iter.isValid() && UnsignedBytes.lexicographicalComparator().compare(iter.key(), end) < 0;
+               iter.next()) {
+            final Rocks.Meta meta = meta(iter.value());
+            if (meta != null) {
+              blobMetas.add(meta);
+            }
+          }
+        }
+      }
+
+      db.deleteRange(handle, begin, end);
+      blobMetas.forEach(metaManager::deleteTranslation);
+    } catch (RocksDBException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  /**
+   * Returns the smallest key sorting after the given key.
+   */
+  private static byte[] successor(byte[] key) {
+    return Arrays.copyOf(key, key.length + 1);
+  }
+
   @Override
   public Iterable<Document<byte[], byte[]>> find(FindByRange<byte[]> find, FindOption... options) {
     cleanReferences();
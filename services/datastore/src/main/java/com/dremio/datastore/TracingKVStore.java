@@ -16,6 +16,7 @@
 package com.dremio.datastore;
 
 import java.util.List;
+import java.util.Map;
 import java.util.function.Supplier;
 
 import com.dremio.common.tracing.TracingUtils;
@@ -101,6 +102,21 @@ class TracingKVStore<K, V> implements KVStore<K, V> {
     trace("delete", () -> delegate.delete(key, options));
   }
 
+  @Override
+  public void bulkPut(Map<K, V> documents) {
+    trace("bulkPut", () -> delegate.bulkPut(documents));
+  }
+
+  @Override
+  public void bulkDelete(List<K> keys) {
+    trace("bulkDelete", () -> delegate.bulkDelete(keys));
+  }
+
+  @Override
+  public void deleteRange(FindByRange<K> range) {
+    trace("deleteRange", () -> delegate.deleteRange(range));
+  }
+
   @Override
   public KVAdmin getAdmin() {
     return trace("getAdmin", delegate::getAdmin);
@@ -84,6 +84,16 @@ public class LegacyKVStoreAdapter<K, V> implements LegacyKVStore<K, V> {
     }
   }
 
+  @Override
+  public void bulkPut(Map<K, V> entries) {
+    if (versionExtractor != null) {
+      // versioned values are validated and updated one by one
+      LegacyKVStore.super.bulkPut(entries);
+    } else {
+      underlyingStore.bulkPut(entries);
+    }
+  }
+
   @Override
   public boolean contains(K key) {
     return underlyingStore.contains(key);
@@ -95,15 +105,27 @@ public class LegacyKVStoreAdapter<K, V> implements LegacyKVStore<K, V> {
   }
 
   @Override
-  @SuppressWarnings("unchecked")
+  public void bulkDelete(List<K> keys) {
+    underlyingStore.bulkDelete(keys);
+  }
+
+  @Override
+  public void deleteRange(LegacyFindByRange<K> range) {
+    underlyingStore.deleteRange(convertRange(range));
+  }
+
+  @Override
   public Iterable<Map.Entry<K, V>> find(LegacyFindByRange<K> find) {
-    FindByRange<K> findByRange =
-      new ImmutableFindByRange.Builder()
-        .setEnd(find.getEnd())
-        .setStart(find.getStart())
-        .setIsEndInclusive(find.isEndInclusive())
-        .setIsStartInclusive(find.isStartInclusive()).build();
-    return convertToMapEntry(underlyingStore.find(findByRange));
+    return convertToMapEntry(underlyingStore.find(convertRange(find)));
+  }
+
+  @SuppressWarnings("unchecked")
+  private FindByRange<K> convertRange(LegacyFindByRange<K> find) {
+    return new ImmutableFindByRange.Builder()
+      .setEnd(find.getEnd())
+      .setStart(find.getStart())
+      .setIsEndInclusive(find.isEndInclusive())
+      .setIsStartInclusive(find.isStartInclusive()).build();
   }
 
   @Override
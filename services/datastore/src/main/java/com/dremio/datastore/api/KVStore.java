@@ -15,7 +15,9 @@
  */
 package com.dremio.datastore.api;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ExecutorService;
 import java.util.function.Consumer;
 import java.util.function.Function;
@@ -129,6 +131,47 @@ public interface KVStore<K, V> {
    */
   void delete(K key, DeleteOption ... options);
 
+  /**
+   * Saves a batch of documents to the KV Store. Stores backed by RocksDB apply the whole batch atomically, and
+   * remote stores send it in a single request. Existing values are replaced, and versions are not validated.
+   *
+   * @param documents the key and value of the documents to save.
+   * @throws com.dremio.datastore.DatastoreException when one or more runtime failures are encountered.
+   */
+  default void bulkPut(Map<K, V> documents) {
+    for (Map.Entry<K, V> document : documents.entrySet()) {
+      put(document.getKey(), document.getValue());
+    }
+  }
+
+  /**
+   * Removes a batch of documents from the KV Store. Stores backed by RocksDB apply the whole batch atomically, and
+   * remote stores send it in a single request. Versions are not validated.
+   *
+   * @param keys the keys of the documents to be removed.
+   * @throws com.dremio.datastore.DatastoreException when one or more runtime failures are encountered.
+   */
+  default void bulkDelete(List<K> keys) {
+    for (K key : keys) {
+      delete(key);
+    }
+  }
+
+  /**
+   * Removes all the documents with a key within the provided range. Stores backed by RocksDB remove the range
+   * without reading or deleting each document. Versions are not validated.
+   *
+   * @param range the range of the keys of the documents to be removed.
+   * @throws com.dremio.datastore.DatastoreException when one or more runtime failures are encountered.
+   */
+  default void deleteRange(FindByRange<K> range) {
+    final List<K> keys = new ArrayList<>();
+    for (Document<K, V> document : find(range)) {
+      keys.add(document.getKey());
+    }
+    bulkDelete(keys);
+  }
+
   /**
    * Checks if the KV Store contains a document corresponding to the provided key.
    *
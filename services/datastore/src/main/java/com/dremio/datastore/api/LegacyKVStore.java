@@ -15,6 +15,7 @@
  */
 package com.dremio.datastore.api;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -78,6 +79,43 @@ public interface LegacyKVStore<K, V> {
    */
   void delete(K key);
 
+  /**
+   * Save a batch of entries. Existing values are discarded and replaced by the new values,
+   * and versions are not validated.
+   *
+   * @param entries the keys and values to save, values can not be null.
+   */
+  default void bulkPut(Map<K, V> entries) {
+    for (Map.Entry<K, V> entry : entries.entrySet()) {
+      put(entry.getKey(), entry.getValue());
+    }
+  }
+
+  /**
+   * Remove a batch of keys, and their associated values from the store. Keys which don't exist
+   * are ignored.
+   *
+   * @param keys the keys to remove.
+   */
+  default void bulkDelete(List<K> keys) {
+    for (K key : keys) {
+      delete(key);
+    }
+  }
+
+  /**
+   * Remove all the keys within the provided range, and their associated values from the store.
+   *
+   * @param range the range of the keys to remove.
+   */
+  default void deleteRange(LegacyFindByRange<K> range) {
+    final List<K> keys = new ArrayList<>();
+    for (Map.Entry<K, V> entry : find(range)) {
+      keys.add(entry.getKey());
+    }
+    bulkDelete(keys);
+  }
+
 
   /**
    * Return a iterable of keys & values for any key within the provided Range
@@ -19,6 +19,7 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.apache.lucene.document.Document;
@@ -26,6 +27,7 @@ import org.apache.lucene.index.Term;
 import org.apache.lucene.search.Query;
 import org.apache.lucene.search.Sort;
 import org.apache.lucene.search.SortField;
+import org.apache.lucene.search.TermRangeQuery;
 import org.apache.lucene.util.BytesRef;
 
 import com.dremio.common.VM;
@@ -334,6 +336,61 @@ public class CoreIndexedStoreImpl<K, V> implements CoreIndexedStore<K, V> {
     index.deleteDocuments(keyAsTerm(key));
   }
 
+  @Override
+  public void bulkPut(Map<KVStoreTuple<K>, KVStoreTuple<V>> documents) {
+    base.bulkPut(documents);
+
+    // entries of a batch carry no index put options, index them with the converter
+    if (!indexesViaPutOption || converter != null) {
+      documents.forEach(this::index);
+    }
+  }
+
+  @Override
+  public void bulkPut(Map<KVStoreTuple<K>, KVStoreTuple<V>> documents, Map<KVStoreTuple<K>, IndexPutOption> indexOptions) {
+    if (!indexesViaPutOption) {
+      KVStoreOptionUtility.checkIndexPutOptionIsNotUsed(indexOptions.values().toArray(new PutOption[0]));
+      bulkPut(documents);
+      return;
+    }
+
+    base.bulkPut(documents);
+    documents.keySet().forEach(key -> {
+      final IndexPutOption option = indexOptions.get(key);
+      if (option != null) {
+        index(key, option);
+      }
+    });
+  }
+
+  @Override
+  public void bulkDelete(List<KVStoreTuple<K>> keys) {
+    base.bulkDelete(keys);
+    if (keys.isEmpty()) {
+      return;
+    }
+    index.deleteDocuments(keys.stream()
+      .map(CoreIndexedStoreImpl::keyAsTerm)
+      .toArray(Term[]::new));
+  }
+
+  @Override
+  public void deleteRange(FindByRange<KVStoreTuple<K>> range) {
+    base.deleteRange(range);
+    index.deleteDocuments(keyRangeAsQuery(range));
+  }
+
+  /**
+   * Query matching the documents of the keys within the range. Ids are compared as unsigned bytes, as keys are
+   * in the kvstore.
+   */
+  private static Query keyRangeAsQuery(FindByRange<? extends KVStoreTuple<?>> range) {
+    final BytesRef start = range.getStart() == null ? null : new BytesRef(range.getStart().getSerializedBytes());
+    final BytesRef end = range.getEnd() == null ? null : new BytesRef(range.getEnd().getSerializedBytes());
+    return new TermRangeQuery(CoreIndexedStore.ID_FIELD_NAME, start, end, range.isStartInclusive(),
+      range.isEndInclusive());
+  }
+
   @Override
   public Iterable<com.dremio.datastore.api.Document<KVStoreTuple<K>, KVStoreTuple<V>>> get(List<KVStoreTuple<K>> keys, GetOption... options) {
     final Iterable<com.dremio.datastore.api.Document<KVStoreTuple<K>, KVStoreTuple<V>>> documents = base.get(keys, options);
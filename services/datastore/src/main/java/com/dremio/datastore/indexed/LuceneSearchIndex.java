@@ -542,6 +542,30 @@ public class LuceneSearchIndex implements AutoCloseable {
     }
   }
 
+  /**
+   * Delete the documents of all the given keys at once.
+   */
+  public void deleteDocuments(Term... keys) {
+    committerThread.throwExceptionIfAny();
+    try {
+      writer.deleteDocuments(keys);
+    } catch (IOException ex) {
+      throw Throwables.propagate(ex);
+    }
+  }
+
+  /**
+   * Delete all the documents matching the query.
+   */
+  public void deleteDocuments(Query query) {
+    committerThread.throwExceptionIfAny();
+    try {
+      writer.deleteDocuments(query);
+    } catch (IOException ex) {
+      throw Throwables.propagate(ex);
+    }
+  }
+
   public void delete() {
     committerThread.throwExceptionIfAny();
     try {
@@ -28,6 +28,8 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
@@ -318,6 +320,71 @@ public abstract class AbstractTestKVStore<K, V> {
     assertNull(kvStore.get(key));
   }
 
+  @Test
+  public void testBulkPut() {
+    final K existingKey = gen.newKey();
+    kvStore.put(existingKey, gen.newVal());
+
+    final Map<K, V> documents = new LinkedHashMap<>();
+    documents.put(existingKey, gen.newVal());
+    for (int i = 0; i < SAMPLING_SIZE; i++) {
+      documents.put(gen.newKey(), gen.newVal());
+    }
+    kvStore.bulkPut(documents);
+
+    final List<K> keys = new ArrayList<>(documents.keySet());
+    final Iterable<Document<K, V>> results = kvStore.get(keys);
+    assertEquals(keys.size(), Iterables.size(results));
+    int i = 0;
+    for (Document<K, V> result : results) {
+      gen.assertKeyEquals(keys.get(i), result.getKey());
+      gen.assertValueEquals(documents.get(keys.get(i)), result.getValue());
+      assertFalse(TAG_ASSERT_FAILURE_MSG, Strings.isNullOrEmpty(result.getTag()));
+      i++;
+    }
+  }
+
+  @Test
+  public void testBulkDelete() {
+    final DocumentDataset<K, V> data = generateDataAndPopulateKVStore(SAMPLING_SIZE / 2);
+    final K missingKey = gen.newKey();
+
+    final List<K> keys = new ArrayList<>(data.getKeys());
+    final K remainingKey = keys.remove(0);
+    keys.add(missingKey);
+    kvStore.bulkDelete(keys);
+
+    assertNotNull(kvStore.get(remainingKey));
+    assertTrue(StreamSupport.stream(kvStore.get(keys).spliterator(), false).allMatch(Objects::isNull));
+  }
+
+  @Test
+  public void testDeleteRange() {
+    ignoreIfFindNotSupported();
+    final DocumentDataset<K, V> data = gen.sortDocumentDataset(generateDataAndPopulateKVStore(SAMPLING_SIZE));
+    final int startRange = 2;
+    final int endRange = SAMPLING_SIZE / 2;
+
+    kvStore.deleteRange(makeRange(data.getDocument(startRange).getKey(), false,
+      data.getDocument(endRange).getKey(), true));
+
+    final List<Document<K, V>> expected = new ArrayList<>();
+    Iterables.addAll(expected, data.getDocumentDatasetSlice(0, startRange));
+    Iterables.addAll(expected, data.getDocumentDatasetSlice(endRange + 1, SAMPLING_SIZE - 1));
+    assertResultsAreEqual(expected, kvStore.find(), true);
+  }
+
+  @Test
+  public void testDeleteUnboundedRange() {
+    ignoreIfFindNotSupported();
+    final DocumentDataset<K, V> data = gen.sortDocumentDataset(generateDataAndPopulateKVStore(SAMPLING_SIZE));
+    final int startRange = SAMPLING_SIZE / 2;
+
+    kvStore.deleteRange(makeRange(data.getDocument(startRange).getKey(), true, null, false));
+
+    assertResultsAreEqual(data.getDocumentDatasetSlice(0, startRange - 1), kvStore.find(), true);
+  }
+
   @Test
   public void testFindByExclusiveStartEndRange() {
     ignoreIfFindNotSupported();
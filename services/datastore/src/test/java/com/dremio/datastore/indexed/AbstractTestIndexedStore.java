@@ -19,7 +19,9 @@ import static org.junit.Assert.assertEquals;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 import java.util.stream.StreamSupport;
 
@@ -34,6 +36,7 @@ import com.dremio.datastore.SearchTypes.SearchQuery;
 import com.dremio.datastore.api.Document;
 import com.dremio.datastore.api.FindByCondition;
 import com.dremio.datastore.api.ImmutableFindByCondition;
+import com.dremio.datastore.api.ImmutableFindByRange;
 import com.dremio.datastore.api.IndexedStore;
 import com.dremio.datastore.api.KVStoreProvider;
 import com.dremio.datastore.indexed.doughnut.Doughnut;
@@ -127,6 +130,23 @@ public abstract class AbstractTestIndexedStore {
     checkFindByPrice(d1);
   }
 
+  @Test
+  public void bulkPut(){
+    final Map<String, Doughnut> documents = new LinkedHashMap<>();
+    documents.put("a", d1);
+    documents.put("b", d2);
+    documents.put("c", d3);
+    kvStore.bulkPut(documents);
+
+    checkFindByName(d1);
+    checkFindByName(d2);
+    checkFindByName(d3);
+    checkFindByPrice(d2);
+    assertEquals(
+        ImmutableList.of(1, 2, 0),
+        getCounts("n==original", "p=gt=1.10;p=lt=1.40", "p=lt=1.11;n=lt=custard"));
+  }
+
   @Test
   public void counts(){
     addDoughnutsToStore();
@@ -292,6 +312,23 @@ public abstract class AbstractTestIndexedStore {
         Iterables.size(kvStore.find(newCondition("n==" + d1.getName(), DoughnutIndexKeys.MAPPING).build())));
   }
 
+  @Test
+  public void deleteRange() {
+    kvStore.put("a", d1);
+    kvStore.put("b", d2);
+    kvStore.put("c", d3);
+    kvStore.deleteRange(new ImmutableFindByRange.Builder<String>()
+      .setStart("a")
+      .setIsStartInclusive(false)
+      .setEnd("c")
+      .setIsEndInclusive(true)
+      .build());
+
+    checkFindByName(d1);
+    assertEquals(ImmutableList.of(1, 0, 0),
+      getCounts("n==" + d1.getName(), "n==" + d2.getName(), "n==" + d3.getName()));
+  }
+
   @Test
   public void paginatedSearch() {
     final int numDoughnuts = 4000;
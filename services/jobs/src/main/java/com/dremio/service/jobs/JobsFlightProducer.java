@@ -17,12 +17,16 @@ package com.dremio.service.jobs;
 
 import static org.apache.arrow.util.Preconditions.checkNotNull;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import javax.inject.Provider;
 
 import org.apache.arrow.flight.Action;
 import org.apache.arrow.flight.ActionType;
 import org.apache.arrow.flight.Criteria;
 import org.apache.arrow.flight.FlightDescriptor;
+import org.apache.arrow.flight.FlightEndpoint;
 import org.apache.arrow.flight.FlightInfo;
 import org.apache.arrow.flight.FlightProducer;
 import org.apache.arrow.flight.FlightStream;
@@ -30,6 +34,7 @@ import org.apache.arrow.flight.PutResult;
 import org.apache.arrow.flight.Result;
 import org.apache.arrow.flight.Ticket;
 import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.FieldVector;
 import org.apache.arrow.vector.ValueVector;
 import org.apache.arrow.vector.VectorSchemaRoot;
 import org.apache.arrow.vector.types.pojo.Schema;
@@ -38,6 +43,7 @@ import org.slf4j.LoggerFactory;
 
 import com.dremio.common.exceptions.UserException;
 import com.dremio.exec.record.RecordBatchHolder;
+import com.dremio.service.job.proto.JobId;
 import com.dremio.service.job.proto.JobProtobuf;
 
 import io.grpc.Status;
@@ -77,22 +83,20 @@ public class JobsFlightProducer implements FlightProducer, AutoCloseable {
         try (final VectorSchemaRoot root = VectorSchemaRoot.create(schema, allocator)) {
           serverStreamListener.start(root);
           for (RecordBatchHolder holder : jobDataFragment.getRecordBatches()) {
-            // iterate over the columns
-            int numRecords = holder.size();
+            final int numRecords = holder.size();
             for (int i = 0; i < schema.getFields().size(); i++) {
-              ValueVector vector = root.getVector(schema.getFields().get(i).getName());
-              ValueVector dataVector = holder.getData().getVectors().get(i);
-              int k = 0; // index at which value need to written in "vector" from "dataVector"
-              // iterate over values in the column to copy data
-              for (int j = holder.getStart(); j < holder.getEnd(); j++, k++ ) {
-                // Copy value at dataVector[j] into vector[k]
-                vector.copyFromSafe(j, k, dataVector);
+              final FieldVector vector = root.getFieldVectors().get(i);
+              final ValueVector dataVector = holder.getData().getVectors().get(i);
+              if (numRecords == 0) {
+                vector.clear();
+                vector.setValueCount(0);
+              } else {
+                // hand the loaded buffers over (sliced to the holder's range) instead of copying values
+                dataVector.makeTransferPair(vector).splitAndTransfer(holder.getStart(), numRecords);
               }
-              vector.setValueCount(numRecords);
-              root.setRowCount(numRecords);
             }
+            root.setRowCount(numRecords);
             serverStreamListener.putNext();
-            root.allocateNew();
           }
         }
         serverStreamListener.completed();
@@ -109,10 +113,53 @@ public class JobsFlightProducer implements FlightProducer, AutoCloseable {
     throw Status.UNIMPLEMENTED.asRuntimeException();
   }
 
+  /**
+   * Describes the results of a job, as one endpoint per result file, so that clients can fetch them in parallel.
+   *
+   * The descriptor is either a command holding a {@link JobsFlightTicket}, to get a range of the results, or a path
+   * made of the job id, to get all of them.
+   */
   @Override
-  //TODO (DX-19234): Implement me. Standard Flight procedure requires clients call getFlightInfo before getting stream
   public FlightInfo getFlightInfo(CallContext callContext, FlightDescriptor flightDescriptor) {
-    throw Status.UNIMPLEMENTED.asRuntimeException();
+    final JobsFlightTicket request;
+    if (flightDescriptor.isCommand()) {
+      request = JobsFlightTicket.from(new Ticket(flightDescriptor.getCommand()));
+    } else if (flightDescriptor.getPath().size() == 1) {
+      request = new JobsFlightTicket(flightDescriptor.getPath().get(0), 0, Integer.MAX_VALUE);
+    } else {
+      throw Status.INVALID_ARGUMENT.withDescription("Expected a job id, got " + flightDescriptor.getPath()).asRuntimeException();
+    }
+
+    try {
+      final JobId jobId = JobsProtoUtil.toStuff(JobProtobuf.JobId.newBuilder().setId(request.getJobId()).build());
+      final Schema schema;
+      try (final JobDataFragment jobDataFragment = jobsService.get().getJobData(jobId, 0, 0)) {
+        schema = jobDataFragment.getSchema();
+      }
+
+      final List<FlightEndpoint> endpoints = new ArrayList<>();
+      final long end = Math.min((long) request.getOffset() + request.getLimit(), Integer.MAX_VALUE);
+      long fileStart = 0;
+      long records = 0;
+      for (long fileRecords : jobsService.get().getJobResultsPartitionSizes(jobId)) {
+        final long fileEnd = fileStart + fileRecords;
+        final long start = Math.max(fileStart, request.getOffset());
+        if (start < Math.min(fileEnd, end)) {
+          final int length = (int) (Math.min(fileEnd, end) - start);
+          // no location: the partitions are served by this service
+          endpoints.add(new FlightEndpoint(new JobsFlightTicket(request.getJobId(), (int) start, length).toTicket()));
+          records += length;
+        }
+        fileStart = fileEnd;
+      }
+      return new FlightInfo(schema, flightDescriptor, endpoints, -1, records);
+    } catch (UserException ue) {
+      throw JobsRpcUtils.toStatusRuntimeException(ue);
+    } catch (JobNotFoundException e) {
+      throw Status.NOT_FOUND.withDescription(e.getMessage()).asRuntimeException();
+    } catch (Exception e) {
+      throw Status.UNKNOWN.withCause(e).withDescription(e.getMessage()).asRuntimeException();
+    }
   }
 
   @Override
@@ -56,6 +56,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
@@ -101,6 +102,7 @@ import com.dremio.datastore.api.DocumentWriter;
 import com.dremio.datastore.api.LegacyIndexedStore;
 import com.dremio.datastore.api.LegacyIndexedStore.LegacyFindByCondition;
 import com.dremio.datastore.api.LegacyIndexedStoreCreationFunction;
+import com.dremio.datastore.api.LegacyKVStore.LegacyFindByRange;
 import com.dremio.datastore.api.LegacyKVStoreProvider;
 import com.dremio.datastore.api.LegacyStoreBuildingFactory;
 import com.dremio.datastore.format.Format;
@@ -199,6 +201,7 @@ import com.dremio.service.job.proto.ParentDatasetInfo;
 import com.dremio.service.job.proto.QueryType;
 import com.dremio.service.job.proto.ResourceSchedulingInfo;
 import com.dremio.service.jobs.metadata.QueryMetadata;
+import com.dremio.service.jobtelemetry.DeleteProfileRangeRequest;
 import com.dremio.service.jobtelemetry.DeleteProfileRequest;
 import com.dremio.service.jobtelemetry.GetQueryProfileRequest;
 import com.dremio.service.jobtelemetry.JobTelemetryClient;
@@ -252,6 +255,12 @@ public class LocalJobsService implements Service, JobResultInfoProvider {
 
   private static final int MAX_NUMBER_JOBS_TO_FETCH = 10;
 
+  // number of old jobs (and of their profiles) deleted at once by the cleanup
+  private static final int DELETE_BATCH_SIZE = 1000;
+
+  // highest attempt number of a job, see AttemptId
+  private static final int MAX_ATTEMPT = 255;
+
   public static final String JOBS_NAME = "jobs";
 
   private static final String LOCAL_TASK_LEADER_NAME = "localjobsclean";
@@ -875,6 +884,23 @@ public class LocalJobsService implements Service, JobResultInfoProvider {
     return SearchQueryUtils.and(builder.build());
   }
 
+  /**
+   * Get the number of records in each of the files holding the results of a job, in the order of the results.
+   */
+  List<Long> getJobResultsPartitionSizes(JobId jobId) throws JobNotFoundException {
+    GetJobRequest request = GetJobRequest.newBuilder()
+      .setJobId(jobId)
+      .setUserName(SYSTEM_USERNAME)
+      .build();
+    final List<ArrowFileMetadata> resultMetadata = getJob(request).getJobAttempt().getInfo().getResultMetadataList();
+    if (resultMetadata == null) {
+      return Collections.emptyList();
+    }
+    return resultMetadata.stream()
+      .map(metadata -> metadata.getRecordCount() == null ? 0L : metadata.getRecordCount())
+      .collect(Collectors.toList());
+  }
+
   @VisibleForTesting
   public JobDataFragment getJobData(JobId jobId, int offset, int limit) throws JobNotFoundException {
     GetJobRequest request = GetJobRequest.newBuilder()
@@ -2031,6 +2057,25 @@ public class LocalJobsService implements Service, JobResultInfoProvider {
      * @return
      */
     void go(AttemptId attemptId);
+
+    /**
+     * Delete the profiles of a batch of attempts
+     *
+     * @param attemptIds ids associated with profile attempts
+     */
+    default void go(List<AttemptId> attemptIds) {
+      for (AttemptId attemptId : attemptIds) {
+        go(attemptId);
+      }
+    }
+
+    /**
+     * Delete the profiles of all attempts within a range of attempt ids, both ends included.
+     *
+     * @param startAttemptId first attempt id of the range
+     * @param endAttemptId last attempt id of the range
+     */
+    void go(AttemptId startAttemptId, AttemptId endAttemptId);
   }
 
   /**
@@ -2048,6 +2093,17 @@ public class LocalJobsService implements Service, JobResultInfoProvider {
             .build()
         );
     }
+
+    @Override
+    public void go(AttemptId startAttemptId, AttemptId endAttemptId) {
+      jobTelemetryServiceStub
+        .deleteProfileRange(
+          DeleteProfileRangeRequest.newBuilder()
+            .setStartQueryId(startAttemptId.toQueryId())
+            .setEndQueryId(endAttemptId.toQueryId())
+            .build()
+        );
+    }
   }
 
   /**
@@ -2061,46 +2117,211 @@ public class LocalJobsService implements Service, JobResultInfoProvider {
    * @return A result reporting how many details, the corresponding attempt ids and how many times attempt id fails to delete.
    */
   public static List<Long> deleteOldJobsAndProfiles(ProfileCleanup profileCleanup, LegacyKVStoreProvider provider, long maxMs) {
-    long jobsDeleted = 0;
-    long profilesDeleted = 0;
-    long attemptFailure = 0;
-    int countFailureMsg = 0;
-    List<String> failedAttemptIds = new ArrayList<>(10);
-    List<Exception> errors = new ArrayList<>(10);
     LegacyIndexedStore<JobId, JobResult> jobStore = provider.getStore(JobsStoreCreator.class);
+    final long cutOffTime = System.currentTimeMillis() - maxMs;
+    final OldJobsDeleter deleter = new OldJobsDeleter(profileCleanup, jobStore);
+
+    // job ids start with their creation time in seconds, in decreasing order: jobs which completed before the cutoff
+    // time are next to each other at the end of the store, and their jobs and profiles are deleted by ranges of keys.
+    for (Entry<JobId, JobResult> entry : jobStore.find(getJobsCreatedBeforeRange(cutOffTime))) {
+      if (isCompletedBefore(entry.getValue(), cutOffTime)) {
+        deleter.addToRange(entry.getKey(), entry.getValue());
+      } else {
+        deleter.endRange();
+      }
+    }
+    deleter.deleteRanges();
 
-    final LegacyFindByCondition oldJobs = getOldJobsCondition(System.currentTimeMillis() - maxMs)
-      .setPageSize(MAX_NUMBER_JOBS_TO_FETCH);
+    // old jobs with ids out of the creation time order, if any
+    final LegacyFindByCondition oldJobs = getOldJobsCondition(cutOffTime)
+      .setPageSize(DELETE_BATCH_SIZE);
     for(Entry<JobId, JobResult> entry : jobStore.find(oldJobs)) {
-      JobResult result = entry.getValue();
+      deleter.add(entry.getKey(), entry.getValue());
+    }
+    deleter.flush();
+    return deleter.getResult();
+  }
+
+  /**
+   * Get the range of job ids which were created before the cutoff time, see {@link ExternalIdHelper#generateExternalId()}.
+   */
+  private static LegacyFindByRange<JobId> getJobsCreatedBeforeRange(long cutOffTime) {
+    // the random low half of the first part can take one second off the high half
+    final long seconds = (int) (cutOffTime / 1000);
+    final JobId start = new JobId(new UUID((Integer.MAX_VALUE - seconds - 1) << 32, 0L).toString());
+    final JobId end = new JobId(new UUID(Long.MAX_VALUE, -1L).toString());
+    return new LegacyFindByRange<>(start, true, end, true);
+  }
+
+  private static boolean isCompletedBefore(JobResult job, long cutOffTime) {
+    final List<JobAttempt> attempts = job.getAttemptsList();
+    if (attempts == null || attempts.isEmpty()) {
+      return false;
+    }
+    // as for the END_TIME index key, only the last attempt counts
+    final Long finishTime = attempts.get(attempts.size() - 1).getInfo().getFinishTime();
+    return finishTime != null && finishTime <= cutOffTime;
+  }
+
+  /**
+   * Deletes old jobs and their profiles in batches: the jobs of a batch are removed from the kvstore
+   * and from its index at once, instead of one job at a time.
+   *
+   * Consecutive old jobs in the store are gathered in ranges, removed with their profiles by a single
+   * delete of their range of keys.
+   */
+  private static final class OldJobsDeleter {
+    private final ProfileCleanup profileCleanup;
+    private final LegacyIndexedStore<JobId, JobResult> jobStore;
+    private final List<JobId> jobIds = new ArrayList<>();
+    private final List<AttemptId> attemptIds = new ArrayList<>();
+    private final List<OldJobsRange> ranges = new ArrayList<>();
+    private OldJobsRange range;
+    private final List<String> failedAttemptIds = new ArrayList<>(10);
+    private final List<Exception> errors = new ArrayList<>(10);
+    private long jobsDeleted = 0;
+    private long profilesDeleted = 0;
+    private long attemptFailure = 0;
+
+    private OldJobsDeleter(ProfileCleanup profileCleanup, LegacyIndexedStore<JobId, JobResult> jobStore) {
+      this.profileCleanup = profileCleanup;
+      this.jobStore = jobStore;
+    }
+
+    void add(JobId jobId, JobResult result) {
       if(result.getAttemptsList() != null) {
         for(JobAttempt a : result.getAttemptsList()) {
           try {
-            AttemptId attemptId = AttemptIdUtils.fromString(a.getAttemptId());
-            profileCleanup.go(attemptId);
-            profilesDeleted++;
+            attemptIds.add(AttemptIdUtils.fromString(a.getAttemptId()));
           } catch(Exception e) {
             // don't fail on miss.
-            if (countFailureMsg < 10) {
-              failedAttemptIds.add(a.getAttemptId());
-              errors.add(e);
-              countFailureMsg++;
-            }
-            attemptFailure++;
+            addFailure(a.getAttemptId(), e);
           }
         }
       }
-      jobStore.delete(entry.getKey());
-      jobsDeleted++;
-    }
-    logger.debug("Job cleanup task completed with [{}] jobs deleted and and [{}] profiles deleted.", jobsDeleted, profilesDeleted);
-    if (countFailureMsg > 0) {
-      logger.warn("Delete profile failures: [{}].", attemptFailure);
-      for(int i = 0; i < countFailureMsg; i++) {
-        logger.warn("Failed to delete profile with attempt id: {}. ", failedAttemptIds.get(i), errors.get(i));
+      jobIds.add(jobId);
+      if (jobIds.size() >= DELETE_BATCH_SIZE) {
+        flush();
       }
     }
-    return ImmutableList.of(jobsDeleted, profilesDeleted, attemptFailure);
+
+    /**
+     * Add the job to the current range of old jobs. The job must follow the last job of the range in the store.
+     */
+    void addToRange(JobId jobId, JobResult result) {
+      final ExternalId externalId;
+      try {
+        externalId = JobsServiceUtil.getJobIdAsExternalId(jobId);
+      } catch (IllegalArgumentException e) {
+        // not a generated id, left to the index search.
+        endRange();
+        return;
+      }
+      if (!ExternalIdHelper.isValid(externalId)) {
+        endRange();
+        return;
+      }
+
+      if (range == null) {
+        range = new OldJobsRange(jobId, AttemptId.of(externalId));
+      }
+      range.end = jobId;
+      range.endAttemptId = new AttemptId(externalId, MAX_ATTEMPT);
+      range.jobs++;
+      range.attempts += result.getAttemptsList() == null ? 0 : result.getAttemptsList().size();
+    }
+
+    /**
+     * End the current range of old jobs, if any.
+     */
+    void endRange() {
+      if (range != null) {
+        ranges.add(range);
+        range = null;
+      }
+    }
+
+    void deleteRanges() {
+      endRange();
+      for (OldJobsRange oldJobs : ranges) {
+        try {
+          profileCleanup.go(oldJobs.startAttemptId, oldJobs.endAttemptId);
+          profilesDeleted += oldJobs.attempts;
+        } catch (Exception e) {
+          addFailure(AttemptIdUtils.toString(oldJobs.startAttemptId) + " to "
+            + AttemptIdUtils.toString(oldJobs.endAttemptId), e);
+          attemptFailure += oldJobs.attempts - 1;
+        }
+        jobStore.deleteRange(new LegacyFindByRange<>(oldJobs.start, true, oldJobs.end, true));
+        jobsDeleted += oldJobs.jobs;
+      }
+      ranges.clear();
+    }
+
+    void flush() {
+      if (!attemptIds.isEmpty()) {
+        deleteProfiles();
+        attemptIds.clear();
+      }
+      if (!jobIds.isEmpty()) {
+        jobStore.bulkDelete(jobIds);
+        jobsDeleted += jobIds.size();
+        jobIds.clear();
+      }
+    }
+
+    private void deleteProfiles() {
+      try {
+        profileCleanup.go(attemptIds);
+        profilesDeleted += attemptIds.size();
+      } catch(Exception e) {
+        // retry one profile at a time to find out which ones fail.
+        for (AttemptId attemptId : attemptIds) {
+          try {
+            profileCleanup.go(attemptId);
+            profilesDeleted++;
+          } catch(Exception ex) {
+            addFailure(AttemptIdUtils.toString(attemptId), ex);
+          }
+        }
+      }
+    }
+
+    private void addFailure(String attemptId, Exception e) {
+      if (failedAttemptIds.size() < 10) {
+        failedAttemptIds.add(attemptId);
+        errors.add(e);
+      }
+      attemptFailure++;
+    }
+
+    List<Long> getResult() {
+      logger.debug("Job cleanup task completed with [{}] jobs deleted and and [{}] profiles deleted.", jobsDeleted, profilesDeleted);
+      if (!failedAttemptIds.isEmpty()) {
+        logger.warn("Delete profile failures: [{}].", attemptFailure);
+        for(int i = 0; i < failedAttemptIds.size(); i++) {
+          logger.warn("Failed to delete profile with attempt id: {}. ", failedAttemptIds.get(i), errors.get(i));
+        }
+      }
+      return ImmutableList.of(jobsDeleted, profilesDeleted, attemptFailure);
+    }
+  }
+
+  /**
+   * Consecutive old jobs of the store, and the range of their attempt ids.
+   */
+  private static final class OldJobsRange {
+    private final JobId start;
+    private final AttemptId startAttemptId;
+    private JobId end;
+    private AttemptId endAttemptId;
+    private long jobs;
+    private long attempts;
+
+    private OldJobsRange(JobId start, AttemptId startAttemptId) {
+      this.start = start;
+      this.startAttemptId = startAttemptId;
+    }
   }
 
   /**
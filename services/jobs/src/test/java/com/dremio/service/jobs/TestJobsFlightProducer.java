@@ -0,0 +1,207 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.service.jobs;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.arrow.flight.FlightDescriptor;
+import org.apache.arrow.flight.FlightEndpoint;
+import org.apache.arrow.flight.FlightInfo;
+import org.apache.arrow.flight.FlightProducer.ServerStreamListener;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.types.Types.MinorType;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import com.dremio.common.AutoCloseables;
+import com.dremio.exec.record.BatchSchema;
+import com.dremio.exec.record.BatchSchema.SelectionVectorMode;
+import com.dremio.exec.record.RecordBatchData;
+import com.dremio.exec.record.RecordBatchHolder;
+import com.dremio.exec.record.VectorContainer;
+import com.dremio.service.job.proto.JobId;
+import com.dremio.test.AllocatorRule;
+import com.dremio.test.DremioTest;
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Unit tests for {@link JobsFlightProducer}
+ */
+public class TestJobsFlightProducer extends DremioTest {
+  private static final String JOB_ID = "1234";
+  private static final BatchSchema SCHEMA = BatchSchema.of(Field.nullable("id", MinorType.INT.getType()));
+
+  @Rule
+  public final AllocatorRule allocatorRule = AllocatorRule.defaultAllocator();
+
+  private BufferAllocator allocator;
+  private LocalJobsService jobsService;
+  private JobsFlightProducer producer;
+  private final List<RecordBatchData> batches = new ArrayList<>();
+
+  @Before
+  public void setup() throws Exception {
+    allocator = allocatorRule.newAllocator("test-jobs-flight-producer", 0, Long.MAX_VALUE);
+    jobsService = mock(LocalJobsService.class);
+    producer = new JobsFlightProducer(() -> jobsService, allocator);
+  }
+
+  @After
+  public void cleanup() throws Exception {
+    AutoCloseables.close(batches);
+    AutoCloseables.close(producer, allocator);
+  }
+
+  private JobDataFragment newFragment(RecordBatchHolder... holders) {
+    final JobDataFragment fragment = mock(JobDataFragment.class);
+    when(fragment.getSchema()).thenReturn(SCHEMA);
+    when(fragment.getRecordBatches()).thenReturn(asList(holders));
+    return fragment;
+  }
+
+  private void setPartitionSizes(Long... sizes) throws Exception {
+    when(jobsService.getJobData(any(JobId.class), eq(0), eq(0))).thenReturn(newFragment());
+    when(jobsService.getJobResultsPartitionSizes(any(JobId.class))).thenReturn(asList(sizes));
+  }
+
+  /**
+   * Returns the (offset, limit) ranges of the tickets of the given endpoints.
+   */
+  private static List<List<Integer>> getRanges(FlightInfo info) {
+    final List<List<Integer>> ranges = new ArrayList<>();
+    for (FlightEndpoint endpoint : info.getEndpoints()) {
+      final JobsFlightTicket ticket = JobsFlightTicket.from(endpoint.getTicket());
+      assertEquals(JOB_ID, ticket.getJobId());
+      ranges.add(ImmutableList.of(ticket.getOffset(), ticket.getLimit()));
+    }
+    return ranges;
+  }
+
+  private RecordBatchData newBatch(int... values) {
+    final IntVector vector = new IntVector("id", allocator);
+    vector.allocateNew(values.length);
+    for (int i = 0; i < values.length; i++) {
+      vector.set(i, values[i]);
+    }
+    vector.setValueCount(values.length);
+    final VectorContainer container = new VectorContainer();
+    container.add(vector);
+    container.setRecordCount(values.length);
+    container.buildSchema(SelectionVectorMode.NONE);
+    final RecordBatchData data = new RecordBatchData(container, allocator);
+    container.close();
+    batches.add(data);
+    return data;
+  }
+
+  /**
+   * Streams the given range of the job results, returning the values of each sent batch.
+   */
+  private List<List<Integer>> getStream(ServerStreamListener listener, int offset, int limit) {
+    final List<List<Integer>> sent = new ArrayList<>();
+    final VectorSchemaRoot[] root = new VectorSchemaRoot[1];
+    doAnswer(invocation -> root[0] = (VectorSchemaRoot) invocation.getArguments()[0])
+        .when(listener).start(any(VectorSchemaRoot.class));
+    doAnswer(invocation -> {
+      final IntVector vector = (IntVector) root[0].getVector("id");
+      final List<Integer> values = new ArrayList<>();
+      for (int i = 0; i < root[0].getRowCount(); i++) {
+        values.add(vector.get(i));
+      }
+      return sent.add(values);
+    }).when(listener).putNext();
+
+    producer.getStream(null, new JobsFlightTicket(JOB_ID, offset, limit).toTicket(), listener);
+    return sent;
+  }
+
+  @Test
+  public void testFlightInfoSplitsUnevenPartitions() throws Exception {
+    setPartitionSizes(10L, 7L, 0L, 5L);
+
+    final FlightInfo all = producer.getFlightInfo(null, FlightDescriptor.path(JOB_ID));
+    assertEquals(ImmutableList.of(asList(0, 10), asList(10, 7), asList(17, 5)), getRanges(all));
+    assertEquals(22, all.getRecords());
+
+    // a range starting and ending in the middle of files, skipping the empty one
+    final FlightInfo range = producer.getFlightInfo(null,
+        FlightDescriptor.command(new JobsFlightTicket(JOB_ID, 3, 15).toTicket().getBytes()));
+    assertEquals(ImmutableList.of(asList(3, 7), asList(10, 7), asList(17, 1)), getRanges(range));
+    assertEquals(15, range.getRecords());
+  }
+
+  @Test
+  public void testFlightInfoEmptyResults() throws Exception {
+    setPartitionSizes(0L);
+    final FlightInfo info = producer.getFlightInfo(null, FlightDescriptor.path(JOB_ID));
+    assertTrue(info.getEndpoints().isEmpty());
+    assertEquals(0, info.getRecords());
+
+    // a range past the end of the results
+    setPartitionSizes(4L);
+    final FlightInfo range = producer.getFlightInfo(null,
+        FlightDescriptor.command(new JobsFlightTicket(JOB_ID, 4, 10).toTicket().getBytes()));
+    assertTrue(range.getEndpoints().isEmpty());
+  }
+
+  @Test
+  public void testStreamSpansBatches() throws Exception {
+    // records 3 to 8 of the results: the end of the first batch and the start of the second one
+    final JobDataFragment fragment = newFragment(
+        RecordBatchHolder.newRecordBatchHolder(newBatch(0, 1, 2, 3, 4, 5), 3, 6),
+        RecordBatchHolder.newRecordBatchHolder(newBatch(6, 7, 8, 9), 0, 3));
+    when(jobsService.getJobData(any(JobId.class), eq(3), eq(6))).thenReturn(fragment);
+
+    final ServerStreamListener listener = mock(ServerStreamListener.class);
+    final List<List<Integer>> sent = getStream(listener, 3, 6);
+
+    assertEquals(ImmutableList.of(asList(3, 4, 5), asList(6, 7, 8)), sent);
+    verify(listener).completed();
+    verify(listener, never()).error(any(Throwable.class));
+  }
+
+  @Test
+  public void testStreamEmptyResults() throws Exception {
+    final JobDataFragment fragment = newFragment();
+    when(jobsService.getJobData(any(JobId.class), eq(0), eq(10))).thenReturn(fragment);
+
+    final ServerStreamListener listener = mock(ServerStreamListener.class);
+    final List<List<Integer>> sent = getStream(listener, 0, 10);
+
+    assertEquals(Collections.emptyList(), sent);
+    verify(listener).start(any(VectorSchemaRoot.class));
+    verify(listener).completed();
+    verify(listener, never()).error(any(Throwable.class));
+  }
+}
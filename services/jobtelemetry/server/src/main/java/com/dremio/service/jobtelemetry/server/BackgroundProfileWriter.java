@@ -26,6 +26,11 @@ import com.dremio.common.concurrent.ContextMigratingExecutorService.ContextMigra
 import com.dremio.exec.proto.UserBitShared;
 import com.dremio.exec.rpc.CloseableThreadPool;
 import com.dremio.service.jobtelemetry.server.store.ProfileStore;
+import com.dremio.telemetry.api.metrics.Counter;
+import com.dremio.telemetry.api.metrics.Metrics;
+import com.dremio.telemetry.api.metrics.Metrics.ResetType;
+import com.dremio.telemetry.api.metrics.Timer;
+import com.dremio.telemetry.api.metrics.Timer.TimerContext;
 
 import io.opentracing.Tracer;
 
@@ -34,10 +39,19 @@ import io.opentracing.Tracer;
  * - Enforces a bound on the number of in-progress jobs.
  * - Ensures that two jobs do not attempt to write to the same path (can still happen
  *   across JTS instances).
+ * - Reports its throughput: writes, failed writes, writes skipped because of the backlog
+ *   or of a concurrent write, write latency and the number of in-progress writes.
  */
 public class BackgroundProfileWriter implements AutoCloseable {
   static final int MAX_BACKGROUND_WRITES = 100;
 
+  private static final String METRICS_PREFIX = "jobtelemetry.profile_writer";
+  private static final String IN_PROGRESS_METRIC = Metrics.join(METRICS_PREFIX, "in_progress");
+  private static final Counter WRITES = Metrics.newCounter(Metrics.join(METRICS_PREFIX, "writes"), ResetType.NEVER);
+  private static final Counter FAILURES = Metrics.newCounter(Metrics.join(METRICS_PREFIX, "failures"), ResetType.NEVER);
+  private static final Counter SKIPPED = Metrics.newCounter(Metrics.join(METRICS_PREFIX, "skipped"), ResetType.NEVER);
+  private static final Timer WRITE_TIMER = Metrics.newTimer(Metrics.join(METRICS_PREFIX, "write_time"), ResetType.NEVER);
+
   private final CloseableExecutorService executor;
   private final Set<UserBitShared.QueryId> inProgressWrites = ConcurrentHashMap.newKeySet();
   private final ProfileStore profileStore;
@@ -46,24 +60,36 @@ public class BackgroundProfileWriter implements AutoCloseable {
     this.profileStore = profileStore;
     this.executor = new ContextMigratingCloseableExecutorService<>(
       new CloseableThreadPool("bg-profile-writer"), tracer);
+    Metrics.newGauge(IN_PROGRESS_METRIC, inProgressWrites::size);
   }
 
   Optional<CompletableFuture<Void>> tryWriteAsync(UserBitShared.QueryId queryId,
                                                   UserBitShared.QueryProfile profile) {
     if (inProgressWrites.size() + 1 > MAX_BACKGROUND_WRITES) {
       // too much backlog
+      SKIPPED.increment();
       return Optional.empty();
     }
 
     if (!inProgressWrites.add(queryId)) {
       // there is another in-progress write for the same query.
+      SKIPPED.increment();
       return Optional.empty();
     }
 
     CompletableFuture<Void> future = CompletableFuture.runAsync(
-      () -> profileStore.putFullProfile(queryId, profile), executor)
+      () -> {
+        try (TimerContext ignored = WRITE_TIMER.start()) {
+          profileStore.putFullProfile(queryId, profile);
+        }
+      }, executor)
       .whenComplete((ret, ex) -> {
         inProgressWrites.remove(queryId);
+        if (ex == null) {
+          WRITES.increment();
+        } else {
+          FAILURES.increment();
+        }
       });
     return Optional.of(future);
   }
@@ -74,6 +100,7 @@ public class BackgroundProfileWriter implements AutoCloseable {
 
   @Override
   public void close() throws Exception {
+    Metrics.unregister(IN_PROGRESS_METRIC);
     AutoCloseables.close(executor);
   }
 }
@@ -27,6 +27,7 @@ import com.dremio.exec.proto.CoordExecRPC.ExecutorQueryProfile;
 import com.dremio.exec.proto.UserBitShared.QueryId;
 import com.dremio.exec.proto.UserBitShared.QueryProfile;
 import com.dremio.exec.proto.UserBitShared.QueryResult.QueryState;
+import com.dremio.service.jobtelemetry.DeleteProfileRangeRequest;
 import com.dremio.service.jobtelemetry.DeleteProfileRequest;
 import com.dremio.service.jobtelemetry.GetQueryProfileRequest;
 import com.dremio.service.jobtelemetry.GetQueryProfileResponse;
@@ -308,6 +309,21 @@ public class JobTelemetryServiceImpl extends JobTelemetryServiceGrpc.JobTelemetr
         || state == QueryState.CANCELED);
   }
 
+  @Override
+  public void deleteProfileRange(
+    DeleteProfileRangeRequest request, StreamObserver<Empty> responseObserver) {
+    try {
+      profileStore.deleteProfileRange(request.getStartQueryId(), request.getEndQueryId());
+
+      responseObserver.onNext(Empty.getDefaultInstance());
+      responseObserver.onCompleted();
+    } catch (Exception ex) {
+      logger.error("delete profile range failed", ex);
+      responseObserver.onError(
+        Status.INTERNAL.withDescription(ex.getMessage()).asRuntimeException());
+    }
+  }
+
   @Override
   public void deleteProfile(
     DeleteProfileRequest request, StreamObserver<Empty> responseObserver) {
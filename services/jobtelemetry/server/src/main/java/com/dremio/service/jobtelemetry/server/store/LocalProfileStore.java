@@ -15,20 +15,29 @@
  */
 package com.dremio.service.jobtelemetry.server.store;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Stream;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.xerial.snappy.SnappyCodec;
+import org.xerial.snappy.SnappyInputStream;
+import org.xerial.snappy.SnappyOutputStream;
 
 import com.dremio.common.nodes.EndpointHelper;
 import com.dremio.common.utils.protos.AttemptId;
 import com.dremio.common.utils.protos.AttemptIdUtils;
 import com.dremio.datastore.api.LegacyKVStore;
+import com.dremio.datastore.api.LegacyKVStore.LegacyFindByRange;
 import com.dremio.datastore.api.LegacyKVStoreCreationFunction;
 import com.dremio.datastore.api.LegacyKVStoreProvider;
 import com.dremio.datastore.api.LegacyStoreBuildingFactory;
@@ -41,7 +50,11 @@ import com.google.common.cache.CacheBuilder;
 
 /**
  * Implementation of profile store, keeps all profiles except the full-profile in-memory.
- * The full profile goes to local kvstore.
+ * The full profile goes to local kvstore, snappy compressed.
+ *
+ * The in-memory profiles are kept in concurrent maps, so that updates for different queries
+ * (and reads of the profiles being updated) do not contend on a single lock. Executor
+ * profiles of a query are replaced independently of each other.
  */
 public class LocalProfileStore implements ProfileStore {
   private static final Logger LOGGER = LoggerFactory.getLogger(LocalProfileStore.class);
@@ -50,11 +63,12 @@ public class LocalProfileStore implements ProfileStore {
   public static final String PROFILES_NAME = "profiles";
 
   private final LegacyKVStoreProvider kvStoreProvider;
-  private final Map<UserBitShared.QueryId, UserBitShared.QueryProfile> planningProfiles =
-    new HashMap<>();
-  private final Map<UserBitShared.QueryId, UserBitShared.QueryProfile> tailProfiles = new HashMap<>();
-  private final Map<UserBitShared.QueryId, Map<String, CoordExecRPC.ExecutorQueryProfile>> executorMap =
-    new HashMap<>();
+  private final ConcurrentMap<UserBitShared.QueryId, UserBitShared.QueryProfile> planningProfiles =
+    new ConcurrentHashMap<>();
+  private final ConcurrentMap<UserBitShared.QueryId, UserBitShared.QueryProfile> tailProfiles =
+    new ConcurrentHashMap<>();
+  private final ConcurrentMap<UserBitShared.QueryId, Map<String, CoordExecRPC.ExecutorQueryProfile>> executorMap =
+    new ConcurrentHashMap<>();
   private LegacyKVStore<AttemptId, UserBitShared.QueryProfile> fullProfileStore;
 
   // to ensure we don't save sub-profiles after a query has terminated.
@@ -72,29 +86,23 @@ public class LocalProfileStore implements ProfileStore {
   }
 
   @Override
-  public synchronized void putPlanningProfile(UserBitShared.QueryId queryId,
-                                              UserBitShared.QueryProfile profile) {
-    if (deletedQueryIds.asMap().containsKey(queryId)) {
-      return;
-    }
-    planningProfiles.put(queryId, profile);
+  public void putPlanningProfile(UserBitShared.QueryId queryId,
+                                 UserBitShared.QueryProfile profile) {
+    putIfNotDeleted(planningProfiles, queryId, profile);
   }
 
   @Override
-  public synchronized Optional<UserBitShared.QueryProfile> getPlanningProfile(UserBitShared.QueryId queryId) {
+  public Optional<UserBitShared.QueryProfile> getPlanningProfile(UserBitShared.QueryId queryId) {
     return Optional.ofNullable(planningProfiles.get(queryId));
   }
 
   @Override
-  public synchronized void putTailProfile(UserBitShared.QueryId queryId, UserBitShared.QueryProfile profile) {
-    if (deletedQueryIds.asMap().containsKey(queryId)) {
-      return;
-    }
-    tailProfiles.put(queryId, profile);
+  public void putTailProfile(UserBitShared.QueryId queryId, UserBitShared.QueryProfile profile) {
+    putIfNotDeleted(tailProfiles, queryId, profile);
   }
 
   @Override
-  public synchronized Optional<UserBitShared.QueryProfile> getTailProfile(UserBitShared.QueryId queryId) {
+  public Optional<UserBitShared.QueryProfile> getTailProfile(UserBitShared.QueryId queryId) {
     return Optional.ofNullable(tailProfiles.get(queryId));
   }
 
@@ -110,45 +118,70 @@ public class LocalProfileStore implements ProfileStore {
   }
 
   @Override
-  public synchronized void putExecutorProfile(UserBitShared.QueryId queryId,
-                                              CoordinationProtos.NodeEndpoint endpoint,
-                                              CoordExecRPC.ExecutorQueryProfile profile) {
+  public void putExecutorProfile(UserBitShared.QueryId queryId,
+                                 CoordinationProtos.NodeEndpoint endpoint,
+                                 CoordExecRPC.ExecutorQueryProfile profile) {
     LOGGER.debug("Updating profile store for query id {}", queryId);
-    if (deletedQueryIds.asMap().containsKey(queryId)) {
+    if (isDeleted(queryId)) {
       return;
     }
-    executorMap.compute(queryId,
-      (key, value) -> {
-        if (value == null)  {
-          value = new HashMap<>();
-        }
-        value.put(EndpointHelper.getMinimalString(endpoint), profile);
-        return value;
-      });
+    final Map<String, CoordExecRPC.ExecutorQueryProfile> innerMap =
+      executorMap.computeIfAbsent(queryId, key -> new ConcurrentHashMap<>());
+    innerMap.put(EndpointHelper.getMinimalString(endpoint), profile);
+    if (isDeleted(queryId)) {
+      // lost a race with deleteSubProfiles.
+      executorMap.remove(queryId, innerMap);
+    }
   }
 
   @Override
-  public synchronized Stream<CoordExecRPC.ExecutorQueryProfile> getAllExecutorProfiles(UserBitShared.QueryId queryId) {
+  public Stream<CoordExecRPC.ExecutorQueryProfile> getAllExecutorProfiles(UserBitShared.QueryId queryId) {
     Map<String, CoordExecRPC.ExecutorQueryProfile> innerMap = executorMap.get(queryId);
 
+    // snapshot, so that the merge does not observe profiles being replaced.
     return innerMap == null ? Stream.empty() :
       new ArrayList<>(innerMap.values()).stream();
   }
 
   @Override
-  public synchronized void deleteSubProfiles(UserBitShared.QueryId queryId) {
+  public void deleteSubProfiles(UserBitShared.QueryId queryId) {
+    // mark the query as deleted before removing its profiles, so that a concurrent put either
+    // sees the mark or has its profile removed below.
     deletedQueryIds.put(queryId, Boolean.TRUE);
     planningProfiles.remove(queryId);
     tailProfiles.remove(queryId);
     executorMap.remove(queryId);
   }
 
+  private boolean isDeleted(UserBitShared.QueryId queryId) {
+    return deletedQueryIds.asMap().containsKey(queryId);
+  }
+
+  private void putIfNotDeleted(ConcurrentMap<UserBitShared.QueryId, UserBitShared.QueryProfile> profiles,
+                               UserBitShared.QueryId queryId, UserBitShared.QueryProfile profile) {
+    if (isDeleted(queryId)) {
+      return;
+    }
+    profiles.put(queryId, profile);
+    if (isDeleted(queryId)) {
+      // lost a race with deleteSubProfiles.
+      profiles.remove(queryId, profile);
+    }
+  }
+
   @Override
   public void deleteProfile(UserBitShared.QueryId queryId) {
     deleteSubProfiles(queryId);
     fullProfileStore.delete(AttemptId.of(queryId));
   }
 
+  @Override
+  public void deleteProfileRange(UserBitShared.QueryId startQueryId, UserBitShared.QueryId endQueryId) {
+    // queries that old no longer have sub-profiles in memory.
+    fullProfileStore.deleteRange(
+      new LegacyFindByRange<>(AttemptId.of(startQueryId), true, AttemptId.of(endQueryId), true));
+  }
+
   @Override
   public void close() {
   }
@@ -168,6 +201,80 @@ public class LocalProfileStore implements ProfileStore {
     legacyProfileStore.delete(attemptId);
   }
 
+  /**
+   * Delete specified old profiles at once.
+   *
+   * Exposed as static so that cleanup tasks can do this without needing to start a service
+   *
+   * @param provider kvStore provider.
+   * @param attemptIds attemptIds
+   */
+  public static void deleteOldProfiles(LegacyKVStoreProvider provider,
+                                       List<AttemptId> attemptIds) {
+    LegacyKVStore<AttemptId, UserBitShared.QueryProfile> legacyProfileStore =
+      provider.getStore(KVProfileStoreCreator.class);
+    legacyProfileStore.bulkDelete(attemptIds);
+  }
+
+  /**
+   * Delete the old profiles of all the attempts in a range, both ends inclusive.
+   *
+   * Exposed as static so that cleanup tasks can do this without needing to start a service
+   *
+   * @param provider kvStore provider.
+   * @param startAttemptId first attemptId of the range.
+   * @param endAttemptId last attemptId of the range.
+   */
+  public static void deleteOldProfileRange(LegacyKVStoreProvider provider,
+                                           AttemptId startAttemptId, AttemptId endAttemptId) {
+    LegacyKVStore<AttemptId, UserBitShared.QueryProfile> legacyProfileStore =
+      provider.getStore(KVProfileStoreCreator.class);
+    legacyProfileStore.deleteRange(new LegacyFindByRange<>(startAttemptId, true, endAttemptId, true));
+  }
+
+  /**
+   * Compress a full profile to store it in the kvstore.
+   */
+  static byte[] compressProfile(UserBitShared.QueryProfile profile) {
+    final ByteArrayOutputStream bytes = new ByteArrayOutputStream(profile.getSerializedSize() / 2);
+    try (SnappyOutputStream output = new SnappyOutputStream(bytes)) {
+      profile.writeTo(output);
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+    return bytes.toByteArray();
+  }
+
+  /**
+   * Read a full profile from the kvstore. Profiles written before profiles were compressed
+   * are plain protobuf messages, which never start with the snappy stream header.
+   */
+  static UserBitShared.QueryProfile decompressProfile(byte[] bytes) {
+    try {
+      if (!hasSnappyHeader(bytes)) {
+        return UserBitShared.QueryProfile.parseFrom(bytes);
+      }
+      try (SnappyInputStream input = new SnappyInputStream(new ByteArrayInputStream(bytes))) {
+        return UserBitShared.QueryProfile.parseFrom(input);
+      }
+    } catch (IOException e) {
+      throw new IllegalArgumentException(e);
+    }
+  }
+
+  private static boolean hasSnappyHeader(byte[] bytes) {
+    final byte[] header = SnappyCodec.MAGIC_HEADER;
+    if (bytes.length < header.length) {
+      return false;
+    }
+    for (int i = 0; i < header.length; i++) {
+      if (bytes[i] != header[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
   /**
    * Creator for full profiles kvstore.
    */
@@ -180,7 +287,10 @@ public class LocalProfileStore implements ProfileStore {
         .keyFormat(Format.wrapped(AttemptId.class, AttemptIdUtils::toString,
           AttemptIdUtils::fromString,
           Format.ofString()))
-        .valueFormat(Format.ofProtobuf(UserBitShared.QueryProfile.class))
+        .valueFormat(Format.wrapped(UserBitShared.QueryProfile.class,
+          LocalProfileStore::compressProfile,
+          LocalProfileStore::decompressProfile,
+          Format.ofBytes()))
         .build();
     }
   }
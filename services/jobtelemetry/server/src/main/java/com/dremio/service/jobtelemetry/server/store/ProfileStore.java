@@ -108,4 +108,12 @@ public interface ProfileStore extends Service {
    * @param queryId queryId.
    */
   void deleteProfile(UserBitShared.QueryId queryId);
+
+  /**
+   * Delete the full profiles of all the queries with ids in a range. Ids are ordered as their string form.
+   *
+   * @param startQueryId first queryId of the range, inclusive.
+   * @param endQueryId last queryId of the range, inclusive.
+   */
+  void deleteProfileRange(UserBitShared.QueryId startQueryId, UserBitShared.QueryId endQueryId);
 }
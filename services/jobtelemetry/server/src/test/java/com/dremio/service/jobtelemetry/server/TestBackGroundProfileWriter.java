@@ -252,6 +252,11 @@ public class TestBackGroundProfileWriter {
       throw new UnsupportedOperationException("not supported yet");
     }
 
+    @Override
+    public void deleteProfileRange(UserBitShared.QueryId startQueryId, UserBitShared.QueryId endQueryId) {
+      throw new UnsupportedOperationException("not supported yet");
+    }
+
     @Override
     public void close() throws Exception {
       inner.close();
@@ -20,6 +20,8 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -295,4 +297,29 @@ public abstract class AbstractTestProfileStore {
     profileStore.deleteProfile(queryId);
     assertFalse(profileStore.getFullProfile(queryId).isPresent());
   }
+
+  @Test
+  public void testDeleteRange() {
+    final UserBitShared.QueryProfile fullProfile =
+      UserBitShared.QueryProfile.newBuilder()
+        .setPlan("PLAN_VALUE")
+        .setQuery("Select * from plan")
+        .setState(UserBitShared.QueryResult.QueryState.COMPLETED)
+        .build();
+    final List<UserBitShared.QueryId> queryIds = new ArrayList<>();
+    for (int i = 1; i <= 4; i++) {
+      final UserBitShared.QueryId queryId = UserBitShared.QueryId.newBuilder()
+        .setPart1(i)
+        .setPart2(0)
+        .build();
+      profileStore.putFullProfile(queryId, fullProfile);
+      queryIds.add(queryId);
+    }
+
+    profileStore.deleteProfileRange(queryIds.get(1), queryIds.get(2));
+    assertTrue(profileStore.getFullProfile(queryIds.get(0)).isPresent());
+    assertFalse(profileStore.getFullProfile(queryIds.get(1)).isPresent());
+    assertFalse(profileStore.getFullProfile(queryIds.get(2)).isPresent());
+    assertTrue(profileStore.getFullProfile(queryIds.get(3)).isPresent());
+  }
 }
@@ -15,6 +15,21 @@
  */
 package com.dremio.service.jobtelemetry.server.store;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import com.dremio.exec.proto.CoordExecRPC;
+import com.dremio.exec.proto.CoordinationProtos;
+import com.dremio.exec.proto.UserBitShared;
 import com.dremio.service.jobtelemetry.server.TempLegacyKVStoreProviderCreator;
 
 /**
@@ -26,4 +41,72 @@ public class TestLocalProfileStore extends AbstractTestProfileStore {
   public ProfileStore getProfileStore() throws Exception {
     return new LocalProfileStore(TempLegacyKVStoreProviderCreator.create());
   }
+
+  @Test
+  public void testCompressedFullProfile() {
+    final UserBitShared.QueryProfile profile =
+      UserBitShared.QueryProfile.newBuilder()
+        .setPlan("PLAN_VALUE")
+        .setQuery("Select * from plan")
+        .setState(UserBitShared.QueryResult.QueryState.COMPLETED)
+        .build();
+
+    assertEquals(profile, LocalProfileStore.decompressProfile(LocalProfileStore.compressProfile(profile)));
+    // profiles written before compression was introduced.
+    assertEquals(profile, LocalProfileStore.decompressProfile(profile.toByteArray()));
+  }
+
+  @Test
+  public void testConcurrentExecutorProfiles() throws Exception {
+    final int numQueries = 8;
+    final int numExecutors = 16;
+    final ProfileStore store = getProfileStore();
+    store.start();
+
+    final ExecutorService executor = Executors.newFixedThreadPool(numExecutors);
+    try {
+      final List<Future<?>> futures = new ArrayList<>();
+      for (int e = 0; e < numExecutors; e++) {
+        final CoordinationProtos.NodeEndpoint endpoint = CoordinationProtos.NodeEndpoint.newBuilder()
+          .setAddress("10.10.20." + e)
+          .build();
+        futures.add(executor.submit(() -> {
+          for (int update = 0; update < 10; update++) {
+            for (int q = 0; q < numQueries; q++) {
+              store.putExecutorProfile(queryId(q), endpoint,
+                CoordExecRPC.ExecutorQueryProfile.newBuilder()
+                  .setEndpoint(endpoint)
+                  .build());
+            }
+          }
+        }));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      executor.shutdown();
+      executor.awaitTermination(1, TimeUnit.MINUTES);
+    }
+
+    for (int q = 0; q < numQueries; q++) {
+      assertEquals(numExecutors, store.getAllExecutorProfiles(queryId(q)).count());
+    }
+
+    // deleted queries do not accept new sub-profiles.
+    store.deleteSubProfiles(queryId(0));
+    store.putExecutorProfile(queryId(0), CoordinationProtos.NodeEndpoint.getDefaultInstance(),
+      CoordExecRPC.ExecutorQueryProfile.getDefaultInstance());
+    assertEquals(0, store.getAllExecutorProfiles(queryId(0)).count());
+    store.putPlanningProfile(queryId(0), UserBitShared.QueryProfile.getDefaultInstance());
+    assertFalse(store.getPlanningProfile(queryId(0)).isPresent());
+    store.close();
+  }
+
+  private static UserBitShared.QueryId queryId(int id) {
+    return UserBitShared.QueryId.newBuilder()
+      .setPart1(1030)
+      .setPart2(id)
+      .build();
+  }
 }
@@ -70,6 +70,41 @@ public final class MetadataProtoUtils {
     return builder.build();
   }
 
+  public static PartitionValue fromProtobuf(PartitionProtobuf.PartitionValue value) {
+    final PartitionValue.PartitionValueType type = fromProtobuf(value.getType());
+    if (value.hasBinaryValue()) {
+      return PartitionValue.of(value.getColumn(), value.getBinaryValue().asReadOnlyByteBuffer(), type);
+    } else if (value.hasBitValue()) {
+      return PartitionValue.of(value.getColumn(), value.getBitValue(), type);
+    } else if (value.hasDoubleValue()) {
+      return PartitionValue.of(value.getColumn(), value.getDoubleValue(), type);
+    } else if (value.hasFloatValue()) {
+      return PartitionValue.of(value.getColumn(), value.getFloatValue(), type);
+    } else if (value.hasIntValue()) {
+      return PartitionValue.of(value.getColumn(), value.getIntValue(), type);
+    } else if (value.hasLongValue()) {
+      return PartitionValue.of(value.getColumn(), value.getLongValue(), type);
+    } else if (value.hasStringValue()) {
+      return PartitionValue.of(value.getColumn(), value.getStringValue(), type);
+    } else {
+      return PartitionValue.of(value.getColumn(), type);
+    }
+  }
+
+  private static PartitionValue.PartitionValueType fromProtobuf(PartitionProtobuf.PartitionValueType type) {
+    switch (type) {
+    case IMPLICIT:
+      return PartitionValue.PartitionValueType.IMPLICIT;
+    case INVISIBLE:
+      return PartitionValue.PartitionValueType.INVISIBLE;
+    case UNKNOWN:
+    case VISIBLE:
+      return PartitionValue.PartitionValueType.VISIBLE;
+    default:
+      throw new IllegalArgumentException("Unknown type of partition: " + type.name());
+    }
+  }
+
   private static PartitionProtobuf.PartitionValueType toProtobuf(PartitionValue.PartitionValueType type) {
     switch (type) {
     case IMPLICIT:
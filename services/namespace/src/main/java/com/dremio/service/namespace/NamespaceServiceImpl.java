@@ -43,6 +43,7 @@ import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Locale;
@@ -109,6 +110,8 @@ public class NamespaceServiceImpl implements NamespaceService {
   // NOTE: the name of the partition chunks store needs to stay "metadata-dataset-splits" for backwards compatibility.
   public static final String PARTITION_CHUNKS = "metadata-dataset-splits";
   public static final String MULTI_SPLITS = "metadata-multi-splits";
+  // number of partition chunks deleted from the K/V store at once
+  private static final int DELETE_SPLITS_BATCH_SIZE = 1000;
 
   private final LegacyIndexedStore<String, NameSpaceContainer> namespace;
   private final LegacyIndexedStore<PartitionChunkId, PartitionChunk> partitionChunkStore;
@@ -489,6 +492,10 @@ public class NamespaceServiceImpl implements NamespaceService {
    * Accumulate metadata, then save it in the K/V store.
    */
   private class DatasetMetadataSaverImpl implements DatasetMetadataSaver {
+    // partition chunks and multi-splits are written to the K/V store in batches bounded by count and size
+    private static final int MAX_PENDING_PARTITION_CHUNKS = 500;
+    private static final long MAX_PENDING_BYTES = 8 * 1024 * 1024;
+
     private final NamespaceKey datasetPath;
     private final EntityId datasetId;
     private final long nextDatasetVersion;
@@ -502,6 +509,9 @@ public class NamespaceServiceImpl implements NamespaceService {
     private long accumulatedRecordCount;
     private List<DatasetSplit> accumulatedSplits;
     private int totalNumSplits;
+    private final Map<PartitionChunkId, PartitionChunk> pendingPartitionChunks = new LinkedHashMap<>();
+    private final Map<PartitionChunkId, MultiSplit> pendingMultiSplits = new LinkedHashMap<>();
+    private long pendingSizeInBytes;
 
     DatasetMetadataSaverImpl(NamespaceKey datasetPath, EntityId datasetId, long nextDatasetVersion, SplitCompression splitCompression, long maxSinglePartitionChunks) {
       this.datasetPath = datasetPath;
@@ -562,16 +572,36 @@ public class NamespaceServiceImpl implements NamespaceService {
         partitionChunkWithSingleSplitCount++;
       }
       PartitionChunkId chunkId = PartitionChunkId.of(datasetId, nextDatasetVersion, splitKey);
-      NamespaceServiceImpl.this.partitionChunkStore.put(chunkId, builder.build());
+      final PartitionChunk chunk = builder.build();
+      pendingPartitionChunks.put(chunkId, chunk);
+      pendingSizeInBytes += chunk.getSerializedSize();
       createdPartitionChunks.add(chunkId);
-      // Intentionally creating any potential multi-splits after creating the partition chunk.
-      // This makes orphan cleaning simpler, as we can key only on the existing partitionChunk(s), and remove
-      // any matching multi-splits
       if (accumulatedSplits.size() > 1 || !singleSplitPartitionAllowed) {
-        NamespaceServiceImpl.this.multiSplitStore.put(chunkId, createMultiSplitFromAccumulated(splitKey));
+        final MultiSplit multiSplit = createMultiSplitFromAccumulated(splitKey);
+        pendingMultiSplits.put(chunkId, multiSplit);
+        pendingSizeInBytes += multiSplit.getSerializedSize();
       }
       totalNumSplits += accumulatedSplits.size();
       resetSplitAccumulation();
+
+      if (pendingPartitionChunks.size() >= MAX_PENDING_PARTITION_CHUNKS || pendingSizeInBytes >= MAX_PENDING_BYTES) {
+        flushPendingWrites();
+      }
+    }
+
+    private void flushPendingWrites() {
+      // Intentionally creating any potential multi-splits after creating the partition chunks.
+      // This makes orphan cleaning simpler, as we can key only on the existing partitionChunk(s), and remove
+      // any matching multi-splits
+      if (!pendingPartitionChunks.isEmpty()) {
+        NamespaceServiceImpl.this.partitionChunkStore.bulkPut(pendingPartitionChunks);
+        pendingPartitionChunks.clear();
+      }
+      if (!pendingMultiSplits.isEmpty()) {
+        NamespaceServiceImpl.this.multiSplitStore.bulkPut(pendingMultiSplits);
+        pendingMultiSplits.clear();
+      }
+      pendingSizeInBytes = 0;
     }
 
     private OutputStream wrapIfNeeded(OutputStream o) throws IOException {
@@ -631,6 +661,7 @@ public class NamespaceServiceImpl implements NamespaceService {
         }
         savePartitionChunk(chunk);
       }
+      flushPendingWrites();
       return recordCountFromSplits;
     }
 
@@ -641,6 +672,7 @@ public class NamespaceServiceImpl implements NamespaceService {
       Objects.requireNonNull(datasetConfig.getReadDefinition(), "read_definition is required");
       datasetConfig.getReadDefinition().setSplitVersion(nextDatasetVersion);
       datasetConfig.setTotalNumSplits(totalNumSplits);
+      flushPendingWrites();
       while (true) {
         try {
           NamespaceServiceImpl.this.addOrUpdateDataset(datasetPath, datasetConfig, attributes);
@@ -670,6 +702,8 @@ public class NamespaceServiceImpl implements NamespaceService {
     @Override
     public void close() {
       if (!isClosed) {
+        pendingPartitionChunks.clear();
+        pendingMultiSplits.clear();
         deleteSplits(createdPartitionChunks);
       }
     }
@@ -775,9 +809,9 @@ public class NamespaceServiceImpl implements NamespaceService {
 
   @Override
   public void deleteSplits(Iterable<PartitionChunkId> splits) {
-    for (PartitionChunkId split: splits) {
-      partitionChunkStore.delete(split);
-      multiSplitStore.delete(split);
+    for (List<PartitionChunkId> batch : Iterables.partition(splits, DELETE_SPLITS_BATCH_SIZE)) {
+      partitionChunkStore.bulkDelete(batch);
+      multiSplitStore.bulkDelete(batch);
     }
   }
 
@@ -0,0 +1,427 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.resource.basic;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import com.dremio.common.concurrent.NamedThreadFactory;
+import com.dremio.resource.exception.ResourceUnavailableException;
+import com.dremio.service.coordinator.DistributedSemaphore;
+import com.dremio.service.coordinator.DistributedSemaphore.DistributedLease;
+import com.dremio.telemetry.api.metrics.Histogram;
+import com.dremio.telemetry.api.metrics.Metrics;
+import com.dremio.telemetry.api.metrics.Metrics.ResetType;
+import com.google.common.annotations.VisibleForTesting;
+
+/**
+ * Admits queries to the basic queues without blocking the threads submitting them.
+ *
+ * Queries wait in a FIFO queue per {@link QueueType}, and are admitted by a single dispatcher thread once their
+ * queue has a free slot in its distributed semaphore and, if memory admission is enabled, their estimated memory
+ * fits in the memory of the executors. Queues are served by increasing memory use relative to their capacity, and
+ * while a queue is waiting for its share of the memory, the other queues can't borrow beyond their own share.
+ *
+ * Dispatching is triggered when queries are submitted or released, and periodically to pick up slots released by
+ * other coordinators, as semaphore update notifications aren't guaranteed to be delivered.
+ *
+ * Slots are shared by all coordinators through the distributed semaphores, but the admitted memory is only tracked
+ * for the queries admitted by this coordinator: with several coordinators, each one admits up to the memory limit.
+ */
+final class AdmissionController implements AutoCloseable {
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(AdmissionController.class);
+
+  static final String QUEUE_FULL_MESSAGE =
+    "Query cancelled by Workload Manager. Cannot enqueue as the '%s' queue is full. Please try again later.";
+  static final String TIMEOUT_MESSAGE =
+    "Query cancelled by Workload Manager. Query enqueued time of %.2f seconds exceeded for '%s' queue.";
+
+  private static final long RETRY_INTERVAL_MILLIS = 1000;
+  private static final int TOTAL_CAPACITY;
+
+  static {
+    int capacity = 0;
+    for (QueueType type : QueueType.values()) {
+      capacity += type.getCapacity();
+    }
+    TOTAL_CAPACITY = capacity;
+  }
+
+  private final ScheduledExecutorService dispatcher;
+  private final Map<QueueType, QueueState> queues = new EnumMap<>(QueueType.class);
+  private final AtomicBoolean dispatchRequested = new AtomicBoolean();
+  // semaphores only hold weak references to their listeners
+  private final DistributedSemaphore.UpdateListener updateListener = this::onSemaphoreUpdated;
+  private final Set<DistributedSemaphore> listenedSemaphores = Collections.newSetFromMap(new IdentityHashMap<>());
+  private final List<String> metricNames = new ArrayList<>();
+
+  private volatile Thread dispatcherThread;
+  private volatile boolean closed;
+  // memory of the queries admitted by this coordinator, only updated by the dispatcher thread
+  private volatile long admittedMemory;
+
+  AdmissionController() {
+    final NamedThreadFactory threadFactory = new NamedThreadFactory("basic-admission-");
+    this.dispatcher = Executors.newSingleThreadScheduledExecutor(r -> {
+      final Thread thread = threadFactory.newThread(r);
+      dispatcherThread = thread;
+      return thread;
+    });
+    for (QueueType type : QueueType.values()) {
+      queues.put(type, new QueueState(type, metricNames));
+    }
+    final String admittedMemoryName = Metrics.join("resource", "queue", "admitted_memory");
+    Metrics.newGauge(admittedMemoryName, () -> admittedMemory);
+    metricNames.add(admittedMemoryName);
+    dispatcher.scheduleWithFixedDelay(this::dispatch, RETRY_INTERVAL_MILLIS, RETRY_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Submits a query for admission.
+   *
+   * @param queueType the queue the query waits in
+   * @param queueName the name of the queue reported to users
+   * @param semaphore the semaphore bounding the number of queries running from the queue
+   * @param timeoutMillis how long the query may wait before failing
+   * @param memory the estimated per node memory of the query, or 0 if unknown
+   * @param memoryLimit the per node memory all admitted queries may use, or 0 if unbounded
+   * @return a future completed with the lease of the query once admitted, whose closing releases the slot and memory
+   *         of the query. Cancelling the future removes the query from its queue
+   */
+  CompletableFuture<DistributedLease> enqueue(QueueType queueType, String queueName, DistributedSemaphore semaphore,
+                                              long timeoutMillis, long memory, long memoryLimit) {
+    final Waiter waiter = new Waiter(queueType, queueName, semaphore, timeoutMillis, memory, memoryLimit);
+    if (closed) {
+      waiter.future.completeExceptionally(new ResourceUnavailableException(String.format(QUEUE_FULL_MESSAGE, queueName)));
+      return waiter.future;
+    }
+
+    try {
+      dispatcher.execute(() -> {
+        queues.get(queueType).add(waiter);
+        waiter.expiration = dispatcher.schedule(() -> expire(waiter), timeoutMillis, TimeUnit.MILLISECONDS);
+        dispatch();
+      });
+    } catch (RejectedExecutionException e) {
+      waiter.future.completeExceptionally(new ResourceUnavailableException(String.format(QUEUE_FULL_MESSAGE, queueName)));
+    }
+    // drop cancelled queries without waiting for the next dispatch
+    waiter.future.whenComplete((lease, t) -> {
+      if (waiter.future.isCancelled()) {
+        requestDispatch();
+      }
+    });
+    return waiter.future;
+  }
+
+  @VisibleForTesting
+  long getAdmittedMemory() {
+    return admittedMemory;
+  }
+
+  private void onSemaphoreUpdated() {
+    // acquiring a semaphore notifies its listeners as well
+    if (Thread.currentThread() != dispatcherThread) {
+      requestDispatch();
+    }
+  }
+
+  private void requestDispatch() {
+    if (dispatchRequested.compareAndSet(false, true)) {
+      try {
+        dispatcher.execute(this::dispatch);
+      } catch (RejectedExecutionException e) {
+        // closed, nothing left to admit
+      }
+    }
+  }
+
+  private void dispatch() {
+    dispatchRequested.set(false);
+    try {
+      admitWaiters();
+    } catch (RuntimeException e) {
+      logger.warn("Failure while admitting queued queries.", e);
+    }
+  }
+
+  private void admitWaiters() {
+    final Set<QueueType> blocked = EnumSet.noneOf(QueueType.class);
+    boolean borrowingAllowed = true;
+    QueueState queue;
+    while ((queue = nextQueue(blocked)) != null) {
+      final Waiter waiter = queue.waiters.peek();
+      if (waiter.future.isDone()) {
+        // cancelled
+        queue.poll();
+        waiter.expiration.cancel(false);
+        continue;
+      }
+
+      if (!fitsInMemory(queue, waiter, borrowingAllowed)) {
+        if (queue.admittedMemory < queue.share(waiter.memoryLimit)) {
+          // keep the memory the queue is entitled to for it
+          borrowingAllowed = false;
+        }
+        blocked.add(queue.type);
+        continue;
+      }
+
+      final DistributedLease lease;
+      try {
+        lease = tryAcquire(waiter.semaphore);
+      } catch (Exception e) {
+        queue.poll();
+        final String message = String.format(QUEUE_FULL_MESSAGE, waiter.queueName);
+        logger.trace(message, e);
+        fail(waiter, message);
+        continue;
+      }
+
+      if (lease == null) {
+        blocked.add(queue.type);
+        continue;
+      }
+      queue.poll();
+      admit(queue, waiter, lease);
+    }
+  }
+
+  /**
+   * @return the queue with waiting queries using the least memory relative to its capacity, the queue whose first
+   *         query waited the longest on ties
+   */
+  private QueueState nextQueue(Set<QueueType> blocked) {
+    QueueState next = null;
+    for (QueueState queue : queues.values()) {
+      if (queue.waiters.isEmpty() || blocked.contains(queue.type)) {
+        continue;
+      }
+      if (next == null) {
+        next = queue;
+        continue;
+      }
+      final int cmp = Double.compare(queue.usage(), next.usage());
+      if (cmp < 0 || (cmp == 0 && queue.waiters.peek().enqueuedNanos - next.waiters.peek().enqueuedNanos < 0)) {
+        next = queue;
+      }
+    }
+    return next;
+  }
+
+  private boolean fitsInMemory(QueueState queue, Waiter waiter, boolean borrowingAllowed) {
+    // a query larger than the limit can still run on its own
+    if (waiter.memory == 0 || waiter.memoryLimit <= 0 || admittedMemory == 0) {
+      return true;
+    }
+    if (waiter.memory > waiter.memoryLimit - admittedMemory) {
+      return false;
+    }
+    return borrowingAllowed || waiter.memory <= queue.share(waiter.memoryLimit) - queue.admittedMemory;
+  }
+
+  private DistributedLease tryAcquire(DistributedSemaphore semaphore) throws Exception {
+    if (listenedSemaphores.add(semaphore)) {
+      semaphore.registerUpdateListener(updateListener);
+    }
+    return semaphore.acquire(0, TimeUnit.MILLISECONDS);
+  }
+
+  private void admit(QueueState queue, Waiter waiter, DistributedLease lease) {
+    waiter.expiration.cancel(false);
+    queue.admittedMemory += waiter.memory;
+    admittedMemory += waiter.memory;
+    queue.waitTime.update(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - waiter.enqueuedNanos));
+
+    final Admission admission = new Admission(queue, lease, waiter.memory);
+    if (!waiter.future.complete(admission)) {
+      // cancelled while acquiring the lease
+      admission.release();
+    }
+  }
+
+  private void expire(Waiter waiter) {
+    if (queues.get(waiter.queueType).remove(waiter)) {
+      fail(waiter, String.format(TIMEOUT_MESSAGE, waiter.timeoutMillis / 1000.0, waiter.queueName));
+    }
+  }
+
+  private static void fail(Waiter waiter, String message) {
+    logger.trace(message);
+    waiter.expiration.cancel(false);
+    waiter.future.completeExceptionally(new ResourceUnavailableException(message));
+  }
+
+  private void releaseMemory(QueueState queue, long memory) {
+    try {
+      dispatcher.execute(() -> {
+        queue.admittedMemory -= memory;
+        admittedMemory -= memory;
+        dispatch();
+      });
+    } catch (RejectedExecutionException e) {
+      // closed, nothing left to admit
+    }
+  }
+
+  private void failWaiters() {
+    for (QueueState queue : queues.values()) {
+      Waiter waiter;
+      while ((waiter = queue.poll()) != null) {
+        fail(waiter, String.format(QUEUE_FULL_MESSAGE, waiter.queueName));
+      }
+    }
+  }
+
+  @Override
+  public void close() throws Exception {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    try {
+      dispatcher.submit(this::failWaiters).get();
+    } finally {
+      dispatcher.shutdownNow();
+      metricNames.forEach(Metrics::unregister);
+    }
+  }
+
+  /**
+   * Waiting queries and admitted memory of a queue, only updated by the dispatcher thread.
+   */
+  private static final class QueueState {
+    private final QueueType type;
+    private final Queue<Waiter> waiters = new ArrayDeque<>();
+    private final Histogram waitTime;
+    private volatile int numWaiting;
+    private volatile long admittedMemory;
+
+    private QueueState(QueueType type, List<String> metricNames) {
+      this.type = type;
+      final String name = type.name().toLowerCase();
+      final String waitTimeName = Metrics.join("resource", "queue", name, "wait_millis");
+      final String waitingName = Metrics.join("resource", "queue", name, "waiting");
+      final String admittedMemoryName = Metrics.join("resource", "queue", name, "admitted_memory");
+      this.waitTime = Metrics.newHistogram(waitTimeName, ResetType.PERIODIC_15M);
+      Metrics.newGauge(waitingName, () -> numWaiting);
+      Metrics.newGauge(admittedMemoryName, () -> admittedMemory);
+      metricNames.add(waitTimeName);
+      metricNames.add(waitingName);
+      metricNames.add(admittedMemoryName);
+    }
+
+    private void add(Waiter waiter) {
+      waiters.add(waiter);
+      numWaiting = waiters.size();
+    }
+
+    private Waiter poll() {
+      final Waiter waiter = waiters.poll();
+      numWaiting = waiters.size();
+      return waiter;
+    }
+
+    private boolean remove(Waiter waiter) {
+      final boolean removed = waiters.remove(waiter);
+      numWaiting = waiters.size();
+      return removed;
+    }
+
+    private long share(long memoryLimit) {
+      return (long) ((double) memoryLimit * type.getCapacity() / TOTAL_CAPACITY);
+    }
+
+    private double usage() {
+      return (double) admittedMemory / type.getCapacity();
+    }
+  }
+
+  /**
+   * A query waiting for admission.
+   */
+  private static final class Waiter {
+    private final QueueType queueType;
+    private final String queueName;
+    private final DistributedSemaphore semaphore;
+    private final long timeoutMillis;
+    private final long memory;
+    private final long memoryLimit;
+    private final long enqueuedNanos = System.nanoTime();
+    private final CompletableFuture<DistributedLease> future = new CompletableFuture<>();
+    private ScheduledFuture<?> expiration;
+
+    private Waiter(QueueType queueType, String queueName, DistributedSemaphore semaphore, long timeoutMillis,
+                   long memory, long memoryLimit) {
+      this.queueType = queueType;
+      this.queueName = queueName;
+      this.semaphore = semaphore;
+      this.timeoutMillis = timeoutMillis;
+      this.memory = memory;
+      this.memoryLimit = memoryLimit;
+    }
+  }
+
+  /**
+   * Lease of an admitted query, releasing its memory along with its semaphore slot.
+   */
+  private final class Admission implements DistributedLease {
+    private final QueueState queue;
+    private final DistributedLease lease;
+    private final long memory;
+    private final AtomicBoolean released = new AtomicBoolean();
+
+    private Admission(QueueState queue, DistributedLease lease, long memory) {
+      this.queue = queue;
+      this.lease = lease;
+      this.memory = memory;
+    }
+
+    @Override
+    public void close() throws Exception {
+      try {
+        lease.close();
+      } finally {
+        if (released.compareAndSet(false, true)) {
+          releaseMemory(queue, memory);
+        }
+      }
+    }
+
+    private void release() {
+      try {
+        close();
+      } catch (Exception e) {
+        logger.warn("Failure while releasing lease.", e);
+      }
+    }
+  }
+}
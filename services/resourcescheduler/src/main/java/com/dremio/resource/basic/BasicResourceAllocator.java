@@ -16,10 +16,9 @@
 package com.dremio.resource.basic;
 
 import java.io.IOException;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Consumer;
 
-import javax.annotation.Nullable;
 import javax.inject.Provider;
 
 import com.dremio.exec.proto.CoordinationProtos;
@@ -36,16 +35,10 @@ import com.dremio.resource.ResourceSet;
 import com.dremio.resource.common.ResourceSchedulingContext;
 import com.dremio.resource.exception.ResourceAllocationException;
 import com.dremio.resource.exception.ResourceUnavailableException;
-import com.dremio.service.Pointer;
 import com.dremio.service.coordinator.ClusterCoordinator;
 import com.dremio.service.coordinator.DistributedSemaphore;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
-import com.google.common.util.concurrent.FutureCallback;
-import com.google.common.util.concurrent.Futures;
-import com.google.common.util.concurrent.ListenableFuture;
-import com.google.common.util.concurrent.ListeningExecutorService;
-import com.google.common.util.concurrent.MoreExecutors;
 
 /**
  * Basic implementation of Resource Allocation APIs
@@ -57,7 +50,8 @@ public class BasicResourceAllocator implements ResourceAllocator {
   private final Provider<ClusterCoordinator> clusterCoordinatorProvider;
   private final Provider<GroupResourceInformation> clusterResourceInformationProvider;
   private ClusterCoordinator clusterCoordinator;
-  private final ListeningExecutorService executorService = MoreExecutors.newDirectExecutorService();
+  // created on first queued query
+  private AdmissionController admissionController;
 
   public BasicResourceAllocator(final Provider<ClusterCoordinator> clusterCoordinatorProvider,
                                 final Provider<GroupResourceInformation> clusterResourceInformationProvider) {
@@ -79,44 +73,47 @@ public class BasicResourceAllocator implements ResourceAllocator {
     schedulingDecisionInfoConsumer.accept(resourceSchedulingDecisionInfo);
 
     resourceSchedulingObserver.beginQueueWait();
-    final Pointer<DistributedSemaphore.DistributedLease> lease = new Pointer();
-    ListenableFuture<ResourceSet> futureAllocation = executorService.submit(() -> {
-      lease.value = acquireQuerySemaphoreIfNecessary(queryContext, queueType);
-
-       // update query limit based on the queueType
-      final OptionManager options = queryContext.getOptions();
-      final boolean memoryControlEnabled = options.getOption(BasicResourceConstants.ENABLE_QUEUE_MEMORY_LIMIT);
-      // TODO REFLECTION_SMALL, REFLECTION_LARGE was not there before - was it a bug???
-      final long memoryLimit = (queueType == QueueType.SMALL || queueType == QueueType.REFLECTION_SMALL) ?
-        options.getOption(BasicResourceConstants.SMALL_QUEUE_MEMORY_LIMIT):
-        options.getOption(BasicResourceConstants.LARGE_QUEUE_MEMORY_LIMIT);
-      long queryMaxAllocation = queryContext.getQueryContextInfo().getQueryMaxAllocation();
-      if (memoryControlEnabled && memoryLimit > 0) {
-        queryMaxAllocation = Math.min(memoryLimit, queryMaxAllocation);
+
+    // update query limit based on the queueType
+    final OptionManager options = queryContext.getOptions();
+    final boolean memoryControlEnabled = options.getOption(BasicResourceConstants.ENABLE_QUEUE_MEMORY_LIMIT);
+    // TODO REFLECTION_SMALL, REFLECTION_LARGE was not there before - was it a bug???
+    final long memoryLimit = (queueType == QueueType.SMALL || queueType == QueueType.REFLECTION_SMALL) ?
+      options.getOption(BasicResourceConstants.SMALL_QUEUE_MEMORY_LIMIT):
+      options.getOption(BasicResourceConstants.LARGE_QUEUE_MEMORY_LIMIT);
+    long queryMaxAllocation = queryContext.getQueryContextInfo().getQueryMaxAllocation();
+    final boolean memoryBounded = memoryControlEnabled && memoryLimit > 0;
+    if (memoryBounded) {
+      queryMaxAllocation = Math.min(memoryLimit, queryMaxAllocation);
+    }
+    final UserBitShared.QueryId queryId = queryContext.getQueryId();
+    final long queryMaxAllocationFinal = queryMaxAllocation;
+
+    // only queries bounded by the queue memory limits have a known memory footprint
+    final CompletableFuture<DistributedSemaphore.DistributedLease> leaseFuture =
+      acquireQuerySemaphoreIfNecessary(queryContext, queueType, memoryBounded ? queryMaxAllocation : 0);
+    final CompletableFuture<ResourceSet> futureAllocation = new CompletableFuture<>();
+    leaseFuture.whenComplete((lease, throwable) -> {
+      if (throwable != null) {
+        futureAllocation.completeExceptionally(throwable);
+        return;
       }
-      final UserBitShared.QueryId queryId = queryContext.getQueryId();
-      final long queryMaxAllocationFinal = queryMaxAllocation;
 
       final ResourceSet resourceSet = new BasicResourceSet(
         queryId,
-        lease.value,
+        lease,
         queryMaxAllocationFinal,
         queueType.name());
-
-      return resourceSet;
-    });
-    Futures.addCallback(futureAllocation, new FutureCallback<ResourceSet>() {
-      @Override
-      public void onSuccess(@Nullable ResourceSet resourceSet) {
-        // don't need to do anything additional
+      if (!futureAllocation.complete(resourceSet)) {
+        // cancelled while waiting in the queue
+        releaseLease(lease);
       }
-
-      @Override
-      public void onFailure(Throwable throwable) {
-        // need to close lease
-        releaseLease(lease.value);
+    });
+    futureAllocation.whenComplete((resourceSet, throwable) -> {
+      if (futureAllocation.isCancelled()) {
+        leaseFuture.cancel(false);
       }
-    }, executorService);
+    });
 
     final ResourceSchedulingResult resourceSchedulingResult = new ResourceSchedulingResult(
       resourceSchedulingDecisionInfo,
@@ -154,12 +151,28 @@ public class BasicResourceAllocator implements ResourceAllocator {
   }
 
   @Override
-  public void close() throws Exception {
+  public synchronized void close() throws Exception {
+    if (admissionController != null) {
+      admissionController.close();
+      admissionController = null;
+    }
+  }
 
+  private synchronized AdmissionController getAdmissionController() {
+    if (admissionController == null) {
+      admissionController = new AdmissionController();
+    }
+    return admissionController;
   }
 
-  private DistributedSemaphore.DistributedLease acquireQuerySemaphoreIfNecessary(final ResourceSchedulingContext queryContext,
-                                                QueueType queueType) throws ResourceAllocationException {
+  /**
+   * Submits the query to its queue.
+   *
+   * @param memory estimated per node memory of the query, or 0 if unknown
+   * @return a future completed with the lease of the query once admitted, or with null if queuing is disabled
+   */
+  private CompletableFuture<DistributedSemaphore.DistributedLease> acquireQuerySemaphoreIfNecessary(
+    final ResourceSchedulingContext queryContext, QueueType queueType, long memory) {
 
     final OptionManager optionManager = queryContext.getOptions();
 
@@ -167,7 +180,7 @@ public class BasicResourceAllocator implements ResourceAllocator {
     boolean reflectionQueuingEnabled = optionManager.getOption(BasicResourceConstants.REFLECTION_ENABLE_QUEUE);
 
     if(!queuingEnabled){
-      return null;
+      return CompletableFuture.completedFuture(null);
     }
 
     // switch back to regular queues if the reflection queuing is disabled
@@ -184,10 +197,8 @@ public class BasicResourceAllocator implements ResourceAllocator {
     String queueName = null;
     int maxRunningConcurrency = 0;
 
-    DistributedSemaphore.DistributedLease lease;
+    final DistributedSemaphore distributedSemaphore;
     try {
-      @SuppressWarnings("resource")
-      final DistributedSemaphore distributedSemaphore;
 
       // get the appropriate semaphore
       switch (adjustedQueueType) {
@@ -216,23 +227,29 @@ public class BasicResourceAllocator implements ResourceAllocator {
         default:
           throw new ResourceAllocationException("Unsupported Queue type: " + adjustedQueueType);
       }
-      lease = distributedSemaphore.acquire(queueTimeout, TimeUnit.MILLISECONDS);
     } catch (final Exception e) {
-      final String message = String.format(
-          "Query cancelled by Workload Manager. Cannot enqueue as the '%s' queue is full. Please try again later.",
-          queueName);
+      final String message = String.format(AdmissionController.QUEUE_FULL_MESSAGE, queueName);
       logger.trace(message, e);
-      throw new ResourceUnavailableException(message);
+      final CompletableFuture<DistributedSemaphore.DistributedLease> failed = new CompletableFuture<>();
+      failed.completeExceptionally(new ResourceUnavailableException(message));
+      return failed;
     }
 
-    if (lease == null) {
-      final String message = String.format(
-          "Query cancelled by Workload Manager. Query enqueued time of %.2f seconds exceeded for '%s' queue.",
-          queueTimeout / 1000.0, queueName);
-      logger.trace(message);
-      throw new ResourceUnavailableException(message);
+    return getAdmissionController().enqueue(adjustedQueueType, queueName, distributedSemaphore, queueTimeout,
+      memory, getAdmissionMemoryLimit(optionManager));
+  }
+
+  /**
+   * @return the per node memory the queries admitted by the queues of this coordinator may use, or 0 if unbounded
+   */
+  private long getAdmissionMemoryLimit(OptionManager optionManager) {
+    final long percent = optionManager.getOption(BasicResourceConstants.QUEUE_MEMORY_ADMISSION_PERCENT);
+    final GroupResourceInformation resourceInformation =
+      clusterResourceInformationProvider == null ? null : clusterResourceInformationProvider.get();
+    if (percent == 0 || resourceInformation == null) {
+      return 0;
     }
-    return lease;
+    return (long) (resourceInformation.getAverageExecutorMemory() * (percent / 100.0));
   }
 
   /**
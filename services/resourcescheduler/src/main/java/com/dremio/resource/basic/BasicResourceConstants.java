@@ -38,5 +38,9 @@ public interface BasicResourceConstants {
   TypeValidators.LongValidator SMALL_QUEUE_SIZE = new TypeValidators.PositiveLongValidator("exec.queue.small", 100000, 100);
   TypeValidators.LongValidator REFLECTION_LARGE_QUEUE_SIZE = new TypeValidators.RangeLongValidator("reflection.queue.large", 0, 100, 1);
   TypeValidators.LongValidator REFLECTION_SMALL_QUEUE_SIZE = new TypeValidators.RangeLongValidator("reflection.queue.small", 0, 10000, 10);
+  // percentage of the average executor memory the queries admitted by the queues may use, 0 to only admit on slots.
+  // Only queries bounded by the queue memory limits are accounted for, and each coordinator only accounts for the
+  // queries it admitted.
+  TypeValidators.LongValidator QUEUE_MEMORY_ADMISSION_PERCENT = new TypeValidators.RangeLongValidator("exec.queue.memory.admission_percent", 0, 100, 80);
   TypeValidators.LongValidator QUEUE_THRESHOLD_SIZE = new TypeValidators.PositiveLongValidator("exec.queue.threshold", Long.MAX_VALUE, 30000000);
 }
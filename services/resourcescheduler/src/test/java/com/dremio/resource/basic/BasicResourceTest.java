@@ -16,6 +16,7 @@
 package com.dremio.resource.basic;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
@@ -24,6 +25,7 @@ import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
 import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 
@@ -45,6 +47,7 @@ import com.dremio.resource.exception.ResourceAllocationException;
 import com.dremio.service.DirectProvider;
 import com.dremio.service.coordinator.ClusterCoordinator;
 import com.dremio.service.coordinator.DistributedSemaphore;
+import com.dremio.service.coordinator.DistributedSemaphore.DistributedLease;
 import com.dremio.service.coordinator.local.LocalClusterCoordinator;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Sets;
@@ -154,6 +157,134 @@ public class BasicResourceTest {
     resourceSet2.close();
   }
 
+  @Test
+  public void testQueuedAllocationAdmittedOnRelease() throws Exception {
+    final CoordinationProtos.NodeEndpoint nodeEndpoint = CoordinationProtos.NodeEndpoint.newBuilder()
+      .setAddress("host1")
+      .setFabricPort(1234)
+      .setUserPort(2345)
+      .setAvailableCores(3)
+      .setMaxDirectMemory(8 * 1024)
+      .setRoles(ClusterCoordinator.Role.toEndpointRoles(Sets.newHashSet(ClusterCoordinator.Role.EXECUTOR)))
+      .build();
+
+    final OptionManager optionManager = mock(OptionManager.class);
+
+    when(optionManager.getOption(BasicResourceConstants.ENABLE_QUEUE)).thenReturn(true);
+    when(optionManager.getOption(BasicResourceConstants.REFLECTION_ENABLE_QUEUE)).thenReturn(true);
+    when(optionManager.getOption(BasicResourceConstants.QUEUE_THRESHOLD_SIZE)).thenReturn(30000000L);
+    when(optionManager.getOption(BasicResourceConstants.QUEUE_TIMEOUT)).thenReturn(60 * 1000L);
+    when(optionManager.getOption(BasicResourceConstants.SMALL_QUEUE_SIZE)).thenReturn(1L);
+
+    final ClusterCoordinator clusterCoordinator = LocalClusterCoordinator.newRunningCoordinator();
+
+    final ResourceSchedulingProperties resourceSchedulingProperties = new ResourceSchedulingProperties();
+    resourceSchedulingProperties.setQueryCost(112100D);
+
+    final BasicResourceAllocator resourceAllocator = new BasicResourceAllocator(DirectProvider.wrap
+      (clusterCoordinator), null);
+    resourceAllocator.start();
+
+    final ResourceSet resourceSet = resourceAllocator.allocate(
+      createQueryContext(ExternalIdHelper.toQueryId(ExternalIdHelper.generateExternalId()), optionManager, nodeEndpoint),
+      resourceSchedulingProperties).getResourceSetFuture().get();
+
+    // allocate returns while the query waits in the queue
+    final CompletableFuture<ResourceSet> queued = resourceAllocator.allocate(
+      createQueryContext(ExternalIdHelper.toQueryId(ExternalIdHelper.generateExternalId()), optionManager, nodeEndpoint),
+      resourceSchedulingProperties).getResourceSetFuture();
+    final CompletableFuture<ResourceSet> cancelled = resourceAllocator.allocate(
+      createQueryContext(ExternalIdHelper.toQueryId(ExternalIdHelper.generateExternalId()), optionManager, nodeEndpoint),
+      resourceSchedulingProperties).getResourceSetFuture();
+    assertFalse(queued.isDone());
+    cancelled.cancel(true);
+
+    resourceSet.close();
+    queued.get().close();
+
+    // the cancelled query didn't take the slot
+    resourceAllocator.allocate(
+      createQueryContext(ExternalIdHelper.toQueryId(ExternalIdHelper.generateExternalId()), optionManager, nodeEndpoint),
+      resourceSchedulingProperties).getResourceSetFuture().get().close();
+    resourceAllocator.close();
+  }
+
+  @Test
+  public void testMemoryAdmission() throws Exception {
+    final ClusterCoordinator clusterCoordinator = LocalClusterCoordinator.newRunningCoordinator();
+    final DistributedSemaphore semaphore = clusterCoordinator.getSemaphore("query.small", 10);
+
+    try (AdmissionController admissionController = new AdmissionController()) {
+      // the first query is admitted even if larger than the limit
+      final DistributedLease lease = enqueue(admissionController, QueueType.SMALL, semaphore, 60).get();
+      assertEquals(60, admissionController.getAdmittedMemory());
+
+      final CompletableFuture<DistributedLease> queued = enqueue(admissionController, QueueType.SMALL, semaphore, 60);
+      // queries of unknown memory only wait for a slot
+      enqueue(admissionController, QueueType.LARGE, clusterCoordinator.getSemaphore("query.large", 10), 0).get()
+        .close();
+      assertFalse(queued.isDone());
+
+      lease.close();
+      queued.get().close();
+      awaitAdmittedMemory(admissionController, 0);
+    }
+  }
+
+  @Test
+  public void testFairShareAdmission() throws Exception {
+    final ClusterCoordinator clusterCoordinator = LocalClusterCoordinator.newRunningCoordinator();
+    final DistributedSemaphore small = clusterCoordinator.getSemaphore("query.small", 10);
+    final DistributedSemaphore large = clusterCoordinator.getSemaphore("query.large", 10);
+    final DistributedSemaphore reflection = clusterCoordinator.getSemaphore("reflection.query.large", 10);
+
+    try (AdmissionController admissionController = new AdmissionController()) {
+      final DistributedLease smallLease = enqueue(admissionController, QueueType.SMALL, small, 50).get();
+      final DistributedLease smallLease1 = enqueue(admissionController, QueueType.SMALL, small, 40).get();
+
+      // the large queue is served first as it uses less of its share, even though the small query waited longer
+      final CompletableFuture<DistributedLease> queuedSmall = enqueue(admissionController, QueueType.SMALL, small, 40);
+      final CompletableFuture<DistributedLease> queuedLarge = enqueue(admissionController, QueueType.LARGE, large, 40);
+      smallLease1.close();
+      final DistributedLease largeLease = queuedLarge.get();
+      enqueue(admissionController, QueueType.REFLECTION_LARGE, reflection, 0).get().close();
+      assertFalse(queuedSmall.isDone());
+      assertEquals(90, admissionController.getAdmittedMemory());
+
+      largeLease.close();
+      queuedSmall.get().close();
+      smallLease.close();
+      awaitAdmittedMemory(admissionController, 0);
+
+      // while the large queue waits for its share, the small queue can't borrow beyond its own
+      final DistributedLease smallLease2 = enqueue(admissionController, QueueType.SMALL, small, 80).get();
+      final CompletableFuture<DistributedLease> queuedLarge1 = enqueue(admissionController, QueueType.LARGE, large, 30);
+      final CompletableFuture<DistributedLease> queuedSmall1 = enqueue(admissionController, QueueType.SMALL, small, 10);
+      enqueue(admissionController, QueueType.REFLECTION_LARGE, reflection, 0).get().close();
+      assertFalse(queuedLarge1.isDone());
+      assertFalse(queuedSmall1.isDone());
+
+      smallLease2.close();
+      queuedLarge1.get().close();
+      queuedSmall1.get().close();
+      awaitAdmittedMemory(admissionController, 0);
+    }
+  }
+
+  private static CompletableFuture<DistributedLease> enqueue(AdmissionController admissionController,
+                                                             QueueType queueType, DistributedSemaphore semaphore,
+                                                             long memory) {
+    return admissionController.enqueue(queueType, queueType.name(), semaphore, 60 * 1000L, memory, 100);
+  }
+
+  private static void awaitAdmittedMemory(AdmissionController admissionController, long memory)
+    throws InterruptedException {
+    // memory is released asynchronously by the dispatcher
+    while (admissionController.getAdmittedMemory() != memory) {
+      Thread.sleep(10);
+    }
+  }
+
   @Test
   public void testQueueingSemaphoreException() throws Exception {
     final CoordinationProtos.NodeEndpoint nodeEndpoint = CoordinationProtos.NodeEndpoint.newBuilder()
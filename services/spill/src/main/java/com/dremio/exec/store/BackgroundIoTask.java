@@ -0,0 +1,123 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * An I/O task run by the spill I/O threads, or by the thread waiting for it if no I/O thread started it yet.
+ *
+ * The I/O threads are shared by all the spilling fragments: a fragment waiting for its own I/O never queues behind
+ * the I/O of other fragments, it only waits for I/O already in progress.
+ *
+ * @param <T> the result of the task
+ */
+final class BackgroundIoTask<T> implements Runnable {
+
+  /**
+   * The I/O of the task.
+   *
+   * @param <T> the result of the I/O
+   */
+  interface IoCall<T> {
+    T call() throws IOException;
+  }
+
+  private final IoCall<T> call;
+  private final AtomicBoolean started = new AtomicBoolean();
+  private final CompletableFuture<T> result = new CompletableFuture<>();
+
+  private BackgroundIoTask(IoCall<T> call) {
+    this.call = call;
+  }
+
+  /**
+   * Submits a task to the I/O threads.
+   *
+   * @param call the I/O of the task
+   * @param executor the I/O threads
+   * @return the submitted task
+   */
+  static <T> BackgroundIoTask<T> submit(IoCall<T> call, Executor executor) {
+    final BackgroundIoTask<T> task = new BackgroundIoTask<>(call);
+    try {
+      executor.execute(task);
+    } catch (RejectedExecutionException e) {
+      // the I/O threads are shut down, the task is run when waited for
+    }
+    return task;
+  }
+
+  @Override
+  public void run() {
+    if (!started.compareAndSet(false, true)) {
+      return;
+    }
+    try {
+      result.complete(call.call());
+    } catch (Throwable t) {
+      result.completeExceptionally(t);
+    }
+  }
+
+  /**
+   * Waits for the task, running it in the calling thread if not started yet.
+   *
+   * @param description what the task does, for error messages
+   * @return the result of the task
+   * @throws IOException if the task failed or the wait was interrupted
+   */
+  T await(String description) throws IOException {
+    run();
+    try {
+      return result.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while waiting for " + description);
+    } catch (ExecutionException e) {
+      throw new IOException("Failure while " + description, e.getCause());
+    }
+  }
+
+  /**
+   * Waits for the task to stop, running it in the calling thread if not started yet. Neither interrupts nor the
+   * failure of the task stop the wait.
+   */
+  void awaitUninterruptibly() {
+    run();
+    // join() waits uninterruptibly, the failure of the task is reported by await()
+    result.handle((value, failure) -> null).join();
+  }
+
+  /**
+   * Cancels the task if not started yet.
+   *
+   * @return true if the task is not running and won't run, false if it is still running
+   */
+  boolean cancel() {
+    if (started.compareAndSet(false, true)) {
+      result.cancel(false);
+      return true;
+    }
+    return result.isDone();
+  }
+}
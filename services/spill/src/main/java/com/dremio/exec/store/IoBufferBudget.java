@@ -0,0 +1,74 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounds the memory of the buffers of the spill files written or read in the background.
+ *
+ * Streams reserve the memory of their buffers when created, and are written or read synchronously when the budget
+ * is exhausted, rather than waiting for memory.
+ */
+public class IoBufferBudget {
+  private final long limit;
+  private final AtomicLong reserved = new AtomicLong();
+
+  public IoBufferBudget(long limit) {
+    this.limit = limit;
+  }
+
+  /**
+   * Reserves memory for the buffers of a stream.
+   *
+   * @param bytes the memory of the buffers
+   * @return the reservation, released when closed, or null if the budget is exhausted
+   */
+  public Reservation tryReserve(long bytes) {
+    long current;
+    do {
+      current = reserved.get();
+      if (current + bytes > limit) {
+        return null;
+      }
+    } while (!reserved.compareAndSet(current, current + bytes));
+    return new Reservation(bytes);
+  }
+
+  public long getReserved() {
+    return reserved.get();
+  }
+
+  /**
+   * Memory reserved for the buffers of a stream.
+   */
+  public final class Reservation implements AutoCloseable {
+    private final long bytes;
+    private final AtomicBoolean released = new AtomicBoolean();
+
+    private Reservation(long bytes) {
+      this.bytes = bytes;
+    }
+
+    @Override
+    public void close() {
+      if (released.compareAndSet(false, true)) {
+        reserved.addAndGet(-bytes);
+      }
+    }
+  }
+}
@@ -154,6 +154,13 @@ public class LocalSyncableFileSystem extends FileSystem {
     public int write(ArrowBuf buf) throws IOException;
   }
 
+  /**
+   * Ability to write directly from a nio buffer.
+   */
+  public static interface WritesByteBuffer {
+    public void write(ByteBuffer buffer) throws IOException;
+  }
+
   /**
    * Ability to read directly into arrow buf.
    */
@@ -164,7 +171,7 @@ public class LocalSyncableFileSystem extends FileSystem {
   /**
    * Outputstream used by local filesystem.
    */
-  public static final class LocalSyncableOutputStream extends OutputStream implements Syncable, WritesArrowBuf {
+  public static final class LocalSyncableOutputStream extends OutputStream implements Syncable, WritesArrowBuf, WritesByteBuffer {
     private final FileOutputStream fos;
     private final BufferedOutputStream output;
 
@@ -186,6 +193,14 @@ public class LocalSyncableFileSystem extends FileSystem {
       return fos.getChannel().write(nioBuffer);
     }
 
+    @Override
+    public void write(ByteBuffer buffer) throws IOException {
+      output.flush();
+      while (buffer.hasRemaining()) {
+        fos.getChannel().write(buffer);
+      }
+    }
+
     // Compatibility with Hadoop 2.x. Was removed with Hadoop 3.0
     public void sync() throws IOException {
       output.flush();
@@ -0,0 +1,156 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.Executor;
+
+/**
+ * An input stream reading the underlying stream ahead of the caller.
+ *
+ * While the caller consumes one buffer, an I/O thread fills the other one with the next bytes of the underlying
+ * stream. The stream is expected to be read sequentially up to its end, as a spill file is. A read not picked up by an
+ * I/O thread yet is done by the caller when it waits for it.
+ *
+ * Nothing is read or allocated before the first read, as spill files are often opened well before they are read. The
+ * memory of the buffers is reserved by the caller and released on close.
+ */
+public class ReadAheadInputStream extends InputStream {
+  private final InputStream in;
+  private final Executor executor;
+  private final int bufferSize;
+  private final IoBufferBudget.Reservation reservation;
+
+  private byte[] current;
+  private byte[] spare;
+  private int position;
+  private int limit;
+  private boolean started;
+  // fills the spare buffer, null once the end of the underlying stream was reached
+  private BackgroundIoTask<Integer> pendingRead;
+
+  public ReadAheadInputStream(InputStream in, Executor executor, int bufferSize,
+      IoBufferBudget.Reservation reservation) {
+    this.in = in;
+    this.executor = executor;
+    this.bufferSize = bufferSize;
+    this.reservation = reservation;
+  }
+
+  /**
+   * @return the memory to reserve for a stream with the given buffer size
+   */
+  public static long getReservation(int bufferSize) {
+    return 2L * bufferSize;
+  }
+
+  @Override
+  public int read() throws IOException {
+    if (!fill()) {
+      return -1;
+    }
+    return current[position++] & 0xFF;
+  }
+
+  @Override
+  public int read(byte[] b, int off, int len) throws IOException {
+    if (len == 0) {
+      return 0;
+    }
+    if (!fill()) {
+      return -1;
+    }
+    final int length = Math.min(len, limit - position);
+    System.arraycopy(current, position, b, off, length);
+    position += length;
+    return length;
+  }
+
+  @Override
+  public int available() {
+    return limit - position;
+  }
+
+  @Override
+  public void close() throws IOException {
+    try {
+      if (pendingRead != null && !pendingRead.cancel()) {
+        // the underlying stream can't be closed while it is being read
+        pendingRead.await("reading spill data");
+      }
+    } catch (IOException e) {
+      // the data is not needed anymore
+    } finally {
+      pendingRead = null;
+      current = null;
+      spare = null;
+      try {
+        in.close();
+      } finally {
+        reservation.close();
+      }
+    }
+  }
+
+  /**
+   * Switches to the buffer filled by the I/O thread once the current one is consumed.
+   *
+   * @return false at the end of the stream
+   */
+  private boolean fill() throws IOException {
+    if (position < limit) {
+      return true;
+    }
+    if (!started) {
+      started = true;
+      current = new byte[bufferSize];
+      spare = new byte[bufferSize];
+      readSpare();
+    }
+    if (pendingRead == null) {
+      return false;
+    }
+
+    final int read = pendingRead.await("reading spill data");
+    final byte[] buffer = current;
+    current = spare;
+    spare = buffer;
+    position = 0;
+    limit = read;
+    if (read == current.length) {
+      readSpare();
+    } else {
+      pendingRead = null;
+    }
+    return limit > 0;
+  }
+
+  private void readSpare() {
+    final byte[] buffer = spare;
+    pendingRead = BackgroundIoTask.submit(() -> {
+      int read = 0;
+      while (read < buffer.length) {
+        final int n = in.read(buffer, read, buffer.length - read);
+        if (n == -1) {
+          break;
+        }
+        read += n;
+      }
+      return read;
+    }, executor);
+  }
+}
@@ -0,0 +1,184 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.concurrent.Executor;
+
+import org.apache.arrow.memory.ArrowBuf;
+
+import com.dremio.exec.store.LocalSyncableFileSystem.WritesArrowBuf;
+import com.dremio.exec.store.LocalSyncableFileSystem.WritesByteBuffer;
+
+import io.netty.util.internal.PlatformDependent;
+
+/**
+ * An output stream writing to the underlying stream in the background.
+ *
+ * Data is staged in one of two buffers. Once a buffer is full, it is written by an I/O thread while the caller fills
+ * the other one, and the caller only waits when it filled a buffer before the previous write completed. At most one
+ * write is pending, so the data is written in order. A write not picked up by an I/O thread yet is done by the caller
+ * when it waits for it.
+ *
+ * The buffers are allocated on the first write, off-heap if the underlying stream writes nio buffers, so that arrow
+ * buffers are staged without going through the heap. Their memory is reserved by the caller and released on close.
+ */
+public class WriteBehindOutputStream extends OutputStream implements WritesArrowBuf {
+  private final OutputStream out;
+  private final Executor executor;
+  private final int bufferSize;
+  private final IoBufferBudget.Reservation reservation;
+
+  private ByteBuffer current;
+  private ByteBuffer spare;
+  private BackgroundIoTask<Void> pendingWrite;
+  private boolean closed;
+
+  public WriteBehindOutputStream(OutputStream out, Executor executor, int bufferSize,
+      IoBufferBudget.Reservation reservation) {
+    this.out = out;
+    this.executor = executor;
+    this.bufferSize = bufferSize;
+    this.reservation = reservation;
+  }
+
+  /**
+   * @return the memory to reserve for a stream with the given buffer size
+   */
+  public static long getReservation(int bufferSize) {
+    return 2L * bufferSize;
+  }
+
+  @Override
+  public void write(int b) throws IOException {
+    ensureRemaining();
+    current.put((byte) b);
+  }
+
+  @Override
+  public void write(byte[] b, int off, int len) throws IOException {
+    while (len > 0) {
+      ensureRemaining();
+      final int length = Math.min(len, current.remaining());
+      current.put(b, off, length);
+      off += length;
+      len -= length;
+    }
+  }
+
+  @Override
+  public int write(ArrowBuf buf) throws IOException {
+    final long length = buf.readableBytes();
+    long index = buf.readerIndex();
+    long remaining = length;
+    while (remaining > 0) {
+      ensureRemaining();
+      final int chunk = (int) Math.min(remaining, current.remaining());
+      current.limit(current.position() + chunk);
+      buf.getBytes(index, current);
+      current.limit(current.capacity());
+      index += chunk;
+      remaining -= chunk;
+    }
+    return (int) length;
+  }
+
+  @Override
+  public void flush() throws IOException {
+    if (current != null && current.position() > 0) {
+      writeCurrent();
+    }
+    awaitPendingWrite();
+    out.flush();
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    try {
+      flush();
+    } finally {
+      try {
+        out.close();
+      } finally {
+        release();
+      }
+    }
+  }
+
+  private void ensureRemaining() throws IOException {
+    if (current == null) {
+      current = allocate();
+      spare = allocate();
+    } else if (!current.hasRemaining()) {
+      writeCurrent();
+    }
+  }
+
+  private ByteBuffer allocate() {
+    return out instanceof WritesByteBuffer ? ByteBuffer.allocateDirect(bufferSize) : ByteBuffer.allocate(bufferSize);
+  }
+
+  /**
+   * Hands the current buffer to the I/O thread, and switches to the other buffer once its write completed.
+   */
+  private void writeCurrent() throws IOException {
+    awaitPendingWrite();
+
+    final ByteBuffer buffer = current;
+    buffer.flip();
+    pendingWrite = BackgroundIoTask.submit(() -> {
+      if (out instanceof WritesByteBuffer) {
+        ((WritesByteBuffer) out).write(buffer);
+      } else {
+        out.write(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+      }
+      return null;
+    }, executor);
+
+    current = spare;
+    current.clear();
+    spare = buffer;
+  }
+
+  private void awaitPendingWrite() throws IOException {
+    if (pendingWrite != null) {
+      // a failed write stays pending, so that it fails the following writes too
+      pendingWrite.await("writing spill data");
+      pendingWrite = null;
+    }
+  }
+
+  private void release() {
+    // a buffer can't be freed, nor its memory released, while an I/O thread is writing it
+    if (pendingWrite != null && !pendingWrite.cancel()) {
+      pendingWrite.awaitUninterruptibly();
+    }
+    pendingWrite = null;
+    if (current != null && current.isDirect()) {
+      PlatformDependent.freeDirectBuffer(current);
+      PlatformDependent.freeDirectBuffer(spare);
+    }
+    current = null;
+    spare = null;
+    reservation.close();
+  }
+}
@@ -29,6 +29,8 @@ public class DefaultSpillServiceOptions implements SpillServiceOptions {
   public static final long HEALTH_CHECK_INTERVAL = 60 * 1000;
   public static final long SPILL_SWEEP_INTERVAL = 60 * 60 * 1000;             // spill sweep once an hour
   public static final long SPILL_SWEEP_THRESHOLD = 7L * 24 * 60 * 60 * 1000;  // remove spills older than one week
+  public static final int IO_THREADS = 4;
+  public static final long IO_BUFFER_MEMORY = 64 * 1024 * 1024;
 
   @VisibleForTesting
   public DefaultSpillServiceOptions() {}
@@ -62,4 +64,14 @@ public class DefaultSpillServiceOptions implements SpillServiceOptions {
   public long spillSweepThreshold() {
     return SPILL_SWEEP_THRESHOLD;
   }
+
+  @Override
+  public int ioThreads() {
+    return IO_THREADS;
+  }
+
+  @Override
+  public long ioBufferMemory() {
+    return IO_BUFFER_MEMORY;
+  }
 }
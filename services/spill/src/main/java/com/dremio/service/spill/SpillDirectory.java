@@ -24,10 +24,16 @@ import org.apache.hadoop.fs.Path;
 public final class SpillDirectory {
   private final Path spillDirPath;
   private final FileSystem fileSystem;
+  private final SpillDirectoryUsage usage;
 
   public SpillDirectory(Path spillDir, FileSystem fileSystem) {
+    this(spillDir, fileSystem, new SpillDirectoryUsage(spillDir.toString()));
+  }
+
+  public SpillDirectory(Path spillDir, FileSystem fileSystem, SpillDirectoryUsage usage) {
     this.spillDirPath = spillDir;
     this.fileSystem = fileSystem;
+    this.usage = usage;
   }
 
   public Path getSpillDirPath() {
@@ -38,6 +44,14 @@ public final class SpillDirectory {
     return fileSystem;
   }
 
+  /**
+   * Usage of the spill directory containing this sub-directory. Spill files written and read in this sub-directory
+   * should be reported to it
+   */
+  public SpillDirectoryUsage getUsage() {
+    return usage;
+  }
+
   @Override
   public String toString() {
     return spillDirPath.toString();
@@ -0,0 +1,142 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.service.spill;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tracks the spill files being written and read in a spill directory, the bytes being written to them, and the
+ * time spent on them.
+ * Used by the spill service to place new spill files on the least loaded directory.
+ */
+public final class SpillDirectoryUsage {
+  private final String path;
+  private final AtomicInteger activeWrites = new AtomicInteger();
+  private final AtomicInteger activeReads = new AtomicInteger();
+  private final AtomicLong spillFiles = new AtomicLong();
+  private final AtomicLong bytesInFlight = new AtomicLong();
+  private final AtomicLong bytesWritten = new AtomicLong();
+  private final AtomicLong writeNanos = new AtomicLong();
+  private final AtomicLong bytesRead = new AtomicLong();
+  private final AtomicLong readNanos = new AtomicLong();
+  private volatile boolean healthy = true;
+
+  public SpillDirectoryUsage(String path) {
+    this.path = path;
+  }
+
+  /**
+   * A spill file started being written in this directory
+   */
+  public void writeStarted() {
+    activeWrites.incrementAndGet();
+    spillFiles.incrementAndGet();
+  }
+
+  /**
+   * Bytes were written to a spill file still being written in this directory
+   * @param bytes number of bytes written since the last report
+   */
+  public void writeProgressed(long bytes) {
+    bytesInFlight.addAndGet(bytes);
+  }
+
+  /**
+   * A spill file was written in this directory
+   * @param bytes number of bytes written, all of which must have been reported through {@link #writeProgressed(long)}
+   * @param nanos time spent writing
+   */
+  public void writeCompleted(long bytes, long nanos) {
+    activeWrites.decrementAndGet();
+    bytesInFlight.addAndGet(-bytes);
+    bytesWritten.addAndGet(bytes);
+    writeNanos.addAndGet(nanos);
+  }
+
+  /**
+   * A spill file started being read from this directory
+   */
+  public void readStarted() {
+    activeReads.incrementAndGet();
+  }
+
+  /**
+   * A spill file was read from this directory
+   * @param bytes number of bytes read
+   * @param nanos time spent reading
+   */
+  public void readCompleted(long bytes, long nanos) {
+    activeReads.decrementAndGet();
+    bytesRead.addAndGet(bytes);
+    readNanos.addAndGet(nanos);
+  }
+
+  void setHealthy(boolean healthy) {
+    this.healthy = healthy;
+  }
+
+  /**
+   * Number of spill files currently written to or read from this directory
+   */
+  int getActiveIO() {
+    return activeWrites.get() + activeReads.get();
+  }
+
+  public String getPath() {
+    return path;
+  }
+
+  public boolean isHealthy() {
+    return healthy;
+  }
+
+  public int getActiveWrites() {
+    return activeWrites.get();
+  }
+
+  public int getActiveReads() {
+    return activeReads.get();
+  }
+
+  public long getSpillFiles() {
+    return spillFiles.get();
+  }
+
+  /**
+   * Number of bytes written to the spill files currently being written in this directory
+   */
+  public long getBytesInFlight() {
+    return bytesInFlight.get();
+  }
+
+  public long getBytesWritten() {
+    return bytesWritten.get();
+  }
+
+  public long getWriteMillis() {
+    return TimeUnit.NANOSECONDS.toMillis(writeNanos.get());
+  }
+
+  public long getBytesRead() {
+    return bytesRead.get();
+  }
+
+  public long getReadMillis() {
+    return TimeUnit.NANOSECONDS.toMillis(readNanos.get());
+  }
+}
@@ -15,7 +15,11 @@
  */
 package com.dremio.service.spill;
 
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+
 import com.dremio.common.exceptions.UserException;
+import com.dremio.exec.store.IoBufferBudget;
 import com.dremio.service.Service;
 
 /**
@@ -49,4 +53,20 @@ public interface SpillService extends Service {
    */
   @Deprecated
   SpillDirectory getSpillSubdir(String id) throws UserException;
+
+  /**
+   * Returns the usage of each of the spill directories
+   */
+  List<SpillDirectoryUsage> getSpillDirectoryUsage();
+
+  /**
+   * Returns the pool of threads writing and reading spill files in the background
+   * @return the I/O pool, or null if spill files are written and read by the threads spilling
+   */
+  ExecutorService getIoExecutor();
+
+  /**
+   * Returns the memory available to the buffers of the spill files written or read in the background
+   */
+  IoBufferBudget getIoBufferBudget();
 }
@@ -19,9 +19,15 @@ import java.io.File;
 import java.io.IOException;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.inject.Provider;
 
@@ -33,8 +39,10 @@ import org.apache.hadoop.fs.RemoteIterator;
 import org.apache.hadoop.fs.permission.FsAction;
 import org.apache.hadoop.fs.permission.FsPermission;
 
+import com.dremio.common.concurrent.NamedThreadFactory;
 import com.dremio.common.exceptions.UserException;
 import com.dremio.config.DremioConfig;
+import com.dremio.exec.store.IoBufferBudget;
 import com.dremio.exec.store.LocalSyncableFileSystem;
 import com.dremio.service.scheduler.Cancellable;
 import com.dremio.service.scheduler.Schedule;
@@ -72,9 +80,14 @@ public class SpillServiceImpl implements SpillService {
   private long spillSweepThreshold;
 
   private final Map<String, StreamInfo> spillStreams;
+  private final Map<String, SpillDirectoryUsage> spillDirUsage;
+  // first spill directory considered among equally loaded ones, advanced on every placement
+  private final AtomicInteger nextSpillDir = new AtomicInteger();
   // NB: healthySpillDirs set by a background task, and used by users fo SpillServiceImpl
   private volatile ArrayList<String> healthySpillDirs;
   private Cancellable healthCheckTask;
+  private ExecutorService ioExecutor;
+  private IoBufferBudget ioBufferBudget;
 
   /**
    * Create the spill service
@@ -84,6 +97,10 @@ public class SpillServiceImpl implements SpillService {
   public SpillServiceImpl(DremioConfig config, SpillServiceOptions options, final Provider<SchedulerService> schedulerService) {
     this.spillDirs = new ArrayList<>(config.getStringList(DremioConfig.SPILLING_PATH_STRING));
     this.spillStreams = new HashMap<>();
+    this.spillDirUsage = new LinkedHashMap<>();
+    for (String spillDir : this.spillDirs) {
+      spillDirUsage.put(spillDir, new SpillDirectoryUsage(spillDir));
+    }
     this.options = options;
     this.schedulerService = schedulerService;
     // Option values set at start
@@ -109,14 +126,18 @@ public class SpillServiceImpl implements SpillService {
   public void start() throws Exception {
     // TODO: Implement the following:
     // TODO: 1. global pool of compression buffers
-    // TODO: 2. pool of I/O completion threads (Note: for local FS only)
-    // TODO: 3. create the spill filesystem adapter
+    // TODO: 2. create the spill filesystem adapter
     minDiskSpace = options.minDiskSpace();
     minDiskSpacePercentage = options.minDiskSpacePercentage();
     healthCheckInterval = options.healthCheckInterval();
     healthCheckEnabled = healthCheckEnabled && options.enableHealthCheck();
     spillSweepInterval = options.spillSweepInterval();
     spillSweepThreshold = options.spillSweepThreshold();
+    final int ioThreads = options.ioThreads();
+    if (ioThreads > 0) {
+      ioExecutor = Executors.newFixedThreadPool(ioThreads, new NamedThreadFactory("spill-io-"));
+      ioBufferBudget = new IoBufferBudget(options.ioBufferMemory());
+    }
 
     // Create spill directories, in case it doesn't already exist
     assert healthySpillDirs.isEmpty();
@@ -146,6 +167,21 @@ public class SpillServiceImpl implements SpillService {
 
   @Override
   public void close() throws Exception {
+    if (ioExecutor != null) {
+      // pending writes complete, as the spill streams using them wait for them before closing
+      ioExecutor.shutdown();
+      ioExecutor = null;
+    }
+  }
+
+  @Override
+  public ExecutorService getIoExecutor() {
+    return ioExecutor;
+  }
+
+  @Override
+  public IoBufferBudget getIoBufferBudget() {
+    return ioBufferBudget;
   }
 
   @Override
@@ -190,27 +226,41 @@ public class SpillServiceImpl implements SpillService {
     }
   }
 
+  /**
+   * Returns the spill sub-directory on the least loaded (healthy) spill directory. Spill directories are ordered by
+   * the number of spill files being written to or read from them, then by the bytes being written to them. Equally
+   * loaded directories are taken in turn, so spill files written one after another are spread across the spill
+   * directories
+   */
   @Override
   public SpillDirectory getSpillSubdir(String id) throws UserException {
-    ArrayList<String> currentSpillDirs = Lists.newArrayList(spillDirs);
-    while (!currentSpillDirs.isEmpty()) {
-      // pick a random spill directory
-      final int index = ThreadLocalRandom.current().nextInt(currentSpillDirs.size());
-      final String spillDir = currentSpillDirs.get(index);
-
-      final Path spillDirPath = new Path(spillDir);
-      if (isHealthy(spillDirPath)) {
+    final List<SpillDirCandidate> candidates = Lists.newArrayList();
+    for (SpillDirectoryUsage usage : spillDirUsage.values()) {
+      candidates.add(new SpillDirCandidate(usage));
+    }
+    // round-robin among equally loaded directories: rotate, then rely on the sort being stable
+    if (!candidates.isEmpty()) {
+      final int first = Math.floorMod(nextSpillDir.getAndIncrement(), candidates.size());
+      Collections.rotate(candidates, -first);
+    }
+    candidates.sort(Comparator.comparingInt((SpillDirCandidate c) -> c.activeIO)
+      .thenComparingLong(c -> c.bytesInFlight));
+
+    for (SpillDirCandidate candidate : candidates) {
+      final SpillDirectoryUsage usage = candidate.usage;
+      final Path spillDirPath = new Path(usage.getPath());
+      final boolean healthy = isHealthy(spillDirPath);
+      usage.setHealthy(healthy);
+      if (healthy) {
         try {
-          //TODO: track number of spills created in 'spillDir'
           FileSystem fileSystem = spillDirPath.getFileSystem(SPILLING_CONFIG);
           final Path spillSubdir = new Path(spillDirPath, id);
-          return new SpillDirectory(spillSubdir, fileSystem);
+          return new SpillDirectory(spillSubdir, fileSystem, usage);
         } catch (IOException e) {
           // Ignore this 'spillDir'. Still consider the others
         }
       }
       // Hm... 'spillDir' didn't work out. Let's consider the others
-      currentSpillDirs.remove(index);
     }
     // TODO: withContextParameters()
     throw UserException.dataWriteError()
@@ -220,6 +270,11 @@ public class SpillServiceImpl implements SpillService {
       .build(logger);
   }
 
+  @Override
+  public List<SpillDirectoryUsage> getSpillDirectoryUsage() {
+    return Lists.newArrayList(spillDirUsage.values());
+  }
+
   private boolean isHealthy(Path spillDirPath) {
     if (healthCheckEnabled) {
       final File disk = new File(Path.getPathWithoutSchemeAndAuthority(spillDirPath).toString());
@@ -241,6 +296,21 @@ public class SpillServiceImpl implements SpillService {
     return DREMIO_LOCAL_SCHEME.equals(scheme) || LOCAL_SCHEME.equals(scheme);
   }
 
+  /**
+   * Load of a spill directory, as of the time a spill sub-directory is requested
+   */
+  private static final class SpillDirCandidate {
+    private final SpillDirectoryUsage usage;
+    private final int activeIO;
+    private final long bytesInFlight;
+
+    SpillDirCandidate(SpillDirectoryUsage usage) {
+      this.usage = usage;
+      this.activeIO = usage.getActiveIO();
+      this.bytesInFlight = usage.getBytesInFlight();
+    }
+  }
+
   /**
    * Information maintained for every stream in the spill service
    */
@@ -287,7 +357,9 @@ public class SpillServiceImpl implements SpillService {
       ArrayList<String> currentSpillDirs = spillDirs;
       for (String spillDir : currentSpillDirs) {
         final Path spillDirPath = new Path(spillDir);
-        if (isHealthy(spillDirPath)) {
+        final boolean healthy = isHealthy(spillDirPath);
+        spillDirUsage.get(spillDir).setHealthy(healthy);
+        if (healthy) {
           newHealthySpillDirs.add(spillDir);
         }
       }
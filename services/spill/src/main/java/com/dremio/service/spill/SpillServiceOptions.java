@@ -55,4 +55,16 @@ public interface SpillServiceOptions {
    * will be erased. This is useful for limiting the detritus remaining from unresponsive spill drives.
    */
   long spillSweepThreshold();
+
+  /**
+   * Number of threads writing and reading spill files in the background. When 0, spill files are written and read
+   * by the threads spilling
+   */
+  int ioThreads();
+
+  /**
+   * Memory of the buffers of all the spill files written or read in the background. Spill files are written and read
+   * by the threads spilling once it is used up
+   */
+  long ioBufferMemory();
 }
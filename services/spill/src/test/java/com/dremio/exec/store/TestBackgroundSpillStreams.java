@@ -0,0 +1,243 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.dremio.exec.store.LocalSyncableFileSystem.WritesByteBuffer;
+import com.google.common.io.ByteStreams;
+
+/**
+ * Tests for {@link WriteBehindOutputStream} and {@link ReadAheadInputStream}
+ */
+public class TestBackgroundSpillStreams {
+  private static final int BUFFER_SIZE = 100;
+
+  private ExecutorService executor;
+  private IoBufferBudget budget;
+
+  @Before
+  public void setup() {
+    executor = Executors.newFixedThreadPool(2);
+    budget = new IoBufferBudget(Long.MAX_VALUE);
+  }
+
+  @After
+  public void cleanup() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void testRoundTrip() throws Exception {
+    roundTrip(executor);
+    assertEquals(0, budget.getReserved());
+  }
+
+  @Test
+  public void testRoundTripWithoutIoThreads() throws Exception {
+    // the I/O threads never pick up the tasks, the caller does the I/O when waiting for it
+    roundTrip(task -> { });
+  }
+
+  @Test
+  public void testWriteByteBuffers() throws Exception {
+    final byte[] data = newData();
+    final ByteArrayOutputStream file = new ByteArrayOutputStream();
+    final OutputStream sink = new ByteBufferSink(file);
+
+    try (OutputStream out = newOutputStream(sink, executor)) {
+      out.write(data);
+    }
+    assertArrayEquals(data, file.toByteArray());
+  }
+
+  @Test
+  public void testReadAheadStartsOnFirstRead() throws Exception {
+    final AtomicBoolean read = new AtomicBoolean();
+    final InputStream file = new ByteArrayInputStream(newData()) {
+      @Override
+      public synchronized int read(byte[] b, int off, int len) {
+        read.set(true);
+        return super.read(b, off, len);
+      }
+    };
+
+    try (InputStream in = newInputStream(file, executor)) {
+      assertFalse(read.get());
+      in.read();
+    }
+    assertEquals(0, budget.getReserved());
+  }
+
+  @Test
+  public void testBudget() {
+    final IoBufferBudget budget = new IoBufferBudget(3 * BUFFER_SIZE);
+    final IoBufferBudget.Reservation reservation = budget.tryReserve(2 * BUFFER_SIZE);
+    assertNull(budget.tryReserve(2 * BUFFER_SIZE));
+
+    reservation.close();
+    reservation.close();
+    assertEquals(0, budget.getReserved());
+    budget.tryReserve(2 * BUFFER_SIZE);
+    assertEquals(2 * BUFFER_SIZE, budget.getReserved());
+  }
+
+  @Test
+  public void testWriteFailureSurfaced() throws Exception {
+    final OutputStream failing = new OutputStream() {
+      @Override
+      public void write(int b) throws IOException {
+        throw new IOException("disk full");
+      }
+    };
+
+    final OutputStream out = newOutputStream(failing, executor);
+    out.write(new byte[BUFFER_SIZE + 1]);
+    try {
+      out.close();
+      fail("write failure was not surfaced");
+    } catch (IOException e) {
+      assertEquals("disk full", e.getCause().getMessage());
+    }
+  }
+
+  @Test
+  public void testCloseWaitsForPendingWrite() throws Exception {
+    final CountDownLatch writeStarted = new CountDownLatch(1);
+    final CountDownLatch unblockWrite = new CountDownLatch(1);
+    final AtomicBoolean written = new AtomicBoolean();
+    final OutputStream blocking = new ByteBufferSink(new ByteArrayOutputStream()) {
+      @Override
+      public void write(ByteBuffer buffer) throws IOException {
+        writeStarted.countDown();
+        try {
+          unblockWrite.await();
+        } catch (InterruptedException e) {
+          throw new InterruptedIOException();
+        }
+        super.write(buffer);
+        written.set(true);
+      }
+    };
+
+    final OutputStream out = newOutputStream(blocking, executor);
+    out.write(new byte[BUFFER_SIZE + 1]);
+    writeStarted.await();
+    new Thread(() -> {
+      try {
+        Thread.sleep(100);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      unblockWrite.countDown();
+    }).start();
+
+    // the wait for the write fails, the buffers are still released only once the write completed
+    Thread.currentThread().interrupt();
+    try {
+      out.close();
+      fail("interrupt was not surfaced");
+    } catch (InterruptedIOException e) {
+      // expected
+    } finally {
+      Thread.interrupted();
+    }
+    assertTrue(written.get());
+    assertEquals(0, budget.getReserved());
+  }
+
+  private void roundTrip(Executor executor) throws IOException {
+    final byte[] data = newData();
+
+    final ByteArrayOutputStream file = new ByteArrayOutputStream();
+    try (OutputStream out = newOutputStream(file, executor)) {
+      out.write(data[0]);
+      out.write(data, 1, 3 * BUFFER_SIZE);
+      out.write(data, 3 * BUFFER_SIZE + 1, data.length - 3 * BUFFER_SIZE - 1);
+    }
+    assertArrayEquals(data, file.toByteArray());
+
+    try (InputStream in = newInputStream(new ByteArrayInputStream(file.toByteArray()), executor)) {
+      final byte[] read = new byte[data.length];
+      read[0] = (byte) in.read();
+      ByteStreams.readFully(in, read, 1, read.length - 1);
+      assertArrayEquals(data, read);
+      assertEquals(-1, in.read());
+    }
+  }
+
+  private static byte[] newData() {
+    final byte[] data = new byte[10 * BUFFER_SIZE + 17];
+    new Random(0).nextBytes(data);
+    return data;
+  }
+
+  private OutputStream newOutputStream(OutputStream out, Executor executor) {
+    return new WriteBehindOutputStream(out, executor, BUFFER_SIZE,
+      budget.tryReserve(WriteBehindOutputStream.getReservation(BUFFER_SIZE)));
+  }
+
+  private InputStream newInputStream(InputStream in, Executor executor) {
+    return new ReadAheadInputStream(in, executor, BUFFER_SIZE,
+      budget.tryReserve(ReadAheadInputStream.getReservation(BUFFER_SIZE)));
+  }
+
+  /**
+   * Only accepts nio buffers, as a local spill file written in the background.
+   */
+  private static class ByteBufferSink extends OutputStream implements WritesByteBuffer {
+    private final OutputStream out;
+
+    private ByteBufferSink(OutputStream out) {
+      this.out = out;
+    }
+
+    @Override
+    public void write(ByteBuffer buffer) throws IOException {
+      final byte[] bytes = new byte[buffer.remaining()];
+      buffer.get(bytes);
+      out.write(bytes);
+    }
+
+    @Override
+    public void write(int b) {
+      throw new UnsupportedOperationException();
+    }
+  }
+}
@@ -21,6 +21,10 @@ import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 
 import javax.inject.Provider;
 
@@ -127,4 +131,84 @@ public class TestSpillService {
 
     spillService.close();
   }
+
+  /**
+   * Spill files are placed on the spill directory with the fewest spill files being written
+   */
+  @Test
+  public void testLeastLoadedSpillDir() throws Exception {
+    final DremioConfig config = mock(DremioConfig.class);
+    final File spillDir1 = spillParentDir.newFolder();
+    final File spillDir2 = spillParentDir.newFolder();
+    when(config.getStringList(DremioConfig.SPILLING_PATH_STRING))
+      .thenReturn(ImmutableList.of(spillDir1.getPath(), spillDir2.getPath()));
+    final SpillService spillService = new SpillServiceImpl(config, new TestSpillServiceOptions(),
+      () -> new NoopScheduler());
+    spillService.start();
+
+    final SpillDirectory first = spillService.getSpillSubdir("test");
+    first.getUsage().writeStarted();
+    final SpillDirectory second = spillService.getSpillSubdir("test");
+    assertNotEquals(first.getUsage().getPath(), second.getUsage().getPath());
+    second.getUsage().writeStarted();
+
+    first.getUsage().writeProgressed(1024);
+    first.getUsage().writeCompleted(1024, 1);
+    assertEquals(first.getUsage().getPath(), spillService.getSpillSubdir("test").getUsage().getPath());
+    second.getUsage().writeProgressed(1024);
+    second.getUsage().writeCompleted(1024, 1);
+
+    assertEquals(2, spillService.getSpillDirectoryUsage().size());
+    for (SpillDirectoryUsage usage : spillService.getSpillDirectoryUsage()) {
+      assertEquals(0, usage.getActiveWrites());
+      assertEquals(0, usage.getBytesInFlight());
+      assertEquals(1, usage.getSpillFiles());
+      assertEquals(1024, usage.getBytesWritten());
+    }
+
+    spillService.close();
+  }
+
+  /**
+   * Spill files written one after another are spread across the spill directories, and among directories with as
+   * many spill files being written, the one with the fewest bytes being written is picked
+   */
+  @Test
+  public void testSequentialSpillsSpread() throws Exception {
+    final DremioConfig config = mock(DremioConfig.class);
+    final File spillDir1 = spillParentDir.newFolder();
+    final File spillDir2 = spillParentDir.newFolder();
+    final File spillDir3 = spillParentDir.newFolder();
+    when(config.getStringList(DremioConfig.SPILLING_PATH_STRING))
+      .thenReturn(ImmutableList.of(spillDir1.getPath(), spillDir2.getPath(), spillDir3.getPath()));
+    final SpillService spillService = new SpillServiceImpl(config, new TestSpillServiceOptions(),
+      () -> new NoopScheduler());
+    spillService.start();
+
+    // each spill file is completely written before the next one is placed, as a sort does with its runs
+    final Set<String> usedDirs = new HashSet<>();
+    for (int i = 0; i < 6; i++) {
+      final SpillDirectory spillDirectory = spillService.getSpillSubdir("test");
+      usedDirs.add(spillDirectory.getUsage().getPath());
+      spillDirectory.getUsage().writeStarted();
+      spillDirectory.getUsage().writeProgressed(1024);
+      spillDirectory.getUsage().writeCompleted(1024, 1);
+    }
+    assertEquals(3, usedDirs.size());
+    for (SpillDirectoryUsage usage : spillService.getSpillDirectoryUsage()) {
+      assertEquals(2, usage.getSpillFiles());
+    }
+
+    // one spill file being written on each directory: the next file goes where the fewest bytes are in flight
+    final List<SpillDirectory> writing = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      final SpillDirectory spillDirectory = spillService.getSpillSubdir("test");
+      spillDirectory.getUsage().writeStarted();
+      spillDirectory.getUsage().writeProgressed(i == 1 ? 1024 : 4096);
+      writing.add(spillDirectory);
+    }
+    assertEquals(writing.get(1).getUsage().getPath(), spillService.getSpillSubdir("test").getUsage().getPath());
+
+    spillService.close();
+  }
 }